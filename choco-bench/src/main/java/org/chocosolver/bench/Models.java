@@ -0,0 +1,171 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.bench;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Task;
+
+import java.util.Random;
+
+/**
+ * A factory of the models used in benchmarks.
+ * Instances are generated with a fixed seed, so that two runs work on the same problems.
+ * In each model, the decision variables can be accessed through the hook name "vars".
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class Models {
+
+    private static final long SEED = 0;
+
+    private Models() {
+    }
+
+    /**
+     * Creates a model by its name.
+     *
+     * @param name one of "queens", "golomb", "rcpsp" or "table"
+     * @param size size of the problem
+     * @return a solve-ready model
+     */
+    public static Model make(String name, int size) {
+        switch (name) {
+            case "queens":
+                return queens(size);
+            case "golomb":
+                return golomb(size);
+            case "rcpsp":
+                return rcpsp(size);
+            case "table":
+                return table(size);
+            default:
+                throw new IllegalArgumentException("Unknown model: " + name);
+        }
+    }
+
+    /**
+     * Creates a n-Queen problem with three allDifferent constraints.
+     *
+     * @param n number of queens
+     * @return a solve-ready model
+     */
+    public static Model queens(int n) {
+        Model model = new Model("queens");
+        IntVar[] q = model.intVarArray("Q", n, 1, n, false);
+        IntVar[] d1 = new IntVar[n];
+        IntVar[] d2 = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            d1[i] = model.intOffsetView(q[i], i);
+            d2[i] = model.intOffsetView(q[i], -i);
+        }
+        model.allDifferent(q, "AC").post();
+        model.allDifferent(d1, "BC").post();
+        model.allDifferent(d2, "BC").post();
+        model.addHook("vars", q);
+        return model;
+    }
+
+    /**
+     * Creates a Golomb ruler problem with m marks, the length of the ruler is minimized.
+     *
+     * @param m number of marks
+     * @return a solve-ready model
+     */
+    public static Model golomb(int m) {
+        Model model = new Model("golomb");
+        int ub = (m < 31) ? (1 << (m + 1)) - 1 : 9999;
+        IntVar[] ticks = model.intVarArray("a", m, 0, ub, false);
+        IntVar[] diffs = model.intVarArray("d", (m * m - m) / 2, 0, ub, false);
+        model.arithm(ticks[0], "=", 0).post();
+        for (int i = 0; i < m - 1; i++) {
+            model.arithm(ticks[i + 1], ">", ticks[i]).post();
+        }
+        for (int k = 0, i = 0; i < m - 1; i++) {
+            for (int j = i + 1; j < m; j++, k++) {
+                model.arithm(ticks[j], "-", ticks[i], "=", diffs[k]).post();
+                model.arithm(diffs[k], ">=", (j - i) * (j - i + 1) / 2).post();
+            }
+        }
+        model.allDifferent(diffs, "BC").post();
+        if (m > 2) {
+            model.arithm(diffs[0], "<", diffs[diffs.length - 1]).post();
+        }
+        model.addHook("vars", ticks);
+        model.setObjective(Model.MINIMIZE, ticks[m - 1]);
+        return model;
+    }
+
+    /**
+     * Creates a random single resource RCPSP with n tasks, the makespan is minimized.
+     *
+     * @param n number of tasks
+     * @return a solve-ready model
+     */
+    public static Model rcpsp(int n) {
+        Random rnd = new Random(SEED);
+        Model model = new Model("rcpsp");
+        int capacity = 10;
+        int[] durations = new int[n];
+        int horizon = 0;
+        for (int i = 0; i < n; i++) {
+            durations[i] = 1 + rnd.nextInt(10);
+            horizon += durations[i];
+        }
+        IntVar[] starts = model.intVarArray("S", n, 0, horizon, true);
+        IntVar[] heights = new IntVar[n];
+        Task[] tasks = new Task[n];
+        for (int i = 0; i < n; i++) {
+            heights[i] = model.intVar(1 + rnd.nextInt(capacity / 2));
+            tasks[i] = model.taskVar(starts[i], durations[i]);
+        }
+        model.cumulative(tasks, heights, model.intVar(capacity)).post();
+        // random precedences
+        for (int i = 0; i < n; i++) {
+            int j = rnd.nextInt(n);
+            if (i < j) {
+                model.arithm(starts[i], "+", model.intVar(durations[i]), "<=", starts[j]).post();
+            }
+        }
+        IntVar makespan = model.intVar("makespan", 0, horizon, true);
+        IntVar[] ends = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            ends[i] = tasks[i].getEnd();
+        }
+        model.max(makespan, ends).post();
+        model.addHook("vars", starts);
+        model.setObjective(Model.MINIMIZE, makespan);
+        return model;
+    }
+
+    /**
+     * Creates a random problem made of ternary table constraints over n variables,
+     * each table is filtered with compact-table.
+     *
+     * @param n number of variables
+     * @return a solve-ready model
+     */
+    public static Model table(int n) {
+        Random rnd = new Random(SEED);
+        Model model = new Model("table");
+        int d = 10;
+        IntVar[] vars = model.intVarArray("X", n, 0, d - 1, false);
+        for (int i = 0; i < n; i++) {
+            Tuples tuples = new Tuples(true);
+            for (int t = 0; t < d * d * d / 2; t++) {
+                tuples.add(rnd.nextInt(d), rnd.nextInt(d), rnd.nextInt(d));
+            }
+            model.table(new IntVar[]{vars[i], vars[(i + 1) % n], vars[(i + 3) % n]}, tuples, "CT+").post();
+        }
+        model.addHook("vars", vars);
+        return model;
+    }
+}
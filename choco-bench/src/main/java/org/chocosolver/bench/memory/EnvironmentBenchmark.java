@@ -0,0 +1,120 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.bench.memory;
+
+import org.chocosolver.memory.EnvironmentBuilder;
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the environments on a shallow and wide search:
+ * on each node, a world is pushed, a part of the stored integers is modified, then the world is popped.
+ * The throughput of world push and pop alone, on a deep search modifying one integer per world,
+ * is measured by <code>deepPushPop</code>.
+ * <p>
+ * <code>flat</code> and <code>chunk</code> stand for trailing environments,
+ * respectively based on {@link org.chocosolver.memory.trailing.trail.flatten.StoredIntTrail} and
+ * {@link org.chocosolver.memory.trailing.trail.chunck.ChunckedIntTrail},
+ * <code>unsafe</code> stands for a trailing environment based on
+ * {@link org.chocosolver.memory.trailing.trail.unsafe.UnsafeIntTrail} and
+ * <code>copy</code> stands for {@link org.chocosolver.memory.copy.EnvironmentCopying}.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentBenchmark {
+
+    @Param({"flat", "chunk", "unsafe", "copy"})
+    public String environment;
+
+    /** Number of stored integers */
+    @Param({"1000", "100000"})
+    public int size;
+
+    /** Percentage of stored integers modified in each world */
+    @Param({"10", "50", "100"})
+    public int modified;
+
+    /** Depth of the search */
+    @Param({"4"})
+    public int depth;
+
+    private IEnvironment env;
+
+    private IStateInt[] ints;
+
+    private int step;
+
+    @Setup
+    public void setup() {
+        switch (environment) {
+            case "flat":
+                env = new EnvironmentBuilder().fromFlat().build();
+                break;
+            case "chunk":
+                env = new EnvironmentBuilder().fromChunk().build();
+                break;
+            case "unsafe":
+                env = new EnvironmentBuilder().fromUnsafe().build();
+                break;
+            case "copy":
+                env = new EnvironmentBuilder().buildCopying();
+                break;
+            default:
+                throw new IllegalArgumentException(environment);
+        }
+        ints = new IStateInt[size];
+        for (int i = 0; i < size; i++) {
+            ints[i] = env.makeInt(i);
+        }
+        step = Math.max(1, 100 / Math.max(1, modified));
+    }
+
+    @Benchmark
+    public int pushModifyPop() {
+        for (int d = 0; d < depth; d++) {
+            env.worldPush();
+            for (int i = d % step; i < size; i += step) {
+                ints[i].add(1);
+            }
+        }
+        env.worldPopUntil(0);
+        return ints[0].get();
+    }
+
+    @Benchmark
+    public int deepPushPop() {
+        final int worlds = Math.min(size, 1000);
+        for (int d = 0; d < worlds; d++) {
+            env.worldPush();
+            ints[d].add(1);
+        }
+        env.worldPopUntil(0);
+        return ints[0].get();
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.bench.propagation;
+
+import org.chocosolver.bench.Models;
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.propagation.BucketPropagationEngine;
+import org.chocosolver.solver.variables.IntVar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link org.chocosolver.solver.propagation.PropagationEngine#propagate()}.
+ * <ul>
+ * <li><code>initialPropagation</code>: the fix point of a freshly built model (the model creation is not measured),</li>
+ * <li><code>decisionPropagation</code>: the fix point reached after each assignment of the first variables
+ * to their smallest values, from the root node.</li>
+ * </ul>
+ * Each benchmark is run with the default propagation engine and with {@link BucketPropagationEngine}.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropagationBenchmark {
+
+    @State(Scope.Thread)
+    public abstract static class Problem {
+
+        @Param({"queens:64", "golomb:10", "rcpsp:60", "table:40"})
+        public String problem;
+
+        /** Propagation engine: the default one, or a {@link BucketPropagationEngine} (possibly cheapest first) */
+        @Param({"default", "bucket", "cheapest"})
+        public String engine;
+
+        Model model;
+
+        Solver solver;
+
+        IntVar[] vars;
+
+        void build() {
+            String[] p = problem.split(":");
+            model = Models.make(p[0], Integer.parseInt(p[1]));
+            solver = model.getSolver();
+            switch (engine) {
+                case "default":
+                    break;
+                case "bucket":
+                    solver.setEngine(new BucketPropagationEngine(model));
+                    break;
+                case "cheapest":
+                    solver.setEngine(new BucketPropagationEngine(model, true));
+                    break;
+                default:
+                    throw new IllegalArgumentException(engine);
+            }
+            vars = (IntVar[]) model.getHook("vars");
+        }
+    }
+
+    /**
+     * A model built before each call.
+     */
+    @State(Scope.Thread)
+    public static class Fresh extends Problem {
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            build();
+        }
+    }
+
+    /**
+     * A model propagated once at root node, shared by the calls.
+     */
+    @State(Scope.Thread)
+    public static class Root extends Problem {
+
+        /**
+         * Number of variables to assign in turn
+         */
+        @Param({"4"})
+        public int nbVars;
+
+        /**
+         * Number of values to assign to each variable
+         */
+        @Param({"8"})
+        public int nbValues;
+
+        @Setup(Level.Trial)
+        public void setup() throws ContradictionException {
+            build();
+            model.getEnvironment().worldPush();
+            solver.propagate();
+        }
+    }
+
+    @Benchmark
+    public boolean initialPropagation(Fresh p) {
+        try {
+            p.solver.propagate();
+            return true;
+        } catch (ContradictionException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public int decisionPropagation(Root p) {
+        IEnvironment env = p.model.getEnvironment();
+        int fails = 0;
+        for (int i = 0; i < p.nbVars && i < p.vars.length; i++) {
+            IntVar var = p.vars[i];
+            int ub = var.getUB();
+            int v = var.getLB();
+            for (int j = 0; j < p.nbValues && v <= ub; j++, v = var.nextValue(v)) {
+                env.worldPush();
+                try {
+                    var.instantiateTo(v, Cause.Null);
+                    p.solver.propagate();
+                } catch (ContradictionException e) {
+                    p.solver.getEngine().flush();
+                    fails++;
+                }
+                env.worldPop();
+            }
+        }
+        return fails;
+    }
+}
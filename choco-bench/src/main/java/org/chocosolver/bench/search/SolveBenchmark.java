@@ -0,0 +1,95 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.bench.search;
+
+import org.chocosolver.bench.Models;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.IntVar;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+
+/**
+ * Measures the number of nodes explored per second by {@link Solver#solve()}.
+ * The search strategy is static (input order, lower bound first),
+ * so that each run explores the same tree.
+ * Satisfaction problems are solved for all solutions, optimization problems to optimality,
+ * each run is limited to <code>nodes</code> nodes.
+ * <p>
+ * The number of nodes per second is reported as the secondary result <code>nodes</code>.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+
+    @State(Scope.Thread)
+    public static class Problem {
+
+        @Param({"queens:12", "golomb:9", "rcpsp:30", "table:30"})
+        public String problem;
+
+        /** Node limit of each run */
+        @Param({"100000"})
+        public long nodes;
+
+        Solver solver;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            String[] p = problem.split(":");
+            Model model = Models.make(p[0], Integer.parseInt(p[1]));
+            solver = model.getSolver();
+            solver.setSearch(inputOrderLBSearch((IntVar[]) model.getHook("vars")));
+            solver.limitNode(nodes);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Benchmark
+    public long solve(Problem p, Counters c) {
+        Solver solver = p.solver;
+        while (solver.solve()) {
+            // explore the entire search space
+        }
+        c.nodes += solver.getNodeCount();
+        return solver.getSolutionCount();
+    }
+}
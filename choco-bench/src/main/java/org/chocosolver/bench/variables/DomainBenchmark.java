@@ -0,0 +1,125 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.bench.variables;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.impl.BitsetIntVarImpl;
+import org.chocosolver.solver.variables.impl.IntervalIntVarImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the domain operations of {@link BitsetIntVarImpl} and {@link IntervalIntVarImpl}.
+ * Each call modifies the domain in a new world, which is popped at the end of the call,
+ * so that the measure includes the cost of trailing the domain.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainBenchmark {
+
+    @Param({"bitset", "interval"})
+    public String domain;
+
+    /** Size of the domain */
+    @Param({"64", "1024"})
+    public int size;
+
+    private IEnvironment env;
+
+    private IntVar var;
+
+    @Setup
+    public void setup() {
+        Model model = new Model();
+        env = model.getEnvironment();
+        switch (domain) {
+            case "bitset":
+                var = new BitsetIntVarImpl("x", 0, size - 1, model);
+                break;
+            case "interval":
+                var = new IntervalIntVarImpl("x", 0, size - 1, model);
+                break;
+            default:
+                throw new IllegalArgumentException(domain);
+        }
+    }
+
+    /**
+     * Shrinks the bounds of the domain, one value at a time, alternating lower and upper bounds.
+     */
+    @Benchmark
+    public int updateBounds() throws ContradictionException {
+        env.worldPush();
+        int lb = 0, ub = size - 1;
+        while (lb < ub) {
+            var.updateLowerBound(++lb, Cause.Null);
+            if (lb < ub) {
+                var.updateUpperBound(--ub, Cause.Null);
+            }
+        }
+        int r = var.getValue();
+        env.worldPop();
+        return r;
+    }
+
+    /**
+     * Removes one value out of two, then iterates over the remaining ones.
+     * Only bounds are effectively removed from an interval domain.
+     */
+    @Benchmark
+    public int removeAndIterate() throws ContradictionException {
+        env.worldPush();
+        for (int v = 0; v < size - 1; v += 2) {
+            var.removeValue(v, Cause.Null);
+        }
+        int sum = 0;
+        int ub = var.getUB();
+        for (int v = var.getLB(); v <= ub; v = var.nextValue(v)) {
+            sum += v;
+        }
+        env.worldPop();
+        return sum;
+    }
+
+    /**
+     * Checks membership of every value of the initial domain.
+     */
+    @Benchmark
+    public int contains() {
+        int n = 0;
+        for (int v = 0; v < size; v++) {
+            if (var.contains(v)) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
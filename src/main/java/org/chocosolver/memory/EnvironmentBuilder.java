@@ -8,10 +8,12 @@
  */
 package org.chocosolver.memory;
 
+import org.chocosolver.memory.copy.EnvironmentCopying;
 import org.chocosolver.memory.trailing.EnvironmentTrailing;
 import org.chocosolver.memory.trailing.trail.*;
 import org.chocosolver.memory.trailing.trail.chunck.*;
 import org.chocosolver.memory.trailing.trail.flatten.*;
+import org.chocosolver.memory.trailing.trail.unsafe.*;
 
 /**
  * <p>
@@ -177,6 +179,17 @@ public class EnvironmentBuilder {
         return env;
     }
 
+    /**
+     * Build a copying environment, where the backtrackable primitives are copied on each world push
+     * instead of being trailed.
+     * The trails declared in this builder are ignored,
+     * the maximum numbers of updates is used as the expected number of objects of each type.
+     * @return the resulting environment
+     */
+    public EnvironmentCopying buildCopying(){
+        return new EnvironmentCopying(worldsize, worldnumber, loadfactor);
+    }
+
     /**
      * Build a chunk environment
      * @return {@code this}
@@ -202,4 +215,19 @@ public class EnvironmentBuilder {
         setTrail(new OperationTrail(worldsize, worldnumber, loadfactor));
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Build an off-heap environment: former values of primitives are stored out of the heap,
+     * which reduces the garbage collection overhead on large trails.
+     * Operations are stored in a flat trail.
+     * @return {@code this}
+     */
+    public EnvironmentBuilder fromUnsafe(){
+        setTrail(new UnsafeBoolTrail(worldsize, worldnumber, loadfactor));
+        setTrail(new UnsafeIntTrail(worldsize, worldnumber, loadfactor));
+        setTrail(new UnsafeDoubleTrail(worldsize, worldnumber, loadfactor));
+        setTrail(new UnsafeLongTrail(worldsize, worldnumber, loadfactor));
+        setTrail(new OperationTrail(worldsize, worldnumber, loadfactor));
+        return this;
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copy;
+
+
+import org.chocosolver.memory.*;
+import org.chocosolver.memory.copy.store.StoredBoolCopy;
+import org.chocosolver.memory.copy.store.StoredDoubleCopy;
+import org.chocosolver.memory.copy.store.StoredIntCopy;
+import org.chocosolver.memory.copy.store.StoredLongCopy;
+import org.chocosolver.memory.structure.IOperation;
+import org.chocosolver.memory.trailing.trail.IOperationTrail;
+import org.chocosolver.memory.trailing.trail.flatten.OperationTrail;
+
+/**
+ * The root class for managing memory and sessions, by copy.
+ * <p/>
+ * A environment is associated to each problem.
+ * It is responsible for managing backtrackable data.
+ * <p/>
+ * Unlike {@link org.chocosolver.memory.trailing.EnvironmentTrailing}, modifications are not recorded one by one:
+ * on each world push, the current values of the backtrackable primitives are copied at once,
+ * and restored on world pop.
+ * This pays off when worlds are pushed and popped very frequently and most of the data is modified in each world.
+ * Operations (see {@link #save(IOperation)}) are still trailed.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class EnvironmentCopying extends AbstractEnvironment {
+
+    /**
+     * The expected number of objects of each type.
+     */
+    public static final int NBOBJECTS = 1024;
+
+    private final int nbObjects;
+    private final int nbWorlds;
+    private final double loadfactor;
+
+    private StoredIntCopy intCopy;
+    private StoredBoolCopy boolCopy;
+    private StoredLongCopy longCopy;
+    private StoredDoubleCopy doubleCopy;
+    private IOperationTrail operationTrail;
+
+    /**
+     * Contains all the {@link org.chocosolver.memory.IStorage} for
+     * storing different kinds of data.
+     */
+    private IStorage[] stores = new IStorage[0];
+    private int storeSize = 0;
+
+    /**
+     * Create a copying environment with default sizes.
+     */
+    public EnvironmentCopying() {
+        this(NBOBJECTS, 128, 2);
+    }
+
+    /**
+     * Create a copying environment.
+     *
+     * @param nObjects   expected number of objects of each type
+     * @param nWorlds    maximal number of worlds that will be stored
+     * @param loadfactor load factor for structures
+     */
+    public EnvironmentCopying(int nObjects, int nWorlds, double loadfactor) {
+        this.nbObjects = nObjects;
+        this.nbWorlds = nWorlds;
+        this.loadfactor = loadfactor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void worldPush() {
+        timestamp++;
+        final int wi = currentWorld + 1;
+        for (int i = 0; i < storeSize; i++) {
+            stores[i].worldPush(wi);
+        }
+        currentWorld++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void worldPop() {
+        timestamp++;
+        final int wi = currentWorld;
+        for (int i = storeSize - 1; i >= 0; i--) {
+            stores[i].worldPop(wi);
+        }
+        currentWorld--;
+        assert currentWorld >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void worldCommit() {
+        if (currentWorld == 0) {
+            throw new IllegalStateException("Commit in world 0?");
+        }
+        final int wi = currentWorld;
+        for (int i = storeSize - 1; i >= 0; i--) {
+            stores[i].worldCommit(wi);
+        }
+        currentWorld--;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateInt makeInt() {
+        return makeInt(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateInt makeInt(final int initialValue) {
+        return new RcInt(this, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateBool makeBool(final boolean initialValue) {
+        return new RcBool(this, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateIntVector makeIntVector(final int size, final int initialValue) {
+        return new RcIntVector(this, size, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateDoubleVector makeDoubleVector(final int size, final double initialValue) {
+        return new RcDoubleVector(this, size, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateDouble makeFloat() {
+        return makeFloat(Double.NaN);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateDouble makeFloat(final double initialValue) {
+        return new RcDouble(this, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateLong makeLong() {
+        return makeLong(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateLong makeLong(final long init) {
+        return new RcLong(this, init);
+    }
+
+    /**
+     * Declares a new store, which is brought up to date with the current world.
+     */
+    private <S extends IStorage> S addStore(S store) {
+        IStorage[] tmp = stores;
+        stores = new IStorage[tmp.length + 1];
+        System.arraycopy(tmp, 0, stores, 0, tmp.length);
+        stores[storeSize++] = store;
+        for (int w = 1; w <= currentWorld; w++) {
+            store.worldPush(w);
+        }
+        return store;
+    }
+
+    public StoredIntCopy getIntCopy() {
+        if (intCopy == null) {
+            intCopy = addStore(new StoredIntCopy(nbObjects, nbWorlds, loadfactor));
+        }
+        return intCopy;
+    }
+
+    public StoredBoolCopy getBoolCopy() {
+        if (boolCopy == null) {
+            boolCopy = addStore(new StoredBoolCopy(nbObjects, nbWorlds, loadfactor));
+        }
+        return boolCopy;
+    }
+
+    public StoredLongCopy getLongCopy() {
+        if (longCopy == null) {
+            longCopy = addStore(new StoredLongCopy(nbObjects, nbWorlds, loadfactor));
+        }
+        return longCopy;
+    }
+
+    public StoredDoubleCopy getDoubleCopy() {
+        if (doubleCopy == null) {
+            doubleCopy = addStore(new StoredDoubleCopy(nbObjects, nbWorlds, loadfactor));
+        }
+        return doubleCopy;
+    }
+
+    public IOperationTrail getOperationTrail() {
+        if (operationTrail == null) {
+            operationTrail = addStore(new OperationTrail(nbObjects, nbWorlds, loadfactor));
+        }
+        return operationTrail;
+    }
+
+    @Override
+    public void save(IOperation oldValue) {
+        getOperationTrail().savePreviousState(oldValue);
+    }
+}
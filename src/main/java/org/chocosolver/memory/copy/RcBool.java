@@ -0,0 +1,46 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copy;
+
+import org.chocosolver.memory.IStateBool;
+import org.chocosolver.memory.copy.store.StoredBoolCopy;
+
+
+/**
+ * A class implementing backtrackable boolean, restored by copy.
+ */
+public class RcBool extends IStateBool {
+
+    protected final StoredBoolCopy myStore;
+
+    /**
+     * Position of this in {@link #myStore}
+     */
+    protected final int index;
+
+    /**
+     * Constructs a stored search with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public RcBool(final EnvironmentCopying env, final boolean i) {
+        super(env, i);
+        myStore = env.getBoolCopy();
+        index = myStore.add(this, i, timeStamp, env.fakeHistoryNeeded());
+    }
+
+    /**
+     * Modifies the value, the former one is saved on next world push.
+     */
+    @Override
+    public final void set(final boolean y) {
+        currentValue = y;
+        myStore.set(index, y);
+    }
+}
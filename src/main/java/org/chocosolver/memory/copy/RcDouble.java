@@ -0,0 +1,46 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copy;
+
+import org.chocosolver.memory.IStateDouble;
+import org.chocosolver.memory.copy.store.StoredDoubleCopy;
+
+
+/**
+ * A class implementing backtrackable double, restored by copy.
+ */
+public class RcDouble extends IStateDouble {
+
+    protected final StoredDoubleCopy myStore;
+
+    /**
+     * Position of this in {@link #myStore}
+     */
+    protected final int index;
+
+    /**
+     * Constructs a stored search with an initial value.
+     * Note: this constructor should not be used directly: one should instead
+     * use the IEnvironment factory
+     */
+    public RcDouble(final EnvironmentCopying env, final double i) {
+        super(env, i);
+        myStore = env.getDoubleCopy();
+        index = myStore.add(this, i, timeStamp, env.fakeHistoryNeeded());
+    }
+
+    /**
+     * Modifies the value, the former one is saved on next world push.
+     */
+    @Override
+    public final void set(final double y) {
+        currentValue = y;
+        myStore.set(index, y);
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copy;
+
+import org.chocosolver.memory.IStateIntVector;
+
+/**
+ * Implements a backtrackable search vector, restored by copy.
+ * <p/>
+ * On the first modification in a world, the elements are copied at once,
+ * the copy is restored upon backtracking.
+ */
+public final class RcIntVector extends IStateIntVector {
+
+    /**
+     * The last world the elements were copied in.
+     */
+    private int lastCopy;
+
+    /**
+     * Constructs a stored search vector with an initial size, and initial values.
+     *
+     * @param env          The current environment.
+     * @param initialSize  The initial size.
+     * @param initialValue The initial common value.
+     */
+    public RcIntVector(EnvironmentCopying env, int initialSize, int initialValue) {
+        super(env, initialSize, initialValue);
+        lastCopy = env.getWorldIndex();
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        int oldCapacity = elementData.length;
+        if (minCapacity > oldCapacity) {
+            int[] oldData = elementData;
+            int newCapacity = (oldCapacity * 3) / 2 + 1;
+            if (newCapacity < minCapacity)
+                newCapacity = minCapacity;
+            elementData = new int[newCapacity];
+            System.arraycopy(oldData, 0, elementData, 0, size.get());
+        }
+    }
+
+    public void add(int i) {
+        int newsize = size.get() + 1;
+        ensureCapacity(newsize);
+        copyOnWrite();
+        size.set(newsize);
+        elementData[newsize - 1] = i;
+    }
+
+    public void removeLast() {
+        int newsize = size.get() - 1;
+        if (newsize >= 0)
+            size.set(newsize);
+    }
+
+    public int set(int index, int val) {
+        if (rangeCheck(index)) {
+            return quickSet(index, val);
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size.get());
+    }
+
+    @Override
+    public int quickSet(int index, int val) {
+        assert (rangeCheck(index));
+        final int oldValue = elementData[index];
+        if (val != oldValue) {
+            copyOnWrite();
+            elementData[index] = val;
+        }
+        return oldValue;
+    }
+
+    /**
+     * Copies the elements, if not done yet in the current world.
+     */
+    private void copyOnWrite() {
+        final int wi = environment.getWorldIndex();
+        if (lastCopy < wi) {
+            final int[] copy = new int[size.get()];
+            System.arraycopy(elementData, 0, copy, 0, copy.length);
+            final int stamp = lastCopy;
+            environment.save(() -> {
+                System.arraycopy(copy, 0, elementData, 0, copy.length);
+                lastCopy = stamp;
+            });
+            lastCopy = wi;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.copy.store;
+
+import org.chocosolver.memory.IStorage;
+import org.chocosolver.memory.copy.RcDouble;
+
+/**
+ * A store of backtrackable doubles, restored by copy.
+ * <p/>
+ * The current values of the objects are mirrored in a contiguous array.
+ * On world push, this array is copied at once,
+ * on world pop, the objects whose value differs from the copy are restored.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class StoredDoubleCopy implements IStorage {
+
+    /**
+     * Load factor
+     */
+    private final double loadfactor;
+
+    /**
+     * Objects of this store, in creation order.
+     */
+    private RcDouble[] objects;
+
+    /**
+     * Current value of each object.
+     */
+    private double[] values;
+
+    /**
+     * Value of each object on creation, to simulate history.
+     */
+    private double[] initials;
+
+    /**
+     * Number of objects in this store.
+     */
+    private int size;
+
+    /**
+     * Copies of {@link #values}, one per world: the i^th one is done when pushing world i + 1.
+     */
+    private double[][] copies;
+
+    /**
+     * Number of objects in each copy.
+     */
+    private int[] copySizes;
+
+    /**
+     * Constructs a store with predefined size.
+     *
+     * @param nObjects   expected number of objects that will be stored
+     * @param nWorlds    maximal number of worlds that will be stored
+     * @param loadfactor load factor for structures
+     */
+    public StoredDoubleCopy(int nObjects, int nWorlds, double loadfactor) {
+        objects = new RcDouble[nObjects];
+        values = new double[nObjects];
+        initials = new double[nObjects];
+        copies = new double[nWorlds][];
+        copySizes = new int[nWorlds];
+        this.loadfactor = loadfactor;
+    }
+
+    /**
+     * Adds an object to this store.
+     *
+     * @param o           the object to add
+     * @param initValue   its initial value
+     * @param world       the world where the object is created
+     * @param fakeHistory set to <tt>true</tt> to restore the object to its initial value when backtracking
+     *                    to a world older than <code>world</code>
+     * @return the position of the object in this store
+     */
+    public int add(RcDouble o, double initValue, int world, boolean fakeHistory) {
+        if (size == objects.length) {
+            resizeObjectCapacity((int) (objects.length * loadfactor) + 1);
+        }
+        objects[size] = o;
+        values[size] = initValue;
+        initials[size] = initValue;
+        size++;
+        if (fakeHistory) {
+            for (int w = 0; w < world; w++) {
+                extendCopy(w);
+            }
+        }
+        return size - 1;
+    }
+
+    /**
+     * Sets the current value of an object.
+     *
+     * @param index position of the object
+     * @param value its new value
+     */
+    public final void set(int index, double value) {
+        values[index] = value;
+    }
+
+    /**
+     * Copies the current values.
+     *
+     * @param worldIndex current world index
+     */
+    @Override
+    public void worldPush(int worldIndex) {
+        final int w = worldIndex - 1;
+        if (w == copies.length) {
+            resizeWorldCapacity((int) (copies.length * loadfactor) + 1);
+        }
+        if (copies[w] == null || copies[w].length < size) {
+            copies[w] = new double[values.length];
+        }
+        System.arraycopy(values, 0, copies[w], 0, size);
+        copySizes[w] = size;
+    }
+
+    /**
+     * Restores the values copied on last world push.
+     *
+     * @param worldIndex current world index
+     */
+    @Override
+    public void worldPop(int worldIndex) {
+        final int w = worldIndex - 1;
+        final double[] copy = copies[w];
+        for (int i = copySizes[w] - 1; i >= 0; i--) {
+            if (values[i] != copy[i]) {
+                values[i] = copy[i];
+                objects[i]._set(copy[i], w);
+            }
+        }
+    }
+
+    /**
+     * Comits a world: merging it with the previous one.
+     * Nothing to do, the copy made on world push is simply forgotten.
+     */
+    @Override
+    public void worldCommit(int worldIndex) {
+        // nothing to do
+    }
+
+    /**
+     * Makes the last object be part of the copy done when pushing world <code>w + 1</code>,
+     * with its initial value. The objects created since this copy are added too.
+     */
+    private void extendCopy(int w) {
+        int from = copySizes[w];
+        if (copies[w].length < size) {
+            double[] tmp = new double[values.length];
+            System.arraycopy(copies[w], 0, tmp, 0, from);
+            copies[w] = tmp;
+        }
+        System.arraycopy(initials, from, copies[w], from, size - from);
+        copySizes[w] = size;
+    }
+
+    private void resizeObjectCapacity(int newCapacity) {
+        RcDouble[] tmp1 = new RcDouble[newCapacity];
+        System.arraycopy(objects, 0, tmp1, 0, size);
+        objects = tmp1;
+        double[] tmp2 = new double[newCapacity];
+        System.arraycopy(values, 0, tmp2, 0, size);
+        values = tmp2;
+        double[] tmp3 = new double[newCapacity];
+        System.arraycopy(initials, 0, tmp3, 0, size);
+        initials = tmp3;
+    }
+
+    private void resizeWorldCapacity(int newWorldCapacity) {
+        double[][] tmp1 = new double[newWorldCapacity][];
+        System.arraycopy(copies, 0, tmp1, 0, copies.length);
+        copies = tmp1;
+        int[] tmp2 = new int[newWorldCapacity];
+        System.arraycopy(copySizes, 0, tmp2, 0, copySizes.length);
+        copySizes = tmp2;
+    }
+}
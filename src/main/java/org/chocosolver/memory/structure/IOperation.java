@@ -8,6 +8,8 @@
  */
 package org.chocosolver.memory.structure;
 
+import java.io.Serializable;
+
 /**
  * Generic interface used to undo modifications upon backtracking
  *
@@ -16,7 +18,7 @@ package org.chocosolver.memory.structure;
  * @author Charles Prud'homme, Jean-Guillaume Fages
  * @since 11/02/11
  */
-public interface IOperation {
+public interface IOperation extends Serializable {
 
 	/**
      * Method called by the environment upon backtracking, to undo this operation
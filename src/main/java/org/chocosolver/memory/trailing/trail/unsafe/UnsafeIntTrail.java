@@ -0,0 +1,239 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.memory.trailing.trail.unsafe;
+
+import org.chocosolver.memory.trailing.StoredInt;
+import org.chocosolver.memory.trailing.trail.IStoredIntTrail;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * A trail whose former values and timestamps are stored off-heap, in direct buffers.
+ * Only the stack of variables remains on the heap,
+ * which reduces the pressure on the garbage collector when the trail is large or is frequently resized.
+ * <p>
+ * The off-heap memory is released once the trail is garbage collected.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class UnsafeIntTrail implements IStoredIntTrail {
+
+    /**
+     * load factor
+     */
+    private final double loadfactor;
+
+    /**
+     * Stack of backtrackable search variables.
+     */
+    private StoredInt[] variableStack;
+
+
+    /**
+     * Stack of values (former values that need be restored upon backtracking).
+     */
+    private IntBuffer valueStack;
+
+
+    /**
+     * Stack of timestamps indicating the world where the former value
+     * had been written.
+     */
+    private IntBuffer stampStack;
+
+
+    /**
+     * Points the level of the last entry.
+     */
+    private int currentLevel;
+
+
+    /**
+     * A stack of pointers (for each start of a world).
+     */
+    private int[] worldStartLevels;
+
+
+    /**
+     * Constructs a trail with predefined size.
+     *
+     * @param nUpdates maximal number of updates that will be stored
+     * @param nWorlds  maximal number of worlds that will be stored
+     * @param loadfactor load factor for structures
+     */
+    public UnsafeIntTrail(int nUpdates, int nWorlds, double loadfactor) {
+        currentLevel = 0;
+        variableStack = new StoredInt[nUpdates];
+        valueStack = allocate(nUpdates, Integer.BYTES).asIntBuffer();
+        stampStack = allocate(nUpdates, Integer.BYTES).asIntBuffer();
+        worldStartLevels = new int[nWorlds];
+        this.loadfactor = loadfactor;
+    }
+
+    /**
+     * @param capacity number of elements
+     * @param bytes    size of an element, in bytes
+     * @return a direct buffer in native byte order, able to store <i>capacity</i> elements
+     */
+    private static ByteBuffer allocate(int capacity, int bytes) {
+        return ByteBuffer.allocateDirect(capacity * bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Moving up to the next world.
+     *
+     * @param worldIndex current world index
+     */
+    @Override
+    public void worldPush(int worldIndex) {
+        worldStartLevels[worldIndex] = currentLevel;
+        if (worldIndex == worldStartLevels.length - 1) {
+            resizeWorldCapacity((int) (worldStartLevels.length * loadfactor));
+        }
+    }
+
+
+    /**
+     * Moving down to the previous world.
+     *
+     * @param worldIndex current world index
+     */
+    @Override
+    public void worldPop(int worldIndex) {
+        final int wsl = worldStartLevels[worldIndex];
+        while (currentLevel > wsl) {
+            currentLevel--;
+            final StoredInt v = variableStack[currentLevel];
+            v._set(getValue(currentLevel), getStamp(currentLevel));
+        }
+    }
+
+
+    /**
+     * Returns the current size of the stack.
+     */
+    public int getSize() {
+        return currentLevel;
+    }
+
+
+    /**
+     * Comits a world: merging it with the previous one.
+     */
+    @Override
+    public void worldCommit(int worldIndex) {
+        // see StoredIntTrail.worldCommit(int)
+        final int startLevel = worldStartLevels[worldIndex];
+        final int prevWorld = worldIndex - 1;
+        int writeIdx = startLevel;
+        for (int level = startLevel; level < currentLevel; level++) {
+            final StoredInt var = variableStack[level];
+            final int val = getValue(level);
+            final int stamp = getStamp(level);
+            var.overrideTimeStamp(prevWorld);
+            if (stamp != prevWorld) {
+                if (writeIdx != level) {
+                    setValue(writeIdx, val);
+                    variableStack[writeIdx] = var;
+                    setStamp(writeIdx, stamp);
+                }
+                writeIdx++;
+            }
+        }
+        currentLevel = writeIdx;
+    }
+
+
+    /**
+     * Reacts when a StoredInt is modified: push the former value & timestamp
+     * on the stacks.
+     */
+    @Override
+    public void savePreviousState(StoredInt v, int oldValue, int oldStamp) {
+        setValue(currentLevel, oldValue);
+        variableStack[currentLevel] = v;
+        setStamp(currentLevel, oldStamp);
+        currentLevel++;
+        if (variableStack.length == currentLevel) {
+            resizeUpdateCapacity();
+        }
+    }
+
+    @Override
+    public void buildFakeHistory(StoredInt v, int initValue, int olderStamp) {
+        // from world 0 to fromStamp (excluded), create a fake history based on initValue
+        // kind a copy of the current elements
+        // first save the current state on the top of the stack
+        savePreviousState(v, initValue, olderStamp - 1);
+        // second: ensures capacities
+        while (currentLevel + olderStamp > variableStack.length) {
+            resizeUpdateCapacity();
+        }
+        int i1, f, s = currentLevel;
+        for (int w = olderStamp; w > 1; w--) {
+            f = worldStartLevels[w];
+            i1 = f + w - 1;
+            s -= f;
+            System.arraycopy(variableStack, f, variableStack, i1, s);
+            // the ranges overlap, the entries are moved from the last one
+            for (int k = s - 1; k >= 0; k--) {
+                setValue(i1 + k, getValue(f + k));
+                setStamp(i1 + k, getStamp(f + k));
+            }
+            variableStack[i1 - 1] = v;
+            setValue(i1 - 1, initValue);
+            setStamp(i1 - 1, w - 2);
+            worldStartLevels[w] += w - 1;
+            currentLevel++;
+            s = f;
+        }
+    }
+
+    private int getValue(int level) {
+        return valueStack.get(level);
+    }
+
+    private void setValue(int level, int value) {
+        valueStack.put(level, value);
+    }
+
+    private int getStamp(int level) {
+        return stampStack.get(level);
+    }
+
+    private void setStamp(int level, int stamp) {
+        stampStack.put(level, stamp);
+    }
+
+    private void resizeUpdateCapacity() {
+        final int newCapacity = (int) (variableStack.length * loadfactor);
+        // first, copy the stack of variables
+        final StoredInt[] tmp1 = new StoredInt[newCapacity];
+        System.arraycopy(variableStack, 0, tmp1, 0, variableStack.length);
+        variableStack = tmp1;
+        // then, the stacks of former values and world stamps
+        final IntBuffer tmp2 = allocate(newCapacity, Integer.BYTES).asIntBuffer();
+        valueStack.clear();
+        tmp2.put(valueStack);
+        valueStack = tmp2;
+        final IntBuffer tmp3 = allocate(newCapacity, Integer.BYTES).asIntBuffer();
+        stampStack.clear();
+        tmp3.put(stampStack);
+        stampStack = tmp3;
+    }
+
+    private void resizeWorldCapacity(int newWorldCapacity) {
+        final int[] tmp = new int[newWorldCapacity];
+        System.arraycopy(worldStartLevels, 0, tmp, 0, worldStartLevels.length);
+        worldStartLevels = tmp;
+    }
+}
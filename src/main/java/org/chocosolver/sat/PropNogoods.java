@@ -23,15 +23,23 @@ import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.solver.variables.events.IEventType;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.sort.ArraySort;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.chocosolver.sat.SatSolver.*;
 
 
 /**
  * A propagator to store and propagate no-goods.
- *
+ * <p>
+ * Learnt no-goods are scored with their literal block distance (the number of distinct worlds their literals
+ * have been valued in) and their activity (bumped each time they take part in an explanation).
+ * When there are too many of them, or too many literals in them, the least useful half is removed.
+ * See {@link org.chocosolver.solver.Settings#getNbLearntNogoodsBeforeReduction()}
+ * and {@link org.chocosolver.solver.Settings#getMaxLiteralsInLearntNogoods()}.
+ * <br/>
  * Created by cprudhom on 20/01/15.
  * Project: choco.
  * @author Charles Prud'homme
@@ -115,6 +123,62 @@ public class PropNogoods extends Propagator<IntVar> {
      */
     private boolean initialized = false;
 
+    /**
+     * Informed of each learnt clause added to this store, may be <tt>null</tt>
+     */
+    private Consumer<int[]> learnt_listener_;
+
+    /**
+     * Activity decay factor of learnt clauses
+     */
+    private static final double CLA_DECAY = 0.999;
+
+    /**
+     * Learnt clauses with a literal block distance less than or equal to this value are kept on reduction
+     */
+    private static final int GLUE = 2;
+
+    /**
+     * Literal block distance of each learnt clause, indexed like <code>sat_.learnts</code>
+     */
+    private int[] lbds_;
+
+    /**
+     * Activity of each learnt clause, indexed like <code>sat_.learnts</code>
+     */
+    private double[] activities_;
+
+    /**
+     * Indicates, for each learnt clause, if it can be removed on reduction, indexed like <code>sat_.learnts</code>
+     */
+    private boolean[] deletables_;
+
+    /**
+     * Number of deletable learnt clauses and total number of literals in them
+     */
+    private int nb_deletables_, nb_deletable_lits_;
+
+    /**
+     * Number of deletable learnt clauses that triggers the next reduction of the learnt clauses
+     */
+    private int max_learnts_;
+
+    /**
+     * Current activity increment
+     */
+    private double cla_inc_ = 1.;
+
+    /**
+     * World index in which each clause variable has been valued
+     */
+    private int[] lit2world;
+
+    /**
+     * Local-like parameter, to compute literal block distance
+     */
+    private int[] world_stamps_;
+    private int stamp_;
+
     /**
      * Create a (unique) propagator for no-goods recording and propagation.
      *
@@ -132,6 +196,12 @@ public class PropNogoods extends Propagator<IntVar> {
         Arrays.fill(lit2pos, NO_ENTRY);
         this.var2pos = new int[k];//new TIntIntHashMap(16, .5f, NO_ENTRY, NO_ENTRY);
         Arrays.fill(var2pos, NO_ENTRY);
+        this.lit2world = new int[k];
+        this.lbds_ = new int[k];
+        this.activities_ = new double[k];
+        this.deletables_ = new boolean[k];
+        this.world_stamps_ = new int[k];
+        this.max_learnts_ = model.getSettings().getNbLearntNogoodsBeforeReduction();
         //TODO: one satsolver per model...
         sat_ = new SatSolver();
         early_deductions_ = new TIntArrayList();
@@ -372,6 +442,8 @@ public class PropNogoods extends Propagator<IntVar> {
                 lit2val = new long[var + 1];
                 System.arraycopy(ltmp, 0, lit2val, 0, ltmp.length);
                 Arrays.fill(lit2val, ltmp.length, var + 1, NO_ENTRY);
+
+                lit2world = Arrays.copyOf(lit2world, var + 1);
             }
 
 
@@ -401,8 +473,11 @@ public class PropNogoods extends Propagator<IntVar> {
                 doReduce(negated(lit));
             } else {
                 sat_trail_.set(sat_.trailMarker());
+                int world = model.getEnvironment().getWorldIndex();
+                lit2world[index] = world;
                 for (int i = 0; i < sat_.touched_variables_.size(); ++i) {
                     lit = sat_.touched_variables_.get(i);
+                    lit2world[var(lit)] = world;
                     doReduce(lit);
                 }
             }
@@ -526,17 +601,43 @@ public class PropNogoods extends Propagator<IntVar> {
     }
 
     /**
-     * Add learnt clause to no-goods store
+     * Add learnt clause to no-goods store.
+     * The clause may be removed later, when learnt clauses are reduced,
+     * see {@link org.chocosolver.solver.Settings#getNbLearntNogoodsBeforeReduction()}.
      *
      * @param lits clause
      */
     public void addLearnt(int... lits) {
+        addLearnt(lits, true);
+    }
+
+    /**
+     * Add learnt clause to no-goods store
+     *
+     * @param lits clause
+     * @param deletable set to <tt>false</tt> if the clause must never be removed when learnt clauses are reduced,
+     *                  for instance because it forbids an already found solution
+     */
+    public void addLearnt(int[] lits, boolean deletable) {
+        syncTrail();
+        int lbd = computeLBD(lits);
+        int before = sat_.nLearnt();
         sat_.learnClause(lits);
+        model.getSolver().getMeasures().incLearntNogoodCount();
+        if (learnt_listener_ != null) {
+            learnt_listener_.accept(lits);
+        }
         // early deductions of learnt clause may lead to incorrect behavior on backtrack
         // since early deduction is not backtrackable.
         forcePropagationOnBacktrack(); // issue#327
+        if (sat_.nLearnt() == before) {
+            // unit clause, not stored as a clause
+            return;
+        }
+        pushLearnt(lits.length, lbd, deletable);
         // compare the current clauses with the previous stored one,
         // just in case the current one dominates the previous none
+        int nbRemoved = 0;
         if (sat_.nLearnt() > 1) {
             SatSolver.Clause last = sat_.learnts.get(sat_.learnts.size() - 1);
             test_eq.clear();
@@ -551,11 +652,244 @@ public class PropNogoods extends Propagator<IntVar> {
                         s -= test_eq.get(prev._g(i)) ? 1 : 0;
                     }
                     if (s == 0) { // then last dominates prev
+                        int l = sat_.nLearnt() - 1;
+                        // last inherits from the scores of prev
+                        lbds_[l] = Math.min(lbds_[l], lbds_[c]);
+                        activities_[l] = Math.max(activities_[l], activities_[c]);
+                        if (!deletables_[c] && deletables_[l]) {
+                            deletables_[l] = false;
+                            nb_deletables_--;
+                            nb_deletable_lits_ -= last.size();
+                        }
                         sat_.detachLearnt(c);
+                        removeLearnt(c, prev.size());
+                        nbRemoved++;
                     }
                 }
             }
         }
+        if (nbRemoved > 0) {
+            model.getSolver().getMeasures().incDeletedNogoodCount(nbRemoved);
+        }
+        if (nb_deletables_ > max_learnts_
+                || nb_deletable_lits_ > model.getSettings().getMaxLiteralsInLearntNogoods()) {
+            reduceLearnts();
+        }
+        cla_inc_ /= CLA_DECAY;
+    }
+
+    /**
+     * Records the scores of the last learnt clause
+     */
+    private void pushLearnt(int size, int lbd, boolean deletable) {
+        int l = sat_.nLearnt() - 1;
+        if (l >= lbds_.length) {
+            int c = l * 3 / 2 + 1;
+            lbds_ = Arrays.copyOf(lbds_, c);
+            activities_ = Arrays.copyOf(activities_, c);
+            deletables_ = Arrays.copyOf(deletables_, c);
+        }
+        lbds_[l] = lbd;
+        activities_[l] = cla_inc_;
+        deletables_[l] = deletable;
+        if (deletable) {
+            nb_deletables_++;
+            nb_deletable_lits_ += size;
+        }
+    }
+
+    /**
+     * Forgets the scores of the c^th learnt clause, already detached from the SAT solver
+     */
+    private void removeLearnt(int c, int size) {
+        if (deletables_[c]) {
+            nb_deletables_--;
+            nb_deletable_lits_ -= size;
+        }
+        int l = sat_.nLearnt() - c;
+        System.arraycopy(lbds_, c + 1, lbds_, c, l);
+        System.arraycopy(activities_, c + 1, activities_, c, l);
+        System.arraycopy(deletables_, c + 1, deletables_, c, l);
+    }
+
+    /**
+     * Cancels the literals of the SAT solver that are no longer valid wrt the current world.
+     */
+    private void syncTrail() {
+        if (sat_trail_.get() < sat_.trailMarker()) {
+            sat_.cancelUntil(sat_trail_.get());
+        }
+    }
+
+    /**
+     * Computes the literal block distance of a clause, that is, the number of distinct worlds
+     * in which its valued literals have been valued, plus the number of its unvalued literals.
+     *
+     * @param lits a clause
+     * @return the literal block distance of <i>lits</i>
+     */
+    private int computeLBD(int[] lits) {
+        int lbd = 0;
+        stamp_++;
+        for (int lit : lits) {
+            if (sat_.valueLit(lit) == SatSolver.Boolean.kUndefined) {
+                lbd++;
+            } else {
+                int w = lit2world[var(lit)];
+                if (w >= world_stamps_.length) {
+                    world_stamps_ = Arrays.copyOf(world_stamps_, Math.max(w + 1, world_stamps_.length * 3 / 2));
+                }
+                if (world_stamps_[w] != stamp_) {
+                    world_stamps_[w] = stamp_;
+                    lbd++;
+                }
+            }
+        }
+        return lbd;
+    }
+
+    /**
+     * Increases the activity of the c^th learnt clause
+     */
+    private void bumpActivity(int c) {
+        if ((activities_[c] += cla_inc_) > 1e20) {
+            for (int i = sat_.nLearnt() - 1; i >= 0; i--) {
+                activities_[i] *= 1e-20;
+            }
+            cla_inc_ *= 1e-20;
+        }
+    }
+
+    /**
+     * @param cl a clause
+     * @return <tt>true</tt> if <i>cl</i> may be the reason of a deduction, that is,
+     * if all its literals but one are false and the remaining one is true
+     */
+    private boolean locked(SatSolver.Clause cl) {
+        int nbTrue = 0;
+        for (int i = cl.size() - 1; i >= 0; i--) {
+            SatSolver.Boolean b = sat_.valueLit(cl._g(i));
+            if (b == SatSolver.Boolean.kUndefined || (b == SatSolver.Boolean.kTrue && nbTrue++ > 0)) {
+                return false;
+            }
+        }
+        return nbTrue == 1;
+    }
+
+    /**
+     * Reduces the learnt clause database.
+     * Deletable clauses are sorted from the least useful to the most useful one,
+     * wrt their literal block distance first and their activity then,
+     * and the least useful half is removed.
+     * Clauses with small literal block distance are kept unless the maximum number of literals is exceeded.
+     * Clauses that may be the reason of a deduction are always kept.
+     */
+    private void reduceLearnts() {
+        syncTrail();
+        int n = sat_.nLearnt();
+        int[] cands = new int[nb_deletables_];
+        int k = 0;
+        for (int c = 0; c < n; c++) {
+            if (deletables_[c] && !locked(sat_.learnts.get(c))) {
+                cands[k++] = c;
+            }
+        }
+        // the least useful first, the oldest first in case of ties
+        new ArraySort<>(k, false, true).sort(cands, k, (i, j) -> {
+            if (lbds_[i] != lbds_[j]) {
+                return lbds_[j] - lbds_[i];
+            }
+            int a = Double.compare(activities_[i], activities_[j]);
+            return a != 0 ? a : i - j;
+        });
+        // when the memory cap is exceeded, clauses are removed until half of it is reached
+        int maxLits = model.getSettings().getMaxLiteralsInLearntNogoods();
+        boolean overflow = nb_deletable_lits_ > maxLits;
+        boolean[] removed = new boolean[n];
+        int nbRemoved = 0;
+        int half = nb_deletables_ / 2;
+        for (int i = 0; i < k; i++) {
+            int c = cands[i];
+            if ((overflow && nb_deletable_lits_ > maxLits / 2) || (nbRemoved < half && lbds_[c] > GLUE)) {
+                removed[c] = true;
+                nbRemoved++;
+                nb_deletables_--;
+                nb_deletable_lits_ -= sat_.learnts.get(c).size();
+            } else {
+                break;
+            }
+        }
+        // detach removed clauses all at once
+        Set<SatSolver.Clause> rclauses = Collections.newSetFromMap(new IdentityHashMap<>());
+        int j = 0;
+        for (int c = 0; c < n; c++) {
+            SatSolver.Clause cl = sat_.learnts.get(c);
+            if (removed[c]) {
+                rclauses.add(cl);
+            } else {
+                sat_.learnts.set(j, cl);
+                lbds_[j] = lbds_[c];
+                activities_[j] = activities_[c];
+                deletables_[j] = deletables_[c];
+                j++;
+            }
+        }
+        sat_.learnts.subList(j, n).clear();
+        for (SatSolver.Clause cl : rclauses) {
+            for (int w = 0; w < 2; w++) {
+                ArrayList<SatSolver.Watcher> watchers = sat_.watches_.get(negated(cl._g(w)));
+                if (watchers != null) {
+                    watchers.removeIf(wa -> rclauses.contains(wa.clause));
+                }
+            }
+        }
+        max_learnts_ += model.getSettings().getNbLearntNogoodsBeforeReduction() / 10 + 1;
+        model.getSolver().getMeasures().incNogoodReductionCount();
+        model.getSolver().getMeasures().incDeletedNogoodCount(nbRemoved);
+    }
+
+    /**
+     * Set a listener which is informed of each learnt clause added to this store
+     * through {@link #addLearnt(int...)}.
+     * The listener receives the literals of the clause, it should not modify them.
+     *
+     * @param listener a listener, or <tt>null</tt> to remove the current one
+     */
+    public void setLearntListener(Consumer<int[]> listener) {
+        this.learnt_listener_ = listener;
+    }
+
+    /**
+     * @param lit a literal created with {@link #Literal(IntVar, int, boolean)}, or its negation
+     * @return the integer variable <code>lit</code> refers to
+     */
+    public IntVar getLiteralVariable(int lit) {
+        int pos = lit2pos[var(lit)];
+        return initialized ? vars[pos] : add_var.get(pos);
+    }
+
+    /**
+     * @param lit a literal created with {@link #Literal(IntVar, int, boolean)}, or its negation
+     * @return the value <code>lit</code> refers to
+     */
+    public int getLiteralValue(int lit) {
+        return ivalue(lit2val[var(lit)]);
+    }
+
+    /**
+     * @param lit a literal created with {@link #Literal(IntVar, int, boolean)}, or its negation
+     * @return <tt>true</tt> if the literal encodes '=', <tt>false</tt> if it encodes '&le;'.
+     */
+    public boolean isEqLiteral(int lit) {
+        return iseq(lit2val[var(lit)]);
+    }
+
+    /**
+     * @param lit a literal
+     * @return <tt>true</tt> if the literal is positive, <tt>false</tt> if it is negated.
+     */
+    public static boolean isPositive(int lit) {
+        return sign(lit);
     }
 
     private void storeEarlyDeductions() {
@@ -636,7 +970,10 @@ public class PropNogoods extends Propagator<IntVar> {
         // we cannot rely on watches_ because is not backtrackable
         // So, we iterate over clauses where the two first literal are valued AND which contains bvar
         for (int k = sat_.nLearnt() - 1; k >= 0; k--) {
-            newrules |= _why(neg, lit, sat_.learnts.get(k), ruleStore);
+            if (_why(neg, lit, sat_.learnts.get(k), ruleStore)) {
+                bumpActivity(k);
+                newrules = true;
+            }
         }
         return newrules;
     }
@@ -25,6 +25,7 @@ import org.chocosolver.solver.variables.events.IntEventType;
 import org.chocosolver.util.ESat;
 
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 import static org.chocosolver.sat.SatSolver.*;
 
@@ -72,6 +73,11 @@ public class PropSat extends Propagator<BoolVar> {
      */
     private boolean initialized = false;
 
+    /**
+     * Informed of each learnt clause added to this SAT solver, may be <tt>null</tt>
+     */
+    private Consumer<int[]> learnt_listener_;
+
     /**
      * Create a (unique) propagator for clauses recording and propagation.
      *
@@ -294,11 +300,42 @@ public class PropSat extends Propagator<BoolVar> {
      */
     public void addLearnt(int... lits) {
         sat_.learnClause(lits);
+        if (learnt_listener_ != null) {
+            learnt_listener_.accept(lits);
+        }
         forcePropagationOnBacktrack(); // issue#327
         // early deductions of learnt clause may lead to incorrect behavior on backtrack
         // since early deduction is not backtrackable.
     }
 
+    /**
+     * Set a listener which is informed of each learnt clause added to this SAT solver
+     * through {@link #addLearnt(int...)}.
+     * The listener receives the literals of the clause, it should not modify them.
+     *
+     * @param listener a listener, or <tt>null</tt> to remove the current one
+     */
+    public void setLearntListener(Consumer<int[]> listener) {
+        this.learnt_listener_ = listener;
+    }
+
+    /**
+     * @param lit a literal created with {@link #makeLiteral(BoolVar, boolean)}
+     * @return the boolean variable <code>lit</code> refers to
+     */
+    public BoolVar getLiteralVariable(int lit) {
+        int var = var(lit);
+        return var < vars.length ? vars[var] : add_var.get(var - vars.length);
+    }
+
+    /**
+     * @param lit a literal
+     * @return <tt>true</tt> if the literal is positive, <tt>false</tt> if it is negated.
+     */
+    public static boolean isPositive(int lit) {
+        return sign(lit);
+    }
+
     private void storeEarlyDeductions() {
         for (int i = 0; i < sat_.touched_variables_.size(); ++i) {
             int lit = sat_.touched_variables_.get(i);
@@ -67,6 +67,10 @@ public class DefaultSettings implements Settings {
 
     private IntPredicate enableIncrementalityOnBoolSum = i -> i > 10;
 
+    private IntPredicate enableIncrementalityOnSum = i -> false;
+
+    private IntPredicate enableSweepOnDiffN = i -> false;
+
     private boolean cloneVariableArrayInPropagator = true;
 
     private boolean enableACOnTernarySum = false;
@@ -81,6 +85,10 @@ public class DefaultSettings implements Settings {
 
     private byte hybridEngine = 0b00;
 
+    private int nbLearntNogoodsBeforeReduction = 2_000;
+
+    private int maxLiteralsInLearntNogoods = 2_000_000;
+
     private Function<Model, Solver> initSolver = Solver::new;
 
 
@@ -243,6 +251,28 @@ public class DefaultSettings implements Settings {
         return this;
     }
 
+    @Override
+    public boolean enableIncrementalityOnSum(int nbvars) {
+        return enableIncrementalityOnSum.test(nbvars);
+    }
+
+    @Override
+    public DefaultSettings setEnableIncrementalityOnSum(IntPredicate enableIncrementalityOnSum) {
+        this.enableIncrementalityOnSum = enableIncrementalityOnSum;
+        return this;
+    }
+
+    @Override
+    public boolean enableSweepOnDiffN(int nbboxes) {
+        return enableSweepOnDiffN.test(nbboxes);
+    }
+
+    @Override
+    public DefaultSettings setEnableSweepOnDiffN(IntPredicate enableSweepOnDiffN) {
+        this.enableSweepOnDiffN = enableSweepOnDiffN;
+        return this;
+    }
+
     @Override
     public boolean cloneVariableArrayInPropagator() {
         return cloneVariableArrayInPropagator;
@@ -331,4 +361,26 @@ public class DefaultSettings implements Settings {
         this.hybridEngine = hybrid;
         return this;
     }
+
+    @Override
+    public int getNbLearntNogoodsBeforeReduction() {
+        return nbLearntNogoodsBeforeReduction;
+    }
+
+    @Override
+    public DefaultSettings setNbLearntNogoodsBeforeReduction(int nbLearntNogoodsBeforeReduction) {
+        this.nbLearntNogoodsBeforeReduction = nbLearntNogoodsBeforeReduction;
+        return this;
+    }
+
+    @Override
+    public int getMaxLiteralsInLearntNogoods() {
+        return maxLiteralsInLearntNogoods;
+    }
+
+    @Override
+    public DefaultSettings setMaxLiteralsInLearntNogoods(int maxLiteralsInLearntNogoods) {
+        this.maxLiteralsInLearntNogoods = maxLiteralsInLearntNogoods;
+        return this;
+    }
 }
@@ -15,6 +15,10 @@ import org.chocosolver.memory.IEnvironment;
 import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.ConstraintsName;
 import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.constraints.extension.nary.LargeRelation;
+import org.chocosolver.solver.constraints.extension.nary.PropCompactTable;
+import org.chocosolver.solver.constraints.nary.automata.FA.IAutomaton;
 import org.chocosolver.solver.constraints.nary.cnf.PropFalse;
 import org.chocosolver.solver.constraints.nary.cnf.PropTrue;
 import org.chocosolver.solver.constraints.nary.cnf.SatConstraint;
@@ -26,11 +30,14 @@ import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.objective.IObjectiveManager;
 import org.chocosolver.solver.objective.ObjectiveFactory;
 import org.chocosolver.solver.propagation.PropagationEngine;
+import org.chocosolver.solver.search.SearchState;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.RealVar;
 import org.chocosolver.solver.variables.SetVar;
 import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
+import org.chocosolver.util.tools.ObjectCopier;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -275,6 +282,15 @@ public class Model implements IModel {
         return creationTime;
     }
 
+    /**
+     * Sets the creation time of this model, when it is loaded from a {@link ModelSnapshot}
+     *
+     * @param creationTime creation time, in nanoseconds
+     */
+    void setCreationTime(long creationTime) {
+        this.creationTime = creationTime;
+    }
+
     /**
      * Get the resolution policy of the model
      *
@@ -322,6 +338,59 @@ public class Model implements IModel {
         return solver;
     }
 
+    /**
+     * Returns a deep copy of this model, equivalent to {@link #copy(boolean)} with <tt>true</tt>.
+     *
+     * @return a copy of this model
+     * @see #copy(boolean)
+     */
+    public Model copy() {
+        return copy(true);
+    }
+
+    /**
+     * Returns a deep copy of this model: variables, domains, constraints, propagators, hooks and objective
+     * are copied, so that the copy can be solved independently from this model, in another thread for instance
+     * (see {@link org.chocosolver.solver.ParallelPortfolio#addModel(Model)}).
+     * The copy comes with a new {@link Solver}: search strategies, monitors and limits declared on the solver
+     * of this model are not copied.
+     * Settings are copied as well, since some of them are bound to the model they are used by
+     * (e.g., {@link Settings#getEnvironmentHistorySimulationCondition()}).
+     * <p>
+     * When <i>shareImmutableData</i> is set to <tt>true</tt>, data that are not modified during resolution
+     * are shared between this model and its copy instead of being copied:
+     * {@link org.chocosolver.solver.constraints.extension.Tuples}, relations of table constraints,
+     * supports of {@link PropCompactTable}, automata and multi-valued decision diagrams.
+     * Such data must not be modified afterwards.
+     * <p>
+     * The model must not have been solved yet, or its solver must have been reset (see {@link Solver#reset()}).
+     *
+     * @param shareImmutableData set to <tt>true</tt> to share immutable data instead of copying them
+     * @return a copy of this model
+     * @throws SolverException if the resolution of this model has already started, or if an object cannot be copied
+     */
+    public Model copy(boolean shareImmutableData) {
+        if (solver.getSearchState() != SearchState.NEW) {
+            throw new SolverException("A model cannot be copied once its resolution has started. " +
+                    "Call solver.reset() beforehand.");
+        }
+        ObjectCopier copier = new ObjectCopier();
+        if (shareImmutableData) {
+            copier.share(o -> o instanceof Tuples
+                    || o instanceof LargeRelation
+                    || o instanceof IAutomaton
+                    || o instanceof MultivaluedDecisionDiagram);
+            copier.share(PropCompactTable.class, "supports", "starts", "offset");
+        }
+        copier.exclude(solver);
+        Model copy = copier.copy(this);
+        copier.bind(solver, copy.settings.initSolver(copy));
+        if (copy.objective != null) {
+            copy.setObjective(copy.policy == ResolutionPolicy.MAXIMIZE, copy.objective);
+        }
+        return copy;
+    }
+
     /**
      * Returns the array of <code>Variable</code> objects declared in this <code>Model</code>.
      *
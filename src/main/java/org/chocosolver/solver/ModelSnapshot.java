@@ -0,0 +1,139 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.SearchState;
+import org.chocosolver.util.tools.ObjectGraphReader;
+import org.chocosolver.util.tools.ObjectGraphWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Binary snapshot of a {@link Model}, to load a prebuilt model without declaring it again.
+ * <p>
+ * A snapshot stores the model as it is once declared: variables, domains, constraints and propagators,
+ * with their internal data structures (sorted tuples, compacted MDDs, minimized automata, ...),
+ * so that no preprocessing is done again on loading.
+ * Settings are stored as their properties (see {@link Settings#store()}).
+ * The file is memory-mapped on loading: large arrays, like supports of table constraints or transitions
+ * of automata, are copied in bulk from the file.
+ * <p>
+ * The model comes with a new {@link Solver} on loading: search strategies, monitors and limits are not stored.
+ * A snapshot can only be loaded with the same version of the library it was written with.
+ * <p>
+ * Example of use:
+ * <pre>
+ * <code>Model model = modeller();
+ * ModelSnapshot.write(model, path);
+ * // later, possibly in another JVM
+ * Model copy = ModelSnapshot.read(path);
+ * copy.getSolver().solve();
+ * </code>
+ * </pre>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ * @see ObjectGraphWriter
+ */
+public class ModelSnapshot {
+
+    // indices of objects excluded from a snapshot
+    private static final int SOLVER = 0, SETTINGS = 1;
+
+    private ModelSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of <i>model</i> in a file, which is created or truncated.
+     * The model must not have been solved yet, or its solver must have been reset (see {@link Solver#reset()}).
+     * <br/>
+     * Objects attached to the model (hooks, user-defined propagators, ...) are written too:
+     * their lambdas, if any, must have a serializable functional interface.
+     *
+     * @param model a model
+     * @param path  path of the file
+     * @throws IOException     if an I/O error occurs
+     * @throws SolverException if the resolution of <i>model</i> has already started, or if an object cannot be written
+     */
+    public static void write(Model model, Path path) throws IOException {
+        if (model.getSolver().getSearchState() != SearchState.NEW) {
+            throw new SolverException("A model cannot be written once its resolution has started. " +
+                    "Call solver.reset() beforehand.");
+        }
+        Settings settings = model.getSettings();
+        ObjectGraphWriter writer = new ObjectGraphWriter();
+        writer.exclude(model.getSolver());
+        writer.exclude(settings);
+        writer.write(settings.getClass().getName());
+        writer.write(settings.store());
+        writer.write(model);
+        writer.writeTo(path);
+    }
+
+    /**
+     * Loads a model from a snapshot written by {@link #write(Model, Path)}.
+     * Settings are created with the no-arg constructor of their class, then loaded from the properties stored.
+     * <br/>
+     * <b>Only load snapshots from a trusted source</b>: the classes named in the file are loaded and instantiated
+     * without any validation (see {@link ObjectGraphReader}).
+     *
+     * @param path path of the file
+     * @return the model loaded
+     * @throws IOException     if an I/O error occurs
+     * @throws SolverException if the file is not a snapshot, or if it was written with another version of the library
+     */
+    public static Model read(Path path) throws IOException {
+        return read(path, null);
+    }
+
+    /**
+     * Loads a model from a snapshot written by {@link #write(Model, Path)}, with specific settings.
+     * <br/>
+     * <b>Only load snapshots from a trusted source</b>, see {@link #read(Path)}.
+     *
+     * @param path     path of the file
+     * @param settings settings of the model loaded, or <tt>null</tt> to load the ones stored
+     * @return the model loaded
+     * @throws IOException     if an I/O error occurs
+     * @throws SolverException if the file is not a snapshot, or if it was written with another version of the library
+     */
+    public static Model read(Path path, Settings settings) throws IOException {
+        long start = System.nanoTime();
+        ObjectGraphReader reader = new ObjectGraphReader(path);
+        String clazz = (String) reader.read();
+        Properties properties = (Properties) reader.read();
+        Model model;
+        try {
+            model = (Model) reader.read();
+        } catch (ClassCastException e) {
+            throw new SolverException("The file " + path + " is not a snapshot of a model");
+        }
+        if (settings == null) {
+            settings = newSettings(clazz).load(properties);
+        }
+        reader.bind(SETTINGS, settings);
+        reader.bind(SOLVER, settings.initSolver(model));
+        model.setCreationTime(start);
+        if (model.getObjective() != null) {
+            model.setObjective(model.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE, model.getObjective());
+        }
+        return model;
+    }
+
+    private static Settings newSettings(String clazz) {
+        try {
+            return (Settings) Class.forName(clazz).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new SolverException("Cannot create settings of class " + clazz + ", they should be given on loading");
+        }
+    }
+}
@@ -0,0 +1,685 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.strategy.assignments.DecisionOperator;
+import org.chocosolver.solver.search.strategy.assignments.DecisionOperatorFactory;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.decision.IntDecision;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.util.criteria.Criterion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ *     A Cube-and-Conquer helper.
+ * </p>
+ * <p>
+ *     Unlike {@link ParallelPortfolio}, where each model explores the entire search space,
+ *     the search space is here partitioned into independent sub-problems, called cubes.
+ *     The resolution of a problem is made of four steps:
+ *     <ol>
+ *         <li>adding identical models, one per thread,</li>
+ *         <li>splitting the top of the search tree of the first model into cubes,</li>
+ *         <li>solving the cubes in parallel, each cube being replayed on a free model,</li>
+ *         <li>collecting the solutions found.</li>
+ *     </ol>
+ *     Cubes are built by applying, up to a given depth, the decisions computed by the search strategy of the first model
+ *     (or the default one if none is declared).
+ *     Each decision and its refutation lead to two distinct cubes, so cubes are disjoint
+ *     and the solutions of the problem are exactly the union of the solutions of the cubes.
+ *     Cubes are then dispatched through a work-stealing {@link ForkJoinPool}.
+ * </p>
+ * <p>
+ *     All models must declare the same variables in the same order,
+ *     since a cube is transferred from a model to another one through variables' position.
+ *     It is essential to eagerly declare the objective variable with {@link Model#setObjective(boolean, Variable)}
+ *     when dealing with an optimization problem.
+ *     On solution, the cut on the objective variable's value is propagated to all models.
+ * </p>
+ * <p>
+ *     Limits declared on a model (e.g., with {@link Solver#limitTime(long)}) are kept from a cube to another
+ *     and are checked while the model solves a cube: as soon as one of them is met, the whole resolution stops.
+ * </p>
+ * <p>
+ *     Since solutions are collected cube by cube, in the order the cubes are built,
+ *     enumerating all solutions is deterministic whatever the number of models,
+ *     as long as the search strategy declared in the models is deterministic.
+ * </p>
+ * <p>
+ *     Example of use.
+ *
+ * <pre>
+ * <code>ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(8);
+ * int n = 4; // number of models to use
+ * for (int i = 0; i < n; i++) {
+ *      cnc.addModel(modeller());
+ * }
+ * List&lt;Solution&gt; solutions = cnc.findAllSolutions();
+ * </code>
+ * </pre>
+ *
+ * </p>
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class ParallelCubeAndConquer {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////       VARIABLES       //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Operators of the literals of a cube, indexed by literal's operator code */
+    private static final String[] OPERATORS = {"=", "!=", "<=", ">="};
+
+    /** List of {@link Model}s to be executed in parallel. */
+    private final List<Model> models;
+
+    /** Maximum number of decisions in a cube */
+    private final int depth;
+
+    /**
+     * Cubes to solve, each one is a sequence of literals.
+     * A literal is a triplet: position of the variable, operator code (see {@link #OPERATORS}) and value.
+     */
+    private List<int[]> cubes;
+
+    /** Models which are not currently solving a cube */
+    private LinkedBlockingQueue<Model> idle;
+
+    /**
+     * Copy of the first model, never solved, from which extra models are copied
+     * when streaming solutions and no model is free
+     */
+    private Model template;
+
+    /** Constraints of the cube a model is currently solving, if any */
+    private final Map<Model, Constraint[]> opened = new ConcurrentHashMap<>();
+
+    /** Set to <tt>true</tt> to stop the resolution */
+    private final AtomicBoolean stop = new AtomicBoolean(false);
+
+    /** Stop criterion added to a model while it solves a cube */
+    private final Criterion halt = stop::get;
+
+    /** Best solution found so far, when dealing with an optimization problem */
+    private Solution best;
+
+    /** Value of the objective variable in {@link #best} */
+    private int bestValue;
+
+    /** Number of solutions found during the last resolution */
+    private long solutionCount;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////      CONSTRUCTOR      //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a new, empty, cube-and-conquer helper.
+     * Up to 2<sup><code>depth</code></sup> cubes are built.
+     *
+     * @param depth maximum number of decisions in a cube, should be positive
+     * @throws SolverException if <code>depth</code> is negative
+     */
+    public ParallelCubeAndConquer(int depth) {
+        if (depth < 0) {
+            throw new SolverException("The depth of the cubes should be positive.");
+        }
+        this.depth = depth;
+        this.models = new ArrayList<>();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////        METHODS        //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * <p>
+     * Adds a model to the list of models to run in parallel.
+     * The model must be identical to the ones previously added.
+     * </p>
+     *
+     * @param model a model to add
+     */
+    public void addModel(Model model) {
+        this.models.add(model);
+    }
+
+    /**
+     * Attempts to find all solutions of the declared satisfaction problem.
+     * Each cube is solved by a free model, solutions are then gathered in the order the cubes were built.
+     *
+     * @return a list that contained the found solutions.
+     * @throws SolverException if no model has been added, or if models are not similar
+     */
+    public List<Solution> findAllSolutions() {
+        check();
+        models.forEach(Model::clearObjective);
+        split();
+        List<List<Solution>> perCube = new ArrayList<>(cubes.size());
+        for (int i = 0; i < cubes.size(); i++) {
+            perCube.add(new ArrayList<>());
+        }
+        conquer((i, m) -> perCube.get(i).add(new Solution(m).record()));
+        List<Solution> solutions = new ArrayList<>();
+        perCube.forEach(solutions::addAll);
+        solutionCount = solutions.size();
+        return solutions;
+    }
+
+    /**
+     * <p>
+     * Attempts to find all solutions of the declared satisfaction problem, lazily.
+     * </p>
+     * <p>
+     * The returned stream is parallel: its spliterator splits the range of cubes to solve,
+     * and each part borrows a free model to solve its cubes one after the other.
+     * When no model is free, a copy of the first model is made (see {@link Model#copy()}) and solved
+     * with the default search strategy;
+     * if the first model cannot be copied, the part waits for a free model.
+     * Solutions are encountered in the order the cubes were built, and within a cube, in the order the model finds them.
+     * Note that the number of solutions is unknown, the size estimated by the spliterator is the number of cubes.
+     * </p>
+     * <p>
+     * When the stream is not fully consumed (e.g., with a short-circuiting operation),
+     * some models may remain in the middle of a cube; they are restored when the stream is closed,
+     * or at the latest on the next resolution.
+     * </p>
+     *
+     * @return a parallel stream over the solutions of the problem
+     * @throws SolverException if no model has been added, or if models are not similar
+     */
+    public Stream<Solution> streamSolutions() {
+        check();
+        models.forEach(Model::clearObjective);
+        release();
+        try {
+            template = models.get(0).copy();
+        } catch (SolverException e) {
+            // no extra model can be made
+            template = null;
+        }
+        split();
+        stop.set(false);
+        idle = new LinkedBlockingQueue<>(models);
+        return StreamSupport.stream(new CubeSpliterator(0, cubes.size()), true).onClose(this::close);
+    }
+
+    /**
+     * Attempts to find the solution that optimizes the objective declared in the models.
+     * Each cube is solved by a free model and, on solution, the cut on the objective variable's value is propagated
+     * to all models.
+     *
+     * @return the optimal solution, or <tt>null</tt> if the problem has no solution.
+     * @throws SolverException if no model has been added, if models are not similar
+     * or if no objective variable has been declared
+     */
+    public Solution findOptimalSolution() {
+        check();
+        if (models.get(0).getResolutionPolicy() == ResolutionPolicy.SATISFACTION) {
+            throw new SolverException("No objective variable has been declared in the models.");
+        }
+        split();
+        best = null;
+        solutionCount = 0;
+        conquer((i, m) -> updateFromSolution(m));
+        return best;
+    }
+
+    /**
+     * @return the number of solutions found during the last resolution
+     */
+    public long getSolutionCount() {
+        return solutionCount;
+    }
+
+    /**
+     * @return the number of cubes built during the last resolution
+     */
+    public int getCubeCount() {
+        return cubes == null ? 0 : cubes.size();
+    }
+
+    /**
+     * @return the (mutable!) list of models used in this ParallelCubeAndConquer
+     */
+    public List<Model> getModels() {
+        return models;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////   INTERNAL METHODS    //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void check() {
+        if (models.size() == 0) {
+            throw new SolverException("No model found in the ParallelCubeAndConquer.");
+        }
+        Variable[] ref = models.get(0).getVars();
+        for (int i = 1; i < models.size(); i++) {
+            Variable[] vars = models.get(i).getVars();
+            boolean same = vars.length == ref.length;
+            for (int j = 0; same && j < vars.length; j++) {
+                same = vars[j].getTypeAndKind() == ref[j].getTypeAndKind();
+            }
+            if (!same) {
+                throw new SolverException("Cubes can only be shared among models " +
+                        "which declare the same variables in the same order.");
+            }
+        }
+    }
+
+    /**
+     * Builds the cubes by exploring, with the first model, the top of the search tree.
+     */
+    private void split() {
+        release();
+        Model model = models.get(0);
+        Solver solver = model.getSolver();
+        AbstractStrategy<Variable> strategy = solver.getSearch();
+        boolean declared = strategy != null;
+        if (!declared) {
+            strategy = model.getSettings().makeDefaultSearch(model);
+        }
+        Variable[] vars = model.getVars();
+        int maxId = 0;
+        for (Variable var : vars) {
+            maxId = Math.max(maxId, var.getId());
+        }
+        int[] positions = new int[maxId + 1];
+        for (int i = 0; i < vars.length; i++) {
+            positions[vars[i].getId()] = i;
+        }
+        cubes = new ArrayList<>();
+        IEnvironment environment = model.getEnvironment();
+        int world = environment.getWorldIndex();
+        environment.worldPush();
+        try {
+            solver.propagate();
+            if (strategy.init()) {
+                split(solver, strategy, positions, new int[0]);
+            }
+        } catch (ContradictionException e) {
+            // the problem has no solution, no cube to solve
+        }
+        solver.getEngine().reset();
+        environment.worldPopUntil(world);
+        if (!declared) {
+            strategy.remove();
+        }
+    }
+
+    private void split(Solver solver, AbstractStrategy<Variable> strategy, int[] positions, int[] cube) {
+        Decision decision = cube.length / 3 < depth ? strategy.getDecision() : null;
+        if (decision == null || !(decision instanceof IntDecision)) {
+            cubes.add(cube);
+        } else {
+            IntDecision dec = (IntDecision) decision;
+            IntVar var = dec.getDecisionVariable();
+            int pos = positions[var.getId()];
+            int val = dec.getDecisionValue();
+            DecisionOperator<IntVar> dop = dec.getDecOp();
+            int arity = dec.getArity();
+            dec.free();
+            IEnvironment environment = solver.getEnvironment();
+            for (int b = 0; b < arity; b++) {
+                int[] child = literal(cube, pos, dop, val, b == 0);
+                environment.worldPush();
+                try {
+                    apply(var, child[child.length - 2], child[child.length - 1]);
+                    solver.propagate();
+                    split(solver, strategy, positions, child);
+                } catch (ContradictionException e) {
+                    solver.getEngine().flush();
+                }
+                environment.worldPop();
+            }
+        }
+    }
+
+    /**
+     * @return a copy of <code>cube</code> extended with the literal corresponding to a decision or its refutation
+     */
+    private static int[] literal(int[] cube, int pos, DecisionOperator<IntVar> dop, int val, boolean apply) {
+        int[] child = new int[cube.length + 3];
+        System.arraycopy(cube, 0, child, 0, cube.length);
+        int op;
+        if (dop == DecisionOperatorFactory.makeIntEq()) {
+            op = apply ? 0 : 1;
+        } else if (dop == DecisionOperatorFactory.makeIntNeq()) {
+            op = apply ? 1 : 0;
+        } else if (dop == DecisionOperatorFactory.makeIntSplit()) {
+            op = apply ? 2 : 3;
+            val = apply ? val : val + 1;
+        } else if (dop == DecisionOperatorFactory.makeIntReverseSplit()) {
+            op = apply ? 3 : 2;
+            val = apply ? val : val - 1;
+        } else {
+            throw new SolverException("Unknown decision operator: " + dop);
+        }
+        child[cube.length] = pos;
+        child[cube.length + 1] = op;
+        child[cube.length + 2] = val;
+        return child;
+    }
+
+    private static void apply(IntVar var, int op, int val) throws ContradictionException {
+        switch (op) {
+            case 0:
+                var.instantiateTo(val, Cause.Null);
+                break;
+            case 1:
+                var.removeValue(val, Cause.Null);
+                break;
+            case 2:
+                var.updateUpperBound(val, Cause.Null);
+                break;
+            default:
+                var.updateLowerBound(val, Cause.Null);
+                break;
+        }
+    }
+
+    /**
+     * Solves all cubes in parallel.
+     * @param onSolution called on each solution, with the index of the cube and the model which found it
+     */
+    private void conquer(BiConsumer<Integer, Model> onSolution) {
+        stop.set(false);
+        idle = new LinkedBlockingQueue<>(models);
+        ForkJoinPool forkJoinPool = new ForkJoinPool(models.size());
+        try {
+            forkJoinPool.submit(new CubeTask(0, cubes.size(), onSolution)).get();
+        } catch (InterruptedException e) {
+            stop.set(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            stop.set(true);
+            Throwable cause = e.getCause();
+            if (cause instanceof SolverException) {
+                throw (SolverException) cause;
+            }
+            SolverException se = new SolverException("A cube could not be solved: " + cause);
+            se.initCause(cause);
+            throw se;
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Solves a cube with a model.
+     */
+    private void solve(Model model, int c, BiConsumer<Integer, Model> onSolution) {
+        openCube(model, c);
+        while (model.getSolver().solve()) {
+            onSolution.accept(c, model);
+        }
+        checkLimits(model);
+        closeCube(model);
+    }
+
+    /**
+     * Restricts a model to a cube, before solving it.
+     */
+    private void openCube(Model model, int c) {
+        int[] cube = cubes.get(c);
+        Variable[] vars = model.getVars();
+        Constraint[] cstrs = new Constraint[cube.length / 3];
+        for (int i = 0; i < cstrs.length; i++) {
+            cstrs[i] = model.arithm((IntVar) vars[cube[3 * i]], OPERATORS[cube[3 * i + 1]], cube[3 * i + 2]);
+            cstrs[i].post();
+        }
+        opened.put(model, cstrs);
+        model.getSolver().addStopCriterion(halt);
+        applyBestBound(model);
+    }
+
+    /**
+     * Resets a model and removes the constraints of the cube it was solving.
+     * The stop criteria declared on the model are kept.
+     */
+    private void closeCube(Model model) {
+        Solver solver = model.getSolver();
+        // reset() removes all stop criteria
+        Criterion[] limits = solver.criteria.stream().filter(c -> c != halt).toArray(Criterion[]::new);
+        solver.reset();
+        solver.addStopCriterion(limits);
+        model.unpost(opened.remove(model));
+    }
+
+    /**
+     * Closes the cubes that are still opened, if any.
+     */
+    private void release() {
+        new ArrayList<>(opened.keySet()).forEach(this::closeCube);
+    }
+
+    /**
+     * Stops the resolution and restores the models, once a stream of solutions is closed.
+     */
+    private void close() {
+        stop.set(true);
+        release();
+    }
+
+    /**
+     * @return a copy of {@link #template}, or <tt>null</tt> if the first model cannot be copied
+     */
+    private synchronized Model spare() {
+        return template == null ? null : template.copy();
+    }
+
+    /**
+     * Stops the resolution when a model stopped solving its cube because of one of its own limits.
+     */
+    private void checkLimits(Model model) {
+        if (!stop.get() && model.getSolver().isStopCriterionMet()) {
+            stop.set(true);
+        }
+    }
+
+    /**
+     * Waits for a free model, without starving the pool of threads.
+     *
+     * @return a free model, or <tt>null</tt> if the resolution stopped meanwhile
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private Model borrow() throws InterruptedException {
+        ModelBorrower borrower = new ModelBorrower();
+        ForkJoinPool.managedBlock(borrower);
+        return borrower.model;
+    }
+
+    private synchronized void applyBestBound(Model model) {
+        if (best != null) {
+            if (model.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE) {
+                model.getSolver().getObjectiveManager().updateBestLB(bestValue);
+            } else {
+                model.getSolver().getObjectiveManager().updateBestUB(bestValue);
+            }
+        }
+    }
+
+    private synchronized void updateFromSolution(Model m) {
+        solutionCount++;
+        int val = ((IntVar) m.getObjective()).getValue();
+        boolean max = m.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE;
+        if (best == null || (max ? val > bestValue : val < bestValue)) {
+            best = new Solution(m).record();
+            bestValue = val;
+            models.forEach(this::applyBestBound);
+        }
+    }
+
+    /**
+     * Solves a range of cubes, splitting it in halves while it contains more than one cube.
+     */
+    private final class CubeTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final BiConsumer<Integer, Model> onSolution;
+
+        CubeTask(int from, int to, BiConsumer<Integer, Model> onSolution) {
+            this.from = from;
+            this.to = to;
+            this.onSolution = onSolution;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CubeTask(from, mid, onSolution), new CubeTask(mid, to, onSolution));
+            } else if (to > from && !stop.get()) {
+                Model model;
+                try {
+                    model = borrow();
+                } catch (InterruptedException e) {
+                    stop.set(true);
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (model == null) {
+                    return;
+                }
+                try {
+                    solve(model, from, onSolution);
+                } finally {
+                    idle.offer(model);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a model from {@link #idle}, polling it regularly to check whether the resolution has stopped.
+     */
+    private final class ModelBorrower implements ForkJoinPool.ManagedBlocker {
+
+        /** The borrowed model, if any */
+        private Model model;
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (model == null) {
+                model = idle.poll(10, TimeUnit.MILLISECONDS);
+            }
+            return isReleasable();
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return model != null || (model = idle.poll()) != null || stop.get();
+        }
+    }
+
+    /**
+     * Iterates over the solutions of a range of cubes, which can be split as long as no cube is being solved.
+     */
+    private final class CubeSpliterator implements Spliterator<Solution> {
+
+        /** Index of the next cube to solve, or of the cube being solved */
+        private int from;
+        /** Index of the last cube to solve, exclusive */
+        private int to;
+        /** The model solving the cube <code>from</code>, if any */
+        private Model model;
+
+        CubeSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Solution> action) {
+            while (from < to && !stop.get()) {
+                if (model == null) {
+                    // a part may stop being advanced while holding a model (e.g., with a short-circuiting
+                    // operation), thus instead of waiting for a free model, a new one is copied
+                    model = idle.poll();
+                    if (model == null) {
+                        model = spare();
+                    }
+                    if (model == null) {
+                        try {
+                            model = borrow();
+                        } catch (InterruptedException e) {
+                            stop.set(true);
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                        if (model == null) {
+                            return false;
+                        }
+                    }
+                    openCube(model, from);
+                }
+                if (model.getSolver().solve()) {
+                    action.accept(new Solution(model).record());
+                    return true;
+                }
+                checkLimits(model);
+                closeCube(model);
+                idle.offer(model);
+                model = null;
+                from++;
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Solution> trySplit() {
+            // being ordered, the returned spliterator must cover a prefix,
+            // which is not possible while a cube is being solved
+            if (model != null || to - from < 2) {
+                return null;
+            }
+            int mid = (from + to) >>> 1;
+            CubeSpliterator prefix = new CubeSpliterator(from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+}
@@ -8,12 +8,19 @@
  */
 package org.chocosolver.solver;
 
+import gnu.trove.map.hash.TIntIntHashMap;
+import org.chocosolver.sat.PropNogoods;
+import org.chocosolver.sat.PropSat;
+import org.chocosolver.sat.SatSolver;
 import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.nary.cnf.SatConstraint;
 import org.chocosolver.solver.constraints.real.RealConstraint;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.search.limits.FailCounter;
 import org.chocosolver.solver.search.loop.lns.INeighborFactory;
+import org.chocosolver.solver.search.loop.monitors.IMonitorRestart;
 import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.search.loop.move.MoveLNS;
 import org.chocosolver.solver.search.strategy.Search;
 import org.chocosolver.solver.search.strategy.selectors.values.IntDomainBest;
 import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMin;
@@ -28,9 +35,11 @@ import org.chocosolver.util.criteria.Criterion;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.chocosolver.solver.search.strategy.Search.lastConflict;
 import static org.chocosolver.solver.search.strategy.Search.randomSearch;
@@ -67,6 +76,25 @@ import static org.chocosolver.solver.search.strategy.Search.setVarSearch;
  *
  * </p>
  * <p>
+ *     Optionally, the models can cooperate by exchanging short nogoods (see {@link #shareNogoods(int)}).
+ *     The nogoods learnt by a model (for instance, with {@link Solver#setNoGoodRecordingFromRestarts()})
+ *     are sent to the inbox of every other model, and each model drains its own inbox on restart.
+ *     This requires the models to be identical, at least to declare the same variables in the same order.
+ * </p>
+ * <p>
+ *     When dealing with an optimization problem, the models running a Large Neighborhood Search
+ *     can also share their incumbent (see {@link #shareBestSolution()}):
+ *     on restart, a LNS computes its next neighborhoods from the best solution found by all models.
+ *     Thus, several neighborhoods are explored concurrently around the same solution.
+ * </p>
+ * <p>
+ *     When search heuristics are set by the portfolio, some models run a LNS whose neighbors are selected
+ *     wrt the improvement of the objective per second (see {@link INeighborFactory#bandit(long, IntVar...)}).
+ *     Like the interleaving of the models, this depends on running times, thus the resolution is not reproducible.
+ *     When search heuristics are set manually, {@link INeighborFactory#banditPerNode(long, IntVar...)}
+ *     makes the LNS of each model independent of running times.
+ * </p>
+ * <p>
  *     Note that the similarity of the models declared is not required.
  *     However, when dealing with an optimization problem, keep in mind that the cut on the objective variable's value
  *     is propagated among all models, so different objectives may lead to wrong results.
@@ -85,9 +113,34 @@ import static org.chocosolver.solver.search.strategy.Search.setVarSearch;
  *      pares.addModel(modeller());
  * }
  * pares.solve();
+ * </code>
+ * </pre>
+ * or, without rebuilding the model:
+ * <pre>
+ * <code>Model model = modeller();
+ * pares.addModel(model);
+ * for (int i = 1; i < n; i++) {
+ *      pares.addModel(model.copy());
+ * }
+ * pares.solve();
  * IOutputFactory.printSolutions(pares.getBestModel());
  * </code>
  * </pre>
+ * or, to run a LNS on each model, around a shared incumbent:
+ * <pre>
+ * <code>ParallelPortfolio pares = new ParallelPortfolio(false);
+ * Model model = modeller();
+ * for (int i = 0; i < n; i++) {
+ *      Model copy = model.copy();
+ *      IntVar[] vars = copy.retrieveIntVars(true);
+ *      copy.getSolver().setSearch(Search.randomSearch(vars, i));
+ *      copy.getSolver().setLNS(INeighborFactory.bandit(i, vars), new FailCounter(copy, 100));
+ *      pares.addModel(copy);
+ * }
+ * pares.shareBestSolution();
+ * while(pares.solve());
+ * </code>
+ * </pre>
  *
  * </p>
  * <p>
@@ -121,6 +174,24 @@ public class ParallelPortfolio {
     /** Point to (one of) the solver(s) which found a solution */
     private Model finder;
 
+    /** Maximum number of literals of a nogood to be shared among models, 0 means no sharing */
+    private int shareSize = 0;
+
+    /** Maximum number of pending nogoods in the inbox of a model */
+    private static final int INBOX_CAPACITY = 1 << 14;
+
+    /** One nogood exchanger per model, when nogoods are shared */
+    private NogoodExchanger[] exchangers;
+
+    /** Set to <tt>true</tt> to share the best solution among models running a LNS */
+    private boolean shareSolution = false;
+
+    /** One solution exchanger per model, when the best solution is shared */
+    private SolutionExchanger[] solutionExchangers;
+
+    /** Best solution found so far by the models, when the best solution is shared */
+    private volatile Incumbent incumbent;
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ///////////////////////////////////////      CONSTRUCTOR      //////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -159,7 +230,8 @@ public class ParallelPortfolio {
      *     <b>Important:</b>
      *  <ul>
      *      <li>the populating process is not managed by this ParallelPortfolio
-     *  and should be done externally, with a dedicated method for example.
+     *  and should be done externally, with a dedicated method for example,
+     *  or by copying a model with {@link Model#copy()}.
      *  </li>
      *  <li>
      *      when dealing with optimization problems, the objective variables <b>HAVE</b> to be declared eagerly with
@@ -174,6 +246,60 @@ public class ParallelPortfolio {
         this.models.add(model);
     }
 
+    /**
+     * <p>
+     * Turns the portfolio into a cooperative one: nogoods with at most <code>maxSize</code> literals
+     * learnt by a model are shared with the other ones.
+     * Each model receives the nogoods in a lock-free inbox that is drained on restart,
+     * thus only models which restart benefit from them.
+     * </p>
+     * <p>
+     * The nogoods recorded in {@link PropNogoods} (from restarts, from solutions or from explanations) and
+     * the clauses learnt by {@link PropSat} are considered.
+     * Must be called before the first call to {@link #solve()}.
+     * </p>
+     * <p>
+     *     <b>Important:</b> all models must declare the same variables in the same order,
+     *     since a nogood is transferred from a model to another one through variables' position.
+     * </p>
+     * @param maxSize maximum number of literals in a shared nogood, 0 to disable sharing
+     * @throws SolverException if the portfolio has already been prepared or if <code>maxSize</code> is negative
+     */
+    public void shareNogoods(int maxSize) {
+        if (isPrepared) {
+            throw new SolverException("Nogood sharing should be declared before running the ParallelPortfolio.");
+        }
+        if (maxSize < 0) {
+            throw new SolverException("The maximum size of shared nogoods should be positive.");
+        }
+        this.shareSize = maxSize;
+    }
+
+    /**
+     * <p>
+     * Turns the portfolio into a cooperative LNS: each model running a Large Neighborhood Search
+     * (see {@link Solver#setLNS(org.chocosolver.solver.search.loop.lns.neighbors.INeighbor,
+     * org.chocosolver.solver.search.limits.ICounter)}) computes its next neighborhoods from the best solution
+     * found by all models.
+     * The best solution is loaded into the neighbor of a model on restart,
+     * thus the neighbor should support {@link org.chocosolver.solver.search.loop.lns.neighbors.INeighbor#loadFromSolution(Solution)}.
+     * Only optimization problems are concerned.
+     * Must be called before the first call to {@link #solve()}.
+     * </p>
+     * <p>
+     *     <b>Important:</b> all models must declare the same variables in the same order,
+     *     since a solution is transferred from a model to another one through variables' position.
+     *     Models copied with {@link Model#copy()} meet this requirement.
+     * </p>
+     * @throws SolverException if the portfolio has already been prepared
+     */
+    public void shareBestSolution() {
+        if (isPrepared) {
+            throw new SolverException("Solution sharing should be declared before running the ParallelPortfolio.");
+        }
+        this.shareSolution = true;
+    }
+
     /**
      * Run the solve() instruction of every model of the portfolio in parallel.
      *
@@ -239,6 +365,18 @@ public class ParallelPortfolio {
         return finder;
     }
 
+    /**
+     * Returns the number of nogoods imported by the <i>i</i><sup>th</sup> model from the other ones,
+     * see {@link #shareNogoods(int)}.
+     * Should be called once {@link #solve()} returns.
+     *
+     * @param i index of a model in {@link #getModels()}
+     * @return the number of nogoods imported by the model, 0 if nogoods are not shared
+     */
+    public long getNbImportedNogoods(int i){
+        return exchangers == null ? 0 : exchangers[i].imported;
+    }
+
     /**
      * @return the (mutable!) list of models used in this ParallelPortfolio
      */
@@ -254,6 +392,18 @@ public class ParallelPortfolio {
     private void prepare(){
         isPrepared = true;
         check();
+        if (shareSize > 0) {
+            exchangers = new NogoodExchanger[models.size()];
+            for (int i = 0; i < models.size(); i++) {
+                exchangers[i] = new NogoodExchanger(i, models.get(i));
+            }
+        }
+        if (shareSolution) {
+            solutionExchangers = new SolutionExchanger[models.size()];
+            for (int i = 0; i < models.size(); i++) {
+                solutionExchangers[i] = new SolutionExchanger(i, models.get(i));
+            }
+        }
         for(int i=0;i<models.size();i++){
             Solver s = models.get(i).getSolver();
             s.addStopCriterion((Criterion) () -> getSolverTerminated().get());
@@ -261,6 +411,13 @@ public class ParallelPortfolio {
             if(searchAutoConf){
                 configureModel(i);
             }
+            if (shareSize > 0) {
+                // plugged after nogood recording, if any, so that fresh nogoods are sent on restart
+                exchangers[i].plug();
+            }
+            if (shareSolution) {
+                s.plugMonitor(solutionExchangers[i]);
+            }
         }
     }
 
@@ -279,6 +436,9 @@ public class ParallelPortfolio {
             if(solverVal == bestVal){
                 getSolutionFound().set(true);
                 finder = m;
+                if (shareSolution) {
+                    solutionExchangers[models.indexOf(m)].publish();
+                }
                 if (m.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE) {
                     models.forEach(s1 -> s1.getSolver().getObjectiveManager().updateBestLB(bestVal));
                 }else {
@@ -352,7 +512,7 @@ public class ParallelPortfolio {
                     // input order + LC + LNS
                     solver.setSearch(Search.inputOrderLBSearch(worker.retrieveIntVars(true)));
                     solver.setSearch(lastConflict(solver.getSearch()));
-                    solver.setLNS(INeighborFactory.blackBox(ivars), new FailCounter(solver.getModel(), 1000));
+                    solver.setLNS(INeighborFactory.bandit(workerID, ivars), new FailCounter(solver.getModel(), 1000));
                 }
                 break;
             case 4:
@@ -387,7 +547,7 @@ public class ParallelPortfolio {
                 // random search (various seeds) + LNS if optim
                 solver.setSearch(lastConflict(randomSearch(ivars,workerID)));
                 if(policy!=ResolutionPolicy.SATISFACTION){
-                    solver.setLNS(INeighborFactory.blackBox(ivars), new FailCounter(solver.getModel(), 1000));
+                    solver.setLNS(INeighborFactory.bandit(workerID, ivars), new FailCounter(solver.getModel(), 1000));
                 }
                 break;
         }
@@ -405,6 +565,20 @@ public class ParallelPortfolio {
         if (models.size() == 0) {
             throw new SolverException("No model found in the ParallelPortfolio.");
         }
+        if (shareSize > 0 || shareSolution) {
+            Variable[] ref = models.get(0).getVars();
+            for (int i = 1; i < models.size(); i++) {
+                Variable[] vars = models.get(i).getVars();
+                boolean same = vars.length == ref.length;
+                for (int j = 0; same && j < vars.length; j++) {
+                    same = vars[j].getTypeAndKind() == ref[j].getTypeAndKind();
+                }
+                if (!same) {
+                    throw new SolverException("Nogoods and solutions can only be shared among models " +
+                            "which declare the same variables in the same order.");
+                }
+            }
+        }
         if(models.get(0).getResolutionPolicy() != ResolutionPolicy.SATISFACTION) {
             Variable objective = models.get(0).getObjective();
             if (objective == null) {
@@ -428,4 +602,225 @@ public class ParallelPortfolio {
     private synchronized AtomicBoolean getSolutionFound(){
         return solutionFound;
     }
+
+    /**
+     * Sends the nogoods learnt by a model to the other ones and imports the nogoods received from the other ones.
+     * A shared nogood is expressed independently of any model, as a sequence of triplets:
+     * position of the variable, value and flags (bit 0 is set for '=', unset for '&le;', bit 1 is set for positive literal).
+     */
+    private final class NogoodExchanger implements IMonitorRestart {
+
+        /** Position of this model in {@link #models} */
+        private final int wid;
+        /** The model this exchanger is attached to */
+        private final Model model;
+        /** Integer variables which can appear in a shared nogood, in declaration order */
+        private final IntVar[] ivars;
+        /** Maps variable's id to its position in {@link #ivars} */
+        private final TIntIntHashMap id2pos;
+        /** Nogoods learnt since last restart, to be sent */
+        private final ArrayList<int[]> outbox;
+        /** Nogoods received from other models, to be imported */
+        private final ConcurrentLinkedQueue<int[]> inbox;
+        /** Number of nogoods pending in {@link #inbox} */
+        private final AtomicInteger pending;
+        /** The nogood store, where received nogoods are imported */
+        private PropNogoods png;
+        /** Set to <tt>true</tt> while importing, to avoid sending back received nogoods */
+        private boolean importing;
+        /** Number of nogoods imported so far */
+        private long imported;
+
+        NogoodExchanger(int wid, Model model) {
+            this.wid = wid;
+            this.model = model;
+            Variable[] vars = model.getVars();
+            this.ivars = new IntVar[vars.length];
+            this.id2pos = new TIntIntHashMap(vars.length, .5f, -1, -1);
+            for (int i = 0; i < vars.length; i++) {
+                if ((vars[i].getTypeAndKind() & Variable.INT) != 0) {
+                    ivars[i] = (IntVar) vars[i];
+                    id2pos.put(vars[i].getId(), i);
+                }
+            }
+            this.outbox = new ArrayList<>();
+            this.inbox = new ConcurrentLinkedQueue<>();
+            this.pending = new AtomicInteger();
+        }
+
+        /**
+         * Plugs this exchanger into the model: listens to learnt clauses and monitors restarts.
+         */
+        void plug() {
+            png = model.getNogoodStore().getPropNogoods();
+            png.setLearntListener(lits -> {
+                if (!importing && lits.length <= shareSize) {
+                    int[] nogood = new int[lits.length * 3];
+                    for (int i = 0; i < lits.length; i++) {
+                        int pos = id2pos.get(png.getLiteralVariable(lits[i]).getId());
+                        if (pos == -1) return; // refers to a variable declared internally
+                        nogood[3 * i] = pos;
+                        nogood[3 * i + 1] = png.getLiteralValue(lits[i]);
+                        nogood[3 * i + 2] = (png.isEqLiteral(lits[i]) ? 1 : 0) | (PropNogoods.isPositive(lits[i]) ? 2 : 0);
+                    }
+                    outbox.add(nogood);
+                }
+            });
+            SatConstraint minisat = (SatConstraint) model.getHook(Model.MINISAT_HOOK_NAME);
+            if (minisat != null) {
+                PropSat sat = minisat.getPropSat();
+                sat.setLearntListener(lits -> {
+                    if (lits.length <= shareSize) {
+                        int[] nogood = new int[lits.length * 3];
+                        for (int i = 0; i < lits.length; i++) {
+                            int pos = id2pos.get(sat.getLiteralVariable(lits[i]).getId());
+                            if (pos == -1) return; // refers to a variable declared internally
+                            nogood[3 * i] = pos;
+                            nogood[3 * i + 1] = 1;
+                            nogood[3 * i + 2] = 1 | (PropSat.isPositive(lits[i]) ? 2 : 0);
+                        }
+                        outbox.add(nogood);
+                    }
+                });
+            }
+            model.getSolver().plugMonitor(this);
+        }
+
+        @Override
+        public void beforeRestart() {
+            // 1. send
+            for (int i = 0; i < outbox.size(); i++) {
+                int[] nogood = outbox.get(i);
+                for (int j = 0; j < exchangers.length; j++) {
+                    if (j != wid) {
+                        exchangers[j].receive(nogood);
+                    }
+                }
+            }
+            outbox.clear();
+            // 2. import
+            importing = true;
+            try {
+                int[] nogood;
+                while ((nogood = inbox.poll()) != null) {
+                    pending.decrementAndGet();
+                    int[] lits = new int[nogood.length / 3];
+                    for (int i = 0; i < lits.length; i++) {
+                        int flags = nogood[3 * i + 2];
+                        lits[i] = png.Literal(ivars[nogood[3 * i]], nogood[3 * i + 1], (flags & 1) != 0);
+                        if ((flags & 2) == 0) {
+                            lits[i] = SatSolver.negated(lits[i]);
+                        }
+                    }
+                    png.addLearnt(lits);
+                    imported++;
+                }
+            } finally {
+                importing = false;
+            }
+        }
+
+        /**
+         * Adds a nogood to the inbox, unless it is full.
+         * May be called from any thread.
+         * @param nogood a model-independent nogood
+         */
+        void receive(int[] nogood) {
+            if (pending.incrementAndGet() <= INBOX_CAPACITY) {
+                inbox.offer(nogood);
+            } else {
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * A solution found by a model, stored independently of the model, through variables' position.
+     */
+    private static final class Incumbent {
+
+        /** Position of the model which finds the solution in {@link #models} */
+        private final int wid;
+        /** Value of each variable, in declaration order, 0 for non-integer variables */
+        private final int[] values;
+
+        Incumbent(int wid, int[] values) {
+            this.wid = wid;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Publishes the solutions found by a model and, on restart, loads the best solution into the neighbor of the LNS,
+     * if any.
+     * Each instance is only accessed by the thread running its model,
+     * the best solution is shared through {@link #incumbent}.
+     */
+    private final class SolutionExchanger implements IMonitorRestart {
+
+        /** Position of this model in {@link #models} */
+        private final int wid;
+        /** The model this exchanger is attached to */
+        private final Model model;
+        /** Integer variables of the model, in declaration order, <tt>null</tt> for other variables */
+        private final IntVar[] ivars;
+        /** Integer variables of the model, to store in a solution */
+        private final IntVar[] toStore;
+        /** The last solution loaded */
+        private Incumbent loaded;
+
+        SolutionExchanger(int wid, Model model) {
+            this.wid = wid;
+            this.model = model;
+            Variable[] vars = model.getVars();
+            this.ivars = new IntVar[vars.length];
+            int k = 0;
+            for (int i = 0; i < vars.length; i++) {
+                if ((vars[i].getTypeAndKind() & Variable.INT) != 0) {
+                    ivars[i] = (IntVar) vars[i];
+                    k++;
+                }
+            }
+            this.toStore = new IntVar[k];
+            k = 0;
+            for (IntVar var : ivars) {
+                if (var != null) {
+                    toStore[k++] = var;
+                }
+            }
+        }
+
+        /**
+         * Makes the current solution of the model the best one.
+         * Called by the thread running the model, when a better solution is found.
+         */
+        void publish() {
+            int[] values = new int[ivars.length];
+            for (int i = 0; i < ivars.length; i++) {
+                if (ivars[i] != null && ivars[i].isInstantiated()) {
+                    values[i] = ivars[i].getValue();
+                }
+            }
+            incumbent = new Incumbent(wid, values);
+        }
+
+        @Override
+        public void beforeRestart() {
+            Incumbent best = incumbent;
+            if (best != null && best != loaded && best.wid != wid
+                    && model.getSolver().getMove() instanceof MoveLNS) {
+                loaded = best;
+                Solution solution = new Solution(model, toStore);
+                for (int i = 0; i < ivars.length; i++) {
+                    if (ivars[i] != null) {
+                        solution.setIntVal(ivars[i], best.values[i]);
+                    }
+                }
+                // MoveLNS#loadFromSolution(Solution, Solver) would trigger another restart, while this one is
+                // in progress: loading the solution into the neighbor is enough, since the next fragment is
+                // computed on the fresh restart which follows
+                ((MoveLNS) model.getSolver().getMove()).getNeighbor().loadFromSolution(solution);
+            }
+        }
+    }
 }
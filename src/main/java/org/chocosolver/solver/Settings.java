@@ -44,6 +44,8 @@ public interface Settings  {
      *    <li>{@link #setInitSolver(Function)}        </li>
      *    <li>{@link #setEnvironmentHistorySimulationCondition(ICondition)}</li>
      *    <li>{@link #setEnableIncrementalityOnBoolSum(IntPredicate)}           </li>
+     *    <li>{@link #setEnableIncrementalityOnSum(IntPredicate)}           </li>
+     *    <li>{@link #setEnableSweepOnDiffN(IntPredicate)}           </li>
      * </ul>
      * @param properties a property file to load setting from.
      * @return the current instance
@@ -66,6 +68,8 @@ public interface Settings  {
         this.setSwapOnPassivate(Boolean.valueOf(properties.get("propagators.swap").toString()));
         this.setCheckDeclaredConstraints(Boolean.valueOf(properties.get("constraints.check").toString()));
         this.setHybridizationOfPropagationEngine(Byte.valueOf(properties.get("propagationEngine.hybridization").toString()));
+        this.setNbLearntNogoodsBeforeReduction(Integer.valueOf(properties.get("nogoods.reduction.threshold").toString()));
+        this.setMaxLiteralsInLearntNogoods(Integer.valueOf(properties.get("nogoods.literals.threshold").toString()));
         return this;
     }
 
@@ -78,6 +82,8 @@ public interface Settings  {
      *    <li>{@link #setInitSolver(Function)}        </li>
      *    <li>{@link #setEnvironmentHistorySimulationCondition(ICondition)}</li>
      *    <li>{@link #setEnableIncrementalityOnBoolSum(IntPredicate)}           </li>
+     *    <li>{@link #setEnableIncrementalityOnSum(IntPredicate)}           </li>
+     *    <li>{@link #setEnableSweepOnDiffN(IntPredicate)}           </li>
      * </ul>
      * @param      inStream   the input stream.
      * @exception  IOException  if an error occurred when reading from the
@@ -102,6 +108,8 @@ public interface Settings  {
      *    <li>{@link #setInitSolver(Function)}        </li>
      *    <li>{@link #setEnvironmentHistorySimulationCondition(ICondition)}</li>
      *    <li>{@link #setEnableIncrementalityOnBoolSum(IntPredicate)}           </li>
+     *    <li>{@link #setEnableIncrementalityOnSum(IntPredicate)}           </li>
+     *    <li>{@link #setEnableSweepOnDiffN(IntPredicate)}           </li>
      * </ul>
      * @exception IOException if writing this property list to the specified
      *             output stream throws an <tt>IOException</tt>.
@@ -126,6 +134,8 @@ public interface Settings  {
         properties.setProperty("propagators.swap", Boolean.toString(swapOnPassivate()));
         properties.setProperty("constraints.check", Boolean.toString(checkDeclaredConstraints()));
         properties.setProperty("propagationEngine.hybridization", Byte.toString(enableHybridizationOfPropagationEngine()));
+        properties.setProperty("nogoods.reduction.threshold", Integer.toString(getNbLearntNogoodsBeforeReduction()));
+        properties.setProperty("nogoods.literals.threshold", Integer.toString(getMaxLiteralsInLearntNogoods()));
         return properties;
     }
 
@@ -138,6 +148,8 @@ public interface Settings  {
      *    <li>{@link #setInitSolver(Function)}        </li>
      *    <li>{@link #setEnvironmentHistorySimulationCondition(ICondition)}</li>
      *    <li>{@link #setEnableIncrementalityOnBoolSum(IntPredicate)}           </li>
+     *    <li>{@link #setEnableIncrementalityOnSum(IntPredicate)}           </li>
+     *    <li>{@link #setEnableSweepOnDiffN(IntPredicate)}           </li>
      * </ul>
      * @param   out      an output stream.
      * @param   comments   a description of the property list.
@@ -208,6 +220,7 @@ public interface Settings  {
     /**
      * Define the minimum number of cardinality threshold to a sum/scalar constraint to be decomposed in intermediate
      * sub-sums.
+     * A constraint for which incrementality is enabled (see {@link #enableIncrementalityOnSum(int)}) is not decomposed.
      * @param maxDomSizeForEnumerated cardinality threshold
      * @return the current instance
      */
@@ -348,6 +361,40 @@ public interface Settings  {
      */
     Settings setEnableIncrementalityOnBoolSum(IntPredicate enableIncrementalityOnBoolSum);
 
+    /**
+     * @param nbvars number of variables in the constraint
+     * @return {@code true} if the incrementality is enabled on sum and scalar product over integer variables
+     * (see {@link org.chocosolver.solver.constraints.nary.sum.PropScalarIncr}), based on the number of variables involved.
+     * Such a constraint is not decomposed into intermediate sub-sums, which changes the propagation:
+     * it is never selected by default.
+     */
+    boolean enableIncrementalityOnSum(int nbvars);
+
+    /**
+     * Define the predicate to choose incremental sum and scalar product over integer variables,
+     * based on number variables declared, for instance <code>i -> i > 100</code> for long constraints.
+     * @param enableIncrementalityOnSum predicate to pick incremental sum
+     * @return the current instance
+     */
+    Settings setEnableIncrementalityOnSum(IntPredicate enableIncrementalityOnSum);
+
+    /**
+     * @param nbboxes number of rectangles in the constraint
+     * @return {@code true} if a diffN constraint should be filtered with a sweep-based propagator
+     * (see {@link org.chocosolver.solver.constraints.nary.PropDiffNSweep}), based on the number of rectangles involved.
+     * The sweep-based propagator needs linear memory, instead of quadratic, but does not filter sizes:
+     * it is never selected by default.
+     */
+    boolean enableSweepOnDiffN(int nbboxes);
+
+    /**
+     * Define the predicate to choose the sweep-based diffN propagator, based on number of rectangles declared,
+     * for instance <code>i -> i > 1000</code> for large instances.
+     * @param enableSweepOnDiffN predicate to pick the sweep-based propagator
+     * @return the current instance
+     */
+    Settings setEnableSweepOnDiffN(IntPredicate enableSweepOnDiffN);
+
     /**
      * @return true if all propagators should clone the input variable array instead of simply referencing it.
      */
@@ -462,4 +509,33 @@ public interface Settings  {
      */
     Settings setHybridizationOfPropagationEngine(byte hybrid);
 
+    /**
+     * @return number of deletable learnt no-goods which triggers the first reduction of the no-goods store
+     * (see {@link org.chocosolver.sat.PropNogoods})
+     */
+    int getNbLearntNogoodsBeforeReduction();
+
+    /**
+     * Define the number of deletable learnt no-goods which triggers the first reduction of the no-goods store.
+     * On reduction, the least useful half of the learnt no-goods is removed, and the threshold is increased by a tenth
+     * of this value.
+     * @param nbLearntNogoodsBeforeReduction number of learnt no-goods
+     * @return the current instance
+     */
+    Settings setNbLearntNogoodsBeforeReduction(int nbLearntNogoodsBeforeReduction);
+
+    /**
+     * @return maximum number of literals in deletable learnt no-goods (see {@link org.chocosolver.sat.PropNogoods})
+     */
+    int getMaxLiteralsInLearntNogoods();
+
+    /**
+     * Define the maximum number of literals in deletable learnt no-goods, to bound the memory consumption
+     * of the no-goods store.
+     * When this threshold is exceeded, learnt no-goods are removed until half of it is reached.
+     * @param maxLiteralsInLearntNogoods maximum number of literals
+     * @return the current instance
+     */
+    Settings setMaxLiteralsInLearntNogoods(int maxLiteralsInLearntNogoods);
+
 }
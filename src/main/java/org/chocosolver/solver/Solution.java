@@ -53,6 +53,12 @@ public class Solution implements ICause {
     /** Variables to store; */
     private Variable[] varsToStore;
 
+    // VIEW
+    /** Pool this solution reads its values in, or <tt>null</tt> if the values are stored in this object */
+    private SolutionPool pool;
+    /** Row of this solution in {@link #pool} */
+    private int row;
+
     //***********************************************************************************
     // CONSTRUCTOR
     //***********************************************************************************
@@ -72,6 +78,20 @@ public class Solution implements ICause {
         this.model = model;
     }
 
+    /**
+     * Create a view of the solution recorded in a row of a pool.
+     * The values are read in the pool until this object is modified.
+     *
+     * @param pool pool of solutions
+     * @param row  index of the solution in the pool
+     */
+    Solution(SolutionPool pool, int row) {
+        this(pool.getModel(), pool.getVarsToStore());
+        this.empty = false;
+        this.pool = pool;
+        this.row = row;
+    }
+
     //***********************************************************************************
     // METHODS
     //***********************************************************************************
@@ -82,6 +102,7 @@ public class Solution implements ICause {
      * @return this object
      */
     public Solution record() {
+        pool = null;
         empty = false;
         boolean warn = false;
         if (varsToStore.length == 0) {
@@ -140,11 +161,74 @@ public class Solution implements ICause {
         return this;
     }
 
+    /**
+     * Copies the values read in the pool, if any, in this object.
+     */
+    private void detach() {
+        if (pool != null) {
+            SolutionPool p = pool;
+            pool = null;
+            intmap = null;
+            realmap = null;
+            setmap = null;
+            for (Variable var : varsToStore) {
+                if ((var.getTypeAndKind() & Variable.TYPE) != Variable.CSTE) {
+                    switch (var.getTypeAndKind() & Variable.KIND) {
+                        case Variable.INT:
+                        case Variable.BOOL:
+                            IntVar v = (IntVar) var;
+                            if (p.hasIntVal(row, v)) {
+                                setIntVal(v, p.getIntVal(row, v));
+                            }
+                            break;
+                        case Variable.REAL:
+                            RealVar r = (RealVar) var;
+                            setRealBounds(r, p.getRealBounds(row, r));
+                            break;
+                        case Variable.SET:
+                            SetVar s = (SetVar) var;
+                            if (p.hasSetVal(row, s)) {
+                                setSetVal(s, p.getSetVal(row, s));
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param v IntVar (or BoolVar)
+     * @return <tt>true</tt> if the value of <i>v</i> is stored in this solution
+     */
+    public boolean hasIntVal(IntVar v) {
+        if (pool != null) {
+            return pool.hasIntVal(row, v);
+        }
+        return !empty && intmap != null && intmap.containsKey(v.getId());
+    }
+
+    /**
+     * @param s SetVar
+     * @return <tt>true</tt> if the value of <i>s</i> is stored in this solution
+     */
+    public boolean hasSetVal(SetVar s) {
+        if (pool != null) {
+            return pool.hasSetVal(row, s);
+        }
+        return !empty && setmap != null && setmap.containsKey(s.getId());
+    }
+
     @Override
     public String toString() {
         if (empty) {
             return "Empty solution. No solution recorded yet";
         }
+        if (pool != null) {
+            return copySolution().toString();
+        }
         StringBuilder st = new StringBuilder("Solution: ");
         for (Variable var : varsToStore) {
             if ((var.getTypeAndKind() & Variable.TYPE) != Variable.CSTE) {
@@ -175,6 +259,11 @@ public class Solution implements ICause {
     }
 
     public Solution copySolution() {
+        if (pool != null) {
+            Solution ret = new Solution(pool, row);
+            ret.detach();
+            return ret;
+        }
         Solution ret = new Solution(model, varsToStore);
         ret.empty = empty;
         ret.intmap = new TIntIntHashMap(intmap);
@@ -195,6 +284,9 @@ public class Solution implements ICause {
         if (empty) {
             throw new SolverException("Cannot access value of " + v + ": No solution has been recorded yet (empty solution). Make sure this.record() has been called.");
         }
+        if (pool != null) {
+            return pool.getIntVal(row, v);
+        }
         if (intmap != null && intmap.containsKey(v.getId())) {
             return intmap.get(v.getId());
         } else {
@@ -213,6 +305,7 @@ public class Solution implements ICause {
      * @param val its value
      */
     public void setIntVal(IntVar var, int val) {
+        detach();
         empty = false;
         if (intmap == null) {
             intmap = new TIntIntHashMap(16, .5f, Solution.NO_ENTRY, Solution.NO_ENTRY);
@@ -232,6 +325,9 @@ public class Solution implements ICause {
         if (empty) {
             throw new SolverException("Cannot access value of " + s + ": No solution has been recorded yet (empty solution). Make sure this.record() has been called.");
         }
+        if (pool != null) {
+            return pool.getSetVal(row, s);
+        }
         if (setmap != null && setmap.containsKey(s.getId())) {
             return setmap.get(s.getId());
         } else if ((s.getTypeAndKind() & Variable.TYPE) == Variable.CSTE) {
@@ -248,6 +344,7 @@ public class Solution implements ICause {
      * @param val its value
      */
     public void setSetVal(SetVar var, int[] val) {
+        detach();
         empty = false;
         if (setmap == null) {
             setmap = new TIntObjectHashMap<>(16, 05f, Solution.NO_ENTRY);
@@ -267,6 +364,9 @@ public class Solution implements ICause {
         if (empty) {
             throw new SolverException("Cannot access value of " + r + ": No solution has been recorded yet (empty solution). Make sure this.record() has been called.");
         }
+        if (pool != null) {
+            return pool.getRealBounds(row, r);
+        }
         if (realmap != null && realmap.containsKey(r.getId())) {
             return realmap.get(r.getId());
         } else {
@@ -285,6 +385,7 @@ public class Solution implements ICause {
      * @param val its value
      */
     public void setRealBounds(RealVar var, double[] val) {
+        detach();
         empty = false;
         if (realmap == null) {
             realmap = new TIntObjectHashMap<>(16, 05f, Solution.NO_ENTRY);
@@ -340,6 +441,7 @@ public class Solution implements ICause {
      *  @exception ContradictionException if restoring the solution leads to failure
      */
     public void restore() throws ContradictionException{
+        detach();
         for (Variable var : varsToStore) {
             if ((var.getTypeAndKind() & Variable.TYPE) != Variable.CSTE) {
                 int kind = var.getTypeAndKind() & Variable.KIND;
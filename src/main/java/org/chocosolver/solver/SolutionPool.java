@@ -0,0 +1,542 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.RealVar;
+import org.chocosolver.solver.variables.SetVar;
+import org.chocosolver.solver.variables.Variable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A compact store of solutions.
+ * <p>
+ * Unlike a list of {@link Solution}, where each solution maps variable ids to values,
+ * the pool assigns a column to each variable to store, once for all, and records each solution as a row.
+ * The value of an integer variable is stored as its offset to the lower bound of the variable,
+ * on as many bits as needed to encode its domain, when the pool is created;
+ * a boolean variable thus takes one bit.
+ * Rows are packed in pages of <code>long</code>, which are kept on the heap
+ * or, optionally, in a memory-mapped file.
+ * Real and set variables, if any, are stored apart, on the heap.
+ * <p>
+ * Since the width of the columns depends on the domains of the variables when the pool is created,
+ * the pool should be created before the search starts (or, at least, at a node which is an ancestor of all the
+ * solutions to record).
+ * <p>
+ * A pool is a {@link java.util.List} of solutions: {@link #get(int)} returns a {@link Solution} which reads its
+ * values in the pool and modifying it does not affect the pool.
+ * <pre>
+ *     {@code
+ *     SolutionPool pool = new SolutionPool(model);
+ *     while (model.getSolver().solve()) {
+ *         pool.record();
+ *     }
+ *     }
+ * </pre>
+ * See also {@link org.chocosolver.solver.search.IResolutionHelper#findAllSolutions(SolutionPool, org.chocosolver.util.criteria.Criterion...)}.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class SolutionPool extends AbstractList<Solution> implements Closeable {
+
+    /**
+     * Number of longs in a page
+     */
+    private static final int PAGE_SIZE = 1 << 16;
+
+    /**
+     * Model to store
+     */
+    private final Model model;
+    /**
+     * Variables to store
+     */
+    private final Variable[] varsToStore;
+    /**
+     * Column of each integer variable, indexed by variable id, -1 if the variable is not stored in a column
+     */
+    private int[] colOf;
+    /**
+     * Offset (lower bound) of each integer column
+     */
+    private int[] offsets;
+    /**
+     * Position of the first bit of each integer column in a row
+     */
+    private int[] firstBits;
+    /**
+     * Number of bits of each integer column
+     */
+    private int[] widths;
+    /**
+     * Integer variables stored, one per column
+     */
+    private IntVar[] intVars;
+    /**
+     * Real variables stored
+     */
+    private RealVar[] realVars;
+    /**
+     * Set variables stored
+     */
+    private SetVar[] setVars;
+    /**
+     * Number of longs in a row
+     */
+    private int rowSize;
+    /**
+     * Number of rows in a page
+     */
+    private int rowsPerPage;
+    /**
+     * Pages of rows
+     */
+    private final List<LongBuffer> pages = new ArrayList<>();
+    /**
+     * Bounds of real variables, two per variable and per row
+     */
+    private final TDoubleArrayList reals = new TDoubleArrayList();
+    /**
+     * Values of set variables, one array per variable and per row
+     */
+    private final List<int[][]> sets = new ArrayList<>();
+    /**
+     * Columns which were not instantiated, for each incomplete row
+     */
+    private final TIntObjectHashMap<BitSet> missing = new TIntObjectHashMap<>();
+    /**
+     * Row being recorded
+     */
+    private long[] buffer;
+    /**
+     * Number of solutions recorded
+     */
+    private int size;
+    /**
+     * File the pages are mapped to, or <tt>null</tt> if the pages are kept on the heap
+     */
+    private final FileChannel channel;
+
+    /**
+     * Create an empty pool able to store the value of each variable in <code>varsToStore</code>.
+     * Stores all variables of the model by default, when <code>varsToStore</code> is empty.
+     * The pages are kept on the heap.
+     *
+     * @param model       model of the solutions
+     * @param varsToStore variables to store in this pool
+     */
+    public SolutionPool(Model model, Variable... varsToStore) {
+        this.model = model;
+        this.varsToStore = varsToStore.length == 0 ? model.getVars() : varsToStore;
+        this.channel = null;
+        declare();
+    }
+
+    /**
+     * Create an empty pool able to store the value of each variable in <code>varsToStore</code>.
+     * Stores all variables of the model by default, when <code>varsToStore</code> is empty.
+     * Pages of integer values are mapped to <code>file</code>, which is created or overwritten.
+     * The pool has to be closed to release the file.
+     *
+     * @param model       model of the solutions
+     * @param file        file where the pages are mapped
+     * @param varsToStore variables to store in this pool
+     * @throws IOException if the file cannot be opened
+     */
+    public SolutionPool(Model model, Path file, Variable... varsToStore) throws IOException {
+        this.model = model;
+        this.varsToStore = varsToStore.length == 0 ? model.getVars() : varsToStore;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        declare();
+    }
+
+    /**
+     * Assign a column to each variable to store.
+     */
+    private void declare() {
+        List<IntVar> ivars = new ArrayList<>();
+        List<RealVar> rvars = new ArrayList<>();
+        List<SetVar> svars = new ArrayList<>();
+        int maxId = -1;
+        for (Variable var : varsToStore) {
+            if ((var.getTypeAndKind() & Variable.TYPE) != Variable.CSTE) {
+                switch (var.getTypeAndKind() & Variable.KIND) {
+                    case Variable.INT:
+                    case Variable.BOOL:
+                        ivars.add((IntVar) var);
+                        maxId = Math.max(maxId, var.getId());
+                        break;
+                    case Variable.REAL:
+                        rvars.add((RealVar) var);
+                        break;
+                    case Variable.SET:
+                        svars.add((SetVar) var);
+                        break;
+                    default:
+                        // other variable kinds are not stored, as in Solution
+                        break;
+                }
+            }
+        }
+        intVars = ivars.toArray(new IntVar[0]);
+        realVars = rvars.toArray(new RealVar[0]);
+        setVars = svars.toArray(new SetVar[0]);
+        colOf = new int[maxId + 1];
+        Arrays.fill(colOf, -1);
+        offsets = new int[intVars.length];
+        firstBits = new int[intVars.length];
+        widths = new int[intVars.length];
+        int bits = 0;
+        for (int c = 0; c < intVars.length; c++) {
+            IntVar v = intVars[c];
+            colOf[v.getId()] = c;
+            offsets[c] = v.getLB();
+            long range = (long) v.getUB() - v.getLB();
+            widths[c] = range == 0 ? 0 : 64 - Long.numberOfLeadingZeros(range);
+            firstBits[c] = bits;
+            bits += widths[c];
+        }
+        rowSize = Math.max(1, (bits + 63) >>> 6);
+        rowsPerPage = Math.max(1, PAGE_SIZE / rowSize);
+        buffer = new long[rowSize];
+    }
+
+    /**
+     * Records the current solution of the model as a new row.
+     *
+     * @return the index of the row
+     * @throws SolverException if a value of an integer variable is out of the domain the variable had
+     *                         when the pool was created
+     */
+    public int record() {
+        Arrays.fill(buffer, 0L);
+        BitSet miss = null;
+        for (int c = 0; c < intVars.length; c++) {
+            IntVar v = intVars[c];
+            if (v.isInstantiated()) {
+                write(c, v.getValue());
+            } else {
+                if (miss == null) {
+                    miss = new BitSet();
+                }
+                miss.set(c);
+            }
+        }
+        int row = flush(miss);
+        for (RealVar r : realVars) {
+            reals.add(r.getLB());
+            reals.add(r.getUB());
+        }
+        if (setVars.length > 0) {
+            int[][] values = new int[setVars.length][];
+            for (int i = 0; i < setVars.length; i++) {
+                values[i] = setVars[i].isInstantiated() ? setVars[i].getValue().toArray() : null;
+            }
+            sets.add(values);
+        }
+        size++;
+        return row;
+    }
+
+    /**
+     * Copies the row being recorded in the pages.
+     *
+     * @param miss columns which are not instantiated, or <tt>null</tt>
+     * @return the index of the row
+     */
+    private int flush(BitSet miss) {
+        int row = size;
+        LongBuffer page = page(row);
+        int base = (row % rowsPerPage) * rowSize;
+        for (int i = 0; i < rowSize; i++) {
+            page.put(base + i, buffer[i]);
+        }
+        if (miss != null) {
+            missing.put(row, miss);
+        }
+        return row;
+    }
+
+    private void write(int c, int value) {
+        long code = (long) value - offsets[c];
+        int w = widths[c];
+        if (code < 0 || (w < 64 && code >>> w != 0)) {
+            throw new SolverException("Cannot record " + intVars[c] + "=" + value + " in the pool: " +
+                    "the value is out of the domain of the variable when the pool was created.");
+        }
+        if (w == 0) {
+            return;
+        }
+        int bit = firstBits[c];
+        int word = bit >>> 6;
+        int shift = bit & 63;
+        buffer[word] |= code << shift;
+        if (shift + w > 64) {
+            buffer[word + 1] |= code >>> (64 - shift);
+        }
+    }
+
+    private long read(int row, int c) {
+        int w = widths[c];
+        if (w == 0) {
+            return 0;
+        }
+        LongBuffer page = pages.get(row / rowsPerPage);
+        int base = (row % rowsPerPage) * rowSize;
+        int bit = firstBits[c];
+        int word = bit >>> 6;
+        int shift = bit & 63;
+        long code = page.get(base + word) >>> shift;
+        if (shift + w > 64) {
+            code |= page.get(base + word + 1) << (64 - shift);
+        }
+        return code & (-1L >>> (64 - w));
+    }
+
+    private LongBuffer page(int row) {
+        int p = row / rowsPerPage;
+        if (p == pages.size()) {
+            int length = rowsPerPage * rowSize;
+            if (channel == null) {
+                pages.add(LongBuffer.wrap(new long[length]));
+            } else {
+                try {
+                    pages.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) p * length * Long.BYTES,
+                            (long) length * Long.BYTES).asLongBuffer());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return pages.get(p);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Get the value of variable <i>v</i> in the solution recorded in <i>row</i>.
+     *
+     * @param row index of a solution
+     * @param v   IntVar (or BoolVar)
+     * @return the value of variable v in this solution
+     * @throws SolverException if <i>v</i> is not stored in this pool or was not instantiated during solution recording.
+     */
+    public int getIntVal(int row, IntVar v) {
+        checkRow(row);
+        int c = v.getId() < colOf.length ? colOf[v.getId()] : -1;
+        if (c == -1 || intVars[c] != v) {
+            if ((v.getTypeAndKind() & Variable.TYPE) == Variable.CSTE) {
+                return v.getValue();
+            }
+            throw new SolverException("Cannot access value of " + v + ": This variable has not been declared to be recorded in the pool.");
+        }
+        BitSet miss = missing.get(row);
+        if (miss != null && miss.get(c)) {
+            throw new SolverException("Cannot access value of " + v + ": This variable was not instantiated when the solution was recorded.");
+        }
+        return (int) (offsets[c] + read(row, c));
+    }
+
+    /**
+     * Get the bounds of <i>r</i> in the solution recorded in <i>row</i>.
+     *
+     * @param row index of a solution
+     * @param r   RealVar
+     * @return the bounds of r in this solution
+     * @throws SolverException if <i>r</i> is not stored in this pool.
+     */
+    public double[] getRealBounds(int row, RealVar r) {
+        checkRow(row);
+        for (int i = 0; i < realVars.length; i++) {
+            if (realVars[i] == r) {
+                int k = (row * realVars.length + i) * 2;
+                return new double[]{reals.get(k), reals.get(k + 1)};
+            }
+        }
+        if ((r.getTypeAndKind() & Variable.TYPE) == Variable.CSTE) {
+            return new double[]{r.getLB(), r.getUB()};
+        }
+        throw new SolverException("Cannot access value of " + r + ": This variable has not been declared to be recorded in the pool.");
+    }
+
+    /**
+     * Get the value of <i>s</i> in the solution recorded in <i>row</i>.
+     *
+     * @param row index of a solution
+     * @param s   SetVar
+     * @return the value of s in this solution
+     * @throws SolverException if <i>s</i> is not stored in this pool or was not instantiated during solution recording.
+     */
+    public int[] getSetVal(int row, SetVar s) {
+        checkRow(row);
+        for (int i = 0; i < setVars.length; i++) {
+            if (setVars[i] == s) {
+                int[] values = sets.get(row)[i];
+                if (values == null) {
+                    throw new SolverException("Cannot access value of " + s + ": This variable was not instantiated when the solution was recorded.");
+                }
+                return values.clone();
+            }
+        }
+        if ((s.getTypeAndKind() & Variable.TYPE) == Variable.CSTE) {
+            return s.getValue().toArray();
+        }
+        throw new SolverException("Cannot access value of " + s + ": This variable has not been declared to be recorded in the pool.");
+    }
+
+    /**
+     * @param row index of a solution
+     * @param v   IntVar (or BoolVar)
+     * @return <tt>true</tt> if <i>v</i> is stored in this pool and was instantiated when the solution was recorded
+     */
+    boolean hasIntVal(int row, IntVar v) {
+        int c = v.getId() < colOf.length ? colOf[v.getId()] : -1;
+        if (c == -1 || intVars[c] != v) {
+            return false;
+        }
+        BitSet miss = missing.get(row);
+        return miss == null || !miss.get(c);
+    }
+
+    /**
+     * @param row index of a solution
+     * @param s   SetVar
+     * @return <tt>true</tt> if <i>s</i> is stored in this pool and was instantiated when the solution was recorded
+     */
+    boolean hasSetVal(int row, SetVar s) {
+        for (int i = 0; i < setVars.length; i++) {
+            if (setVars[i] == s) {
+                return sets.get(row)[i] != null;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the model of the solutions
+     */
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * @return the variables stored
+     */
+    public Variable[] getVarsToStore() {
+        return varsToStore;
+    }
+
+    /**
+     * Returns a view of the solution recorded in <i>row</i>.
+     * The returned solution reads its values in this pool.
+     * Modifying it makes it independent of the pool.
+     *
+     * @param row index of a solution
+     * @return a view of the solution
+     */
+    @Override
+    public Solution get(int row) {
+        checkRow(row);
+        return new Solution(this, row);
+    }
+
+    /**
+     * Records the values of <i>solution</i> as a new row.
+     * The solution has to be defined over the variables of this pool.
+     *
+     * @param solution a solution to record
+     * @return <tt>true</tt>
+     * @throws SolverException if a value of an integer variable is out of the domain the variable had
+     *                         when the pool was created
+     */
+    @Override
+    public boolean add(Solution solution) {
+        Arrays.fill(buffer, 0L);
+        BitSet miss = null;
+        for (int c = 0; c < intVars.length; c++) {
+            if (solution.hasIntVal(intVars[c])) {
+                write(c, solution.getIntVal(intVars[c]));
+            } else {
+                if (miss == null) {
+                    miss = new BitSet();
+                }
+                miss.set(c);
+            }
+        }
+        flush(miss);
+        for (RealVar r : realVars) {
+            double[] bounds = solution.getRealBounds(r);
+            reals.add(bounds[0]);
+            reals.add(bounds[1]);
+        }
+        if (setVars.length > 0) {
+            int[][] values = new int[setVars.length][];
+            for (int i = 0; i < setVars.length; i++) {
+                values[i] = solution.hasSetVal(setVars[i]) ? solution.getSetVal(setVars[i]) : null;
+            }
+            sets.add(values);
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the solutions of this pool.
+     * Pages are kept for further recordings.
+     */
+    @Override
+    public void clear() {
+        size = 0;
+        reals.resetQuick();
+        sets.clear();
+        missing.clear();
+    }
+
+    /**
+     * Releases the file this pool is mapped to, if any.
+     * The pool cannot be read anymore.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            pages.clear();
+            size = 0;
+            channel.close();
+        }
+    }
+}
@@ -31,10 +31,13 @@ import org.chocosolver.solver.search.loop.propagate.Propagate;
 import org.chocosolver.solver.search.loop.propagate.PropagateBasic;
 import org.chocosolver.solver.search.measure.IMeasures;
 import org.chocosolver.solver.search.measure.MeasuresRecorder;
+import org.chocosolver.solver.search.measure.PropagationProfiler;
 import org.chocosolver.solver.search.strategy.Search;
 import org.chocosolver.solver.search.strategy.decision.DecisionPath;
 import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.search.strategy.strategy.WarmStart;
 import org.chocosolver.solver.trace.IOutputFactory;
+import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Task;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.util.ESat;
@@ -193,6 +196,12 @@ public class Solver implements ISolver, IMeasures, IOutputFactory {
     /** Set to <tt>true</tt> when no more reparation can be achieved, ie entire search tree explored. */
     protected boolean canBeRepaired = true;
 
+    /** Values to prefer during the search, and objective cutoff, <tt>null</tt> if no warm start is required. */
+    protected Solution hint;
+
+    /** Set to <tt>true</tt> to prefer, during a warm start, the last values assigned over the ones of the hint. */
+    protected boolean phaseSaving = true;
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ///////////////////////////////////////      CONSTRUCTOR      //////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -349,6 +358,12 @@ public class Solver implements ISolver, IMeasures, IOutputFactory {
             mModel.getEnvironment().worldPush(); // store state after initial propagation; w = 1 -> 2
             searchWorldIndex = mModel.getEnvironment().getWorldIndex(); // w = 2
             mModel.getEnvironment().worldPush(); // store another time for restart purpose: w = 2 -> 3
+            if (hint != null && hint.exists() && objectivemanager.isOptimization()
+                    && objectivemanager.getObjective() instanceof IntVar
+                    && hint.hasIntVal((IntVar) objectivemanager.getObjective())
+                    && isHintFeasible()) {
+                objectivemanager.updateBestSolution(hint.getIntVal((IntVar) objectivemanager.getObjective()));
+            }
         } catch (ContradictionException ce) {
             engine.flush();
             mMeasures.incFailCount();
@@ -368,9 +383,24 @@ public class Solver implements ISolver, IMeasures, IOutputFactory {
         }
         if (completeSearch && !defaultSearch) {
             AbstractStrategy<Variable> declared = M.getStrategy();
+            if (declared instanceof WarmStart) {
+                // the warm start is installed again below, over the complete search
+                declared = ((WarmStart) declared).getMainStrategy();
+            }
             AbstractStrategy complete = mModel.getSettings().makeDefaultSearch(mModel);
             setSearch(declared, complete);
         }
+        if (hint != null && M.getChildMoves().size() <= 1 && M.getStrategy() != null) {
+            if (M.getStrategy() instanceof WarmStart) {
+                WarmStart ws = (WarmStart) M.getStrategy();
+                ws.setHint(hint);
+                ws.setPhaseSaving(phaseSaving);
+            } else {
+                WarmStart ws = new WarmStart(M.getStrategy(), hint, phaseSaving);
+                M.setStrategy(ws);
+                plugMonitor(ws);
+            }
+        }
         if (!M.init()) { // the initialisation of the Move and strategy can detect inconsistency
             mModel.getEnvironment().worldPop();
             feasible = FALSE;
@@ -499,15 +529,51 @@ public class Solver implements ISolver, IMeasures, IOutputFactory {
      *     <li>set {@link #feasible} to {@link ESat#UNDEFINED}</li>
      * </ul>
      * @see #hardReset()
+     * @see #incrementalReset()
      */
     public void reset() {
+        reset(false);
+    }
+
+    /**
+     * <p>
+     * Resetting a solver to the state just before running the last resolution instruction,
+     * in order to solve again a slightly modified model.
+     * This is the same as {@link #reset()} except that the internal structures of the {@link #engine} are kept,
+     * so that a new resolution does not pay the full initialization of the propagation engine again.
+     * </p>
+     * <p>
+     * Between two resolutions, the model can be modified:
+     * <ul>
+     *     <li>constraints can be added or removed, see {@link Model#post(Constraint...)} and
+     *     {@link Model#unpost(Constraint...)},</li>
+     *     <li>domains of variables can be tightened (e.g., calling {@code x.updateUpperBound(5, Cause.Null)}),
+     *     these modifications are made at root world and will not be undone by next resets,</li>
+     *     <li>a previous solution can be used to warm start the next resolution, see {@link #setHint(Solution)}.</li>
+     * </ul>
+     * </p>
+     * @see #reset()
+     */
+    public void incrementalReset() {
+        reset(true);
+    }
+
+    /**
+     * Resetting a solver to the state just before running the last resolution instruction.
+     * @param keepEngine set to <tt>true</tt> to keep the internal structures of the propagation engine
+     */
+    private void reset(boolean keepEngine) {
         if(rootWorldIndex > -1){
             mModel.getEnvironment().worldPopUntil(rootWorldIndex);
         }
         searchWorldIndex = 0;
         action = initialize;
         mMeasures.reset();
-        engine.reset();
+        if (keepEngine) {
+            engine.rewind();
+        } else {
+            engine.reset();
+        }
         dpath.synchronize();
         objectivemanager.resetBestBounds();
         removeAllStopCriteria();
@@ -546,6 +612,8 @@ public class Solver implements ISolver, IMeasures, IOutputFactory {
         searchMonitors.reset();
         defaultSearch = false;
         completeSearch = false;
+        hint = null;
+        phaseSaving = true;
         mModel.removeMinisat();
         mModel.removeNogoodStore();
     }
@@ -850,10 +918,101 @@ public class Solver implements ISolver, IMeasures, IOutputFactory {
                     "A strategy must be attached to each of them independently, and it cannot be achieved calling this method." +
                     "An iteration over it child moves is needed: this.getMove().getChildMoves().");
         } else {
+            if (M.getStrategy() instanceof WarmStart) {
+                // a hint, if any, is installed again over the new strategy on the next initialization
+                unplugMonitor((WarmStart) M.getStrategy());
+            }
+            if (M.getStrategy() != null) {
+                // if the previous strategy is reused in the new one, it is attached again on initialization
+                M.getStrategy().remove();
+            }
             M.setStrategy(strategies.length == 1 ? strategies[0] : Search.sequencer(strategies));
         }
     }
 
+    /**
+     * Checks that {@link #hint} is a solution of the current model:
+     * the hint is restored in a temporary world, then the propagation must succeed,
+     * all variables must be instantiated and all constraints satisfied.
+     *
+     * @return <tt>true</tt> if the hint is a solution of the model
+     */
+    private boolean isHintFeasible() {
+        IEnvironment environment = mModel.getEnvironment();
+        environment.worldPush();
+        boolean ok = true;
+        try {
+            hint.restore();
+            for (Variable var : mModel.getVars()) {
+                ok &= var.isInstantiated();
+            }
+            for (Constraint c : mModel.getCstrs()) {
+                ok &= c.isSatisfied() == TRUE;
+            }
+        } catch (ContradictionException | SolverException e) {
+            engine.flush();
+            ok = false;
+        }
+        environment.worldPop();
+        return ok;
+    }
+
+    /**
+     * Declares values to warm start the next resolutions, typically a solution of a previous resolution.
+     * <p>
+     * When a decision of the search strategy assigns a variable,
+     * the value stored in <i>hint</i> is preferred, as long as it belongs to the domain of the variable.
+     * The variable selection of the search strategy is not modified.
+     * Moreover, in optimization, if <i>hint</i> is a solution of the current model,
+     * that is, if it instantiates all variables and satisfies all constraints,
+     * the cost it stores serves as objective cutoff:
+     * only solutions strictly better than <i>hint</i> are looked for.
+     * So, if no solution is found, <i>hint</i> remains the best known one.
+     * This is checked on each initialization, since the model may have changed since the hint was recorded.
+     * </p>
+     * <p>
+     * Phase saving is enabled: the last value assigned to a variable, by a decision or in the last solution found,
+     * is preferred over the one stored in <i>hint</i>.
+     * </p>
+     * <p>
+     * The hint is taken into account on the next initialization of the search, that is,
+     * before the first resolution or after a call to {@link #reset()} or {@link #incrementalReset()}.
+     * </p>
+     * @param hint values to prefer, or <tt>null</tt> to remove the previous hint
+     * @see #setHint(Solution, boolean)
+     */
+    public void setHint(Solution hint) {
+        setHint(hint, true);
+    }
+
+    /**
+     * Declares values to warm start the next resolutions, typically a solution of a previous resolution,
+     * see {@link #setHint(Solution)}.
+     * <p>
+     * With phase saving, the last value assigned to a variable, by a decision or in the last solution found,
+     * is preferred over the one stored in <i>hint</i>.
+     * Otherwise, the value stored in <i>hint</i> is always preferred.
+     * </p>
+     * @param hint values to prefer, or <tt>null</tt> to remove the previous hint
+     * @param phaseSaving set to <tt>true</tt> to prefer the last values assigned over the ones of the hint
+     */
+    public void setHint(Solution hint, boolean phaseSaving) {
+        this.hint = hint;
+        this.phaseSaving = phaseSaving;
+        if (hint == null && M.getChildMoves().size() <= 1 && M.getStrategy() instanceof WarmStart) {
+            unplugMonitor((WarmStart) M.getStrategy());
+            M.setStrategy(((WarmStart) M.getStrategy()).getMainStrategy());
+        }
+    }
+
+    /**
+     * @return the values to prefer during the search, or <tt>null</tt> if no hint has been declared
+     * @see #setHint(Solution)
+     */
+    public Solution getHint() {
+        return hint;
+    }
+
     /**
      * Overrides the explanation engine.
      * @param explainer the explanation to use
@@ -881,11 +1040,45 @@ public class Solver implements ISolver, IMeasures, IOutputFactory {
         if (!engine.isInitialized()
                 || getEnvironment().getWorldIndex() == rootWorldIndex) {
             this.engine = propagationEngine;
+            this.engine.setProfiler(mMeasures.getPropagationProfiler());
         }else{
             throw new SolverException("Illegal propagation engine modification.");
         }
     }
 
+    /**
+     * Enables (or disables) the profiling of propagators.
+     * When enabled, the propagation engine records, for each propagator, the number of calls, the time spent,
+     * the number of failures raised, etc.
+     * These statistics are available through {@link MeasuresRecorder#getPropagationProfiler()}
+     * and can be dumped in CSV or JSON format.
+     * Profiling slows down the propagation, it is disabled by default.
+     * The values removed by each propagator are not counted, see {@link #setPropagationProfiling(boolean, boolean)}.
+     * @param enable set to <tt>true</tt> to enable profiling, to <tt>false</tt> to disable it
+     */
+    public void setPropagationProfiling(boolean enable) {
+        setPropagationProfiling(enable, false);
+    }
+
+    /**
+     * Enables (or disables) the profiling of propagators, see {@link #setPropagationProfiling(boolean)}.
+     * Counting the values removed by each propagator is costly on propagators with large scopes.
+     * @param enable set to <tt>true</tt> to enable profiling, to <tt>false</tt> to disable it
+     * @param countFilteredValues set to <tt>true</tt> to count the values removed by each propagator
+     */
+    public void setPropagationProfiling(boolean enable, boolean countFilteredValues) {
+        PropagationProfiler profiler = null;
+        if (enable) {
+            profiler = mMeasures.getPropagationProfiler();
+            if (profiler == null) {
+                profiler = new PropagationProfiler();
+            }
+            profiler.setCountFilteredValues(countFilteredValues);
+        }
+        mMeasures.setPropagationProfiler(profiler);
+        engine.setProfiler(profiler);
+    }
+
     /**
      * Completes (or not) the declared search strategy with one over all variables
      * @param isComplete set to true to complete the current search strategy
@@ -1031,6 +1224,16 @@ public class Solver implements ISolver, IMeasures, IOutputFactory {
         return getMeasures().getReadingTimeCount();
     }
 
+    @Override
+    public long getTimeToFirstSolutionInNanoSeconds() {
+        return getMeasures().getTimeToFirstSolutionInNanoSeconds();
+    }
+
+    @Override
+    public float getTimeToFirstSolution() {
+        return getMeasures().getTimeToFirstSolution();
+    }
+
     @Override
     public long getNodeCount() {
         return getMeasures().getNodeCount();
@@ -1051,6 +1254,21 @@ public class Solver implements ISolver, IMeasures, IOutputFactory {
         return getMeasures().getRestartCount();
     }
 
+    @Override
+    public long getLearntNogoodCount() {
+        return getMeasures().getLearntNogoodCount();
+    }
+
+    @Override
+    public long getDeletedNogoodCount() {
+        return getMeasures().getDeletedNogoodCount();
+    }
+
+    @Override
+    public long getNogoodReductionCount() {
+        return getMeasures().getNogoodReductionCount();
+    }
+
     @Override
     public long getSolutionCount() {
         return getMeasures().getSolutionCount();
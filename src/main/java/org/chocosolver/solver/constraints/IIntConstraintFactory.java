@@ -37,6 +37,7 @@ import org.chocosolver.solver.constraints.extension.nary.PropLargeGACSTRPos;
 import org.chocosolver.solver.constraints.extension.nary.PropLargeMDDC;
 import org.chocosolver.solver.constraints.extension.nary.PropTableStr2;
 import org.chocosolver.solver.constraints.nary.PropDiffN;
+import org.chocosolver.solver.constraints.nary.PropDiffNSweep;
 import org.chocosolver.solver.constraints.nary.PropIntValuePrecedeChain;
 import org.chocosolver.solver.constraints.nary.PropKLoops;
 import org.chocosolver.solver.constraints.nary.PropKnapsack;
@@ -58,6 +59,7 @@ import org.chocosolver.solver.constraints.nary.channeling.PropEnumDomainChanneli
 import org.chocosolver.solver.constraints.nary.channeling.PropInverseChannelAC;
 import org.chocosolver.solver.constraints.nary.channeling.PropInverseChannelBC;
 import org.chocosolver.solver.constraints.nary.circuit.CircuitConf;
+import org.chocosolver.solver.constraints.nary.circuit.PropCircuitHeldKarp;
 import org.chocosolver.solver.constraints.nary.circuit.PropCircuitSCC;
 import org.chocosolver.solver.constraints.nary.circuit.PropCircuit_AntiArboFiltering;
 import org.chocosolver.solver.constraints.nary.circuit.PropCircuit_ArboFiltering;
@@ -971,6 +973,41 @@ public interface IIntConstraintFactory extends ISelf<Model> {
         return new Constraint(ConstraintsName.CIRCUIT, ArrayUtils.append(allDifferent(vars, "AC").propagators, props));
     }
 
+    /**
+     * Creates a circuit constraint with costs which ensures that
+     * <p/> the elements of vars define a covering circuit
+     * <p/> where vars[i] = offset+j means that j is the successor of i,
+     * <p/> and cost = sum(costMatrix[i][vars[i]-offset]).
+     * <p>
+     * Filtering algorithms:
+     * <p/> see {@link #circuit(IntVar[], int)}
+     * <p/> one element constraint per variable and a sum for the cost
+     * <p/> Held-Karp 1-tree lower bound on the cost, with Lagrangian relaxation of the degrees (Held & Karp, 1970)
+     *
+     * @param vars       vector of variables which take their value in [offset,offset+|vars|-1]
+     * @param offset     0 by default but typically 1 if used within MiniZinc
+     *                   (which counts from 1 to n instead of from 0 to n-1)
+     * @param costMatrix costMatrix[i][j] is the cost of going from i to j
+     * @param cost       cost of the circuit
+     * @return a circuit constraint with costs
+     */
+    default Constraint circuit(IntVar[] vars, int offset, int[][] costMatrix, IntVar cost) {
+        int n = vars.length;
+        Propagator[] props = circuit(vars, offset).propagators;
+        IntVar[] costs = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            int[] row = costMatrix[i];
+            costs[i] = ref().intVar(vars[i].getName() + "_cost",
+                    Arrays.stream(row).min().getAsInt(), Arrays.stream(row).max().getAsInt(), true);
+            props = ArrayUtils.append(props, element(costs[i], row, vars[i], offset).propagators);
+        }
+        props = ArrayUtils.append(props, sum(costs, "=", cost).propagators);
+        if (n > 2) {
+            props = ArrayUtils.append(props, new Propagator[]{new PropCircuitHeldKarp(vars, offset, costMatrix, cost)});
+        }
+        return new Constraint(ConstraintsName.CIRCUIT, props);
+    }
+
     /**
      * Creates a regular constraint that supports a cost function.
      * Ensures that the assignment of a sequence of variables is recognized by costAutomaton, a deterministic finite automaton,
@@ -1163,14 +1200,23 @@ public interface IIntConstraintFactory extends ISelf<Model> {
      * @param height    collection of height (each height should be >= 0)
      * @param addCumulativeReasoning indicates whether or not redundant cumulative constraints should be put on each dimension (advised)
      * @return a non-overlapping constraint
+     * @see org.chocosolver.solver.Settings#enableSweepOnDiffN(int)
      */
     default Constraint diffN(IntVar[] X, IntVar[] Y, IntVar[] width, IntVar[] height, boolean addCumulativeReasoning) {
         Model model = X[0].getModel();
-        Constraint diffNCons = new Constraint(
-                ConstraintsName.DIFFN,
-                new PropDiffN(X, Y, width, height, false),
-                new PropDiffN(X, Y, width, height, false)
-        );
+        Constraint diffNCons;
+        if (model.getSettings().enableSweepOnDiffN(X.length)) {
+            diffNCons = new Constraint(
+                    ConstraintsName.DIFFN,
+                    new PropDiffNSweep(X, Y, width, height)
+            );
+        } else {
+            diffNCons = new Constraint(
+                    ConstraintsName.DIFFN,
+                    new PropDiffN(X, Y, width, height, false),
+                    new PropDiffN(X, Y, width, height, false)
+            );
+        }
         if (addCumulativeReasoning) {
             IntVar[] EX = new IntVar[X.length];
             IntVar[] EY = new IntVar[X.length];
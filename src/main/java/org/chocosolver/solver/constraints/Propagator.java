@@ -25,6 +25,7 @@ import org.chocosolver.util.ESat;
 import org.chocosolver.util.objects.IntCircularQueue;
 import org.chocosolver.util.objects.queues.CircularQueue;
 
+import java.io.Serializable;
 import java.util.Arrays;
 
 import static java.lang.System.arraycopy;
@@ -178,9 +179,9 @@ public abstract class Propagator<V extends Variable> implements ICause, Identity
     private int position = -1;
 
     /**
-     * A bi-int-consumer
+     * A bi-int-consumer, serializable to be written by {@link org.chocosolver.util.tools.ObjectGraphWriter}
      */
-    private interface IntIntConsumer{
+    private interface IntIntConsumer extends Serializable {
         void accecpt(int a, int b);
     }
     /**
@@ -11,15 +11,19 @@ package org.chocosolver.solver.constraints.extension;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.sort.ArraySort;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
 
 /**
  * A unique interface to declare tuples for table constraints.
  * Handles both feasible tuples and forbidden tuples.
+ * <p>
+ * Tuples are packed in a single <code>int[]</code>, one tuple after the other,
+ * so that no object is created per tuple.
+ * Prefer {@link #get(int, int)} to {@link #get(int)}, which allocates a new array.
  * <br/>
  *
  * @author Charles Prud'homme
@@ -32,7 +36,14 @@ public class Tuples {
 	//***********************************************************************************
 
 	private final boolean feasible;
-	protected final List<int[]> tuples;
+	/**
+	 * Values of the tuples, the i^th value of the t^th tuple is stored at <i>t * arity + i</i>
+	 */
+	private int[] values;
+	/**
+	 * Number of tuples stored
+	 */
+	private int size;
 	private int arity;
 	private int[] ranges;
 	private boolean allowStar;
@@ -53,7 +64,7 @@ public class Tuples {
      */
     public Tuples(int[][] values, boolean feasible) {
         this.feasible = feasible;
-        tuples = new ArrayList<>();
+        this.values = new int[0];
         for(int[] t : values){
             add(t);
         }
@@ -67,7 +78,7 @@ public class Tuples {
 	 */
 	public Tuples(boolean feasible) {
 		this.feasible = feasible;
-		tuples = new ArrayList<>();
+		this.values = new int[0];
 	}
 
 	/**
@@ -127,11 +138,11 @@ public class Tuples {
 				return ESat.UNDEFINED;
 			}
 		}
-		for (int ti = 0; ti < nbTuples(); ti++) {
-			int[] tuple = tuples.get(ti);
+		for (int ti = 0, k = 0; ti < nbTuples(); ti++, k += arity) {
 			boolean valid = true;
 			for (int i = 0; i < values.length && valid; i++) {
-				valid = tuple[i] == values[i] || (allowStar && tuple[i] == star);
+				int v = this.values[k + i];
+				valid = v == values[i] || (allowStar && v == star);
 			}
 			if (valid) {
 				return isFeasible()? ESat.TRUE: ESat.FALSE;
@@ -147,18 +158,68 @@ public class Tuples {
 	 * @throws org.chocosolver.solver.exception.SolverException if the size of the tuple added does not correspond to a the previous ones (if any).
 	 */
 	public void add(int... tuple) {
-		if (tuples.size() == 0) {
-			arity = tuple.length;
+		setArity(tuple.length);
+		ensureCapacity(size + 1);
+		System.arraycopy(tuple, 0, values, size * arity, arity);
+		update(size++);
+	}
+
+	/**
+	 * Add tuples from a flat stream of values: the <i>arity</i> first values make the first tuple, and so on.
+	 * Tuples are packed on the fly, the stream is never materialized.
+	 *
+	 * @param stream flat stream of values
+	 * @param arity  size of each tuple
+	 * @throws org.chocosolver.solver.exception.SolverException if <i>arity</i> does not correspond to the previous tuples (if any)
+	 * or if the number of values is not a multiple of <i>arity</i>.
+	 */
+	public void add(IntStream stream, int arity) {
+		setArity(arity);
+		PrimitiveIterator.OfInt it = stream.iterator();
+		while (it.hasNext()) {
+			ensureCapacity(size + 1);
+			int k = size * arity;
+			for (int i = 0; i < arity; i++) {
+				if (!it.hasNext()) {
+					throw new SolverException("The number of values does not match the arity: " + arity);
+				}
+				values[k + i] = it.nextInt();
+			}
+			update(size++);
+		}
+	}
+
+	private void setArity(int arity) {
+		if (size == 0) {
+			this.arity = arity;
 			ranges = new int[2 * arity];
 			Arrays.fill(ranges, 0, arity, Integer.MAX_VALUE);
 			Arrays.fill(ranges, arity, 2 * arity, Integer.MIN_VALUE);
-		} else if (arity != tuple.length) {
-			throw new SolverException("The given tuple does not match the arity: " + arity);
+		} else if (this.arity != arity) {
+			throw new SolverException("The given tuple does not match the arity: " + this.arity);
 		}
-		tuples.add(tuple.clone());
-		for (int i = 0; i < arity; i++) {
-			ranges[i] = Math.min(ranges[i], tuple[i]);
-			ranges[i + arity] = Math.max(ranges[i + arity], tuple[i]);
+	}
+
+	private void ensureCapacity(int nbTuples) {
+		if ((long) nbTuples * arity > values.length) {
+			long length = Math.max((long) nbTuples * arity, values.length + (values.length >> 1) + arity);
+			if (length > Integer.MAX_VALUE - 8) {
+				length = (long) nbTuples * arity;
+				if (length > Integer.MAX_VALUE - 8) {
+					throw new SolverException("Too many tuples");
+				}
+			}
+			values = Arrays.copyOf(values, (int) length);
+		}
+	}
+
+	/**
+	 * Update the range of each column wrt to the t^th tuple
+	 */
+	private void update(int t) {
+		for (int i = 0, k = t * arity; i < arity; i++, k++) {
+			ranges[i] = Math.min(ranges[i], values[k]);
+			ranges[i + arity] = Math.max(ranges[i + arity], values[k]);
 		}
 	}
 
@@ -208,21 +269,41 @@ public class Tuples {
 	 * @return number of tuples stored
 	 */
 	public int nbTuples() {
-		return tuples.size();
+		return size;
+	}
+
+	/**
+	 * Return the size of the tuples stored
+	 *
+	 * @return arity of the tuples, 0 if no tuple is stored
+	 */
+	public int arity() {
+		return size == 0 ? 0 : arity;
 	}
 
 	/**
-	 * Return the idx^th tuple
+	 * Return a copy of the idx^th tuple
 	 */
 	public int[] get(int idx) {
-		return tuples.get(idx);
+		return Arrays.copyOfRange(values, idx * arity, (idx + 1) * arity);
+	}
+
+	/**
+	 * Return the value of the col^th column of the idx^th tuple
+	 *
+	 * @param idx index of the tuple
+	 * @param col index of the column
+	 * @return a value
+	 */
+	public int get(int idx, int col) {
+		return values[idx * arity + col];
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder st = new StringBuilder(isFeasible() ? "Allowed" : "Fordidden").append(" tuples: {");
-		for (int i = 0; i < tuples.size(); i++) {
-			st.append(Arrays.toString(tuples.get(i)));
+		for (int i = 0; i < size; i++) {
+			st.append(Arrays.toString(get(i)));
 		}
 
 		st.append("}");
@@ -234,28 +315,35 @@ public class Tuples {
 	 * @return an array of tuples, each tuple is an int array
 	 */
 	public int[][] toMatrix() {
-		int i = 0;
-		int[][] matrix = new int[tuples.size()][];
-		for (int[] tuple : tuples) {
-			matrix[i++] = tuple.clone();
+		int[][] matrix = new int[size][];
+		for (int i = 0; i < size; i++) {
+			matrix[i] = get(i);
 		}
 		return matrix;
 	}
 
+	/**
+	 * Sort the tuples in lexicographical order
+	 */
 	public void sort() {
-		tuples.sort(new TupleComparator());
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		new ArraySort<>(size, false, true).sort(order, size, this::compare);
+		int[] sorted = new int[values.length];
+		for (int i = 0; i < size; i++) {
+			System.arraycopy(values, order[i] * arity, sorted, i * arity, arity);
+		}
+		values = sorted;
 	}
 
-	private static class TupleComparator implements Comparator<int[]> {
-
-		@Override
-		public int compare(int[] o1, int[] o2) {
-			int i = 0;
-			int l = o1.length;
-			while (i < l && o1[i] == o2[i]) {
-				i++;
-			}
-			return (i == l ? 0 : o1[i] - o2[i]);
+	private int compare(int t1, int t2) {
+		int k1 = t1 * arity, k2 = t2 * arity;
+		int i = 0;
+		while (i < arity && values[k1 + i] == values[k2 + i]) {
+			i++;
 		}
+		return (i == arity ? 0 : Integer.compare(values[k1 + i], values[k2 + i]));
 	}
 }
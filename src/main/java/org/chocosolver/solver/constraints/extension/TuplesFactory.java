@@ -14,6 +14,10 @@ import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.tools.ArrayUtils;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
 import static org.chocosolver.util.tools.ArrayUtils.concat;
 
 /**
@@ -50,7 +54,7 @@ public class TuplesFactory {
             t[j] = doms[j][0];
         }
         while (true) {
-            if (filter.valid(t)) tuples.add(t.clone());
+            if (filter.valid(t)) tuples.add(t);
             int j;
             for (j = 0; j < n; j++) {
                 i[j]++;
@@ -85,7 +89,7 @@ public class TuplesFactory {
             t[j] = cvalue[j] = vars[j].getLB();
         }
         while (true) {
-            if (filter.valid(t)) tuples.add(t.clone());
+            if (filter.valid(t)) tuples.add(t);
             int j;
             for (j = 0; j < n; j++) {
                 int v = t[j] = cvalue[j] = vars[j].nextValue(cvalue[j]);
@@ -100,6 +104,93 @@ public class TuplesFactory {
 
     }
 
+    /**
+     * Read tuples from <code>reader</code>, one tuple per line, values separated by spaces, tabs, commas or semicolons.
+     * Empty lines and lines starting with '#' are ignored, the first tuple defines the arity.
+     * Tuples are read on the fly and packed in the returned object, no array is created per tuple,
+     * which makes this method suitable for tables with millions of tuples.
+     *
+     * @param reader   where to read tuples from, not closed by this method
+     * @param feasible are tuples feasible (or infeasible)
+     * @return the tuples read
+     * @throws IOException if an I/O error occurs
+     * @throws SolverException if a value is malformed or if a tuple does not match the arity
+     */
+    public static Tuples load(Reader reader, boolean feasible) throws IOException {
+        Tuples tuples = new Tuples(feasible);
+        char[] buffer = new char[1 << 16];
+        int[] tuple = new int[8];
+        int n = 0; // number of values of the current tuple
+        long value = 0;
+        boolean inValue = false, negative = false, comment = false;
+        int line = 1;
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            for (int k = 0; k < read; k++) {
+                char c = buffer[k];
+                if (comment && c != '\n') {
+                    continue;
+                }
+                if (c >= '0' && c <= '9') {
+                    value = value * 10 + (c - '0');
+                    if (value > Integer.MAX_VALUE + 1L) {
+                        throw new SolverException("Value out of range at line " + line);
+                    }
+                    inValue = true;
+                } else if (c == '-' && !inValue && !negative) {
+                    negative = true;
+                } else if (c == '#' && n == 0 && !inValue && !negative) {
+                    comment = true;
+                } else if (c == ' ' || c == '\t' || c == ',' || c == ';' || c == '\r' || c == '\n') {
+                    if (negative && !inValue) {
+                        throw new SolverException("Malformed value at line " + line);
+                    }
+                    if (inValue) {
+                        if (n == tuple.length) {
+                            tuple = Arrays.copyOf(tuple, n * 2);
+                        }
+                        tuple[n++] = toInt(negative ? -value : value, line);
+                        value = 0;
+                        inValue = negative = false;
+                    }
+                    if (c == '\n') {
+                        if (n > 0) {
+                            if (n != tuple.length) { // once, if all tuples match the arity
+                                tuple = Arrays.copyOf(tuple, n);
+                            }
+                            tuples.add(tuple);
+                            n = 0;
+                        }
+                        comment = false;
+                        line++;
+                    }
+                } else {
+                    throw new SolverException("Unexpected character '" + c + "' at line " + line);
+                }
+            }
+        }
+        if (negative && !inValue) {
+            throw new SolverException("Malformed value at line " + line);
+        }
+        if (inValue) {
+            if (n == tuple.length) {
+                tuple = Arrays.copyOf(tuple, n * 2);
+            }
+            tuple[n++] = toInt(negative ? -value : value, line);
+        }
+        if (n > 0) {
+            tuples.add(Arrays.copyOf(tuple, n));
+        }
+        return tuples;
+    }
+
+    private static int toInt(long value, int line) {
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            throw new SolverException("Value out of range at line " + line);
+        }
+        return (int) value;
+    }
+
     // BEWARE: PLEASE, keep signatures sorted by increasing arity and alphabetical order!!
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -342,14 +433,14 @@ public class TuplesFactory {
         Tuples left = generateTuples(TupleValidator.TRUE, true, VARS);
         Tuples tuples = new Tuples(true);
         int n = VARS.length;
-        for (int[] tleft : left.tuples) {
+        int[] t = new int[n + 1];
+        for (int ti = 0; ti < left.nbTuples(); ti++) {
             int right = 0;
             for (int i = 0; i < n; i++) {
-                right += tleft[i] * COEFFS[i];
+                t[i] = left.get(ti, i);
+                right += t[i] * COEFFS[i];
             }
             if (right % SCALAR_COEFF == 0 && SCALAR.contains(right / SCALAR_COEFF)) {
-                int[] t = new int[n + 1];
-                System.arraycopy(tleft, 0, t, 0, n);
                 t[n] = right / SCALAR_COEFF;
                 tuples.add(t);
             }
@@ -56,15 +56,16 @@ class CouplesBitSetTable extends BinRelation {
 
         int nt = tuples.nbTuples();
         for (int i = 0; i < nt; i++) {
-            int[] tuple = tuples.get(i);
-//            setCouple(tuple[0], tuple[1]);
-            if (var1.contains(tuple[0]) && var2.contains(tuple[1])) {
+            int v1 = tuples.get(i, 0);
+            int v2 = tuples.get(i, 1);
+//            setCouple(v1, v2);
+            if (var1.contains(v1) && var2.contains(v2)) {
                 if (feasible) {
-                    table[0][tuple[0] - offsets[0]].set(tuple[1] - offsets[1]);
-                    table[1][tuple[1] - offsets[1]].set(tuple[0] - offsets[0]);
+                    table[0][v1 - offsets[0]].set(v2 - offsets[1]);
+                    table[1][v2 - offsets[1]].set(v1 - offsets[0]);
                 } else {
-                    table[0][tuple[0] - offsets[0]].clear(tuple[1] - offsets[1]);
-                    table[1][tuple[1] - offsets[1]].clear(tuple[0] - offsets[0]);
+                    table[0][v1 - offsets[0]].clear(v2 - offsets[1]);
+                    table[1][v2 - offsets[1]].clear(v1 - offsets[0]);
                 }
             }
         }
@@ -37,6 +37,20 @@ public abstract class LargeRelation  {
         return true;
     }
 
+    /**
+     * @param tuples a set of tuples
+     * @param t index of a tuple in <i>tuples</i>
+     * @param vars the variables of the relation
+     * @return <tt>true</tt> if each value of the <i>t</i><sup>th</sup> tuple belongs to the domain of its variable
+     */
+    protected boolean valid(Tuples tuples, int t, IntVar[] vars) {
+        for (int i = 0; i < vars.length; i++) {
+            if (!vars[i].contains(tuples.get(t, i)))
+                return false;
+        }
+        return true;
+    }
+
     /**
      * Convert this relation into 'Tuples'
      * @return
@@ -10,21 +10,29 @@ package org.chocosolver.solver.constraints.extension.nary;
 
 import org.chocosolver.memory.IEnvironment;
 import org.chocosolver.memory.IStateInt;
-import org.chocosolver.memory.IStateLong;
+import org.chocosolver.memory.structure.IOperation;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.constraints.extension.Tuples;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.delta.IIntDeltaMonitor;
 import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 import org.chocosolver.util.procedure.UnaryIntProcedure;
 
+import java.util.Arrays;
+
 /**
  * Propagator for table constraint based on
  * "Compact-Table: Efficiently Filtering Table Constraints with Reversible Sparse Bit-Sets"
  * Only for feasible Tuples
+ * <p>
+ * The current table is stored in a single <code>long[]</code>, words are saved on demand, at most once per world,
+ * in a save stack owned by the bit-set and restored upon backtrack.
+ * Supports are stored flat in a single <code>long[]</code> too: the support of the k<sup>th</sup> value
+ * (see {@link #valueIndex(int, int)}) is made of the <i>nbWords</i> words starting at <i>k * nbWords</i>.
  *
  * @author Jean-Guillaume FAGES
  * @author Charles Prud'homme
@@ -38,9 +46,21 @@ public class PropCompactTable extends Propagator<IntVar> {
 
     protected RSparseBitSet currTable;
     protected Tuples tuples; // only for checker
-    protected long[][][] supports;
-    protected int[][] residues;
+    /**
+     * Supports of all values, flatten: the support of the k<sup>th</sup> value is stored in
+     * [k * nbWords, (k + 1) * nbWords[
+     */
+    protected long[] supports;
+    /**
+     * Residues of all values, indexed by value index
+     */
+    protected int[] residues;
+    /**
+     * Index of the first value of each variable
+     */
+    protected int[] starts;
     protected int[] offset;
+    protected int nbWords;
     protected IIntDeltaMonitor[] monitors;
     protected UnaryIntProcedure<Integer> onValRem;
 
@@ -58,6 +78,7 @@ public class PropCompactTable extends Propagator<IntVar> {
         super(vars, PropagatorPriority.QUADRATIC, true);
 		this.tuples = tuples;
 		this.currTable = new RSparseBitSet(model.getEnvironment(), this.tuples.nbTuples());
+		this.nbWords = currTable.words.length;
         computeSupports(tuples);
         monitors = new IIntDeltaMonitor[vars.length];
         for (int i = 0; i < vars.length; i++) {
@@ -72,53 +93,62 @@ public class PropCompactTable extends Propagator<IntVar> {
 
     protected UnaryIntProcedure<Integer> makeProcedure(){
         return new UnaryIntProcedure<Integer>() {
-            int var, off;
+            int var;
             @Override
             public UnaryIntProcedure set(Integer o) {
                 var = o;
-                off = offset[var];
                 return this;
             }
             @Override
             public void execute(int i) throws ContradictionException {
-                currTable.addToMask((supports[var][i - off]));
+                currTable.addToMask(supports, valueIndex(var, i) * nbWords);
             }
         };
     }
 
-    protected void computeSupports(Tuples tuples) {
+    /**
+     * @param i index of a variable
+     * @param v a value of the initial domain of <i>vars[i]</i>
+     * @return the index of the value <i>v</i> of <i>vars[i]</i> in {@link #residues},
+     * its support starts at this index times {@link #nbWords} in {@link #supports}
+     */
+    protected final int valueIndex(int i, int v) {
+        return starts[i] + v - offset[i];
+    }
+
+    /**
+     * Compute {@link #starts}, {@link #offset} and allocate {@link #residues}.
+     * @return the number of values (in the initial domains)
+     */
+    protected int computeOffsets() {
         int n = vars.length;
         offset = new int[n];
-        supports = new long[n][][];
-        residues = new int[n][];
-		for (int i = 0; i < n; i++) {
-            int lb = vars[i].getLB();
-            int ub = vars[i].getUB();
-            offset[i] = lb;
-            supports[i] = new long[ub - lb + 1][currTable.words.length];
-            residues[i] = new int[ub - lb + 1];
+        starts = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offset[i] = vars[i].getLB();
+            starts[i + 1] = starts[i] + vars[i].getUB() - offset[i] + 1;
+        }
+        residues = new int[starts[n]];
+        if ((long) starts[n] * nbWords > Integer.MAX_VALUE - 8) {
+            throw new SolverException("Table too large for compact-table: " + starts[n] + " values and "
+                    + tuples.nbTuples() + " tuples");
+        }
+        return starts[n];
+    }
+
+    protected void computeSupports(Tuples tuples) {
+        supports = new long[computeOffsets() * nbWords];
+        // one single pass over the tuples
+        for (int ti = 0; ti < tuples.nbTuples(); ti++) {
+            int wI = ti >>> 6;
+            long bit = 1L << (63 - (ti & 63));
+            for (int i = 0; i < vars.length; i++) {
+                int v = tuples.get(ti, i);
+                if (vars[i].contains(v)) {
+                    supports[valueIndex(i, v) * nbWords + wI] |= bit;
+                }
+            }
         }
-		long[] tmp;
-		for (int i = 0; i < n; i++) {
-			int lb = vars[i].getLB();
-			int ub = vars[i].getUB();
-			offset[i] = lb;
-			for (int v=lb ; v<=ub; v=vars[i].nextValue(v)) {
-				tmp = supports[i][v - lb];
-				int wI = 0;
-				int bI = 63;
-				for (int ti = 0; ti < tuples.nbTuples(); ti++) {
-					if (tuples.get(ti)[i] == v) {
-						tmp[wI] |= 1L << (bI);
-					}
-					bI--;
-					if (bI < 0) {
-						bI = 63;
-						wI++;
-					}
-				}
-			}
-		}
     }
 
     //***********************************************************************************
@@ -132,7 +162,7 @@ public class PropCompactTable extends Propagator<IntVar> {
                 currTable.clearMask();
                 int ub = vars[i].getUB();
                 for (int v=vars[i].getLB(); v<=ub; v=vars[i].nextValue(v)) {
-                    currTable.addToMask(supports[i][v - offset[i]]);
+                    currTable.addToMask(supports, valueIndex(i, v) * nbWords);
                 }
                 currTable.intersectWithMask();
             }
@@ -153,7 +183,7 @@ public class PropCompactTable extends Propagator<IntVar> {
         } else {
             int ub = vars[vIdx].getUB();
             for (int v=vars[vIdx].getLB(); v<=ub; v=vars[vIdx].nextValue(v)) {
-                currTable.addToMask(supports[vIdx][v - offset[vIdx]]);
+                currTable.addToMask(supports, valueIndex(vIdx, v) * nbWords);
             }
         }
         currTable.intersectWithMask();
@@ -177,37 +207,38 @@ public class PropCompactTable extends Propagator<IntVar> {
 		}
 	}
 
+	/**
+	 * @param k index of a value
+	 * @return <tt>true</tt> if the value still has a support in the current table
+	 */
+	private boolean isSupported(int k) {
+		int from = k * nbWords;
+		int index = residues[k];
+		if ((currTable.words[index] & supports[from + index]) == 0L) {
+			index = currTable.intersectIndex(supports, from);
+			if (index == -1) {
+				return false;
+			}
+			residues[k] = index;
+		}
+		return true;
+	}
+
 	private void boundFilter(int i) throws ContradictionException {
 		int lb = vars[i].getLB();
 		int ub = vars[i].getUB();
 		for (int v=lb;v<=ub;v++) {
-			int index = residues[i][v - offset[i]];
-			if ((currTable.words[index].get() & supports[i][v - offset[i]][index]) == 0L) {
-				index = currTable.intersectIndex(supports[i][v - offset[i]]);
-				if (index == -1) {
-					lb ++;
-				} else {
-					residues[i][v - offset[i]] = index;
-					break;
-				}
-			}else{
+			if (isSupported(valueIndex(i, v))) {
 				break;
 			}
+			lb ++;
 		}
 		vars[i].updateLowerBound(lb, this);
 		for (int v=ub;v>=ub;v--) {
-			int index = residues[i][v - offset[i]];
-			if ((currTable.words[index].get() & supports[i][v - offset[i]][index]) == 0L) {
-				index = currTable.intersectIndex(supports[i][v - offset[i]]);
-				if (index == -1) {
-					ub --;
-				} else {
-					residues[i][v - offset[i]] = index;
-					break;
-				}
-			}else{
+			if (isSupported(valueIndex(i, v))) {
 				break;
 			}
+			ub --;
 		}
 		vars[i].updateUpperBound(ub, this);
 	}
@@ -215,14 +246,8 @@ public class PropCompactTable extends Propagator<IntVar> {
 	private void enumFilter(int i) throws ContradictionException {
 	    int ub = vars[i].getUB();
 		for (int v=vars[i].getLB(); v<=ub; v=vars[i].nextValue(v)) {
-			int index = residues[i][v - offset[i]];
-			if ((currTable.words[index].get() & supports[i][v - offset[i]][index]) == 0L) {
-				index = currTable.intersectIndex(supports[i][v - offset[i]]);
-				if (index == -1) {
-					vars[i].removeValue(v, this);
-				} else {
-					residues[i][v - offset[i]] = index;
-				}
+			if (!isSupported(valueIndex(i, v))) {
+				vars[i].removeValue(v, this);
 			}
 		}
 	}
@@ -237,23 +262,55 @@ public class PropCompactTable extends Propagator<IntVar> {
    	// RSparseBitSet
    	//***********************************************************************************
 
-    protected class RSparseBitSet {
-        protected IStateLong[] words;
+    /**
+     * Reversible sparse bit-set.
+     * Words are stored in a plain <code>long[]</code>: before being modified, a word is pushed,
+     * at most once per world, on a save stack which is popped upon backtrack.
+     */
+    protected class RSparseBitSet implements IOperation {
+        protected long[] words;
         private int[] index;
         private IStateInt limit;
         private long[] mask;
+        private IEnvironment environment;
+        /**
+         * Save stack: offsets and previous values of the modified words
+         */
+        private int[] savedOffsets;
+        private long[] savedWords;
+        private int size;
+        /**
+         * One frame per world in which at least one word was saved:
+         * its world index, its first entry in the save stack and its stamp
+         */
+        private int[] frameWorlds;
+        private int[] frameStarts;
+        private long[] frameStamps;
+        private int nbFrames;
+        private long lastStamp;
+        /**
+         * Stamp of the frame in which each word was last saved
+         */
+        private long[] stamps;
 
         protected RSparseBitSet(IEnvironment environment, int nbBits) {
             int nw = nbBits / 64;
             if (nw * 64 < nbBits) nw++;
+            this.environment = environment;
             index = new int[nw];
             mask = new long[nw];
             limit = environment.makeInt(nw - 1);
-            words = new IStateLong[nw];
+            words = new long[nw];
+            Arrays.fill(words, -1L);
             for (int i = 0; i < nw; i++) {
                 index[i] = i;
-                words[i] = environment.makeLong(-1L);
             }
+            stamps = new long[nw];
+            savedOffsets = new int[Math.max(nw, 16)];
+            savedWords = new long[savedOffsets.length];
+            frameWorlds = new int[16];
+            frameStarts = new int[16];
+            frameStamps = new long[16];
         }
 
 		private boolean isEmpty() {
@@ -274,19 +331,23 @@ public class PropCompactTable extends Propagator<IntVar> {
             }
         }
 
-		protected void addToMask(long[] wordsToAdd) {
+        /**
+         * Add to the mask the <i>nbWords</i> words of <i>wordsToAdd</i> starting at <i>from</i>
+         */
+		protected void addToMask(long[] wordsToAdd, int from) {
             for (int i = limit.get(); i >= 0; i--) {
                 int offset = index[i];
-                mask[offset] = mask[offset] | wordsToAdd[offset];
+                mask[offset] = mask[offset] | wordsToAdd[from + offset];
             }
         }
 
 		private void intersectWithMask() {
             for (int i = limit.get(); i >= 0; i--) {
                 int offset = index[i];
-                long w = words[offset].get() & mask[offset];
-                if (words[offset].get() != w) {
-                    words[offset].set(w);
+                long w = words[offset] & mask[offset];
+                if (words[offset] != w) {
+                    save(offset);
+                    words[offset] = w;
                     if (w == 0L) {
                         index[i] = index[limit.get()];
                         index[limit.get()] = offset;
@@ -296,14 +357,57 @@ public class PropCompactTable extends Propagator<IntVar> {
             }
         }
 
-		private int intersectIndex(long[] m) {
+		private int intersectIndex(long[] m, int from) {
             for (int i = limit.get(); i >= 0; i--) {
                 int offset = index[i];
-                if ((words[offset].get() & m[offset]) != 0L) {
+                if ((words[offset] & m[from + offset]) != 0L) {
                     return offset;
                 }
             }
             return -1;
         }
+
+        /**
+         * Push the word at <i>offset</i> on the save stack, unless it has already been saved in the current world
+         */
+        private void save(int offset) {
+            int world = environment.getWorldIndex();
+            if (nbFrames == 0 || frameWorlds[nbFrames - 1] != world) {
+                pushFrame(world);
+            }
+            if (stamps[offset] != frameStamps[nbFrames - 1]) {
+                stamps[offset] = frameStamps[nbFrames - 1];
+                if (size == savedOffsets.length) {
+                    int length = size * 3 / 2 + 1;
+                    savedOffsets = Arrays.copyOf(savedOffsets, length);
+                    savedWords = Arrays.copyOf(savedWords, length);
+                }
+                savedOffsets[size] = offset;
+                savedWords[size++] = words[offset];
+            }
+        }
+
+        private void pushFrame(int world) {
+            if (nbFrames == frameWorlds.length) {
+                int length = nbFrames * 3 / 2 + 1;
+                frameWorlds = Arrays.copyOf(frameWorlds, length);
+                frameStarts = Arrays.copyOf(frameStarts, length);
+                frameStamps = Arrays.copyOf(frameStamps, length);
+            }
+            frameWorlds[nbFrames] = world;
+            frameStarts[nbFrames] = size;
+            frameStamps[nbFrames++] = ++lastStamp;
+            // undone when backtracking from 'world', restores the words saved in this frame
+            environment.save(this);
+        }
+
+        @Override
+        public void undo() {
+            int from = frameStarts[--nbFrames];
+            for (int k = size - 1; k >= from; k--) {
+                words[savedOffsets[k]] = savedWords[k];
+            }
+            size = from;
+        }
     }
-}
\ No newline at end of file
+}
@@ -29,7 +29,10 @@ public class PropCompactTableStar extends PropCompactTable {
    	// VARIABLES
    	//***********************************************************************************
 
-    private long[][][] inc_supports;
+    /**
+     * Supports of all values, without the universal value, flatten as {@link #supports}
+     */
+    private long[] inc_supports;
 
     //***********************************************************************************
    	// CONSTRUCTOR
@@ -52,57 +55,43 @@ public class PropCompactTableStar extends PropCompactTable {
 
     protected UnaryIntProcedure<Integer> makeProcedure(){
         return new UnaryIntProcedure<Integer>() {
-            int var, off;
+            int var;
             @Override
             public UnaryIntProcedure set(Integer o) {
                 var = o;
-                off = offset[var];
                 return this;
             }
             @Override
             public void execute(int i) throws ContradictionException {
                 // main reason we re-wrote the class
-                currTable.addToMask((inc_supports[var][i - off]));
+                currTable.addToMask(inc_supports, valueIndex(var, i) * nbWords);
             }
         };
     }
 
     protected void computeSupports(Tuples tuples) {
-        int n = vars.length;
-        offset = new int[n];
-        supports = new long[n][][];
-        inc_supports = new long[n][][];
-        residues = new int[n][];
-        for (int i = 0; i < n; i++) {
-            int lb = vars[i].getLB();
-            int ub = vars[i].getUB();
-            offset[i] = lb;
-            supports[i] = new long[ub - lb + 1][currTable.words.length];
-            inc_supports[i] = new long[ub - lb + 1][currTable.words.length];
-            residues[i] = new int[ub - lb + 1];
-            for (int v=lb ; v<=ub; v=vars[i].nextValue(v)) {
-                long[] tmp = supports[i][v - lb];
-                long[] inc_tmp = inc_supports[i][v - lb];
-                int wI = 0;
-                int bI = 63;
-                for (int ti = 0; ti < tuples.nbTuples(); ti++) {
-                    int val = tuples.get(ti)[i];
-                    long index = 1L << bI;
-                    if (val == v) {
-                        // main reason we re-wrote the class
-                        inc_tmp[wI] |= index;
-                        tmp[wI] |= index;
-                    }else if(val == tuples.getStarValue()){
-                        // main reason we re-wrote the class
-                        tmp[wI] |= index;
-                    }
-                    bI--;
-                    if (bI < 0) {
-                        bI = 63;
-                        wI++;
+        int nbValues = computeOffsets();
+        supports = new long[nbValues * nbWords];
+        inc_supports = new long[nbValues * nbWords];
+        int star = tuples.getStarValue();
+        for (int ti = 0; ti < tuples.nbTuples(); ti++) {
+            int wI = ti >>> 6;
+            long bit = 1L << (63 - (ti & 63));
+            for (int i = 0; i < vars.length; i++) {
+                int val = tuples.get(ti, i);
+                if (vars[i].contains(val)) {
+                    // main reason we re-wrote the class
+                    int k = valueIndex(i, val) * nbWords + wI;
+                    inc_supports[k] |= bit;
+                    supports[k] |= bit;
+                } else if (val == star) {
+                    // main reason we re-wrote the class
+                    int ub = vars[i].getUB();
+                    for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+                        supports[valueIndex(i, v) * nbWords + wI] |= bit;
                     }
                 }
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -39,13 +39,12 @@ public class PropTableStr2 extends Propagator<IntVar> {
     // VARIABLES
     //***********************************************************************************
 
-    private int[][] table;
+    private Tuples table;
     private str2_var str2vars[];
     private ISet tuples;
     private ArrayList<str2_var> Ssup;
     private ArrayList<str2_var> Sval;
     private boolean firstProp = true;
-	private Tuples tuplesObject;
 
     //***********************************************************************************
     // CONSTRUCTOR
@@ -53,10 +52,9 @@ public class PropTableStr2 extends Propagator<IntVar> {
 
     public PropTableStr2(IntVar[] vars_, Tuples tuplesObject) {
         super(vars_, PropagatorPriority.LINEAR, false);
-        this.table = tuplesObject.toMatrix();
-		this.tuplesObject = tuplesObject;
-        str2vars = new str2_var[table[0].length];
-        for (int i = 0; i < table[0].length; i++) {
+        this.table = tuplesObject;
+        str2vars = new str2_var[table.arity()];
+        for (int i = 0; i < table.arity(); i++) {
             str2vars[i] = new str2_var(model.getEnvironment(), vars_[i], i, table);
         }
         tuples = SetFactory.makeStoredSet(SetType.BIPARTITESET,0,model);
@@ -81,7 +79,7 @@ public class PropTableStr2 extends Propagator<IntVar> {
     @Override
     public ESat isEntailed() {
 		if(firstProp){ // data structure not ready
-			return tuplesObject.check(vars);
+			return table.check(vars);
 		}else {
 			boolean hasSupport = false;
 			for (int tuple : tuples) {
@@ -103,7 +101,7 @@ public class PropTableStr2 extends Propagator<IntVar> {
 
     @Override
     public String toString() {
-        return "STR2 table constraint with " + table[0].length + "vars and " + table.length + "tuples";
+        return "STR2 table constraint with " + table.arity() + "vars and " + table.nbTuples() + "tuples";
     }
 
     //***********************************************************************************
@@ -112,7 +110,7 @@ public class PropTableStr2 extends Propagator<IntVar> {
 
     private boolean is_tuple_supported(int tuple_index) {
         for (str2_var v : Sval) {
-            if (!v.var.contains(table[tuple_index][v.indice])) {
+            if (!v.var.contains(table.get(tuple_index, v.indice))) {
                 return false;
             }
         }
@@ -130,7 +128,7 @@ public class PropTableStr2 extends Propagator<IntVar> {
             }
             vit.dispose();
         }
-        for (int t = 0; t < table.length; t++) {
+        for (int t = 0; t < table.nbTuples(); t++) {
             tuples.add(t);
         }
     }
@@ -150,8 +148,8 @@ public class PropTableStr2 extends Propagator<IntVar> {
             if (is_tuple_supported(tuple)) {
                 for (int var = 0; var < Ssup.size(); var++) {
                     str2_var v = Ssup.get(var);
-                    if (!v.isConsistant(table[tuple][v.indice])) {
-                        v.makeConsistant(table[tuple][v.indice]);
+                    if (!v.isConsistant(table.get(tuple, v.indice))) {
+                        v.makeConsistant(table.get(tuple, v.indice));
                         if (v.nb_consistant == v.var.getDomainSize()) {
                             Ssup.set(var, Ssup.get(Ssup.size() - 1));
                             Ssup.remove(Ssup.size() - 1);
@@ -199,16 +197,16 @@ public class PropTableStr2 extends Propagator<IntVar> {
          * contains all the value of the variable
          */
 
-        private str2_var(IEnvironment env, IntVar var_, int indice_, int[][] table) {
+        private str2_var(IEnvironment env, IntVar var_, int indice_, Tuples table) {
             var = var_;
             last_size = env.makeInt(0);
             indice = indice_;
             nb_consistant = 0;
             index_map = new TreeMap<>();
             int key = 0;
-            for (int[] t : table) {
-                if (!index_map.containsKey(t[indice])) {
-                    index_map.put(t[indice], key++);
+            for (int t = 0; t < table.nbTuples(); t++) {
+                if (!index_map.containsKey(table.get(t, indice))) {
+                    index_map.put(table.get(t, indice), key++);
                 }
             }
             GAC_Val = new BitSet(index_map.size());
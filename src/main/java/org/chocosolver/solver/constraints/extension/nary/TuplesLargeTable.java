@@ -75,9 +75,8 @@ public class TuplesLargeTable extends LargeRelation {
         tables = new TIntObjectHashMap<>();
         int nt = tuples.nbTuples();
         for (int i = 0; i < nt; i++) {
-            int[] tuple = tuples.get(i);
-            if (valid(tuple, vars)) {
-                setTuple(tuple);
+            if (valid(tuples, i, vars)) {
+                setTuple(tuples, i);
             }
         }
     }
@@ -100,10 +99,10 @@ public class TuplesLargeTable extends LargeRelation {
         return checkTuple(tuple) == feasible;
     }
 
-    private void setTuple(int[] tuple) {
+    private void setTuple(Tuples tuples, int k) {
         long address = 0;
         for (int i = (n - 1); i >= 0; i--) {
-            address += (tuple[i] - lowerbounds[i]) * blocks[i];
+            address += (tuples.get(k, i) - lowerbounds[i]) * blocks[i];
         }
         int a = (int) (address % Integer.MAX_VALUE);
         int t = (int) (address / Integer.MAX_VALUE);
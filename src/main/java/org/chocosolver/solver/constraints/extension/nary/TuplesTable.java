@@ -69,9 +69,8 @@ public class TuplesTable extends LargeRelation {
         table = new BitSet(totalSize);
         int nt = tuples.nbTuples();
         for (int i = 0; i < nt; i++) {
-            int[] tuple = tuples.get(i);
-            if (valid(tuple, vars)) {
-                setTuple(tuple);
+            if (valid(tuples, i, vars)) {
+                setTuple(tuples, i);
             }
         }
     }
@@ -91,10 +90,10 @@ public class TuplesTable extends LargeRelation {
         return checkTuple(tuple) == feasible;
     }
 
-    private void setTuple(int[] tuple) {
+    private void setTuple(Tuples tuples, int t) {
         int address = 0;
         for (int i = (n - 1); i >= 0; i--) {
-            address += (tuple[i] - lowerbounds[i]) * blocks[i];
+            address += (tuples.get(t, i) - lowerbounds[i]) * blocks[i];
         }
         table.set(address);
     }
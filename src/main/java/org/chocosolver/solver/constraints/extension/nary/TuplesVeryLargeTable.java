@@ -37,9 +37,8 @@ public class TuplesVeryLargeTable extends LargeRelation {
         supports = new TIntObjectHashMap<>();
         int nt = tuples.nbTuples();
         for (int i = 0; i < nt; i++) {
-            int[] tuple = tuples.get(i);
-            if (valid(tuple, vars)) {
-                setTuple(tuple);
+            if (valid(tuples, i, vars)) {
+                setTuple(tuples, i);
             }
         }
     }
@@ -62,13 +61,14 @@ public class TuplesVeryLargeTable extends LargeRelation {
     }
 
     @SuppressWarnings("unchecked")
-    private void setTuple(int[] tuple) {
+    private void setTuple(Tuples tuples, int t) {
         TIntObjectHashMap<TIntObjectHashMap> current = supports;
-        for (int i = 0; i < tuple.length; i++) {
-            TIntObjectHashMap<TIntObjectHashMap> _current = current.get(tuple[i]);
+        for (int i = 0; i < n; i++) {
+            int v = tuples.get(t, i);
+            TIntObjectHashMap<TIntObjectHashMap> _current = current.get(v);
             if (_current == null) {
                 _current = new TIntObjectHashMap<>();
-                current.put(tuple[i], _current);
+                current.put(v, _current);
             }
             current = _current;
         }
@@ -0,0 +1,582 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary;
+
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.memory.IStateIntVector;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.sort.ArraySort;
+import org.chocosolver.util.tools.ArrayUtils;
+
+import java.util.Arrays;
+
+/**
+ * Non-overlapping rectangles, designed for large sets of rectangles.
+ * <p>
+ * The origin of each rectangle is filtered with the sweep point algorithm:
+ * each bound is moved to the first column (or row) which is not fully covered by the regions forbidden
+ * by the cores of the other rectangles, the core of a rectangle being [x.ub, x.lb+w.lb) * [y.ub, y.lb+h.lb).
+ * <br/>
+ * See: "Sweep as a Generic Pruning Technique Applied to the Non-Overlapping Rectangles Constraint",
+ * N. Beldiceanu and M. Carlsson, CP 2001.
+ * <p>
+ * Unlike {@link PropDiffN}, which maintains the graph of all the pairs of rectangles that may overlap,
+ * memory is linear and filtering is incremental:
+ * <ul>
+ * <li>the free point found by each sweep, its witness, is trailed, and the next sweep starts from it,
+ * since forbidden regions only grow along a branch,</li>
+ * <li>cores and witnesses are stored in two uniform grids, so that the forbidden regions containing a point,
+ * and the witnesses invalidated by a modified rectangle, are found by looking at a few cells only.
+ * Grids are updated on modifications and rebuilt on backtrack.</li>
+ * </ul>
+ * Only the sweeps whose witness is invalidated are run again.
+ * Sizes are not filtered, except when a rectangle cannot be placed at all.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class PropDiffNSweep extends Propagator<IntVar> {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    /**
+     * Sweeps: lower bound of x, upper bound of x, lower bound of y and upper bound of y
+     */
+    private static final int NB_SWEEPS = 4;
+    private static final int UNSET = Integer.MIN_VALUE;
+
+    private final int n;
+    /**
+     * For each rectangle and each sweep: the witness, in the swept dimension then in the other one,
+     * and the next column to try, see {@link #sweep(int, int)}
+     */
+    private final IStateIntVector witnesses;
+    /**
+     * Cores of the rectangles, by rectangle, and witnesses, by rectangle * {@link #NB_SWEEPS} + sweep
+     */
+    private final Grid cores, points;
+    /**
+     * To detect backtracks
+     */
+    private final IStateInt version;
+    private int lastVersion;
+    /**
+     * Maximal sizes, to ignore cores that cannot forbid anything
+     */
+    private final int maxW, maxH;
+    /**
+     * Rectangles modified since the last filtering
+     */
+    private final int[] modified;
+    private int nbModified;
+    private final boolean[] isModified;
+    /**
+     * Rectangles to filter during a pass, and the sweeps to run for each of them
+     */
+    private final int[] toFilter;
+    private int nbToFilter;
+    private final int[] sweeps;
+
+    //***********************************************************************************
+    // CONSTRUCTOR
+    //***********************************************************************************
+
+    /**
+     * Non-overlapping rectangles, based on sweep.
+     *
+     * @param x  collection of coordinates in first dimension
+     * @param y  collection of coordinates in second dimension
+     * @param dx collection of width
+     * @param dy collection of height
+     */
+    public PropDiffNSweep(IntVar[] x, IntVar[] y, IntVar[] dx, IntVar[] dy) {
+        super(ArrayUtils.append(x, y, dx, dy), PropagatorPriority.LINEAR, true);
+        n = x.length;
+        if (!(n == y.length && n == dx.length && n == dy.length)) {
+            throw new SolverException("PropDiffNSweep variable arrays do not have same size");
+        }
+        witnesses = model.getEnvironment().makeIntVector(n * NB_SWEEPS * 3, UNSET);
+        version = model.getEnvironment().makeInt(0);
+        int xm = Integer.MAX_VALUE, xM = Integer.MIN_VALUE, ym = Integer.MAX_VALUE, yM = Integer.MIN_VALUE;
+        int mw = 0, mh = 0;
+        long sw = 0, sh = 0;
+        for (int i = 0; i < n; i++) {
+            xm = Math.min(xm, x[i].getLB());
+            xM = Math.max(xM, x[i].getUB() + dx[i].getUB());
+            ym = Math.min(ym, y[i].getLB());
+            yM = Math.max(yM, y[i].getUB() + dy[i].getUB());
+            mw = Math.max(mw, dx[i].getUB());
+            mh = Math.max(mh, dy[i].getUB());
+            sw += dx[i].getUB();
+            sh += dy[i].getUB();
+        }
+        maxW = mw;
+        maxH = mh;
+        int cw = (int) Math.max(1, sw / Math.max(n, 1));
+        int ch = (int) Math.max(1, sh / Math.max(n, 1));
+        cores = new Grid(xm, xM, ym, yM, cw, ch, n, n);
+        points = new Grid(xm, xM, ym, yM, cw, ch, n, n * NB_SWEEPS);
+        modified = new int[n];
+        isModified = new boolean[n];
+        toFilter = new int[n];
+        sweeps = new int[n];
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    @Override
+    public int getPropagationConditions(int idx) {
+        return IntEventType.boundAndInst();
+    }
+
+    @Override
+    public void propagate(int varIdx, int mask) throws ContradictionException {
+        markModified(varIdx % n);
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        boolean full = PropagatorEventType.isFullPropagation(evtmask);
+        if (full || version.get() != lastVersion) {
+            // first call or backtrack: grids are out of date
+            cores.clear();
+            points.clear();
+            for (int i = 0; i < n; i++) {
+                indexCore(i);
+                for (int k = 0; k < NB_SWEEPS; k++) {
+                    indexWitness(i, k);
+                }
+                if (full) {
+                    markModified(i);
+                }
+            }
+        }
+        version.set(++lastVersion);
+        try {
+            while (nbModified > 0) {
+                for (int k = 0; k < nbModified; k++) {
+                    indexCore(modified[k]);
+                }
+                // a modified rectangle is filtered on all dimensions,
+                // and the sweeps whose witness is now forbidden by its core are run again
+                for (int k = 0; k < nbModified; k++) {
+                    int d = modified[k];
+                    isModified[d] = false;
+                    markToFilter(d, (1 << NB_SWEEPS) - 1);
+                    invalidated(d);
+                }
+                nbModified = 0;
+                for (int k = 0; k < nbToFilter; k++) {
+                    int i = toFilter[k];
+                    int s = sweeps[i];
+                    sweeps[i] = 0;
+                    if (filter(i, s)) {
+                        markModified(i);
+                    }
+                }
+                nbToFilter = 0;
+            }
+        } finally {
+            clear();
+        }
+    }
+
+    private void markModified(int i) {
+        if (!isModified[i]) {
+            isModified[i] = true;
+            modified[nbModified++] = i;
+        }
+    }
+
+    private void markToFilter(int i, int sweepMask) {
+        if (sweeps[i] == 0) {
+            toFilter[nbToFilter++] = i;
+        }
+        sweeps[i] |= sweepMask;
+    }
+
+    private void clear() {
+        for (int k = 0; k < nbModified; k++) {
+            isModified[modified[k]] = false;
+        }
+        nbModified = 0;
+        for (int k = 0; k < nbToFilter; k++) {
+            sweeps[toFilter[k]] = 0;
+        }
+        nbToFilter = 0;
+    }
+
+    private int lo(int j, int off) {
+        return vars[j + off].getUB();
+    }
+
+    private int hi(int j, int off) {
+        return vars[j + off].getLB() + vars[j + off + 2 * n].getLB();
+    }
+
+    /**
+     * Updates the core of <i>j</i> in the grid, cores that cannot forbid anything are not stored
+     */
+    private void indexCore(int j) {
+        cores.remove(j);
+        int xl = lo(j, 0), xh = hi(j, 0), yl = lo(j, n), yh = hi(j, n);
+        if (xl - xh + 2 <= maxW + vars[j + 2 * n].getLB() && yl - yh + 2 <= maxH + vars[j + 3 * n].getLB()) {
+            cores.add(j, xl, Math.max(xl, xh - 1), yl, Math.max(yl, yh - 1));
+        }
+    }
+
+    /**
+     * Updates the witness of sweep <i>k</i> of rectangle <i>i</i> in the grid
+     */
+    private void indexWitness(int i, int k) {
+        int e = i * NB_SWEEPS + k;
+        points.remove(e);
+        int wa = witnesses.quickGet(e * 3);
+        if (wa != UNSET) {
+            int wb = witnesses.quickGet(e * 3 + 1);
+            int px = k < 2 ? wa : wb;
+            int py = k < 2 ? wb : wa;
+            points.add(e, px, Math.max(px, px + vars[i + 2 * n].getLB() - 1),
+                    py, Math.max(py, py + vars[i + 3 * n].getLB() - 1));
+        }
+    }
+
+    /**
+     * Marks the sweeps whose witness is in a region forbidden by the core of <i>d</i>
+     */
+    private void invalidated(int d) {
+        int xl = lo(d, 0), xh = hi(d, 0), yl = lo(d, n), yh = hi(d, n);
+        int[] cell = points.cells(xl, Math.max(xl, xh - 1), yl, Math.max(yl, yh - 1));
+        for (int c = cell[0]; c <= cell[1]; c++) {
+            for (int r = cell[2]; r <= cell[3]; r++) {
+                int idx = points.index(c, r);
+                for (int p = 0; p < points.size(idx); p++) {
+                    int e = points.get(idx, p);
+                    if (e < 0) {
+                        continue;
+                    }
+                    int i = e / NB_SWEEPS;
+                    int k = e % NB_SWEEPS;
+                    if (i != d && (sweeps[i] & (1 << k)) == 0) {
+                        int wa = witnesses.quickGet(e * 3);
+                        int wb = witnesses.quickGet(e * 3 + 1);
+                        if (forbidden(i, d, k < 2 ? wa : wb, k < 2 ? wb : wa)) {
+                            markToFilter(i, 1 << k);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if the core of <i>j</i> forbids (<i>px</i>, <i>py</i>) to the origin of <i>i</i>
+     */
+    private boolean forbidden(int i, int j, int px, int py) {
+        return lo(j, 0) < px + vars[i + 2 * n].getLB() && hi(j, 0) > px
+                && lo(j, n) < py + vars[i + 3 * n].getLB() && hi(j, n) > py;
+    }
+
+    /**
+     * @return a rectangle whose core forbids (<i>px</i>, <i>py</i>) to the origin of <i>i</i>, or -1
+     */
+    private int covering(int i, int px, int py) {
+        int w = vars[i + 2 * n].getLB(), h = vars[i + 3 * n].getLB();
+        int[] cell = cores.cells(px, Math.max(px, px + w - 1), py, Math.max(py, py + h - 1));
+        for (int c = cell[0]; c <= cell[1]; c++) {
+            for (int r = cell[2]; r <= cell[3]; r++) {
+                int idx = cores.index(c, r);
+                for (int p = 0; p < cores.size(idx); p++) {
+                    int j = cores.get(idx, p);
+                    if (j >= 0 && j != i && forbidden(i, j, px, py)) {
+                        return j;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the sweeps of <i>i</i> given by <i>sweepMask</i>
+     *
+     * @return <tt>true</tt> if the origin of <i>i</i> has been modified
+     * @throws ContradictionException if <i>i</i> cannot be placed
+     */
+    private boolean filter(int i, int sweepMask) throws ContradictionException {
+        boolean modif = false;
+        for (int k = 0; k < NB_SWEEPS; k++) {
+            if ((sweepMask & (1 << k)) != 0 || modif) {
+                modif |= sweep(i, k);
+                indexWitness(i, k);
+            }
+        }
+        return modif;
+    }
+
+    /**
+     * Sweep point algorithm: moves the lower bound (resp. upper bound) of the origin of <i>i</i> in a dimension
+     * to the first (resp. last) column which is not fully covered by forbidden regions.
+     * A column is scanned from the lowest point in the other dimension, jumping over forbidden regions,
+     * while <i>next</i> maintains the first column not covered by the regions met.
+     * The sweep starts from the previous witness when it is still on the bound.
+     *
+     * @param i a rectangle
+     * @param k the sweep: 0 (resp. 1) for the lower (resp. upper) bound of x, 2 and 3 for y
+     * @return <tt>true</tt> if the bound has been modified
+     * @throws ContradictionException if all columns are covered
+     */
+    private boolean sweep(int i, int k) throws ContradictionException {
+        boolean min = (k & 1) == 0;
+        int a = k < 2 ? 0 : n;
+        int b = k < 2 ? n : 0;
+        IntVar va = vars[i + a];
+        IntVar vb = vars[i + b];
+        int aLB = va.getLB(), aUB = va.getUB();
+        int bLB = vb.getLB(), bUB = vb.getUB();
+        int bound = min ? aLB : aUB;
+        int reset = min ? aUB + 1 : aLB - 1;
+        int e = (i * NB_SWEEPS + k) * 3;
+        int ca = witnesses.quickGet(e);
+        int cb, next;
+        if (ca == bound) {
+            cb = Math.max(witnesses.quickGet(e + 1), bLB);
+            next = witnesses.quickGet(e + 2);
+        } else {
+            ca = bound;
+            cb = bLB;
+            next = reset;
+        }
+        while (true) {
+            if (cb > bUB) {
+                ca = next;
+                cb = bLB;
+                next = reset;
+                if (min ? ca > aUB : ca < aLB) {
+                    fails(); // TODO: could be more precise, for explanation purpose
+                }
+            }
+            int j = covering(i, a == 0 ? ca : cb, a == 0 ? cb : ca);
+            if (j < 0) {
+                break;
+            }
+            // jump over the region forbidden by j, that is [lo(j) - size(i) + 1, hi(j) - 1] in each dimension
+            next = min ? Math.min(next, hi(j, a)) : Math.max(next, lo(j, a) - vars[i + a + 2 * n].getLB());
+            cb = hi(j, b);
+        }
+        witnesses.quickSet(e, ca);
+        witnesses.quickSet(e + 1, cb);
+        witnesses.quickSet(e + 2, next);
+        return min ? va.updateLowerBound(ca, this) : va.updateUpperBound(ca, this);
+    }
+
+    @Override
+    public ESat isEntailed() {
+        // sweep over instantiated rectangles sorted by x
+        int[] order = new int[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (boxInstantiated(i)) {
+                order[m++] = i;
+            }
+        }
+        new ArraySort(m, false, true).sort(order, m, (i1, i2) -> Integer.compare(vars[i1].getValue(), vars[i2].getValue()));
+        for (int p = 0; p < m; p++) {
+            int i = order[p];
+            int xe = vars[i].getValue() + vars[i + 2 * n].getValue();
+            for (int q = p + 1; q < m && vars[order[q]].getValue() < xe; q++) {
+                if (overlap(i, order[q])) {
+                    return ESat.FALSE;
+                }
+            }
+        }
+        if (m == n) {
+            return ESat.TRUE;
+        }
+        return ESat.UNDEFINED;
+    }
+
+    private boolean overlap(int i, int j) {
+        return overlap(i, j, 0) && overlap(i, j, n);
+    }
+
+    private boolean overlap(int i, int j, int off) {
+        return vars[i + off].getValue() < vars[j + off].getValue() + vars[j + off + 2 * n].getValue()
+                && vars[j + off].getValue() < vars[i + off].getValue() + vars[i + off + 2 * n].getValue();
+    }
+
+    private boolean boxInstantiated(int i) {
+        return vars[i].isInstantiated() && vars[i + n].isInstantiated()
+                && vars[i + 2 * n].isInstantiated() && vars[i + 3 * n].isInstantiated();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DIFFN(");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(",");
+            sb.append("[").append(vars[i].toString());
+            sb.append(",").append(vars[i + n].toString());
+            sb.append(",").append(vars[i + 2 * n].toString());
+            sb.append(",").append(vars[i + 3 * n].toString()).append("]");
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+
+    /**
+     * A uniform grid over the plane, each cell storing the entries whose (closed) rectangle intersects it.
+     * Coordinates out of the grid are projected on its border.
+     * Removed entries are marked dead, by increasing their generation, and cells are compacted on insertion.
+     */
+    private static final class Grid {
+
+        private final int xm, ym, cw, ch, nx, ny;
+        /**
+         * For each cell, pairs of entry and generation
+         */
+        private final int[][] content;
+        private final int[] size, live;
+        private final int[] gen;
+        /**
+         * Cells covered by each entry, xFrom is -1 for an entry not stored
+         */
+        private final int[] xFrom, xTo, yFrom, yTo;
+        private final int[] cell = new int[4];
+
+        Grid(int xm, int xM, int ym, int yM, int cw, int ch, int n, int nbEntries) {
+            long dx = Math.max(1L, (long) xM - xm);
+            long dy = Math.max(1L, (long) yM - ym);
+            // at most about 4n cells
+            while ((dx / cw + 1) * (dy / ch + 1) > 4L * n + 16) {
+                cw *= 2;
+                ch *= 2;
+            }
+            this.xm = xm;
+            this.ym = ym;
+            this.cw = cw;
+            this.ch = ch;
+            this.nx = (int) (dx / cw + 1);
+            this.ny = (int) (dy / ch + 1);
+            content = new int[nx * ny][];
+            size = new int[nx * ny];
+            live = new int[nx * ny];
+            gen = new int[nbEntries];
+            xFrom = new int[nbEntries];
+            xTo = new int[nbEntries];
+            yFrom = new int[nbEntries];
+            yTo = new int[nbEntries];
+            Arrays.fill(xFrom, -1);
+        }
+
+        int index(int c, int r) {
+            return c * ny + r;
+        }
+
+        /**
+         * @return the number of slots of cell <i>idx</i>
+         */
+        int size(int idx) {
+            return size[idx];
+        }
+
+        /**
+         * @return the entry in slot <i>p</i> of cell <i>idx</i>, or -1 if it has been removed
+         */
+        int get(int idx, int p) {
+            int e = content[idx][2 * p];
+            return content[idx][2 * p + 1] == gen[e] ? e : -1;
+        }
+
+        private static int project(int v, int m, int s, int nb) {
+            long c = ((long) v - m) / s;
+            return (int) Math.max(0, Math.min(nb - 1, c));
+        }
+
+        /**
+         * @return the cells covered by [x1, x2] * [y1, y2], as {xFrom, xTo, yFrom, yTo}
+         */
+        int[] cells(int x1, int x2, int y1, int y2) {
+            cell[0] = project(x1, xm, cw, nx);
+            cell[1] = project(x2, xm, cw, nx);
+            cell[2] = project(y1, ym, ch, ny);
+            cell[3] = project(y2, ym, ch, ny);
+            return cell;
+        }
+
+        void add(int e, int x1, int x2, int y1, int y2) {
+            cells(x1, x2, y1, y2);
+            xFrom[e] = cell[0];
+            xTo[e] = cell[1];
+            yFrom[e] = cell[2];
+            yTo[e] = cell[3];
+            for (int c = xFrom[e]; c <= xTo[e]; c++) {
+                for (int r = yFrom[e]; r <= yTo[e]; r++) {
+                    int idx = index(c, r);
+                    if (content[idx] == null) {
+                        content[idx] = new int[8];
+                    } else if (size[idx] > 2 * live[idx] + 8) {
+                        compact(idx);
+                    }
+                    if (2 * size[idx] == content[idx].length) {
+                        content[idx] = Arrays.copyOf(content[idx], content[idx].length * 2);
+                    }
+                    content[idx][2 * size[idx]] = e;
+                    content[idx][2 * size[idx] + 1] = gen[e];
+                    size[idx]++;
+                    live[idx]++;
+                }
+            }
+        }
+
+        private void compact(int idx) {
+            int[] cont = content[idx];
+            int s = 0;
+            for (int p = 0; p < size[idx]; p++) {
+                if (cont[2 * p + 1] == gen[cont[2 * p]]) {
+                    cont[2 * s] = cont[2 * p];
+                    cont[2 * s + 1] = cont[2 * p + 1];
+                    s++;
+                }
+            }
+            size[idx] = s;
+        }
+
+        void remove(int e) {
+            if (xFrom[e] < 0) {
+                return;
+            }
+            for (int c = xFrom[e]; c <= xTo[e]; c++) {
+                for (int r = yFrom[e]; r <= yTo[e]; r++) {
+                    live[index(c, r)]--;
+                }
+            }
+            gen[e]++;
+            xFrom[e] = -1;
+        }
+
+        void clear() {
+            Arrays.fill(size, 0);
+            Arrays.fill(live, 0);
+            Arrays.fill(xFrom, -1);
+        }
+    }
+}
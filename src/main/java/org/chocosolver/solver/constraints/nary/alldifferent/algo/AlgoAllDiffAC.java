@@ -9,15 +9,12 @@
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
 import gnu.trove.map.hash.TIntIntHashMap;
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateIntVector;
 import org.chocosolver.solver.ICause;
+import org.chocosolver.solver.constraints.nary.alldifferent.conditions.Condition;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
-import org.chocosolver.util.graphOperations.connectivity.StrongConnectivityFinder;
-import org.chocosolver.util.objects.graphs.DirectedGraph;
-import org.chocosolver.util.objects.setDataStructures.ISetIterator;
-import org.chocosolver.util.objects.setDataStructures.SetType;
-
-import java.util.BitSet;
 
 /**
  * Algorithm of Alldifferent with AC
@@ -26,9 +23,18 @@ import java.util.BitSet;
  * Runs in O(m.n) worst case time for the initial propagation
  * but has a good average behavior in practice
  * <p/>
- * Keeps track of previous matching for further calls
+ * The residual graph is not stored: successors of a variable are the values of its domain,
+ * successor of a value is the variable it is matched to (or an artificial node when it is free).
+ * The matching, the strongly connected components and the domain sizes are trailed,
+ * so that on further calls only the components that contain a modified variable are considered:
+ * the matching is repaired for the variables which lost their mate
+ * and the strongly connected components are computed again on these components only.
+ * <p/>
+ * Optionally, only the variables satisfying a condition are considered (e.g. allDifferent_except_0).
+ * The other ones are not matched and are not filtered.
+ * When the set of variables satisfying the condition changes, the whole graph is considered again.
  * <p/>
- * 
+ *
  * @author Jean-Guillaume Fages
  */
 public class AlgoAllDiffAC {
@@ -38,38 +44,66 @@ public class AlgoAllDiffAC {
     //***********************************************************************************
 
     private int n, n2;
-    private DirectedGraph digraph;
-    private int[] matching;
-    private int[] nodeSCC;
-    private BitSet free;
-    private StrongConnectivityFinder SCCfinder;
+    private IntVar[] vars;
+    private ICause aCause;
+    // mapping between values and nodes (n to n2 - 1)
+    private TIntIntHashMap map;
+    private int[] dense;
+    private int offset;
+    private int[] values;
+    // trailed data: mate of each node, component of each node and last known domain size of each variable
+    private IStateIntVector mate;
+    private IStateIntVector scc;
+    private IStateIntVector sizes;
+    // variables considered, or null if they all are
+    private Condition condition;
+    // trailed data: 1 if a variable satisfied the condition on last call, 0 if not, -1 if unknown
+    private IStateIntVector included;
+    // set to true if some values are free in any maximum matching, then the artificial node n2 is considered
+    private boolean sink;
+    // temporary data structures
+    private int[] modified;
+    private boolean[] affected;
+    private boolean[] inSet;
+    private int[] nodes;
     // for augmenting matching (BFS)
     private int[] father;
-    private BitSet in;
-    private TIntIntHashMap map;
+    private int[] visited;
+    private int stamp;
     private int[] fifo;
-    private IntVar[] vars;
-    private ICause aCause;
+    // for SCCs (Tarjan)
+    private int[] num, low, stack, call, cursor, newScc;
+    private boolean[] onStack;
 
     //***********************************************************************************
     // CONSTRUCTORS
     //***********************************************************************************
 
     public AlgoAllDiffAC(IntVar[] variables, ICause cause) {
+        this(variables, cause, null);
+    }
+
+    /**
+     * Algorithm of Alldifferent with AC, restricted to the variables satisfying <i>condition</i>
+     * @param variables array of integer variables
+     * @param cause the propagator
+     * @param condition the condition a variable should satisfy to be considered, or <tt>null</tt> to consider all of them
+     */
+    public AlgoAllDiffAC(IntVar[] variables, ICause cause, Condition condition) {
         this.vars = variables;
+        this.condition = condition;
 		aCause = cause;
         n = vars.length;
-        matching = new int[n];
-        for (int i = 0; i < n; i++) {
-            matching[i] = -1;
-        }
         map = new TIntIntHashMap();
         IntVar v;
         int ub;
         int idx = n;
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
         for (int i = 0; i < n; i++) {
             v = vars[i];
             ub = v.getUB();
+            min = Math.min(min, v.getLB());
+            max = Math.max(max, ub);
             for (int j = v.getLB(); j <= ub; j = v.nextValue(j)) {
                 if (!map.containsKey(j)) {
                     map.put(j, idx);
@@ -78,12 +112,43 @@ public class AlgoAllDiffAC {
             }
         }
         n2 = idx;
-        fifo = new int[n2];
-        digraph = new DirectedGraph(n2 + 1, SetType.BITSET, false);
-        free = new BitSet(n2);
+        values = new int[n2];
+        for (int k : map.keys()) {
+            values[map.get(k)] = k;
+        }
+        if (n2 > n && (long) max - min < 4L * (n2 - n)) {
+            // dense values: an array is faster than the map
+            offset = min;
+            dense = new int[max - min + 1];
+            for (int j = n; j < n2; j++) {
+                dense[values[j] - offset] = j;
+            }
+            map = null;
+        }
+        // when some variables are not considered, some values may be free even if there are less values than variables
+        sink = n2 > n * 2 || condition != null;
+        IEnvironment environment = vars[0].getModel().getEnvironment();
+        // no variable is matched, all nodes are in the same component and no domain size is known
+        mate = environment.makeIntVector(n2, -1);
+        scc = environment.makeIntVector(n2 + 1, 0);
+        sizes = environment.makeIntVector(n, -1);
+        if (condition != null) {
+            included = environment.makeIntVector(n, -1);
+        }
+        modified = new int[n];
+        affected = new boolean[n2 + 1];
+        inSet = new boolean[n2 + 1];
+        nodes = new int[n2 + 1];
         father = new int[n2];
-        in = new BitSet(n2);
-        SCCfinder = new StrongConnectivityFinder(digraph);
+        visited = new int[n2];
+        fifo = new int[n];
+        num = new int[n2 + 1];
+        low = new int[n2 + 1];
+        stack = new int[n2 + 1];
+        call = new int[n2 + 1];
+        cursor = new int[n2 + 1];
+        newScc = new int[n2 + 1];
+        onStack = new boolean[n2 + 1];
     }
 
     //***********************************************************************************
@@ -91,80 +156,132 @@ public class AlgoAllDiffAC {
     //***********************************************************************************
 
     public boolean propagate() throws ContradictionException {
-        findMaximumMatching();
-        return filter();
+        if (condition != null && updateIncluded()) {
+            // the graph changed: all nodes are in the same component again and all variables are considered
+            for (int u = 0; u <= n2; u++) {
+                scc.quickSet(u, 0);
+            }
+            for (int i = 0; i < n; i++) {
+                sizes.quickSet(i, -1);
+            }
+        }
+        int nbModified = 0;
+        for (int i = 0; i < n; i++) {
+            if (vars[i].getDomainSize() != sizes.quickGet(i) && isIncluded(i)) {
+                modified[nbModified++] = i;
+            }
+        }
+        if (nbModified == 0) {
+            return false;
+        }
+        repairMatching(nbModified);
+        int nbNodes = collectNodes(nbModified);
+        try {
+            buildSCC(nbNodes);
+            return filter(nbNodes);
+        } finally {
+            for (int k = 0; k < nbNodes; k++) {
+                inSet[nodes[k]] = false;
+            }
+            for (int i = 0; i < nbModified; i++) {
+                affected[modified[i]] = false;
+            }
+        }
     }
 
-    //***********************************************************************************
-    // Initialization
-    //***********************************************************************************
-
-    private void findMaximumMatching() throws ContradictionException {
-        for (int i = 0; i < n2; i++) {
-            digraph.getSuccOf(i).clear();
-            digraph.getPredOf(i).clear();
-        }
-        free.set(0, n2);
-        int k, ub;
-        IntVar v;
+    /**
+     * Store the variables which satisfy the condition, and release the mate of the other ones
+     * @return <tt>true</tt> if the set of variables satisfying the condition changed since last call
+     */
+    private boolean updateIncluded() {
+        boolean changed = false;
         for (int i = 0; i < n; i++) {
-            v = vars[i];
-            ub = v.getUB();
-            int mate = matching[i];
-            for (k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                int j = map.get(k);
-                if (mate == j) {
-                    assert free.get(i) && free.get(j);
-                    digraph.addArc(j, i);
-                    free.clear(i);
-                    free.clear(j);
-                } else {
-                    digraph.addArc(i, j);
+            int in = condition.holdOnVar(vars[i]) ? 1 : 0;
+            if (included.quickGet(i) != in) {
+                included.quickSet(i, in);
+                changed = true;
+                int j = mate.quickGet(i);
+                if (in == 0 && j != -1) {
+                    mate.quickSet(i, -1);
+                    mate.quickSet(j, -1);
                 }
             }
         }
-        for (int i = free.nextSetBit(0); i >= 0 && i < n; i = free.nextSetBit(i + 1)) {
-            tryToMatch(i);
+        return changed;
+    }
+
+    private boolean isIncluded(int i) {
+        return condition == null || included.quickGet(i) == 1;
+    }
+
+    private int node(int value) {
+        return dense != null ? dense[value - offset] : map.get(value);
+    }
+
+    //***********************************************************************************
+    // Matching
+    //***********************************************************************************
+
+    private void repairMatching(int nbModified) throws ContradictionException {
+        for (int k = 0; k < nbModified; k++) {
+            int i = modified[k];
+            int j = mate.quickGet(i);
+            if (j != -1 && !vars[i].contains(values[j])) {
+                mate.quickSet(i, -1);
+                mate.quickSet(j, -1);
+            }
         }
-        for (int i = 0; i < n; i++) {
-            matching[i] = digraph.getPredOf(i).isEmpty()?-1:digraph.getPredOf(i).iterator().next();
+        for (int k = 0; k < nbModified; k++) {
+            int i = modified[k];
+            if (mate.quickGet(i) == -1) {
+                tryToMatch(i);
+            }
         }
     }
 
     private void tryToMatch(int i) throws ContradictionException {
-        int mate = augmentPath_BFS(i);
-        if (mate != -1) {
-            free.clear(mate);
-            free.clear(i);
-            int tmp = mate;
-            while (tmp != i) {
-                digraph.removeArc(father[tmp], tmp);
-                digraph.addArc(tmp, father[tmp]);
-                tmp = father[tmp];
+        int j = augmentPath_BFS(i);
+        if (j != -1) {
+            int x = father[j];
+            while (true) {
+                int prev = mate.quickGet(x);
+                mate.quickSet(x, j);
+                mate.quickSet(j, x);
+                if (x == i) {
+                    break;
+                }
+                j = prev;
+                x = father[j];
             }
         } else {
-            vars[0].instantiateTo(vars[0].getLB()-1,aCause);
+            vars[0].instantiateTo(vars[0].getLB() - 1, aCause);
         }
     }
 
+    /**
+     * Look for an augmenting path from the variable <i>root</i>, restricted to its component.
+     * @param root an unmatched variable
+     * @return the free value reached, or -1 if none can be reached
+     */
     private int augmentPath_BFS(int root) {
-        in.clear();
+        stamp++;
+        int s = scc.quickGet(root);
         int indexFirst = 0, indexLast = 0;
         fifo[indexLast++] = root;
-        int x;
-        ISetIterator succs;
         while (indexFirst != indexLast) {
-            x = fifo[indexFirst++];
-            succs = digraph.getSuccOf(x).iterator();
-            while (succs.hasNext()) {
-                int y = succs.nextInt();
-                if (!in.get(y)) {
+            int x = fifo[indexFirst++];
+            IntVar v = vars[x];
+            int ub = v.getUB();
+            for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
+                int y = node(k);
+                if (visited[y] != stamp && scc.quickGet(y) == s) {
+                    visited[y] = stamp;
                     father[y] = x;
-                    fifo[indexLast++] = y;
-                    in.set(y);
-                    if (free.get(y)) {
+                    int m = mate.quickGet(y);
+                    if (m == -1) {
                         return y;
                     }
+                    fifo[indexLast++] = m;
                 }
             }
         }
@@ -175,61 +292,163 @@ public class AlgoAllDiffAC {
     // PRUNING
     //***********************************************************************************
 
-    private void buildSCC() {
-        if (n2 > n * 2) {
-            digraph.removeNode(n2);
-            digraph.addNode(n2);
-            for (int i = n; i < n2; i++) {
-                if (free.get(i)) {
-                    digraph.addArc(i, n2);
-                } else {
-                    digraph.addArc(n2, i);
+    /**
+     * Store in {@link #nodes} the nodes of the components which contain a modified variable.
+     * @param nbModified number of modified variables
+     * @return the number of nodes stored
+     */
+    private int collectNodes(int nbModified) {
+        for (int i = 0; i < nbModified; i++) {
+            // from now on, modified variables are replaced by their component
+            modified[i] = scc.quickGet(modified[i]);
+            affected[modified[i]] = true;
+        }
+        int nbNodes = 0;
+        int last = sink ? n2 : n2 - 1;
+        for (int u = 0; u <= last; u++) {
+            if (affected[scc.quickGet(u)]) {
+                inSet[u] = true;
+                num[u] = -1;
+                nodes[nbNodes++] = u;
+            }
+        }
+        return nbNodes;
+    }
+
+    private void initCursor(int u) {
+        cursor[u] = u < n ? vars[u].getLB() - 1 : n;
+    }
+
+    /**
+     * @param u a node of the residual graph
+     * @return the next successor of <i>u</i> in the considered components, or -1 if there is none
+     */
+    private int nextSucc(int u) {
+        if (u < n) {
+            if (!isIncluded(u)) {
+                return -1;
+            }
+            IntVar v = vars[u];
+            int m = mate.quickGet(u);
+            int s = scc.quickGet(u);
+            int ub = v.getUB();
+            for (int k = v.nextValue(cursor[u]); k <= ub; k = v.nextValue(k)) {
+                int j = node(k);
+                if (j != m && scc.quickGet(j) == s) {
+                    cursor[u] = k;
+                    return j;
+                }
+            }
+            cursor[u] = ub;
+        } else if (u < n2) {
+            if (cursor[u] == n) {
+                cursor[u]++;
+                int m = mate.quickGet(u);
+                if (m != -1) {
+                    return m;
+                } else if (sink && inSet[n2]) {
+                    return n2;
+                }
+            }
+        } else {
+            for (int j = cursor[u]; j < n2; j++) {
+                if (inSet[j] && mate.quickGet(j) != -1) {
+                    cursor[u] = j + 1;
+                    return j;
                 }
             }
+            cursor[u] = n2;
         }
-        SCCfinder.findAllSCC();
-        nodeSCC = SCCfinder.getNodesSCC();
-        digraph.removeNode(n2);
+        return -1;
     }
 
-    private boolean filter() throws ContradictionException {
-        boolean filter =false;
-        buildSCC();
-        int j, ub;
-        IntVar v;
-        for (int i = 0; i < n; i++) {
-            v = vars[i];
-            ub = v.getUB();
-            for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                j = map.get(k);
-                if (nodeSCC[i] != nodeSCC[j]) {
-                    if (matching[i] == j) {
-                        filter |= v.instantiateTo(k, aCause);
-                    } else {
-                        filter |= v.removeValue(k, aCause);
-                        digraph.removeArc(i, j);
+    /**
+     * Tarjan's algorithm, iterative version, restricted to the nodes stored in {@link #nodes}.
+     * Each node is then labelled with the root of its strongly connected component.
+     * @param nbNodes number of nodes to consider
+     */
+    private void buildSCC(int nbNodes) {
+        int idx = 0, sp = 0, cp = 0;
+        for (int k = 0; k < nbNodes; k++) {
+            int r = nodes[k];
+            if (num[r] != -1) {
+                continue;
+            }
+            num[r] = low[r] = idx++;
+            stack[sp++] = r;
+            onStack[r] = true;
+            initCursor(r);
+            call[cp++] = r;
+            while (cp > 0) {
+                int u = call[cp - 1];
+                int w = nextSucc(u);
+                if (w != -1) {
+                    if (num[w] == -1) {
+                        num[w] = low[w] = idx++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        initCursor(w);
+                        call[cp++] = w;
+                    } else if (onStack[w]) {
+                        low[u] = Math.min(low[u], num[w]);
+                    }
+                } else {
+                    cp--;
+                    if (low[u] == num[u]) {
+                        int x;
+                        do {
+                            x = stack[--sp];
+                            onStack[x] = false;
+                            newScc[x] = u;
+                        } while (x != u);
+                    }
+                    if (cp > 0) {
+                        int p = call[cp - 1];
+                        low[p] = Math.min(low[p], low[u]);
                     }
                 }
             }
         }
-        for (int i = 0; i < n; i++) {
-            v = vars[i];
-            if (!v.hasEnumeratedDomain()) {
-                ub = v.getUB();
-                for (int k = v.getLB(); k <= ub; k++) {
-                    j = map.get(k);
-                    if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
-                        filter |= v.removeValue(k, aCause);
+    }
+
+    private boolean filter(int nbNodes) throws ContradictionException {
+        boolean filter = false;
+        for (int k = 0; k < nbNodes; k++) {
+            int u = nodes[k];
+            scc.quickSet(u, newScc[u]);
+        }
+        for (int k = 0; k < nbNodes && nodes[k] < n; k++) {
+            int i = nodes[k];
+            if (!isIncluded(i)) {
+                continue;
+            }
+            IntVar v = vars[i];
+            int s = scc.quickGet(i);
+            int m = mate.quickGet(i);
+            if (scc.quickGet(m) != s) {
+                // the variable can only be assigned to its mate
+                filter |= v.instantiateTo(values[m], aCause);
+                scc.quickSet(i, scc.quickGet(m));
+            } else if (v.hasEnumeratedDomain()) {
+                int ub = v.getUB();
+                for (int val = v.getLB(); val <= ub; val = v.nextValue(val)) {
+                    if (scc.quickGet(node(val)) != s) {
+                        filter |= v.removeValue(val, aCause);
                     }
                 }
+            } else {
                 int lb = v.getLB();
-                for (int k = v.getUB(); k >= lb; k--) {
-                    j = map.get(k);
-                    if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
-                        filter |= v.removeValue(k, aCause);
-                    }
+                while (scc.quickGet(node(lb)) != s) {
+                    lb++;
+                }
+                filter |= v.updateLowerBound(lb, aCause);
+                int ub = v.getUB();
+                while (scc.quickGet(node(ub)) != s) {
+                    ub--;
                 }
+                filter |= v.updateUpperBound(ub, aCause);
             }
+            sizes.quickSet(i, v.getDomainSize());
         }
         return filter;
     }
@@ -25,6 +25,7 @@ import org.chocosolver.util.ESat;
 public class PropCondAllDiff_AC extends Propagator<IntVar> {
 
     private Condition condition;
+    private AlgoAllDiffAC filter;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -41,6 +42,7 @@ public class PropCondAllDiff_AC extends Propagator<IntVar> {
     public PropCondAllDiff_AC(IntVar[] variables, Condition condition) {
         super(variables, PropagatorPriority.QUADRATIC, false);
         this.condition = condition;
+        this.filter = new AlgoAllDiffAC(vars, this, condition);
     }
 
     //***********************************************************************************
@@ -49,20 +51,6 @@ public class PropCondAllDiff_AC extends Propagator<IntVar> {
 
     @Override
     public void propagate(int evtmask) throws ContradictionException {
-        int nb = 0;
-        for (IntVar v : vars) {
-            if (condition.holdOnVar(v)) {
-                nb++;
-            }
-        }
-        IntVar[] vs = new IntVar[nb];
-        for (IntVar v : vars) {
-            if (condition.holdOnVar(v)) {
-                nb--;
-                vs[nb] = v;
-            }
-        }
-        AlgoAllDiffAC filter = new AlgoAllDiffAC(vs, this);
         filter.propagate();
     }
 
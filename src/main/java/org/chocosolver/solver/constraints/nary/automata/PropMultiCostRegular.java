@@ -688,13 +688,8 @@ public final class PropMultiCostRegular extends Propagator<IntVar> {
 
             this.toRemove.clear();
             this.graph.inStack.clear();
-
-
-            this.getGraph().getPathFinder().computeShortestAndLongestPath(toRemove, z, this);
-            computed = true;
-            //assert(toRemove.size() == 0); // PAS SUR DE L'ASSERT
-            // this.graph.toUpdateLeft.reset();
-            //this.graph.toUpdateRight.reset();
+            // shortest and longest path labels are trailed, they are restored with the graph on backtrack
+            // and there is no need to compute them again
         }
         lastWorld = currentworld;
         lastNbOfBacktracks = currentbt;
@@ -927,6 +922,8 @@ public final class PropMultiCostRegular extends Propagator<IntVar> {
     public void forcePathRecomputation() throws ContradictionException {
         lastWorld = Integer.MAX_VALUE;
         checkWorld();
+        this.getGraph().getPathFinder().computeShortestAndLongestPath(toRemove, z, this);
+        computed = true;
     }
 
 
@@ -10,6 +10,7 @@ package org.chocosolver.solver.constraints.nary.automata.structure.multicostregu
 
 
 import gnu.trove.stack.TIntStack;
+import org.chocosolver.memory.IStateDoubleVector;
 import org.chocosolver.memory.IStateIntVector;
 import org.chocosolver.solver.constraints.nary.automata.PropMultiCostRegular;
 import org.chocosolver.solver.exception.ContradictionException;
@@ -17,8 +18,6 @@ import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.iterators.DisposableIntIterator;
 import org.chocosolver.util.objects.StoredIndexedBipartiteSet;
 
-import java.util.Arrays;
-
 /**
  * Created by IntelliJ IDEA.
  * User: julien
@@ -36,14 +35,18 @@ public class FastPathFinder {
     private int[] sp;
     private int nbLayer;
     private int nbR;
-    public double[][] spfs;// = new double[graph.GNodes.spfs.length][graph.nbR+1];
-    public double[][] spft;// = new double[graph.GNodes.spfs.length][graph.nbR+1];
-    private double[][] lpfs;// = new double[graph.GNodes.spfs.length][graph.nbR+1];
-    private double[][] lpft;// = new double[graph.GNodes.spfs.length][graph.nbR+1];
+    // trailed labels, indexed by node * graph.nbR + resource
+    public IStateDoubleVector spfs;
+    public IStateDoubleVector spft;
+    private IStateDoubleVector lpfs;
+    private IStateDoubleVector lpft;
     private boolean[] modified = new boolean[2];
     // prevSP is a shortcut to graph.GNodes.prevSPI
-    private int[][] prevSP,nextSP,prevLP,nextLP;
+    private IStateIntVector prevSP,nextSP,prevLP,nextLP;
     private double[] tmpU;
+    // labels of the current node, before being stored
+    private double[] tmpS, tmpL;
+    private int[] tmpPS, tmpPL;
 
     //***********************************************************************************
    	// CONSTRUCTOR
@@ -55,6 +58,10 @@ public class FastPathFinder {
         this.nbLayer = graph.layers.length - 1;
         this.nbR = this.graph.nbR - 1;
         this.tmpU = new double[nbR];
+        this.tmpS = new double[graph.nbR];
+        this.tmpL = new double[graph.nbR];
+        this.tmpPS = new int[graph.nbR];
+        this.tmpPL = new int[graph.nbR];
         spfs = this.graph.GNodes.spfsI;
         spft = this.graph.GNodes.spftI;
         lpfs = this.graph.GNodes.lpfsI;
@@ -323,12 +330,14 @@ public class FastPathFinder {
                                                    PropMultiCostRegular propagator) throws ContradictionException {
 
         int nbr = z.length;
+        int source = graph.sourceIndex * nbr;
+        int tin = graph.tinIndex * nbr;
 
         for (int i = 0; i < nbr; i++) {
-            spfs[graph.sourceIndex][i] = 0.0;
-            spft[graph.tinIndex][i] = 0.0;
-            lpfs[graph.sourceIndex][i] = 0.0;
-            lpft[graph.tinIndex][i] = 0.0;
+            spfs.quickSet(source + i, 0.0);
+            spft.quickSet(tin + i, 0.0);
+            lpfs.quickSet(source + i, 0.0);
+            lpft.quickSet(tin + i, 0.0);
 
         }
         boolean update;
@@ -337,105 +346,117 @@ public class FastPathFinder {
             update = false;
             int[] list = graph.layers[i]._getStructure();
             int size = graph.layers[i].size();
-            // DisposableIntIterator destIter = graph.layers[i].getIterator();
-            //while (destIter.hasNext()) {
             for (int w = size - 1; w >= 0; w--) {
-                //int dest = destIter.next();
                 int dest = list[w];
-                Arrays.fill(spfs[dest], Double.POSITIVE_INFINITY);
-                Arrays.fill(lpfs[dest], Double.NEGATIVE_INFINITY);
+                int dn = dest * nbr;
+                for (int d = 0; d < nbr; d++) {
+                    tmpS[d] = Double.POSITIVE_INFINITY;
+                    tmpL[d] = Double.NEGATIVE_INFINITY;
+                    tmpPS[d] = prevSP.quickGet(dn + d);
+                    tmpPL[d] = prevLP.quickGet(dn + d);
+                }
 
                 StoredIndexedBipartiteSet bs = graph.GNodes.inArcs[dest];
                 assert (!bs.isEmpty());
                 final int[] inlist = bs._getStructure();
                 final int insize = bs.size();
 
-                for (int x = 0; x < insize; x++) //while (in.hasNext())
-                {
-                    int e = inlist[x];//in.next();
+                for (int x = 0; x < insize; x++) {
+                    int e = inlist[x];
                     if (!graph.isInStack(e)) {
-                        int orig = graph.GArcs.origs[e];//.getDestination();
+                        int on = graph.GArcs.origs[e] * nbr;
                         double[] cost = graph.GArcs.originalCost[e];
-//                        double[] newCost = addArray(spfs[orig],cost);//cost[i][graph.GArcs.values[e]];
                         for (int d = 0; d < nbr; d++) {
-                            if (spfs[dest][d] > cost[d] + spfs[orig][d]) {
-                                spfs[dest][d] = cost[d] + spfs[orig][d];
-                                prevSP[dest][d] = e;
+                            double sc = cost[d] + spfs.quickGet(on + d);
+                            if (tmpS[d] > sc) {
+                                tmpS[d] = sc;
+                                tmpPS[d] = e;
                                 update = true;
                             }
-                            if (lpfs[dest][d] < lpfs[orig][d] + cost[d]) {
-                                lpfs[dest][d] = lpfs[orig][d] + cost[d];
-                                prevLP[dest][d] = e;
+                            double lc = lpfs.quickGet(on + d) + cost[d];
+                            if (tmpL[d] < lc) {
+                                tmpL[d] = lc;
+                                tmpPL[d] = e;
                                 update = true;
                             }
                         }
                     }
                 }
-                //  in.dispose();
-
+                for (int d = 0; d < nbr; d++) {
+                    spfs.quickSet(dn + d, tmpS[d]);
+                    lpfs.quickSet(dn + d, tmpL[d]);
+                    prevSP.quickSet(dn + d, tmpPS[d]);
+                    prevLP.quickSet(dn + d, tmpPL[d]);
+                }
             }
-            //  destIter.dispose();
             if (!update) propagator.fails();
         }
         for (int i = nbLayer - 1; i >= 0; i--) {
             update = false;
-            //DisposableIntIterator origIter = graph.layers[i].getIterator();
             int[] list = graph.layers[i]._getStructure();
             int size = graph.layers[i].size();
-            //while(origIter.hasNext()){
             for (int w = size - 1; w >= 0; w--) {
-                //int orig = origIter.next();
                 int orig = list[w];
-                Arrays.fill(spft[orig], Double.POSITIVE_INFINITY);
-                Arrays.fill(lpft[orig], Double.NEGATIVE_INFINITY);
+                int on = orig * nbr;
+                for (int d = 0; d < nbr; d++) {
+                    tmpS[d] = Double.POSITIVE_INFINITY;
+                    tmpL[d] = Double.NEGATIVE_INFINITY;
+                    tmpPS[d] = nextSP.quickGet(on + d);
+                    tmpPL[d] = nextLP.quickGet(on + d);
+                }
                 StoredIndexedBipartiteSet bs = graph.GNodes.outArcs[orig];
                 assert (!bs.isEmpty());
-                final int[] outlist = bs._getStructure();//getIterator();
+                final int[] outlist = bs._getStructure();
                 final int outsize = bs.size();
-                for (int x = 0; x < outsize; x++) //while (out.hasNext())
-                {
-                    int e = outlist[x];//out.next();
+                for (int x = 0; x < outsize; x++) {
+                    int e = outlist[x];
                     if (!graph.isInStack(e)) {
-                        int dest = graph.GArcs.dests[e];//e.getOrigin()  ;
+                        int dn = graph.GArcs.dests[e] * nbr;
                         double[] cost = graph.GArcs.originalCost[e];
 
                         for (int d = 0; d < nbr; d++) {
-                            if (spft[dest][d] + cost[d] + spfs[orig][d] - z[d].getUB() >= propagator._MCR_DECIMAL_PREC) {
+                            double sc = spft.quickGet(dn + d) + cost[d];
+                            if (sc + spfs.quickGet(on + d) - z[d].getUB() >= propagator._MCR_DECIMAL_PREC) {
                                 graph.getInStack().set(e);
                                 removed.push(e);
                                 break;
-                            } else if (spft[orig][d] > spft[dest][d] + cost[d]) {
-                                spft[orig][d] = spft[dest][d] + cost[d];
-                                nextSP[orig][d] = e;
+                            } else if (tmpS[d] > sc) {
+                                tmpS[d] = sc;
+                                tmpPS[d] = e;
                                 update = true;
                             }
 
-                            if (lpft[dest][d] + cost[d] + lpfs[orig][d] - z[d].getLB() <= -propagator._MCR_DECIMAL_PREC) {
+                            double lc = lpft.quickGet(dn + d) + cost[d];
+                            if (lc + lpfs.quickGet(on + d) - z[d].getLB() <= -propagator._MCR_DECIMAL_PREC) {
                                 graph.setInStack(e);
                                 removed.push(e);
                                 break;
-                            } else if (lpft[orig][d] < lpft[dest][d] + cost[d]) {
-                                lpft[orig][d] = lpft[dest][d] + cost[d];
-                                nextLP[orig][d] = e;
+                            } else if (tmpL[d] < lc) {
+                                tmpL[d] = lc;
+                                tmpPL[d] = e;
                                 update = true;
                             }
                         }
 
                     }
                 }
-                //  out.dispose();
+                for (int d = 0; d < nbr; d++) {
+                    spft.quickSet(on + d, tmpS[d]);
+                    lpft.quickSet(on + d, tmpL[d]);
+                    nextSP.quickSet(on + d, tmpPS[d]);
+                    nextLP.quickSet(on + d, tmpPL[d]);
+                }
             }
-            //  origIter.dispose();
             if (!update) propagator.fails();
         }
 
-        modified[0] = z[0].updateLowerBound((int) Math.ceil(spft[graph.sourceIndex][0]), propagator);//this.graph.constraint, false);
-        modified[1] = z[0].updateUpperBound((int) Math.floor(lpft[graph.sourceIndex][0]), propagator);//this.graph.constraint, false);
+        modified[0] = z[0].updateLowerBound((int) Math.ceil(spft.quickGet(source)), propagator);
+        modified[1] = z[0].updateUpperBound((int) Math.floor(lpft.quickGet(source)), propagator);
 
 
         for (int i = 1; i < nbr; i++) {
-            z[i].updateLowerBound((int) Math.ceil(spft[graph.sourceIndex][i]), propagator);//this.graph.constraint, false);
-            z[i].updateUpperBound((int) Math.floor(lpft[graph.sourceIndex][i]), propagator);//this.graph.constraint, false);
+            z[i].updateLowerBound((int) Math.ceil(spft.quickGet(source + i)), propagator);
+            z[i].updateUpperBound((int) Math.floor(lpft.quickGet(source + i)), propagator);
         }
 
         return modified;
@@ -11,6 +11,8 @@ package org.chocosolver.solver.constraints.nary.automata.structure.multicostregu
 import gnu.trove.set.hash.TIntHashSet;
 import gnu.trove.stack.TIntStack;
 import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateDoubleVector;
+import org.chocosolver.memory.IStateIntVector;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.nary.automata.FA.ICostAutomaton;
 import org.chocosolver.solver.constraints.nary.automata.structure.Node;
@@ -61,8 +63,8 @@ public class StoredDirectedMultiGraph {
                     int orig = this.GArcs.origs[arc];
                     int dest = this.GArcs.dests[arc];
                     for (int k : dim) {
-                        if (GNodes.spfsI[orig][k] + GArcs.originalCost[arc][k] + GNodes.spftI[dest][k] > z[k].getUB() ||
-                                GNodes.lpfsI[orig][k] + GArcs.originalCost[arc][k] + GNodes.lpftI[dest][k] < z[k].getLB()) {
+                        if (GNodes.spfsI.quickGet(orig * nbR + k) + GArcs.originalCost[arc][k] + GNodes.spftI.quickGet(dest * nbR + k) > z[k].getUB() ||
+                                GNodes.lpfsI.quickGet(orig * nbR + k) + GArcs.originalCost[arc][k] + GNodes.lpftI.quickGet(dest * nbR + k) < z[k].getLB()) {
                             if (!isInStack(arc)) {
                                 setInStack(arc);
                                 toRemove.push(arc);
@@ -92,15 +94,16 @@ public class StoredDirectedMultiGraph {
         public double[] lpfs;
         public double[] lpft;
 
-        public int[][] nextSPI;
-        public int[][] prevSPI;
-        public int[][] nextLPI;
-        public int[][] prevLPI;
+        // trailed labels per resource, indexed by node * nbR + resource
+        public IStateIntVector nextSPI;
+        public IStateIntVector prevSPI;
+        public IStateIntVector nextLPI;
+        public IStateIntVector prevLPI;
 
-        public double[][] spfsI;
-        public double[][] spftI;
-        public double[][] lpfsI;
-        public double[][] lpftI;
+        public IStateDoubleVector spfsI;
+        public IStateDoubleVector spftI;
+        public IStateDoubleVector lpfsI;
+        public IStateDoubleVector lpftI;
 
     }
 
@@ -193,21 +196,15 @@ public class StoredDirectedMultiGraph {
         GNodes.spft = new double[nodes.size()];
 
 
-        GNodes.lpfsI = new double[nodes.size()][nbR];
-        GNodes.lpftI = new double[nodes.size()][nbR];
-        GNodes.spfsI = new double[nodes.size()][nbR];
-        GNodes.spftI = new double[nodes.size()][nbR];
-
-        GNodes.prevLPI = new int[nodes.size()][nbR];
-        GNodes.nextLPI = new int[nodes.size()][nbR];
-        GNodes.prevSPI = new int[nodes.size()][nbR];
-        GNodes.nextSPI = new int[nodes.size()][nbR];
-        for (int k = 0; k < nbR; k++) {
-            Arrays.fill(GNodes.prevLPI[k], Integer.MIN_VALUE);
-            Arrays.fill(GNodes.nextLPI[k], Integer.MIN_VALUE);
-            Arrays.fill(GNodes.prevSPI[k], Integer.MIN_VALUE);
-            Arrays.fill(GNodes.nextSPI[k], Integer.MIN_VALUE);
-        }
+        GNodes.lpfsI = environment.makeDoubleVector(nodes.size() * nbR, 0.0);
+        GNodes.lpftI = environment.makeDoubleVector(nodes.size() * nbR, 0.0);
+        GNodes.spfsI = environment.makeDoubleVector(nodes.size() * nbR, 0.0);
+        GNodes.spftI = environment.makeDoubleVector(nodes.size() * nbR, 0.0);
+
+        GNodes.prevLPI = environment.makeIntVector(nodes.size() * nbR, Integer.MIN_VALUE);
+        GNodes.nextLPI = environment.makeIntVector(nodes.size() * nbR, Integer.MIN_VALUE);
+        GNodes.prevSPI = environment.makeIntVector(nodes.size() * nbR, Integer.MIN_VALUE);
+        GNodes.nextSPI = environment.makeIntVector(nodes.size() * nbR, Integer.MIN_VALUE);
 
 
         for (Node n : nodes) {
@@ -304,8 +301,8 @@ public class StoredDirectedMultiGraph {
             }
         } else {
             for (int k = 0; k < nbR; k++) {
-                //   System.out.println(GNodes.nextSPI[orig][k] + " " + arcId);
-                if (GNodes.nextSPI[orig][k] == arcId || GNodes.nextLPI[orig][k] == arcId) {
+                //   System.out.println(GNodes.nextSPI.quickGet(orig * nbR + k) + " " + arcId);
+                if (GNodes.nextSPI.quickGet(orig * nbR + k) == arcId || GNodes.nextLPI.quickGet(orig * nbR + k) == arcId) {
                     updateRight[k].push(orig);
                     needUpdate = true;
                     //  updateRight(orig,toRemove,k,modBound);
@@ -337,7 +334,7 @@ public class StoredDirectedMultiGraph {
             }
         } else {
             for (int k = 0; k < nbR; k++) {
-                if (GNodes.prevSPI[dest][k] == arcId || GNodes.prevLPI[dest][k] == arcId) {
+                if (GNodes.prevSPI.quickGet(dest * nbR + k) == arcId || GNodes.prevLPI.quickGet(dest * nbR + k) == arcId) {
                     updateLeft[k].push(dest);//dest,toRemove,k,modBound);
                     needUpdate = true;
                 }
@@ -364,13 +361,13 @@ public class StoredDirectedMultiGraph {
         {
             int arcId = list[i];//it.next();
             int dest = GArcs.dests[arcId];
-            double spft = GNodes.spftI[dest][dim] + GArcs.originalCost[arcId][dim];
+            double spft = GNodes.spftI.quickGet(dest * nbR + dim) + GArcs.originalCost[arcId][dim];
             if (tempPval > spft) {
                 tempPval = spft;
                 tempP = arcId;
             }
 
-            double lpft = GNodes.lpftI[dest][dim] + GArcs.originalCost[arcId][dim];
+            double lpft = GNodes.lpftI.quickGet(dest * nbR + dim) + GArcs.originalCost[arcId][dim];
             if (tempPval2 < lpft) {
                 tempPval2 = lpft;
                 temp2 = arcId;
@@ -379,13 +376,11 @@ public class StoredDirectedMultiGraph {
 
         }
         //it.dispose();
-        double old = GNodes.spftI[nid][dim];
-        GNodes.spftI[nid][dim] = tempPval;
-        GNodes.nextSPI[nid][dim] = tempP;
+        double old = GNodes.spftI.quickSet(nid * nbR + dim, tempPval);
+        GNodes.nextSPI.quickSet(nid * nbR + dim, tempP);
 
-        double old2 = GNodes.lpftI[nid][dim];
-        GNodes.lpftI[nid][dim] = tempPval2;
-        GNodes.nextLPI[nid][dim] = temp2;
+        double old2 = GNodes.lpftI.quickSet(nid * nbR + dim, tempPval2);
+        GNodes.nextLPI.quickSet(nid * nbR + dim, temp2);
 
         if (nid == sourceIndex) {
             if (dim == 0) {
@@ -405,12 +400,12 @@ public class StoredDirectedMultiGraph {
             {
                 int arcId = list[i];//it.next();
                 int orig = GArcs.origs[arcId];
-                if ((GNodes.nextSPI[orig][dim] == arcId && old != tempPval) || (old2 != tempPval2 && GNodes.nextLPI[orig][dim] == arcId)) {
+                if ((GNodes.nextSPI.quickGet(orig * nbR + dim) == arcId && old != tempPval) || (old2 != tempPval2 && GNodes.nextLPI.quickGet(orig * nbR + dim) == arcId)) {
                     updateRight.push(orig);
                     //updateRight(orig,toRemove,dim,modBound);
                 }
-                double spfs = GNodes.spfsI[orig][dim];//.quickGet(orig);
-                double lpfs = GNodes.lpfsI[orig][dim];
+                double spfs = GNodes.spfsI.quickGet(orig * nbR + dim);//.quickGet(orig);
+                double lpfs = GNodes.lpfsI.quickGet(orig * nbR + dim);
 
                 double acost = GArcs.originalCost[arcId][dim];
                 if (!isInStack(arcId) && (tempPval + spfs + acost > z[dim].getUB()
@@ -443,12 +438,12 @@ public class StoredDirectedMultiGraph {
         {
             int arcId = list[i];//it.next();
             int orig = GArcs.origs[arcId];
-            double spfs = GNodes.spfsI[orig][dim] + GArcs.originalCost[arcId][dim];
+            double spfs = GNodes.spfsI.quickGet(orig * nbR + dim) + GArcs.originalCost[arcId][dim];
             if (tempPval > spfs) {
                 tempPval = spfs;
                 tempP = arcId;
             }
-            double lpfs = GNodes.lpfsI[orig][dim] + GArcs.originalCost[arcId][dim];
+            double lpfs = GNodes.lpfsI.quickGet(orig * nbR + dim) + GArcs.originalCost[arcId][dim];
             if (tempPval2 < lpfs) {
                 tempPval2 = lpfs;
                 tempP2 = arcId;
@@ -457,12 +452,10 @@ public class StoredDirectedMultiGraph {
         }
 
         //it.dispose();
-        double old = GNodes.spfsI[nid][dim];
-        GNodes.spfsI[nid][dim] = tempPval;
-        GNodes.prevSPI[nid][dim] = tempP;
-        double old2 = GNodes.lpfsI[nid][dim];
-        GNodes.lpfsI[nid][dim] = tempPval2;
-        GNodes.prevLPI[nid][dim] = tempP2;
+        double old = GNodes.spfsI.quickSet(nid * nbR + dim, tempPval);
+        GNodes.prevSPI.quickSet(nid * nbR + dim, tempP);
+        double old2 = GNodes.lpfsI.quickSet(nid * nbR + dim, tempPval2);
+        GNodes.prevLPI.quickSet(nid * nbR + dim, tempP2);
 
         if (nid == tinIndex) {
             if (dim == 0) {
@@ -483,13 +476,13 @@ public class StoredDirectedMultiGraph {
             {
                 int arcId = list[i];//it.next();
                 int dest = GArcs.dests[arcId];
-                if ((old != tempPval && GNodes.prevSPI[dest][dim] == arcId) || (old2 != tempPval2 && GNodes.prevLPI[dest][dim] == arcId)) {
+                if ((old != tempPval && GNodes.prevSPI.quickGet(dest * nbR + dim) == arcId) || (old2 != tempPval2 && GNodes.prevLPI.quickGet(dest * nbR + dim) == arcId)) {
                     // updateLeft(dest,toRemove,dim,modBound);
                     updateLeft.push(dest);
                 }
-                double spft = GNodes.spftI[dest][dim];
+                double spft = GNodes.spftI.quickGet(dest * nbR + dim);
                 double acost = GArcs.originalCost[arcId][dim];
-                double lpft = GNodes.lpftI[dest][dim];
+                double lpft = GNodes.lpftI.quickGet(dest * nbR + dim);
                 if (!isInStack(arcId) && (tempPval + spft + acost > z[dim].getUB()
                         || tempPval2 + lpft + acost < z[dim].getLB())) {
                     setInStack(arcId);
@@ -542,7 +535,7 @@ public class StoredDirectedMultiGraph {
             int destId = GArcs.dests[arcId];
             int cost = 0;
             for (int r : resources) {
-                cost += pf.spfs[origId][r] + GArcs.originalCost[arcId][r] + pf.spft[destId][r];
+                cost += pf.spfs.quickGet(origId * nbR + r) + GArcs.originalCost[arcId][r] + pf.spft.quickGet(destId * nbR + r);
             }
             if (cost < result)
                 result = cost;
@@ -551,7 +544,7 @@ public class StoredDirectedMultiGraph {
         }
         it.dispose();
         for (int r : resources) {
-            result -= pf.spft[sourceIndex][r];
+            result -= pf.spft.quickGet(sourceIndex * nbR + r);
         }
 //        if (result < 0)
 //            ;//   System.err.println("STR");//
@@ -571,7 +564,7 @@ public class StoredDirectedMultiGraph {
             int destId = GArcs.dests[arcId];
             int cost = 0;
             for (int r : resources) {
-                cost += pf.spfs[origId][r] + GArcs.originalCost[arcId][r] + pf.spft[destId][r];
+                cost += pf.spfs.quickGet(origId * nbR + r) + GArcs.originalCost[arcId][r] + pf.spft.quickGet(destId * nbR + r);
             }
             if (cost < result)
                 result = cost;
@@ -594,7 +587,7 @@ public class StoredDirectedMultiGraph {
             int destId = GArcs.dests[arcId];
             int cost = 0;
             for (int r : resources) {
-                cost += pf.spfs[origId][r] + GArcs.originalCost[arcId][r] + pf.spft[destId][r];
+                cost += pf.spfs.quickGet(origId * nbR + r) + GArcs.originalCost[arcId][r] + pf.spft.quickGet(destId * nbR + r);
             }
             if (cost < minmax[0])
                 minmax[0] = cost;
@@ -619,7 +612,7 @@ public class StoredDirectedMultiGraph {
     public int getMinPathCost(int... resources) {
         int result = 0;
         for (int r : resources) {
-            result += pf.spft[sourceIndex][r];
+            result += pf.spft.quickGet(sourceIndex * nbR + r);
         }
         return result;
     }
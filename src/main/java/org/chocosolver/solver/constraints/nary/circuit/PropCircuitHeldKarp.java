@@ -0,0 +1,294 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.circuit;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.objects.graphs.CompactDirectedGraph;
+import org.chocosolver.util.tools.ArrayUtils;
+
+import java.util.Arrays;
+
+/**
+ * Lower bound on the cost of a circuit, based on the 1-tree relaxation of Held and Karp
+ * ("The traveling-salesman problem and minimum spanning trees", 1970).
+ * <p>
+ * The circuit is relaxed into an undirected hamiltonian cycle, where edge {i,j} weights min(c[i][j], c[j][i]),
+ * and then into a 1-tree: a minimum spanning tree over nodes 1..n-1 plus the two cheapest edges of node 0.
+ * The spanning tree is computed with Prim's algorithm over the arcs of the current domains.
+ * <br/>
+ * Lagrangian multipliers on the degrees of the nodes are adjusted with a few subgradient iterations on each call.
+ * Any multipliers lead to a valid lower bound, so they are not restored on backtrack
+ * but reused as a starting point on the next call.
+ * <br/>
+ * Redundant propagator
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class PropCircuitHeldKarp extends Propagator<IntVar> {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    // number of subgradient iterations on initial propagation, and on any other call
+    private static final int NB_ITER_INIT = 50, NB_ITER = 5;
+    // absolute and relative tolerances on bounds, to cope with rounding errors on large costs
+    private static final double EPS = 1e-6, REL_EPS = 1e-9;
+
+    private final int n;
+    private final int offSet;
+    private final int[][] costMatrix;
+    private final IntVar cost;
+    // undirected support graph, each edge is stored in both directions
+    private final CompactDirectedGraph graph;
+    // Lagrangian multipliers
+    private final double[] pi;
+    // degree of each node in the last 1-tree
+    private final int[] deg;
+    // Prim's algorithm: indexed binary heap over key
+    private final double[] key;
+    private final int[] parent, heap, pos;
+    private int size;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * Lower bound on <i>cost</i>, the cost of the circuit defined by <i>succs</i>.
+     *
+     * @param succs      successor variables of a circuit, of size at least 3
+     * @param offSet     offset of the successor variables
+     * @param costMatrix costMatrix[i][j] is the cost of going from i to j
+     * @param cost       cost of the circuit
+     */
+    public PropCircuitHeldKarp(IntVar[] succs, int offSet, int[][] costMatrix, IntVar cost) {
+        super(ArrayUtils.append(succs, new IntVar[]{cost}), PropagatorPriority.QUADRATIC, false);
+        this.n = succs.length;
+        this.offSet = offSet;
+        this.costMatrix = costMatrix;
+        this.cost = cost;
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            m += succs[i].getDomainSize();
+        }
+        this.graph = new CompactDirectedGraph(n, 2 * m);
+        this.pi = new double[n];
+        this.deg = new int[n];
+        this.key = new double[n];
+        this.parent = new int[n];
+        this.heap = new int[n];
+        this.pos = new int[n];
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        graph.clear();
+        for (int i = 0; i < n; i++) {
+            int ub = vars[i].getUB();
+            for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+                int j = v - offSet;
+                if (j != i && j >= 0 && j < n) {
+                    graph.addArc(i, j);
+                    graph.addArc(j, i);
+                }
+            }
+        }
+        int nbIter = PropagatorEventType.isFullPropagation(evtmask) ? NB_ITER_INIT : NB_ITER;
+        double ub = cost.getUB();
+        double best = Double.NEGATIVE_INFINITY;
+        double lambda = 2.;
+        int noImprove = 0;
+        for (int it = 0; it < nbIter; it++) {
+            double lb = oneTree();
+            for (int i = 0; i < n; i++) {
+                lb -= 2 * pi[i];
+            }
+            if (lb > best + EPS) {
+                best = lb;
+                noImprove = 0;
+            } else if (++noImprove == 3) {
+                lambda /= 2;
+                noImprove = 0;
+            }
+            if (best - ub > tolerance(best)) {
+                fails();
+            }
+            int norm = 0;
+            for (int i = 0; i < n; i++) {
+                norm += (deg[i] - 2) * (deg[i] - 2);
+            }
+            if (norm == 0) {
+                // the 1-tree is a hamiltonian cycle
+                break;
+            }
+            // Polyak's step, towards a target slightly above the best bound known so far
+            double target = Math.min(ub, best + Math.max(1., 0.05 * Math.abs(best)));
+            double t = lambda * (target - lb) / norm;
+            for (int i = 0; i < n; i++) {
+                pi[i] += t * (deg[i] - 2);
+            }
+        }
+        cost.updateLowerBound((int) Math.ceil(best - tolerance(best)), this);
+    }
+
+    private static double tolerance(double bound) {
+        return Math.max(EPS, Math.abs(bound) * REL_EPS);
+    }
+
+    private double weight(int i, int j) {
+        return Math.min(costMatrix[i][j], costMatrix[j][i]) + pi[i] + pi[j];
+    }
+
+    /**
+     * Computes a minimum 1-tree wrt the weights modified by the Lagrangian multipliers,
+     * and the degree of each node in it.
+     *
+     * @return the weight of the 1-tree
+     * @throws ContradictionException if there is no 1-tree
+     */
+    private double oneTree() throws ContradictionException {
+        int[] starts = graph.getSuccStarts();
+        int[] succs = graph.getSuccs();
+        Arrays.fill(deg, 0);
+        Arrays.fill(key, Double.POSITIVE_INFINITY);
+        Arrays.fill(pos, -1);
+        // minimum spanning tree over nodes 1..n-1, node 0 is marked as already visited
+        pos[0] = -2;
+        size = 0;
+        key[1] = 0.;
+        parent[1] = -1;
+        push(1);
+        double total = 0.;
+        int nbVisited = 0;
+        while (size > 0) {
+            int u = poll();
+            nbVisited++;
+            total += key[u];
+            if (parent[u] >= 0) {
+                deg[u]++;
+                deg[parent[u]]++;
+            }
+            for (int k = starts[u]; k < starts[u + 1]; k++) {
+                int v = succs[k];
+                if (pos[v] != -2) {
+                    double w = weight(u, v);
+                    if (w < key[v]) {
+                        key[v] = w;
+                        parent[v] = u;
+                        if (pos[v] == -1) {
+                            push(v);
+                        } else {
+                            siftUp(pos[v]);
+                        }
+                    }
+                }
+            }
+        }
+        if (nbVisited < n - 1) {
+            // nodes 1..n-1 are not connected
+            fails();
+        }
+        // the two cheapest edges of node 0, towards two distinct nodes
+        int b1 = -1, b2 = -1;
+        double w1 = Double.POSITIVE_INFINITY, w2 = Double.POSITIVE_INFINITY;
+        for (int k = starts[0]; k < starts[1]; k++) {
+            int v = succs[k];
+            double w = weight(0, v);
+            if (v == b1) {
+                w1 = Math.min(w1, w);
+            } else if (w < w1) {
+                b2 = b1;
+                w2 = w1;
+                b1 = v;
+                w1 = w;
+            } else if (w < w2) {
+                b2 = v;
+                w2 = w;
+            }
+        }
+        if (b2 == -1) {
+            fails();
+        }
+        deg[0] = 2;
+        deg[b1]++;
+        deg[b2]++;
+        return total + w1 + w2;
+    }
+
+    private void push(int v) {
+        heap[size] = v;
+        pos[v] = size;
+        siftUp(size++);
+    }
+
+    private int poll() {
+        int u = heap[0];
+        pos[u] = -2;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return u;
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int p = (i - 1) >> 1;
+            if (key[heap[p]] <= key[v]) {
+                break;
+            }
+            heap[i] = heap[p];
+            pos[heap[i]] = i;
+            i = p;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= size) {
+                break;
+            }
+            if (c + 1 < size && key[heap[c + 1]] < key[heap[c]]) {
+                c++;
+            }
+            if (key[v] <= key[heap[c]]) {
+                break;
+            }
+            heap[i] = heap[c];
+            pos[heap[i]] = i;
+            i = c;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+
+    @Override
+    public ESat isEntailed() {
+        // redundant filtering
+        return ESat.TRUE;
+    }
+
+}
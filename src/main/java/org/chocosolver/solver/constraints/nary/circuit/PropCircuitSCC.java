@@ -15,6 +15,7 @@ import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 import org.chocosolver.util.graphOperations.connectivity.StrongConnectivityFinder;
+import org.chocosolver.util.objects.graphs.CompactDirectedGraph;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
 import org.chocosolver.util.objects.setDataStructures.ISetIterator;
@@ -35,7 +36,7 @@ public class PropCircuitSCC extends Propagator<IntVar> {
 	//***********************************************************************************
 
 	private int n,n2;
-	private DirectedGraph support;
+	private CompactDirectedGraph support;
 	private StrongConnectivityFinder SCCfinder;
 	private DirectedGraph G_R;
 	private int[] sccOf;
@@ -54,7 +55,7 @@ public class PropCircuitSCC extends Propagator<IntVar> {
 		this.offSet = offSet;
 		n = vars.length;
 		n2 = n+1;
-		support = new DirectedGraph(n2,SetType.BITSET,true);
+		support = new CompactDirectedGraph(n2, n2);
 		G_R = new DirectedGraph(n2,SetType.LINKED_LIST,false);
 		SCCfinder = new StrongConnectivityFinder(support);
 		mates = new ISet[n2];
@@ -135,12 +136,11 @@ public class PropCircuitSCC extends Propagator<IntVar> {
 	public void rebuild(int source) {
 		for(int i=0;i<n2;i++){
 			mates[i].clear();
-			support.getSuccOf(i).clear();
-			support.getPredOf(i).clear();
 			G_R.getPredOf(i).clear();
 			G_R.getSuccOf(i).clear();
 		}
 		G_R.getNodes().clear();
+		support.clear();
 		for(int i=0;i<n;i++){
 			IntVar v = vars[i];
 			int lb = v.getLB();
@@ -159,13 +159,13 @@ public class PropCircuitSCC extends Propagator<IntVar> {
 			G_R.getNodes().add(i);
 		}
 		sccOf = SCCfinder.getNodesSCC();
-		ISetIterator succs;
+		int[] succStart = support.getSuccStarts();
+		int[] succs = support.getSuccs();
 		int x;
 		for (int i = 0; i < n; i++) {
 			x = sccOf[i];
-			succs = support.getSuccOf(i).iterator();
-			while (succs.hasNext()) {
-				int j = succs.nextInt();
+			for (int k = succStart[i]; k < succStart[i + 1]; k++) {
+				int j = succs[k];
 				if (x != sccOf[j]) {
 					G_R.addArc(x, sccOf[j]);
 					mates[x].add((i + 1) * n2 + j);
@@ -32,10 +32,7 @@ public class PropCircuit_AntiArboFiltering extends PropCircuit_ArboFiltering {
     //***********************************************************************************
 
 	protected void filterFromDom(int duplicatedNode) throws ContradictionException {
-		for (int i = 0; i < n + 1; i++) {
-			connectedGraph.getSuccOf(i).clear();
-			connectedGraph.getPredOf(i).clear();
-		}
+		connectedGraph.clear();
 		for (int i = 0; i < n; i++) {
 			int ub = vars[i].getUB();
 			for (int y = vars[i].getLB(); y <= ub; y = vars[i].nextValue(y)) {
@@ -16,8 +16,7 @@ import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 import org.chocosolver.util.graphOperations.dominance.AbstractLengauerTarjanDominatorsFinder;
 import org.chocosolver.util.graphOperations.dominance.SimpleDominatorsFinder;
-import org.chocosolver.util.objects.graphs.DirectedGraph;
-import org.chocosolver.util.objects.setDataStructures.SetType;
+import org.chocosolver.util.objects.graphs.CompactDirectedGraph;
 
 import java.util.Random;
 
@@ -34,7 +33,7 @@ public class PropCircuit_ArboFiltering extends Propagator<IntVar> {
     //***********************************************************************************
 
     // flow graph
-    protected DirectedGraph connectedGraph;
+    protected CompactDirectedGraph connectedGraph;
     // number of nodes
     protected int n;
     // dominators finder that contains the dominator tree
@@ -54,7 +53,7 @@ public class PropCircuit_ArboFiltering extends Propagator<IntVar> {
         this.conf = conf;
         this.n = succs.length;
         this.offSet = offSet;
-        this.connectedGraph = new DirectedGraph(n + 1, SetType.BITSET, false);
+        this.connectedGraph = new CompactDirectedGraph(n + 1, n + 1);
         domFinder = new SimpleDominatorsFinder(n, connectedGraph);
         if (conf == CircuitConf.RD) {
             rd = new Random(0);
@@ -89,10 +88,7 @@ public class PropCircuit_ArboFiltering extends Propagator<IntVar> {
     }
 
     protected void filterFromDom(int duplicatedNode) throws ContradictionException {
-        for (int i = 0; i < n + 1; i++) {
-            connectedGraph.getSuccOf(i).clear();
-            connectedGraph.getPredOf(i).clear();
-        }
+        connectedGraph.clear();
         for (int i = 0; i < n; i++) {
             int ub = vars[i].getUB();
             for (int y = vars[i].getLB(); y <= ub; y = vars[i].nextValue(y)) {
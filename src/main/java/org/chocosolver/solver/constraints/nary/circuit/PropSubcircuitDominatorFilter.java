@@ -16,8 +16,7 @@ import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 import org.chocosolver.util.graphOperations.dominance.AbstractLengauerTarjanDominatorsFinder;
 import org.chocosolver.util.graphOperations.dominance.SimpleDominatorsFinder;
-import org.chocosolver.util.objects.graphs.DirectedGraph;
-import org.chocosolver.util.objects.setDataStructures.SetType;
+import org.chocosolver.util.objects.graphs.CompactDirectedGraph;
 
 import java.util.Random;
 
@@ -34,7 +33,7 @@ public class PropSubcircuitDominatorFilter extends Propagator<IntVar> {
 	//***********************************************************************************
 
 	// flow graph
-	private DirectedGraph connectedGraph;
+	private CompactDirectedGraph connectedGraph;
 	// number of nodes
 	private int n;
 	// dominators finder that contains the dominator tree
@@ -60,7 +59,7 @@ public class PropSubcircuitDominatorFilter extends Propagator<IntVar> {
 		super(succs, PropagatorPriority.QUADRATIC, false);
 		this.n = succs.length;
 		this.offSet = offSet;
-		this.connectedGraph = new DirectedGraph(n + 1, SetType.BITSET, false);
+		this.connectedGraph = new CompactDirectedGraph(n + 1, n + 1);
 		domFinder = new SimpleDominatorsFinder(n, connectedGraph);
 		rootCandidates = new int[n];
 		this.adaptable = adaptable;
@@ -174,10 +173,7 @@ public class PropSubcircuitDominatorFilter extends Propagator<IntVar> {
 	}
 
 	private void clear(){
-		for (int i = 0; i < n + 1; i++) {
-			connectedGraph.getSuccOf(i).clear();
-			connectedGraph.getPredOf(i).clear();
-		}
+		connectedGraph.clear();
 	}
 
 	@Override
@@ -184,6 +184,16 @@ public class Cumulative extends Constraint {
 				return new DisjunctiveTaskIntervalFilter(n);
 			}
 		},
+		/**
+		 * time-table and edge-finding algorithms, in O(n log n) and O(kn log n) respectively,
+		 * k being the number of distinct heights (scales to large sets of tasks)
+		 * not idempotent
+		 */
+		TTEF {
+			public CumulFilter make(int n){
+				return new TTEFCumulFilter(n);
+			}
+		},
 		/**
 		 * Combines above filters as a black-box
 		 * not idempotent
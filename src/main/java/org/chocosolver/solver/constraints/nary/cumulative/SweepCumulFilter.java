@@ -17,6 +17,7 @@ import org.chocosolver.util.objects.setDataStructures.ISetIterator;
 import org.chocosolver.util.objects.setDataStructures.SetFactory;
 import org.chocosolver.util.sort.ArraySort;
 
+import java.io.Serializable;
 import java.util.Comparator;
 
 /**
@@ -68,7 +69,7 @@ public class SweepCumulFilter extends CumulFilter {
 		}
 		tasksToUSe = SetFactory.makeBipartiteSet(0);
 		sort = new ArraySort<>(events.length,true,false);
-		eventComparator = (e1, e2) -> {
+		eventComparator = (Comparator<Event> & Serializable) (e1, e2) -> {
             if(e1.date == e2.date){
                 return e2.type-e1.type;
             }
@@ -0,0 +1,633 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.cumulative;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+import org.chocosolver.util.sort.ArraySort;
+
+import java.util.Arrays;
+
+/**
+ * Time-table and edge-finding filtering, designed for large sets of tasks.
+ * <p>
+ * Time-table: the profile of compulsory parts is computed from tasks sorted by latest starting time
+ * and earliest completion time, in O(n log n).
+ * The orders are kept from one call to another and updated by insertion,
+ * which is linear when only few bounds changed, and by a full sort otherwise.
+ * The profile is stored as a max segment tree, so that the next conflicting segment of a task,
+ * or the maximal height over its compulsory part, are found in O(log n).
+ * It filters the capacity, the heights, the earliest starting times and the latest completion times.
+ * <p>
+ * Edge-finding: Vilím's algorithm based on a Theta-Lambda tree,
+ * in O(n log n) for the detection and O(kn log n) for the adjustments, k being the number of distinct heights.
+ * It filters the earliest starting times and, on the mirrored problem, the latest completion times.
+ * <br/>
+ * See: "Edge Finding Filtering Algorithm for Discrete Cumulative Resources in O(kn log n)", P. Vilím, CP 2009.
+ * <p>
+ * Not idempotent.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class TTEFCumulFilter extends CumulFilter {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private static final long NONE = Long.MIN_VALUE / 4;
+
+	/**
+	 * Bounds of the tasks, read at the beginning of each call
+	 */
+	private final int[] est, lct, lst, ect, p, c;
+	/**
+	 * To mark the tasks to filter
+	 */
+	private final int[] stamps;
+	private int stamp;
+	/**
+	 * Tasks sorted by latest starting time, earliest completion time, earliest starting time and latest completion time,
+	 * kept from one call to another
+	 */
+	private final int[] byLst, byEct, byEst, byLct;
+	private final ArraySort sorter;
+
+	// profile: segment k is [segTime[k],segTime[k+1]) with height segH[k]
+	private final int[] segTime, segH;
+	private int nbSeg;
+	private int[] segTree;
+	private int segHalf;
+
+	// Theta-Lambda tree
+	private final int[] leafOf, taskOf, order, prec, heights;
+	private final long[] upd;
+	private final long[] te, tenv, tel, tenvl, tenvc;
+	private final int[] trespe, trespenv;
+	private final int half;
+	private int m;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	public TTEFCumulFilter(int nbMaxTasks) {
+		super(nbMaxTasks);
+		int n = nbMaxTasks;
+		est = new int[n];
+		lct = new int[n];
+		lst = new int[n];
+		ect = new int[n];
+		p = new int[n];
+		c = new int[n];
+		stamps = new int[n];
+		byLst = new int[n];
+		byEct = new int[n];
+		byEst = new int[n];
+		byLct = new int[n];
+		for (int i = 0; i < n; i++) {
+			byLst[i] = byEct[i] = byEst[i] = byLct[i] = i;
+		}
+		sorter = new ArraySort(n, false, true);
+		segTime = new int[2 * n + 1];
+		segH = new int[2 * n + 1];
+		segTree = new int[2];
+		int h = 1;
+		while (h < n) {
+			h <<= 1;
+		}
+		half = h;
+		leafOf = new int[n];
+		taskOf = new int[n];
+		order = new int[n];
+		prec = new int[n];
+		heights = new int[n];
+		upd = new long[n];
+		te = new long[2 * half];
+		tenv = new long[2 * half];
+		tel = new long[2 * half];
+		tenvl = new long[2 * half];
+		tenvc = new long[2 * half];
+		trespe = new int[2 * half];
+		trespenv = new int[2 * half];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	public void filter(IntVar[] s, IntVar[] d, IntVar[] e, IntVar[] h, IntVar capa, ISet tasks, Propagator<IntVar> aCause) throws ContradictionException {
+		int capaMax = capa.getUB();
+		stamp++;
+		ISetIterator tIter = tasks.iterator();
+		while (tIter.hasNext()) {
+			int i = tIter.nextInt();
+			stamps[i] = stamp;
+			p[i] = d[i].getLB();
+			c[i] = h[i].getLB();
+			if (p[i] > 0 && c[i] > capaMax) {
+				aCause.fails();
+			}
+			read(i, s, e);
+		}
+		timeTable(s, e, h, capa, aCause);
+		// edge-finding on updated bounds
+		for (int i = 0; i < est.length; i++) {
+			if (stamps[i] == stamp) {
+				read(i, s, e);
+			}
+		}
+		sort(byEst, est);
+		sort(byLct, lct);
+		edgeFinding(s, e, capaMax, false, aCause);
+		for (int i = 0; i < est.length; i++) {
+			if (stamps[i] == stamp) {
+				read(i, s, e);
+			}
+		}
+		sort(byEst, est);
+		sort(byLct, lct);
+		edgeFinding(s, e, capaMax, true, aCause);
+	}
+
+	private void read(int i, IntVar[] s, IntVar[] e) {
+		est[i] = s[i].getLB();
+		lst[i] = s[i].getUB();
+		ect[i] = e[i].getLB();
+		lct[i] = e[i].getUB();
+	}
+
+	/**
+	 * Sorts <i>perm</i> wrt <i>key</i>, by insertion as long as only few moves are needed.
+	 */
+	private void sort(int[] perm, int[] key) {
+		int n = perm.length;
+		long moves = 0;
+		long limit = 8L * n + 64;
+		for (int i = 1; i < n; i++) {
+			int x = perm[i];
+			int kx = key[x];
+			int j = i - 1;
+			while (j >= 0 && key[perm[j]] > kx) {
+				perm[j + 1] = perm[j];
+				j--;
+			}
+			perm[j + 1] = x;
+			moves += i - 1 - j;
+			if (moves > limit) {
+				//noinspection unchecked
+				sorter.sort(perm, n, (i1, i2) -> Integer.compare(key[i1], key[i2]));
+				return;
+			}
+		}
+	}
+
+	//***********************************************************************************
+	// TIME-TABLE
+	//***********************************************************************************
+
+	private boolean hasCompulsoryPart(int i) {
+		return stamps[i] == stamp && c[i] > 0 && lst[i] < ect[i];
+	}
+
+	private int nextCompulsoryPart(int[] perm, int from) {
+		while (from < perm.length && !hasCompulsoryPart(perm[from])) {
+			from++;
+		}
+		return from;
+	}
+
+	private void timeTable(IntVar[] s, IntVar[] e, IntVar[] h, IntVar capa, Propagator<IntVar> aCause) throws ContradictionException {
+		sort(byLst, lst);
+		sort(byEct, ect);
+		// 1. build the profile
+		int n = byLst.length;
+		nbSeg = 0;
+		int height = 0, maxH = 0;
+		int ia = nextCompulsoryPart(byLst, 0);
+		int ib = nextCompulsoryPart(byEct, 0);
+		while (ib < n) {
+			int t = ect[byEct[ib]];
+			if (ia < n && lst[byLst[ia]] < t) {
+				t = lst[byLst[ia]];
+			}
+			while (ia < n && lst[byLst[ia]] == t) {
+				height += c[byLst[ia]];
+				ia = nextCompulsoryPart(byLst, ia + 1);
+			}
+			while (ib < n && ect[byEct[ib]] == t) {
+				height -= c[byEct[ib]];
+				ib = nextCompulsoryPart(byEct, ib + 1);
+			}
+			segTime[nbSeg] = t;
+			segH[nbSeg++] = height;
+			maxH = Math.max(maxH, height);
+		}
+		if (nbSeg == 0) {
+			return;
+		}
+		capa.updateLowerBound(maxH, aCause);
+		int capaMax = capa.getUB();
+		buildSegmentTree();
+		// 2. filter heights, starts and ends
+		for (int i = 0; i < n; i++) {
+			if (stamps[i] != stamp) {
+				continue;
+			}
+			// segments [cpFrom, cpTo) are the compulsory part of i, lst and ect being events of the profile
+			int cpFrom = -1, cpTo = -1;
+			if (hasCompulsoryPart(i)) {
+				cpFrom = segIndex(lst[i]);
+				cpTo = segIndex(ect[i]);
+				if (!h[i].isInstantiated()) {
+					h[i].updateUpperBound(capaMax - rangeMax(cpFrom, cpTo - 1) + c[i], aCause);
+				}
+			} else if (lst[i] < ect[i] && !h[i].isInstantiated()) {
+				int from = Math.max(0, segIndex(lst[i]));
+				int to = segIndex(ect[i] - 1);
+				if (to >= from) {
+					h[i].updateUpperBound(capaMax - rangeMax(from, to), aCause);
+				}
+			}
+			if (p[i] > 0 && c[i] > 0) {
+				int thr = capaMax - c[i];
+				if (est[i] < lst[i]) {
+					filterStart(s[i], i, thr, cpFrom, cpTo, aCause);
+				}
+				if (ect[i] < lct[i]) {
+					filterEnd(e[i], i, thr, cpFrom, cpTo, aCause);
+				}
+			}
+		}
+	}
+
+	private void filterStart(IntVar start, int i, int thr, int cpFrom, int cpTo, Propagator<IntVar> aCause) throws ContradictionException {
+		int t = est[i];
+		int k = Math.max(0, segIndex(t));
+		while (true) {
+			int j = firstAbove(k, thr);
+			if (j < 0 || segTime[j] >= t + p[i]) {
+				break;
+			}
+			if (j >= cpFrom && j < cpTo) {
+				k = cpTo;
+				continue;
+			}
+			t = segTime[j + 1];
+			k = j + 1;
+			if (t > lst[i]) {
+				break;
+			}
+		}
+		if (t > est[i]) {
+			start.updateLowerBound(t, aCause);
+		}
+	}
+
+	private void filterEnd(IntVar end, int i, int thr, int cpFrom, int cpTo, Propagator<IntVar> aCause) throws ContradictionException {
+		int t = lct[i];
+		int k = segIndex(t - 1);
+		while (k >= 0) {
+			int j = lastAbove(k, thr);
+			if (j < 0 || segEnd(j) <= t - p[i]) {
+				break;
+			}
+			if (j >= cpFrom && j < cpTo) {
+				k = cpFrom - 1;
+				continue;
+			}
+			t = segTime[j];
+			k = j - 1;
+			if (t < ect[i]) {
+				break;
+			}
+		}
+		if (t < lct[i]) {
+			end.updateUpperBound(t, aCause);
+		}
+	}
+
+	private int segEnd(int k) {
+		return k + 1 < nbSeg ? segTime[k + 1] : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @return the index of the segment containing <i>t</i>, -1 if <i>t</i> is before the first segment
+	 */
+	private int segIndex(int t) {
+		int lo = 0, hi = nbSeg - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (segTime[mid] <= t) {
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return hi;
+	}
+
+	private void buildSegmentTree() {
+		segHalf = 1;
+		while (segHalf < nbSeg) {
+			segHalf <<= 1;
+		}
+		if (segTree.length < 2 * segHalf) {
+			segTree = new int[2 * segHalf];
+		}
+		for (int k = 0; k < segHalf; k++) {
+			segTree[segHalf + k] = k < nbSeg ? segH[k] : Integer.MIN_VALUE;
+		}
+		for (int v = segHalf - 1; v > 0; v--) {
+			segTree[v] = Math.max(segTree[2 * v], segTree[2 * v + 1]);
+		}
+	}
+
+	/**
+	 * @return the smallest segment index greater or equal to <i>from</i> whose height is greater than <i>thr</i>,
+	 * or -1
+	 */
+	private int firstAbove(int from, int thr) {
+		if (from >= nbSeg) {
+			return -1;
+		}
+		int v = from + segHalf;
+		if (segTree[v] > thr) {
+			return from;
+		}
+		while (v > 1 && ((v & 1) == 1 || segTree[v + 1] <= thr)) {
+			v >>= 1;
+		}
+		if (v == 1) {
+			return -1;
+		}
+		v++;
+		while (v < segHalf) {
+			v = segTree[2 * v] > thr ? 2 * v : 2 * v + 1;
+		}
+		return v - segHalf;
+	}
+
+	/**
+	 * @return the greatest segment index lower or equal to <i>to</i> whose height is greater than <i>thr</i>,
+	 * or -1
+	 */
+	private int lastAbove(int to, int thr) {
+		if (to < 0) {
+			return -1;
+		}
+		int v = to + segHalf;
+		if (segTree[v] > thr) {
+			return to;
+		}
+		while (v > 1 && ((v & 1) == 0 || segTree[v - 1] <= thr)) {
+			v >>= 1;
+		}
+		if (v == 1) {
+			return -1;
+		}
+		v--;
+		while (v < segHalf) {
+			v = segTree[2 * v + 1] > thr ? 2 * v + 1 : 2 * v;
+		}
+		return v - segHalf;
+	}
+
+	/**
+	 * @return the maximal height of the segments in [<i>from</i>, <i>to</i>]
+	 */
+	private int rangeMax(int from, int to) {
+		int max = Integer.MIN_VALUE;
+		for (int l = from + segHalf, r = to + segHalf + 1; l < r; l >>= 1, r >>= 1) {
+			if ((l & 1) == 1) {
+				max = Math.max(max, segTree[l++]);
+			}
+			if ((r & 1) == 1) {
+				max = Math.max(max, segTree[--r]);
+			}
+		}
+		return max;
+	}
+
+	//***********************************************************************************
+	// EDGE-FINDING
+	//***********************************************************************************
+
+	/**
+	 * Edge-finding on earliest starting times or, if <i>mirror</i> is set to <tt>true</tt>,
+	 * on latest completion times (earliest starting times of the mirrored tasks).
+	 */
+	private void edgeFinding(IntVar[] s, IntVar[] e, int capa, boolean mirror, Propagator<IntVar> aCause) throws ContradictionException {
+		int n = byEst.length;
+		// leaves sorted by (mirrored) est, order sorted by (mirrored) lct
+		m = 0;
+		for (int k = 0; k < n; k++) {
+			int i = mirror ? byLct[n - 1 - k] : byEst[k];
+			if (stamps[i] == stamp && p[i] > 0 && c[i] > 0) {
+				leafOf[i] = m;
+				taskOf[m++] = i;
+			}
+		}
+		if (m < 2) {
+			return;
+		}
+		int q = 0;
+		for (int k = 0; k < n; k++) {
+			int i = mirror ? byEst[n - 1 - k] : byLct[k];
+			if (stamps[i] == stamp && p[i] > 0 && c[i] > 0) {
+				order[q++] = i;
+			}
+		}
+		// 1. detection
+		for (int l = 0; l < half; l++) {
+			if (l < m) {
+				int i = taskOf[l];
+				setWhite(l, est(i, mirror), (long) c[i] * p[i], capa, 0);
+				prec[i] = -1;
+			} else {
+				setEmpty(half + l);
+			}
+		}
+		for (int v = half - 1; v > 0; v--) {
+			combine(v);
+		}
+		int nbHeights = 0;
+		for (q = m - 1; q >= 0; q--) {
+			int j = order[q];
+			long bound = (long) capa * lct(j, mirror);
+			if (tenv[1] > bound) {
+				aCause.fails();
+			}
+			while (tenvl[1] > bound) {
+				int l = trespenv[1];
+				if (l < 0) {
+					break;
+				}
+				int i = taskOf[l];
+				prec[i] = q;
+				heights[nbHeights++] = c[i];
+				setEmpty(half + l);
+				update(l);
+			}
+			// a task whose bound cannot be adjusted anymore is not a candidate
+			if (mirror ? ect[j] < lct[j] : est[j] < lst[j]) {
+				setGray(leafOf[j]);
+			} else {
+				setEmpty(half + leafOf[j]);
+			}
+			update(leafOf[j]);
+		}
+		// 2. adjustment, for each distinct height
+		Arrays.sort(heights, 0, nbHeights);
+		for (int k = 0; k < nbHeights; k++) {
+			int ch = heights[k];
+			if (k > 0 && heights[k - 1] == ch) {
+				continue;
+			}
+			// updates are only needed up to the last set of tasks detected for this height
+			int last = 0;
+			for (int l = 0; l < m; l++) {
+				int i = taskOf[l];
+				if (c[i] == ch) {
+					last = Math.max(last, prec[i]);
+				}
+			}
+			for (int v = 1; v < 2 * half; v++) {
+				setEmpty(v);
+			}
+			long best = NONE;
+			for (q = 0; q <= last; q++) {
+				int j = order[q];
+				setWhite(leafOf[j], est(j, mirror), (long) c[j] * p[j], capa, ch);
+				update(leafOf[j]);
+				long thr = (long) (capa - ch) * lct(j, mirror);
+				if (tenvc[1] > thr) {
+					// rightmost leaf whose (C - ch) * est + energy of the leaves on its right is greater than thr
+					int v = 1;
+					long eR = 0;
+					while (v < half) {
+						if (tenvc[2 * v + 1] + eR > thr) {
+							v = 2 * v + 1;
+						} else {
+							eR += te[2 * v + 1];
+							v = 2 * v;
+						}
+					}
+					long diff = envUpTo(v) - thr;
+					best = Math.max(best, -Math.floorDiv(-diff, ch));
+				}
+				upd[q] = best;
+			}
+			for (int l = 0; l < m; l++) {
+				int i = taskOf[l];
+				if (prec[i] >= 0 && c[i] == ch && upd[prec[i]] > est(i, mirror)) {
+					int b = (int) Math.min(upd[prec[i]], Integer.MAX_VALUE / 2);
+					if (mirror) {
+						e[i].updateUpperBound(-b, aCause);
+					} else {
+						s[i].updateLowerBound(b, aCause);
+					}
+				}
+			}
+		}
+	}
+
+	private int est(int i, boolean mirror) {
+		return mirror ? -lct[i] : est[i];
+	}
+
+	private int lct(int i, boolean mirror) {
+		return mirror ? -est[i] : lct[i];
+	}
+
+	/**
+	 * @return the maximum, over the leaves <i>x</i> up to <i>leaf</i>, of C * est_x + energy of the leaves from x
+	 */
+	private long envUpTo(int leaf) {
+		int v = leaf;
+		long envL = tenv[v];
+		long eL = te[v];
+		long eR = 0;
+		while (v > 1) {
+			if ((v & 1) == 1) {
+				envL = Math.max(tenv[v - 1] + eL, envL);
+				eL += te[v - 1];
+			} else {
+				eR += te[v + 1];
+			}
+			v >>= 1;
+		}
+		return envL + eR;
+	}
+
+	private void setWhite(int l, int est, long energy, int capa, int ch) {
+		int v = half + l;
+		te[v] = energy;
+		tenv[v] = (long) capa * est + energy;
+		tenvc[v] = (long) (capa - ch) * est + energy;
+		tel[v] = energy;
+		tenvl[v] = tenv[v];
+		trespe[v] = trespenv[v] = -1;
+	}
+
+	private void setGray(int l) {
+		int v = half + l;
+		tel[v] = te[v];
+		tenvl[v] = tenv[v];
+		te[v] = 0;
+		tenv[v] = NONE;
+		tenvc[v] = NONE;
+		trespe[v] = trespenv[v] = l;
+	}
+
+	private void setEmpty(int v) {
+		te[v] = tel[v] = 0;
+		tenv[v] = tenvl[v] = tenvc[v] = NONE;
+		trespe[v] = trespenv[v] = -1;
+	}
+
+	private void update(int l) {
+		for (int v = (half + l) >> 1; v > 0; v >>= 1) {
+			combine(v);
+		}
+	}
+
+	private void combine(int v) {
+		int l = 2 * v, r = 2 * v + 1;
+		te[v] = te[l] + te[r];
+		tenv[v] = Math.max(tenv[l] + te[r], tenv[r]);
+		tenvc[v] = Math.max(tenvc[l] + te[r], tenvc[r]);
+		long a = tel[l] + te[r], b = te[l] + tel[r];
+		if (a >= b) {
+			tel[v] = a;
+			trespe[v] = trespe[l];
+		} else {
+			tel[v] = b;
+			trespe[v] = trespe[r];
+		}
+		a = tenvl[l] + te[r];
+		b = tenv[l] + tel[r];
+		long x = tenvl[r];
+		if (a >= b && a >= x) {
+			tenvl[v] = a;
+			trespenv[v] = trespenv[l];
+		} else if (b >= x) {
+			tenvl[v] = b;
+			trespenv[v] = trespe[r];
+		} else {
+			tenvl[v] = x;
+			trespenv[v] = trespenv[r];
+		}
+	}
+}
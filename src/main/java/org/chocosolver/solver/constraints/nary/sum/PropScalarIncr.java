@@ -0,0 +1,358 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.sum;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.memory.IStateIntVector;
+import org.chocosolver.solver.constraints.Operator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.ESat;
+
+/**
+ * A propagator for SUM(x_i*c_i) o b, maintained incrementally, dedicated to long linear constraints.
+ * <br/>
+ * Based on "Bounds Consistency Techniques for Long Linear Constraint" </br>
+ * W. Harvey and J. Schimpf
+ * <p>
+ * Sum of lower bounds and sum of upper bounds are trailed and updated on fine events,
+ * in constant time, instead of being computed again on each call.
+ * The variability of each term (c_i * (ub_i - lb_i)) is stored in a trailed max segment tree,
+ * so that only the terms whose variability exceeds the slack are visited when filtering.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class PropScalarIncr extends PropSum {
+
+    /**
+     * The coefficients
+     */
+    private final int[] c;
+
+    /**
+     * Sum of the lower bounds of the terms, maintained incrementally.
+     */
+    private final IStateInt bLB;
+
+    /**
+     * Sum of the upper bounds of the terms, maintained incrementally.
+     */
+    private final IStateInt bUB;
+
+    /**
+     * Bounds of the variables as they are known by the propagator, indexed like variables.
+     */
+    private final IStateIntVector lbs, ubs;
+
+    /**
+     * Max segment tree over the variability of the terms,
+     * the leaf of the i^th term is at index <i>half + i</i>, the root is at index 1.
+     */
+    private final IStateIntVector tree;
+
+    private final int half;
+
+    /**
+     * The filtering algorithm is triggered on some particular events.
+     * This boolean indicates when the propagation should be executed.
+     */
+    private boolean doFilter;
+
+    /**
+     * Create a scalar product: SUM(x_i*c_i) o b, maintained incrementally.
+     * Variables and coefficients are excepted to be ordered wrt to coefficients: first positive ones then negative ones.
+     * @param variables list of integer variables
+     * @param coeffs list of coefficients
+     * @param pos position of the last positive coefficient
+     * @param o operator
+     * @param b bound to respect.
+     */
+    public PropScalarIncr(IntVar[] variables, int[] coeffs, int pos, Operator o, int b) {
+        super(variables, pos, o, b, computePriority(variables.length), true);
+        this.c = coeffs;
+        IEnvironment env = model.getEnvironment();
+        this.bLB = env.makeInt();
+        this.bUB = env.makeInt();
+        this.lbs = env.makeIntVector(l, 0);
+        this.ubs = env.makeIntVector(l, 0);
+        int h = 1;
+        while (h < l) {
+            h <<= 1;
+        }
+        this.half = h;
+        this.tree = env.makeIntVector(2 * h, 0);
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        // bounds of all terms are maintained, whatever the operator
+        return o == Operator.NQ ? IntEventType.instantiation() : IntEventType.boundAndInst();
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        if (PropagatorEventType.isFullPropagation(evtmask)) {
+            int lb = 0, ub = 0;
+            for (int i = 0; i < l; i++) {
+                lbs.quickSet(i, vars[i].getLB());
+                ubs.quickSet(i, vars[i].getUB());
+                lb += termLB(i);
+                ub += termUB(i);
+                tree.quickSet(half + i, termUB(i) - termLB(i));
+            }
+            for (int k = half - 1; k > 0; k--) {
+                tree.quickSet(k, Math.max(tree.quickGet(2 * k), tree.quickGet(2 * k + 1)));
+            }
+            bLB.set(lb);
+            bUB.set(ub);
+        }
+        doFilter = false;
+        filter();
+    }
+
+    @Override
+    public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+        int dLB = -bLB.get();
+        int dUB = -bUB.get();
+        update(idxVarInProp);
+        dLB += bLB.get();
+        dUB += bUB.get();
+        switch (o) {
+            case LE:
+                doFilter |= dLB != 0;
+                break;
+            case GE:
+                doFilter |= dUB != 0;
+                break;
+            case NQ:
+                doFilter = true;
+                break;
+            default:
+                doFilter |= dLB != 0 || dUB != 0;
+                break;
+        }
+        if (doFilter) {
+            forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+        }
+    }
+
+    /**
+     * @param i index of a term
+     * @return the lower bound of the i^th term, as known by the propagator
+     */
+    private int termLB(int i) {
+        return i < pos ? lbs.quickGet(i) * c[i] : ubs.quickGet(i) * c[i];
+    }
+
+    /**
+     * @param i index of a term
+     * @return the upper bound of the i^th term, as known by the propagator
+     */
+    private int termUB(int i) {
+        return i < pos ? ubs.quickGet(i) * c[i] : lbs.quickGet(i) * c[i];
+    }
+
+    /**
+     * Synchronize the sums and the variability of the i^th term with the current bounds of <i>vars[i]</i>.
+     * @param i index of a term
+     */
+    private void update(int i) {
+        int olb = termLB(i);
+        int oub = termUB(i);
+        lbs.quickSet(i, vars[i].getLB());
+        ubs.quickSet(i, vars[i].getUB());
+        int nlb = termLB(i);
+        int nub = termUB(i);
+        if (olb != nlb) {
+            bLB.add(nlb - olb);
+        }
+        if (oub != nub) {
+            bUB.add(nub - oub);
+        }
+        int k = half + i;
+        tree.quickSet(k, nub - nlb);
+        for (k >>= 1; k > 0; k >>= 1) {
+            int m = Math.max(tree.quickGet(2 * k), tree.quickGet(2 * k + 1));
+            if (tree.quickSet(k, m) == m) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    protected void prepare() {
+        sumLB = bLB.get();
+        sumUB = bUB.get();
+    }
+
+    /**
+     * Reduce the upper bound of all terms whose variability exceeds the slack on the lower bound side,
+     * the lower bound of all terms whose variability exceeds the slack on the upper bound side,
+     * or both, depending on <i>up</i> and <i>down</i>.
+     * @param node a node of the tree
+     * @param up set to <tt>true</tt> to reduce upper bounds of terms
+     * @param down set to <tt>true</tt> to increase lower bounds of terms
+     * @return <tt>true</tt> if at least one bound has been modified
+     * @throws ContradictionException if a domain becomes empty
+     */
+    private boolean filter(int node, boolean up, boolean down) throws ContradictionException {
+        int m = tree.quickGet(node);
+        int F = up ? b - bLB.get() : Integer.MAX_VALUE;
+        int E = down ? bUB.get() - b : Integer.MAX_VALUE;
+        if (m <= F && m <= E) {
+            return false;
+        }
+        if (node >= half) {
+            int i = node - half;
+            boolean change = false;
+            if (m > F) {
+                int tlb = termLB(i);
+                if (i < pos) {
+                    change = vars[i].updateUpperBound(divFloor(F + tlb, c[i]), this);
+                } else {
+                    change = vars[i].updateLowerBound(divCeil(-F - tlb, -c[i]), this);
+                }
+            }
+            if (m > E) {
+                int tub = termUB(i);
+                if (i < pos) {
+                    change |= vars[i].updateLowerBound(divCeil(tub - E, c[i]), this);
+                } else {
+                    change |= vars[i].updateUpperBound(divFloor(-tub + E, -c[i]), this);
+                }
+            }
+            if (change) {
+                update(i);
+            }
+            return change;
+        }
+        boolean change = filter(2 * node, up, down);
+        return filter(2 * node + 1, up, down) | change;
+    }
+
+    @Override
+    protected void filterOnEq() throws ContradictionException {
+        boolean anychange;
+        do {
+            if (bLB.get() > b || bUB.get() < b) {
+                fails();
+            }
+            anychange = filter(1, true, true);
+        } while (anychange);
+        if (bLB.get() == b && bUB.get() == b) {
+            this.setPassive();
+        }
+    }
+
+    @Override
+    protected void filterOnLeq() throws ContradictionException {
+        if (bLB.get() > b) {
+            fails();
+        }
+        // reducing upper bounds does not modify the slack
+        filter(1, true, false);
+        if (bUB.get() <= b) {
+            this.setPassive();
+        }
+    }
+
+    @Override
+    protected void filterOnGeq() throws ContradictionException {
+        if (bUB.get() < b) {
+            fails();
+        }
+        // increasing lower bounds does not modify the slack
+        filter(1, false, true);
+        if (bLB.get() >= b) {
+            this.setPassive();
+        }
+    }
+
+    @Override
+    protected void filterOnNeq() throws ContradictionException {
+        if (bLB.get() > b || bUB.get() < b) {
+            setPassive();
+            return;
+        }
+        int w = -1;
+        int sum = 0;
+        for (int i = 0; i < l; i++) {
+            if (vars[i].isInstantiated()) {
+                sum += vars[i].getValue() * c[i];
+            } else if (w == -1) {
+                w = i;
+            } else return;
+        }
+        if (w == -1) {
+            if (sum == b) {
+                this.fails();
+            }
+        } else if ((b - sum) % c[w] == 0) {
+            vars[w].removeValue((b - sum) / c[w], this);
+        }
+    }
+
+    @Override
+    public ESat isEntailed() {
+        int sumUB = 0, sumLB = 0, i = 0;
+        for (; i < pos; i++) { // first the positive coefficients
+            sumLB += vars[i].getLB() * c[i];
+            sumUB += vars[i].getUB() * c[i];
+        }
+        for (; i < l; i++) { // then the negative ones
+            sumLB += vars[i].getUB() * c[i];
+            sumUB += vars[i].getLB() * c[i];
+        }
+        return check(sumLB, sumUB);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder linComb = new StringBuilder(20);
+        linComb.append(c[0]).append('.').append(vars[0].getName());
+        int i = 1;
+        for (; i < pos; i++) {
+            linComb.append(" + ").append(c[i]).append('.').append(vars[i].getName());
+        }
+        for (; i < l; i++) {
+            linComb.append(" - ").append(-c[i]).append('.').append(vars[i].getName());
+        }
+        linComb.append(" ").append(o).append(" ");
+        linComb.append(b);
+        return linComb.toString();
+    }
+
+    private static int divFloor(int a, int b) {
+        // <!> we assume b > 0
+        if (a >= 0) {
+            return (a / b);
+        } else {
+            return (a - b + 1) / b;
+        }
+    }
+
+    private static int divCeil(int a, int b) {
+        // <!> we assume b > 0
+        if (a >= 0) {
+            return ((a + b - 1) / b);
+        } else {
+            return a / b;
+        }
+    }
+
+    @Override
+    protected PropSum opposite() {
+        return new PropScalarIncr(vars, c, pos, nop(o), b + nb(o));
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.propagation;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.util.objects.IntCircularQueue;
+
+import java.util.Arrays;
+
+/**
+ * A priority-driven constraint-oriented propagation engine, an alternative to {@link PropagationEngine}.
+ * <br/>Scheduled propagators are stored by their id in buckets, which are circular queues of <code>int</code>,
+ * and a bitset indicates which propagators are already scheduled.
+ * Scheduling a propagator is then done in constant time, without allocation nor boxing.
+ * <p>
+ * There is one bucket per priority, the non-empty bucket with the lowest priority is always served first.
+ * When <i>cheapestFirst</i> is set to <tt>true</tt>, each priority is divided into eight buckets,
+ * depending on the number of variables of the propagators (1, 2, 3-4, 5-8, ..., more than 64),
+ * so that the cheapest propagators of a given priority are executed first.
+ * <p>
+ * To use it: {@code solver.setEngine(new BucketPropagationEngine(model, true));}
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class BucketPropagationEngine extends PropagationEngine {
+
+    /**
+     * Number of buckets per priority, when <i>cheapestFirst</i> is set to <tt>true</tt>
+     */
+    private static final int NB_CLASSES = 8;
+
+    /**
+     * Ids of the scheduled propagators, one bucket per priority (and per arity class when cheapest first)
+     */
+    private final IntCircularQueue[] buckets;
+
+    /**
+     * One bit per bucket: true if the bucket is not empty.
+     */
+    private long notEmptyBuckets;
+
+    /**
+     * One bit per propagator id: true if the propagator is scheduled.
+     */
+    private long[] scheduled;
+
+    /**
+     * Propagators indexed by their id
+     */
+    private Propagator[] propagators;
+
+    /**
+     * Set to <tt>true</tt> to execute the cheapest propagators of a given priority first
+     */
+    private final boolean cheapestFirst;
+
+    /**
+     * A propagation engine with one bucket per priority.
+     * @param model the declaring model
+     */
+    public BucketPropagationEngine(Model model) {
+        this(model, false);
+    }
+
+    /**
+     * A propagation engine with one bucket per priority, or, if <i>cheapestFirst</i> is set to <tt>true</tt>,
+     * eight buckets per priority depending on the number of variables of the propagators.
+     * @param model the declaring model
+     * @param cheapestFirst set to <tt>true</tt> to execute the cheapest propagators of a given priority first
+     */
+    public BucketPropagationEngine(Model model, boolean cheapestFirst) {
+        super(model);
+        this.cheapestFirst = cheapestFirst;
+        this.buckets = new IntCircularQueue[cheapestFirst ? 8 * NB_CLASSES : 8];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntCircularQueue(16);
+        }
+        this.scheduled = new long[1];
+        this.propagators = new Propagator[64];
+    }
+
+    @Override
+    public void propagate() throws ContradictionException {
+        activatePropagators();
+        do {
+            manageModifications();
+            while (notEmptyBuckets != 0) {
+                lastProp = poll();
+                if (profiler == null) {
+                    revise(lastProp);
+                } else {
+                    reviseAndProfile(lastProp);
+                }
+                if (hybrid < 0b01) {
+                    manageModifications();
+                }
+            }
+        } while (!var_queue.isEmpty());
+    }
+
+    /**
+     * Removes the first propagator of the non-empty bucket with the lowest index.
+     * At least one bucket must not be empty.
+     * @return the propagator removed
+     */
+    private Propagator poll() {
+        int b = Long.numberOfTrailingZeros(notEmptyBuckets);
+        IntCircularQueue bucket = buckets[b];
+        int id = bucket.pollFirst();
+        if (bucket.isEmpty()) {
+            notEmptyBuckets &= ~(1L << b);
+        }
+        scheduled[id >>> 6] &= ~(1L << id);
+        return propagators[id];
+    }
+
+    @Override
+    public void schedule(Propagator prop, int pindice, int mask) {
+        prop.doScheduleEvent(pindice, mask);
+        int id = prop.getId();
+        if (id >= propagators.length) {
+            ensureCapacity(id);
+        }
+        if ((scheduled[id >>> 6] & (1L << id)) == 0) {
+            scheduled[id >>> 6] |= 1L << id;
+            propagators[id] = prop;
+            int b = prop.getPriority().priority;
+            if (cheapestFirst) {
+                b = b * NB_CLASSES + arityClass(prop.getNbVars());
+            }
+            buckets[b].addLast(id);
+            notEmptyBuckets |= 1L << b;
+        }
+    }
+
+    /**
+     * @param nbVars number of variables of a propagator
+     * @return 0 for 1 variable, 1 for 2 variables, 2 for 3 or 4 variables, 3 for 5 to 8 variables, etc.
+     * and {@link #NB_CLASSES} - 1 for more than 64 variables
+     */
+    private static int arityClass(int nbVars) {
+        return Math.min(NB_CLASSES - 1, 32 - Integer.numberOfLeadingZeros(Math.max(nbVars - 1, 0)));
+    }
+
+    private void ensureCapacity(int id) {
+        int length = Math.max(id + 1, propagators.length * 3 / 2);
+        propagators = Arrays.copyOf(propagators, length);
+        scheduled = Arrays.copyOf(scheduled, (length >>> 6) + 1);
+    }
+
+    @Override
+    public void flush() {
+        super.flush();
+        while (notEmptyBuckets != 0) {
+            int b = Long.numberOfTrailingZeros(notEmptyBuckets);
+            IntCircularQueue bucket = buckets[b];
+            while (!bucket.isEmpty()) {
+                int id = bucket.pollLast();
+                scheduled[id >>> 6] &= ~(1L << id);
+                propagators[id].doFlush();
+            }
+            notEmptyBuckets &= ~(1L << b);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (IntCircularQueue bucket : buckets) {
+            bucket.clear();
+        }
+        notEmptyBuckets = 0;
+        Arrays.fill(scheduled, 0L);
+        Arrays.fill(propagators, null);
+    }
+}
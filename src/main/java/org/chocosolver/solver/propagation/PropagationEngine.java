@@ -14,6 +14,7 @@ import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.measure.PropagationProfiler;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.solver.variables.events.IEventType;
 import org.chocosolver.solver.variables.events.PropagatorEventType;
@@ -61,13 +62,13 @@ public class PropagationEngine {
      */
     private final CircularQueue<Propagator>[] pro_queue;
 
-    private final CircularQueue<Variable> var_queue;
+    protected final CircularQueue<Variable> var_queue;
 
     private final CircularQueue<Propagator> awake_queue;
     /**
      * The last propagator executed
      */
-    private Propagator lastProp;
+    protected Propagator lastProp;
     /**
      * One bit per queue: true if the queue is not empty.
      */
@@ -75,18 +76,26 @@ public class PropagationEngine {
     /**
      * PropagatorEventType's mask for delayed propagation
      */
-    private int delayedPropagationType;
+    protected int delayedPropagationType;
     /**
      * Set to <tt>true</tt> once {@link #initialize()} has been called.
      */
     private boolean init;
+    /**
+     * Set to <tt>true</tt> by {@link #rewind()}: all propagators have to be awaken on next propagation.
+     */
+    private boolean awakeAll;
     /**
      * When set to '0b00', this works as a constraint-oriented propagation engine;
      * when set to '0b01', this workds as an hybridization between variable and constraint oriented
      * propagation engine.
      * when set to '0b10', this workds as a variable- oriented propagation engine.
      */
-    private final byte hybrid;
+    protected final byte hybrid;
+    /**
+     * Collects statistics on propagators, <tt>null</tt> when profiling is disabled.
+     */
+    protected PropagationProfiler profiler;
 
     /**
      * A seven-queue propagation engine.
@@ -163,17 +172,10 @@ public class PropagationEngine {
             for (int i = nextNotEmpty(0); i > -1; i = nextNotEmpty(0)) {
                 while (!pro_queue[i].isEmpty()) {
                     lastProp = pro_queue[i].pollFirst();
-                    // revision of the variable
-                    lastProp.unschedule();
-                    delayedPropagationType = 0;
-                    if (lastProp.reactToFineEvent()) {
-                        lastProp.doFinePropagation();
-                        // now we can check whether a delayed propagation has been scheduled
-                        if (delayedPropagationType > 0) {
-                            lastProp.propagate(delayedPropagationType);
-                        }
-                    } else if (lastProp.isActive()) { // need to be checked due to views
-                        lastProp.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
+                    if (profiler == null) {
+                        revise(lastProp);
+                    } else {
+                        reviseAndProfile(lastProp);
                     }
                     if (hybrid < 0b01) {
                         manageModifications();
@@ -184,13 +186,60 @@ public class PropagationEngine {
         } while (!var_queue.isEmpty());
     }
 
+    /**
+     * Execute a scheduled propagator.
+     *
+     * @param prop propagator to execute
+     * @throws ContradictionException if a contradiction occurrs
+     */
+    protected final void revise(Propagator prop) throws ContradictionException {
+        // revision of the variable
+        prop.unschedule();
+        delayedPropagationType = 0;
+        if (prop.reactToFineEvent()) {
+            prop.doFinePropagation();
+            // now we can check whether a delayed propagation has been scheduled
+            if (delayedPropagationType > 0) {
+                prop.propagate(delayedPropagationType);
+            }
+        } else if (prop.isActive()) { // need to be checked due to views
+            prop.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
+        }
+    }
+
+    /**
+     * Same as {@link #revise(Propagator)} but the execution is reported to {@link #profiler}.
+     *
+     * @param prop propagator to execute
+     * @throws ContradictionException if a contradiction occurrs
+     */
+    protected final void reviseAndProfile(Propagator prop) throws ContradictionException {
+        boolean fine = prop.reactToFineEvent();
+        boolean failed = true;
+        profiler.start(prop);
+        try {
+            revise(prop);
+            failed = false;
+        } finally {
+            profiler.stop(prop, fine, !fine || delayedPropagationType > 0, failed);
+        }
+    }
+
     /**
      * Checks if some propagators were added or have to be propagated on backtrack
      * @throws ContradictionException if a propagation fails
      */
-    private void activatePropagators() throws ContradictionException {
+    protected final void activatePropagators() throws ContradictionException {
         int cw = model.getEnvironment().getWorldIndex(); // get current index
-        dynPropagators.descending(cw, awake_queue::addLast);
+        if (awakeAll) {
+            awakeAll = false;
+            for (int i = 0; i < propagators.size(); i++) {
+                awake_queue.addLast(propagators.get(i));
+            }
+            dynPropagators.descending(cw, p -> {});
+        } else {
+            dynPropagators.descending(cw, awake_queue::addLast);
+        }
         while (!awake_queue.isEmpty()) {
             execute(awake_queue.pollFirst());
         }
@@ -207,14 +256,28 @@ public class PropagationEngine {
             propagator.setActive();
         }
         if (propagator.isActive()) {
-            propagator.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
+            if (profiler == null) {
+                propagator.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
+            } else {
+                boolean failed = true;
+                profiler.start(propagator);
+                try {
+                    propagator.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
+                    failed = false;
+                } finally {
+                    profiler.stop(propagator, false, true, failed);
+                }
+            }
             while (!var_queue.isEmpty()) {
                 schedule(var_queue.pollFirst());
             }
         }
     }
 
-    private void manageModifications() {
+    /**
+     * Schedules the propagators of the modified variables
+     */
+    protected final void manageModifications() {
         if (!var_queue.isEmpty()) {
             do {
                 schedule(var_queue.pollFirst());
@@ -268,6 +331,9 @@ public class PropagationEngine {
             }
             assert found : variable + " not in scope of " + cause;
         }
+        if (profiler != null && cause instanceof Propagator) {
+            profiler.onEvent((Propagator) cause);
+        }
         var_queue.addLast(variable);
         variable.storeEvents(type.getMask(), cause);
     }
@@ -340,6 +406,24 @@ public class PropagationEngine {
         clear();
     }
 
+    /**
+     * Reset the propagation engine but keep its internal structures.
+     * Pending events are removed and every propagator will be awaken on next propagation,
+     * as done on initialization, but the propagators are neither collected nor sorted again.
+     * Constraints posted or unposted since the initialization are taken into account.
+     * <p>
+     * The engine must be restored in a state where propagators are new (or passive),
+     * that is, the environment has been backtracked before the initial propagation.
+     */
+    public void rewind() {
+        flush();
+        if (init) {
+            awake_queue.clear();
+            notEmpty = 0;
+            awakeAll = true;
+        }
+    }
+
     /**
      * Clear internal structures
      */
@@ -349,9 +433,28 @@ public class PropagationEngine {
         propagators.clear();
         notEmpty = 0;
         init = false;
+        awakeAll = false;
         lastProp = null;
     }
 
+    /**
+     * Set the object which collects statistics on propagators executed by this engine.
+     * Set to <tt>null</tt> to disable profiling.
+     *
+     * @param profiler a profiler, or <tt>null</tt>
+     */
+    public void setProfiler(PropagationProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * @return the object which collects statistics on propagators executed by this engine,
+     * or <tt>null</tt> if profiling is disabled
+     */
+    public PropagationProfiler getProfiler() {
+        return profiler;
+    }
+
     public void ignoreModifications() {
         while (!var_queue.isEmpty()) {
             var_queue.pollFirst().clearEvents();
@@ -9,10 +9,15 @@
 package org.chocosolver.solver.search;
 
 import org.chocosolver.solver.ISelf;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.ParallelCubeAndConquer;
+import org.chocosolver.solver.ResolutionPolicy;
 import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.SolutionPool;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.nary.lex.PropLexInt;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.objective.ParetoOptimizer;
 import org.chocosolver.solver.search.limits.ACounter;
 import org.chocosolver.solver.search.measure.IMeasures;
@@ -25,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -145,6 +151,38 @@ public interface IResolutionHelper extends ISelf<Solver> {
         return solutions;
     }
 
+    /**
+     * Attempts to find all solutions of the declared satisfaction problem, and records them in <i>pool</i>.
+     * This method behaves like {@link #findAllSolutions(Criterion...)}
+     * but solutions are packed in rows of the pool instead of being stored in distinct {@link Solution} objects,
+     * which is recommended when many solutions are expected.
+     * <p>
+     * This method run the following instructions:
+     * <pre>
+     *     {@code
+     *     while (model.getSolver().solve()){
+     *          pool.record();
+     *     }
+     *     return pool;
+     *     }
+     * </pre>
+     *
+     * Note that it clears the current objective function, if any
+     *
+     * @param pool pool to record the solutions in, it should be declared before the search starts
+     * @param stop optional criterion to stop the search before finding all solutions
+     * @return <i>pool</i>
+     */
+    default SolutionPool findAllSolutions(SolutionPool pool, Criterion... stop) {
+        ref().getModel().clearObjective();
+        ref().addStopCriterion(stop);
+        while (ref().solve()) {
+            pool.record();
+        }
+        ref().removeStopCriterion(stop);
+        return pool;
+    }
+
     /**
      * Attempts to find all solutions of the declared problem.
      * <ul>
@@ -174,15 +212,36 @@ public interface IResolutionHelper extends ISelf<Solver> {
      *
      * Note that all variables will be recorded
      *
+     * The stream is sequential, but it can be made parallel with {@link Stream#parallel()}.
+     * In that case, when no stop criterion is given, the problem is a satisfaction one
+     * and its resolution has not started yet, the search space is split into cubes which are solved by this model
+     * and by copies of it (see {@link org.chocosolver.solver.ParallelCubeAndConquer#streamSolutions()}).
+     * Once the stream is consumed or closed, the solver of this model is reset (see {@link Solver#reset()}).
+     * The copies are solved with the default search strategy and ignore the monitors and limits of this solver,
+     * and the solutions are no longer encountered in the order this solver would find them.
+     * Otherwise, or if the model cannot be copied (see {@link org.chocosolver.solver.Model#copy()}),
+     * the solutions are enumerated by this model only.
+     *
      * @param stop optional criterion to stop the search before finding all/best solution
      * @return a list that contained the found solutions.
      */
     default Stream<Solution> streamSolutions(Criterion... stop) {
         ref().addStopCriterion(stop);
-        Spliterator<Solution> it = new Spliterator<Solution>() {
+        class SolutionSpliterator implements Spliterator<Solution> {
+
+            /** Set to <tt>true</tt> once the first solution is requested or the first split is tried */
+            private boolean started;
+            /** Cube-and-conquer stream over the solutions, if the stream is split */
+            private Stream<Solution> cubes;
+            /** Spliterator of {@link #cubes} */
+            private Spliterator<Solution> delegate;
 
             @Override
             public boolean tryAdvance(Consumer<? super Solution> action) {
+                started = true;
+                if (delegate != null) {
+                    return delegate.tryAdvance(action);
+                }
                 if (ref().solve()) {
                     action.accept(new Solution(ref().getModel()).record());
                     return true;
@@ -193,12 +252,32 @@ public interface IResolutionHelper extends ISelf<Solver> {
 
             @Override
             public Spliterator<Solution> trySplit() {
-                return null;
+                if (!started) {
+                    started = true;
+                    int n = ForkJoinPool.getCommonPoolParallelism() + 1;
+                    if (n > 1 && stop.length == 0
+                            && ref().getModel().getResolutionPolicy() == ResolutionPolicy.SATISFACTION
+                            && ref().getSearchState() == SearchState.NEW) {
+                        Model copy;
+                        try {
+                            copy = ref().getModel().copy();
+                        } catch (SolverException e) {
+                            return null;
+                        }
+                        // about eight cubes per thread
+                        ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(32 - Integer.numberOfLeadingZeros(n - 1) + 3);
+                        cnc.addModel(ref().getModel());
+                        cnc.addModel(copy);
+                        cubes = cnc.streamSolutions();
+                        delegate = cubes.spliterator();
+                    }
+                }
+                return delegate == null ? null : delegate.trySplit();
             }
 
             @Override
             public long estimateSize() {
-                return Long.MAX_VALUE;
+                return delegate == null ? Long.MAX_VALUE : delegate.estimateSize();
             }
 
             @Override
@@ -206,8 +285,17 @@ public interface IResolutionHelper extends ISelf<Solver> {
                 return Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.CONCURRENT;
             }
 
-        };
-        return StreamSupport.stream(it, false);
+            /**
+             * Restores the model when the stream has been split
+             */
+            void close() {
+                if (cubes != null) {
+                    cubes.close();
+                }
+            }
+        }
+        SolutionSpliterator it = new SolutionSpliterator();
+        return StreamSupport.stream(it, false).onClose(it::close);
     }
 
     /**
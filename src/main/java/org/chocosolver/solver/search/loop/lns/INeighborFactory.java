@@ -79,4 +79,49 @@ public class INeighborFactory {
     public static INeighbor sequencer(INeighbor... neighbors) {
         return new SequenceNeighborhood(neighbors);
     }
+
+    /**
+     * Creates a black-box LNS neighbor whose neighbors are selected by a multi-armed bandit,
+     * wrt the improvement of the objective per second
+     * @param seed seed for ties breaking
+     * @param vars the pool of variables to be freezed
+     * @return a black-box LNS neighbor selecting neighbors with UCB1
+     * @see BanditNeighborhood
+     */
+    public static INeighbor bandit(long seed, IntVar... vars) {
+        return bandit(vars[0].getModel(), seed,
+                propagationGuided(vars),
+                reversedPropagationGuided(vars),
+                random(vars)
+        );
+    }
+
+    /**
+     * Creates a black-box LNS neighbor whose neighbors are selected by a multi-armed bandit,
+     * wrt the improvement of the objective per node, which makes the search reproducible
+     * @param seed seed for ties breaking
+     * @param vars the pool of variables to be freezed
+     * @return a black-box LNS neighbor selecting neighbors with UCB1
+     * @see BanditNeighborhood
+     */
+    public static INeighbor banditPerNode(long seed, IntVar... vars) {
+        return new BanditNeighborhood(vars[0].getModel(), seed, BanditNeighborhood.DEFAULT_EXPLORATION, true,
+                propagationGuided(vars),
+                reversedPropagationGuided(vars),
+                random(vars)
+        );
+    }
+
+    /**
+     * Creates a composite Neighbor whose neighbors are selected by a multi-armed bandit,
+     * wrt the improvement of the objective per second
+     * @param model the model to which the neighbors are attached
+     * @param seed seed for ties breaking
+     * @param neighbors a set of neighbors to be selected from
+     * @return a composite Neighbor selecting neighbors with UCB1
+     * @see BanditNeighborhood
+     */
+    public static INeighbor bandit(Model model, long seed, INeighbor... neighbors) {
+        return new BanditNeighborhood(model, seed, neighbors);
+    }
 }
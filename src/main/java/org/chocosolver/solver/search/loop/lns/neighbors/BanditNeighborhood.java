@@ -0,0 +1,215 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.search.loop.lns.neighbors;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.objective.IBoundsManager;
+
+import java.util.Random;
+
+/**
+ * A neighbor which is based on multiple neighbors, selected by a multi-armed bandit.
+ * <p>
+ * Each call to {@link #fixSomeVariables(org.chocosolver.solver.search.strategy.decision.DecisionPath)} starts a run
+ * of one neighbor, which ends either when a solution is found or when the next run starts.
+ * A run is rewarded by the improvement of the objective per second, zero when no solution is found
+ * (on satisfaction problems, each solution improves by one).
+ * Since rewards depend on running times, the selection of neighbors, and thus the search, is not reproducible.
+ * To get a reproducible search, runs can be measured in nodes instead of seconds,
+ * see {@link #BanditNeighborhood(Model, long, double, boolean, INeighbor...)}.
+ * Neighbors are then selected with UCB1: the neighbor maximizing
+ * <i>mean(reward) / max(reward) + c * sqrt(ln(runs) / runs(neighbor))</i> is selected,
+ * each neighbor being selected once at the beginning.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class BanditNeighborhood extends SequenceNeighborhood {
+
+    /**
+     * Default exploration factor
+     */
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+    /**
+     * The model to which the neighbors are attached, to read the objective value
+     */
+    private final Model model;
+    /**
+     * To break ties
+     */
+    private final Random random;
+    /**
+     * Weight of the exploration term in UCB1
+     */
+    private final double exploration;
+    /**
+     * Number of runs of each neighbor
+     */
+    private final int[] runs;
+    /**
+     * Sum of the rewards of each neighbor
+     */
+    private final double[] rewards;
+    /**
+     * Total number of runs
+     */
+    private int total;
+    /**
+     * Highest reward observed so far, to normalize the mean rewards
+     */
+    private double maxReward;
+    /**
+     * Set to <tt>true</tt> to measure runs in nodes, <tt>false</tt> to measure them in seconds
+     */
+    private final boolean perNode;
+    /**
+     * Set to <tt>true</tt> while a run is in progress
+     */
+    private boolean running;
+    /**
+     * Starting time of the current run, in nanoseconds, or number of nodes when runs are measured in nodes
+     */
+    private long start;
+    /**
+     * Best objective value at the beginning of the current run
+     */
+    private double bound;
+
+    /**
+     * Creates a neighbor which selects among <i>neighbors</i> with UCB1.
+     * @param model the model to which the neighbors are attached
+     * @param seed seed for ties breaking
+     * @param exploration weight of the exploration term, the higher the more the neighbors are explored
+     * @param perNode set to <tt>true</tt> to reward runs by the improvement per node instead of per second,
+     *                which makes the search reproducible
+     * @param neighbors the neighbors to select from
+     */
+    public BanditNeighborhood(Model model, long seed, double exploration, boolean perNode, INeighbor... neighbors) {
+        super(neighbors);
+        this.model = model;
+        this.random = new Random(seed);
+        this.exploration = exploration;
+        this.perNode = perNode;
+        this.runs = new int[count];
+        this.rewards = new double[count];
+    }
+
+    /**
+     * Creates a neighbor which selects among <i>neighbors</i> with UCB1,
+     * runs being rewarded by the improvement of the objective per second.
+     * @param model the model to which the neighbors are attached
+     * @param seed seed for ties breaking
+     * @param exploration weight of the exploration term, the higher the more the neighbors are explored
+     * @param neighbors the neighbors to select from
+     */
+    public BanditNeighborhood(Model model, long seed, double exploration, INeighbor... neighbors) {
+        this(model, seed, exploration, false, neighbors);
+    }
+
+    /**
+     * Creates a neighbor which selects among <i>neighbors</i> with UCB1,
+     * with {@link #DEFAULT_EXPLORATION} as exploration factor.
+     * @param model the model to which the neighbors are attached
+     * @param seed seed for ties breaking
+     * @param neighbors the neighbors to select from
+     */
+    public BanditNeighborhood(Model model, long seed, INeighbor... neighbors) {
+        this(model, seed, DEFAULT_EXPLORATION, neighbors);
+    }
+
+    @Override
+    public void recordSolution() {
+        if (running) {
+            IBoundsManager objective = model.getSolver().getObjectiveManager();
+            double gain = objective.isOptimization() ?
+                    Math.abs(objective.getBestSolutionValue().doubleValue() - bound) : 1.;
+            end(gain / duration());
+        }
+        super.recordSolution();
+    }
+
+    @Override
+    public void loadFromSolution(Solution solution) {
+        if (running) {
+            end(0.);
+        }
+        super.loadFromSolution(solution);
+    }
+
+    @Override
+    protected void nextNeighbor() {
+        if (running) {
+            end(0.);
+        }
+        who = select();
+        running = true;
+        IBoundsManager objective = model.getSolver().getObjectiveManager();
+        bound = objective.isOptimization() ? objective.getBestSolutionValue().doubleValue() : 0.;
+        start = perNode ? model.getSolver().getNodeCount() : System.nanoTime();
+    }
+
+    /**
+     * @return the duration of the current run, in nodes or in seconds
+     */
+    private double duration() {
+        if (perNode) {
+            return Math.max(model.getSolver().getNodeCount() - start, 1L);
+        }
+        return Math.max(System.nanoTime() - start, 1L) / 1e9;
+    }
+
+    /**
+     * @param i index of a neighbor
+     * @return the number of runs of the <i>i</i><sup>th</sup> neighbor
+     */
+    public int getRuns(int i) {
+        return runs[i];
+    }
+
+    /**
+     * @param i index of a neighbor
+     * @return the mean reward of the <i>i</i><sup>th</sup> neighbor, in improvement per second (or per node)
+     */
+    public double getMeanReward(int i) {
+        return runs[i] == 0 ? 0. : rewards[i] / runs[i];
+    }
+
+    private void end(double reward) {
+        running = false;
+        runs[who]++;
+        rewards[who] += reward;
+        total++;
+        maxReward = Math.max(maxReward, reward);
+    }
+
+    private int select() {
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        int ties = 0;
+        double log = Math.log(total);
+        for (int i = 0; i < count; i++) {
+            if (runs[i] == 0) {
+                return i;
+            }
+            double score = (maxReward > 0. ? rewards[i] / runs[i] / maxReward : 0.)
+                    + exploration * Math.sqrt(log / runs[i]);
+            if (score > bestScore) {
+                best = i;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
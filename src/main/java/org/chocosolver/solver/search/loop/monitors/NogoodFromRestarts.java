@@ -11,6 +11,7 @@ package org.chocosolver.solver.search.loop.monitors;
 import org.chocosolver.sat.PropNogoods;
 import org.chocosolver.sat.SatSolver;
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.search.strategy.assignments.DecisionOperatorFactory;
 import org.chocosolver.solver.search.strategy.decision.Decision;
 import org.chocosolver.solver.search.strategy.decision.IntDecision;
@@ -66,8 +67,12 @@ public class NogoodFromRestarts implements IMonitorRestart {
 
     @SuppressWarnings("unchecked")
     private void extractNogoodFromPath() {
-        int d = (int) png.getModel().getSolver().getNodeCount();
-        png.getModel().getSolver().getDecisionPath().transferInto(decisions, false);
+        Solver solver = png.getModel().getSolver();
+        int d = (int) solver.getNodeCount();
+        // a nogood may forbid an already found solution: in that case, it must never be forgotten,
+        // unless the objective function already forbids it
+        boolean deletable = solver.getSolutionCount() == 0 || solver.getObjectiveManager().isOptimization();
+        solver.getDecisionPath().transferInto(decisions, false);
         Decision<IntVar> decision;
         int[] lits = new int[d];
         int i = 0;
@@ -81,10 +86,10 @@ public class NogoodFromRestarts implements IMonitorRestart {
                     } else {
                         if (i == 0) {
                             // value can be removed permanently from var!
-                            png.addLearnt(SatSolver.negated(png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true)));
+                            png.addLearnt(new int[]{SatSolver.negated(png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true))}, deletable);
                         } else {
                             lits[i] = SatSolver.negated(png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true));
-                            png.addLearnt(Arrays.copyOf(lits, i + 1));
+                            png.addLearnt(Arrays.copyOf(lits, i + 1), deletable);
                         }
                     }
                 } else if (id.getDecOp() == DecisionOperatorFactory.makeIntNeq()) {
@@ -93,10 +98,10 @@ public class NogoodFromRestarts implements IMonitorRestart {
                     } else {
                         if (i == 0) {
                             // value can be removed permanently from var!
-                            png.addLearnt(png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true));
+                            png.addLearnt(new int[]{png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true)}, deletable);
                         } else {
                             lits[i] = png.Literal(id.getDecisionVariable(), id.getDecisionValue(), true);
-                            png.addLearnt(Arrays.copyOf(lits, i + 1));
+                            png.addLearnt(Arrays.copyOf(lits, i + 1), deletable);
                         }
                     }
                 } else {
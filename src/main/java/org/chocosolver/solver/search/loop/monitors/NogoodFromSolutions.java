@@ -55,7 +55,8 @@ public class NogoodFromSolutions implements IMonitorSolution {
         for (int i = 0; i < n; i++) {
             ps.add(SatSolver.negated(png.Literal(decisionVars[i], decisionVars[i].getValue(), true)));
         }
-        png.addLearnt(ps.toArray());
+        // such a nogood is never forgotten, otherwise the solution may be found again
+        png.addLearnt(ps.toArray(), false);
     }
 
 }
@@ -224,6 +224,13 @@ public class MoveLNS implements Move {
         }
     }
 
+    /**
+     * @return the neighbor used to compute fragments
+     */
+    public INeighbor getNeighbor() {
+        return neighbor;
+    }
+
     @Override
     public void setTopDecisionPosition(int position) {
         move.setTopDecisionPosition(position);
@@ -61,6 +61,18 @@ public interface IMeasures extends Serializable {
      */
     long getReadingTimeCountInNanoSeconds();
 
+    /**
+     * @return the time count (in seconds) to find the first solution, or 0 if no solution has been found yet
+     */
+    default float getTimeToFirstSolution() {
+        return getTimeToFirstSolutionInNanoSeconds() / IN_SEC;
+    }
+
+    /**
+     * @return the time count (in nano seconds) to find the first solution, or 0 if no solution has been found yet
+     */
+    long getTimeToFirstSolutionInNanoSeconds();
+
     /**
      * @return the node count
      */
@@ -101,6 +113,22 @@ public interface IMeasures extends Serializable {
      */
     long getCurrentDepth();
 
+    /**
+     * @return the number of no-goods learnt so far
+     * (see {@link org.chocosolver.sat.PropNogoods#addLearnt(int...)})
+     */
+    long getLearntNogoodCount();
+
+    /**
+     * @return the number of learnt no-goods removed so far from the no-goods store
+     */
+    long getDeletedNogoodCount();
+
+    /**
+     * @return the number of reductions of the no-goods store done so far
+     */
+    long getNogoodReductionCount();
+
     /**
      * @return true iff the problem has an objective variable (i.e. optimization problem)
      */
@@ -193,6 +221,9 @@ public interface IMeasures extends Serializable {
         }
         st.append("\tModel[").append(getModelName()).append("]\n");
         st.append(String.format("\tSolutions: %,d\n", solutionCount));
+        if (solutionCount > 0) {
+            st.append(String.format("\tFirst solution: %,.3fs\n", getTimeToFirstSolution()));
+        }
         if (hasObjective()) {
             st.append("\t").append(getBoundsManager()).append(",\n");
         }
@@ -207,6 +238,12 @@ public interface IMeasures extends Serializable {
                 getFailCount(),
                 getRestartCount()
         ));
+        if (getLearntNogoodCount() > 0) {
+            st.append(String.format("\n\tNogoods: %,d learnt, %,d deleted, %,d reductions",
+                    getLearntNogoodCount(),
+                    getDeletedNogoodCount(),
+                    getNogoodReductionCount()));
+        }
         return st.toString();
     }
 
@@ -61,6 +61,11 @@ public class Measures implements IMeasures, Cloneable {
      */
     protected long readingTimeCount;
 
+    /**
+     * Time spent to find the first solution, 0 while no solution has been found.
+     */
+    protected long firstSolutionTimeCount;
+
     /**
      * Counts the number of nodes opened so far.
      */
@@ -81,6 +86,21 @@ public class Measures implements IMeasures, Cloneable {
      */
     protected long restartCount;
 
+    /**
+     * Counts the number of no-goods learnt so far.
+     */
+    protected long learntNogoodCount;
+
+    /**
+     * Counts the number of learnt no-goods removed so far.
+     */
+    protected long deletedNogoodCount;
+
+    /**
+     * Counts the number of reductions of the no-goods store done so far.
+     */
+    protected long nogoodReductionCount;
+
     /**
      * Stores the overall maximum depth
      */
@@ -120,10 +140,14 @@ public class Measures implements IMeasures, Cloneable {
         solutionCount = measures.getSolutionCount();
         timeCount = measures.getTimeCountInNanoSeconds();
         readingTimeCount = measures.getReadingTimeCountInNanoSeconds();
+        firstSolutionTimeCount = measures.getTimeToFirstSolutionInNanoSeconds();
         nodeCount = measures.getNodeCount();
         backtrackCount = measures.getBackTrackCount();
         restartCount = measures.getRestartCount();
         failCount = measures.getFailCount();
+        learntNogoodCount = measures.getLearntNogoodCount();
+        deletedNogoodCount = measures.getDeletedNogoodCount();
+        nogoodReductionCount = measures.getNogoodReductionCount();
         depth = measures.getCurrentDepth();
         maxDepth = measures.getMaxDepth();
     }
@@ -160,12 +184,32 @@ public class Measures implements IMeasures, Cloneable {
         return readingTimeCount;
     }
 
+    @Override
+    public long getTimeToFirstSolutionInNanoSeconds() {
+        return firstSolutionTimeCount;
+    }
+
 
     @Override
     public final long getRestartCount() {
         return restartCount;
     }
 
+    @Override
+    public final long getLearntNogoodCount() {
+        return learntNogoodCount;
+    }
+
+    @Override
+    public final long getDeletedNogoodCount() {
+        return deletedNogoodCount;
+    }
+
+    @Override
+    public final long getNogoodReductionCount() {
+        return nogoodReductionCount;
+    }
+
     @Override
     public final long getMaxDepth() {
         return maxDepth;
@@ -34,6 +34,11 @@ public final class MeasuresRecorder extends Measures {
 
     transient private LongSupplier currentNanoTime;
 
+    /**
+     * Statistics on propagators, <tt>null</tt> when profiling is disabled
+     */
+    transient private PropagationProfiler propagationProfiler;
+
     /**
      * Create a measures recorder
      */
@@ -98,13 +103,38 @@ public final class MeasuresRecorder extends Measures {
         objectiveOptimal = false;
         solutionCount = 0;
         timeCount = 0;
+        firstSolutionTimeCount = 0;
         stopStopwatch();
         nodeCount = 0;
         backtrackCount = 0;
         failCount = 0;
         restartCount = 0;
+        learntNogoodCount = 0;
+        deletedNogoodCount = 0;
+        nogoodReductionCount = 0;
         depth = 0;
         maxDepth = 0;
+        if (propagationProfiler != null) {
+            propagationProfiler.reset();
+        }
+    }
+
+    /**
+     * Set the object which collects statistics on propagators.
+     * See {@link org.chocosolver.solver.Solver#setPropagationProfiling(boolean)} to enable profiling.
+     * @param propagationProfiler a profiler, or <tt>null</tt> to disable profiling
+     */
+    public final void setPropagationProfiler(PropagationProfiler propagationProfiler) {
+        this.propagationProfiler = propagationProfiler;
+    }
+
+    /**
+     * @return statistics on propagators (number of calls, time spent, failures, etc.),
+     * or <tt>null</tt> if profiling is disabled.
+     * See {@link org.chocosolver.solver.Solver#setPropagationProfiling(boolean)} to enable profiling.
+     */
+    public final PropagationProfiler getPropagationProfiler() {
+        return propagationProfiler;
     }
 
     //****************************************************************************************************************//
@@ -142,11 +172,35 @@ public final class MeasuresRecorder extends Measures {
         restartCount++;
     }
 
+    /**
+     * increment learnt no-good counter
+     */
+    public final void incLearntNogoodCount() {
+        learntNogoodCount++;
+    }
+
+    /**
+     * increment deleted no-good counter
+     * @param nb number of no-goods removed
+     */
+    public final void incDeletedNogoodCount(int nb) {
+        deletedNogoodCount += nb;
+    }
+
+    /**
+     * increment no-good reduction counter
+     */
+    public final void incNogoodReductionCount() {
+        nogoodReductionCount++;
+    }
+
     /**
      * increment solution counter
      */
     public final void incSolutionCount() {
-        solutionCount++;
+        if (solutionCount++ == 0) {
+            firstSolutionTimeCount = currentNanoTime.getAsLong();
+        }
     }
 
     /**
@@ -0,0 +1,356 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.search.measure;
+
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects, for each propagator, statistics about its executions by the propagation engine:
+ * <ul>
+ * <li>the number of calls,</li>
+ * <li>the number of fine calls (on a variable event) and coarse calls (full propagation),
+ * a fine call may trigger a delayed coarse one,</li>
+ * <li>the time spent in the propagator, in nanoseconds,</li>
+ * <li>the number of failures raised,</li>
+ * <li>the number of domain modifications (events) caused,</li>
+ * <li>optionally, the number of values removed from the domain of integer variables.</li>
+ * </ul>
+ * Counting removed values requires to sum the domain sizes of the variables of a propagator
+ * before and after each execution, which is costly on large scopes, so it is disabled by default,
+ * see {@link #setCountFilteredValues(boolean)}.
+ * The other statistics are updated in constant time.
+ * Statistics can be dumped in CSV or JSON format.
+ * <p>
+ * Profiling is opt-in, see {@link org.chocosolver.solver.Solver#setPropagationProfiling(boolean)},
+ * and the propagation engine does not call this object when profiling is disabled.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public final class PropagationProfiler {
+
+    private static final int CALLS = 0, FINE = 1, COARSE = 2, TIME = 3, FAILURES = 4, EVENTS = 5, FILTERED = 6;
+
+    private static final String[] HEADERS = {"calls", "fine", "coarse", "time", "failures", "events", "filtered"};
+
+    /**
+     * Propagators profiled, indexed by their id
+     */
+    private Propagator[] propagators = new Propagator[16];
+
+    /**
+     * Statistics of each propagator, indexed by their id
+     */
+    private long[][] stats = new long[HEADERS.length][16];
+
+    /**
+     * Set to <tt>true</tt> to count the values removed by each propagator
+     */
+    private boolean countFilteredValues;
+
+    /**
+     * Sum of the domain sizes of the propagator being executed, before the execution
+     */
+    private long sizeBefore;
+
+    /**
+     * Time when the propagator being executed started
+     */
+    private long startTime;
+
+    /**
+     * Called by the propagation engine before executing <i>propagator</i>.
+     *
+     * @param propagator propagator to be executed
+     */
+    public void start(Propagator propagator) {
+        ensureCapacity(propagator);
+        if (countFilteredValues) {
+            sizeBefore = size(propagator);
+        }
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Called by the propagation engine after executing <i>propagator</i>.
+     *
+     * @param propagator propagator executed
+     * @param fine       <tt>true</tt> if the propagator was executed on a fine event
+     * @param coarse     <tt>true</tt> if the propagator was executed on a coarse event
+     * @param failed     <tt>true</tt> if the propagator raised a failure
+     */
+    public void stop(Propagator propagator, boolean fine, boolean coarse, boolean failed) {
+        long time = System.nanoTime() - startTime;
+        int id = propagator.getId();
+        stats[CALLS][id]++;
+        if (fine) {
+            stats[FINE][id]++;
+        }
+        if (coarse) {
+            stats[COARSE][id]++;
+        }
+        stats[TIME][id] += time;
+        if (failed) {
+            stats[FAILURES][id]++;
+        } else if (countFilteredValues) {
+            stats[FILTERED][id] += sizeBefore - size(propagator);
+        }
+    }
+
+    /**
+     * Called by the propagation engine when <i>propagator</i> modifies the domain of a variable.
+     *
+     * @param propagator propagator which modified a domain
+     */
+    public void onEvent(Propagator propagator) {
+        ensureCapacity(propagator);
+        stats[EVENTS][propagator.getId()]++;
+    }
+
+    /**
+     * Enables (or disables) the counting of the values removed by each propagator.
+     * It is disabled by default, since it requires to sum the domain sizes of the variables
+     * of a propagator before and after each execution.
+     *
+     * @param countFilteredValues set to <tt>true</tt> to count the values removed
+     */
+    public void setCountFilteredValues(boolean countFilteredValues) {
+        this.countFilteredValues = countFilteredValues;
+    }
+
+    private static long size(Propagator propagator) {
+        long size = 0;
+        for (int i = 0; i < propagator.getNbVars(); i++) {
+            Variable var = propagator.getVar(i);
+            if ((var.getTypeAndKind() & Variable.KIND) == Variable.INT
+                    || (var.getTypeAndKind() & Variable.KIND) == Variable.BOOL) {
+                size += ((IntVar) var).getDomainSize();
+            }
+        }
+        return size;
+    }
+
+    private void ensureCapacity(Propagator propagator) {
+        int id = propagator.getId();
+        if (id >= propagators.length) {
+            int length = Math.max(id + 1, propagators.length * 3 / 2);
+            propagators = Arrays.copyOf(propagators, length);
+            for (int s = 0; s < stats.length; s++) {
+                stats[s] = Arrays.copyOf(stats[s], length);
+            }
+        }
+        propagators[id] = propagator;
+    }
+
+    private long get(int stat, Propagator propagator) {
+        int id = propagator.getId();
+        return id < propagators.length && propagators[id] == propagator ? stats[stat][id] : 0;
+    }
+
+    /**
+     * @param propagator a propagator
+     * @return the number of times <i>propagator</i> was executed
+     */
+    public long getCalls(Propagator propagator) {
+        return get(CALLS, propagator);
+    }
+
+    /**
+     * @param propagator a propagator
+     * @return the number of times <i>propagator</i> was executed on a fine event
+     */
+    public long getFineCalls(Propagator propagator) {
+        return get(FINE, propagator);
+    }
+
+    /**
+     * @param propagator a propagator
+     * @return the number of times <i>propagator</i> was executed on a coarse event
+     */
+    public long getCoarseCalls(Propagator propagator) {
+        return get(COARSE, propagator);
+    }
+
+    /**
+     * @param propagator a propagator
+     * @return the time spent in <i>propagator</i>, in nanoseconds
+     */
+    public long getTimeInNanoSeconds(Propagator propagator) {
+        return get(TIME, propagator);
+    }
+
+    /**
+     * @param propagator a propagator
+     * @return the number of failures raised by <i>propagator</i>
+     */
+    public long getFailures(Propagator propagator) {
+        return get(FAILURES, propagator);
+    }
+
+    /**
+     * @param propagator a propagator
+     * @return the number of domain modifications caused by <i>propagator</i>
+     */
+    public long getEvents(Propagator propagator) {
+        return get(EVENTS, propagator);
+    }
+
+    /**
+     * @param propagator a propagator
+     * @return the number of values removed by <i>propagator</i> from the domain of integer variables,
+     * when no failure was raised, 0 unless {@link #setCountFilteredValues(boolean)} is enabled
+     */
+    public long getFilteredValues(Propagator propagator) {
+        return get(FILTERED, propagator);
+    }
+
+    /**
+     * @return the propagators executed at least once, the most time-consuming first
+     */
+    public List<Propagator> getPropagators() {
+        List<Propagator> list = new ArrayList<>();
+        for (int id = 0; id < propagators.length; id++) {
+            if (propagators[id] != null && stats[CALLS][id] > 0) {
+                list.add(propagators[id]);
+            }
+        }
+        list.sort(Comparator.comparingLong(this::getTimeInNanoSeconds).reversed());
+        return list;
+    }
+
+    /**
+     * Reset all statistics
+     */
+    public void reset() {
+        Arrays.fill(propagators, null);
+        for (long[] stat : stats) {
+            Arrays.fill(stat, 0);
+        }
+    }
+
+    private static String constraintName(Propagator propagator) {
+        Constraint c = propagator.getConstraint();
+        return c == null ? "" : c.getName();
+    }
+
+    /**
+     * Writes the statistics in CSV format, one line per propagator executed at least once,
+     * the most time-consuming first.
+     * Columns are: id, propagator, constraint, calls, fine, coarse, time (in ns), failures, events and filtered.
+     *
+     * @param writer where to write
+     */
+    public void toCSV(Writer writer) {
+        try {
+            writer.write("id,propagator,constraint");
+            for (String h : HEADERS) {
+                writer.write(',');
+                writer.write(h);
+            }
+            writer.write('\n');
+            for (Propagator p : getPropagators()) {
+                writer.write(Integer.toString(p.getId()));
+                writer.write(',');
+                writer.write(csv(p.toString()));
+                writer.write(',');
+                writer.write(csv(constraintName(p)));
+                for (long[] stat : stats) {
+                    writer.write(',');
+                    writer.write(Long.toString(stat[p.getId()]));
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the statistics in JSON format, as an array with one object per propagator executed at least once,
+     * the most time-consuming first.
+     *
+     * @param writer where to write
+     */
+    public void toJSON(Writer writer) {
+        try {
+            writer.write('[');
+            boolean first = true;
+            for (Propagator p : getPropagators()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writer.write("\n  {\"id\":");
+                writer.write(Integer.toString(p.getId()));
+                writer.write(",\"propagator\":");
+                writer.write(json(p.toString()));
+                writer.write(",\"constraint\":");
+                writer.write(json(constraintName(p)));
+                for (int s = 0; s < stats.length; s++) {
+                    writer.write(",\"");
+                    writer.write(HEADERS[s]);
+                    writer.write("\":");
+                    writer.write(Long.toString(stats[s][p.getId()]));
+                }
+                writer.write('}');
+            }
+            writer.write("\n]\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+            return s;
+        }
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(String s) {
+        StringBuilder st = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    st.append("\\\"");
+                    break;
+                case '\\':
+                    st.append("\\\\");
+                    break;
+                case '\n':
+                    st.append("\\n");
+                    break;
+                case '\t':
+                    st.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        st.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        st.append(c);
+                    }
+            }
+        }
+        return st.append('"').toString();
+    }
+}
@@ -273,6 +273,17 @@ public class Search {
         return new DomOverWDeg(vars, 0, new IntDomainMin());
     }
 
+    /**
+     * Assignment strategy which selects a variable according to <code>DomOverWDeg</code>, whose weights decay,
+     * and assign it to its lower bound
+     * @param decay decay factor of weights, in ]0,1], 1 means no decay
+     * @param vars list of variables
+     * @return assignment strategy
+     */
+    public static AbstractStrategy<IntVar> domOverWDegSearch(double decay, IntVar... vars) {
+        return new DomOverWDeg(vars, 0, new IntDomainMin(), decay);
+    }
+
     /**
      * Create an Activity based search strategy.
      * <p>
@@ -23,6 +23,7 @@ import org.chocosolver.solver.search.loop.move.MoveRestart;
 import org.chocosolver.solver.search.restart.MonotonicRestartStrategy;
 import org.chocosolver.solver.search.strategy.assignments.DecisionOperatorFactory;
 import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.decision.IntDecision;
 import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
 import org.chocosolver.solver.variables.IVariableMonitor;
 import org.chocosolver.solver.variables.IntVar;
@@ -306,6 +307,11 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
     @Override
     public void afterDownBranch(boolean left) {
         if (left && currentVar > -1) {  // if the decision was computed by another strategy
+            Decision<?> dec = model.getSolver().getDecisionPath().getLastDecision();
+            if (dec instanceof IntDecision && dec.getDecisionVariable() == vars[currentVar]) {
+                // the value may have been replaced, for instance by a warm start
+                currentVal = ((IntDecision) dec).getDecisionValue();
+            }
             for (int i = 0; i < A.length; i++) {
                 if (vars[i].getDomainSize() > 1) {
                     A[i] *= sampling ? ONE : g;
@@ -8,10 +8,10 @@
  */
 package org.chocosolver.solver.search.strategy.selectors.variables;
 
-import gnu.trove.list.array.TIntArrayList;
-
+import org.chocosolver.memory.IEnvironment;
 import org.chocosolver.memory.IStateInt;
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
@@ -19,31 +19,68 @@ import org.chocosolver.solver.search.strategy.assignments.DecisionOperatorFactor
 import org.chocosolver.solver.search.strategy.decision.Decision;
 import org.chocosolver.solver.search.strategy.selectors.values.IntValueSelector;
 import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.variables.IVariableMonitor;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.events.IEventType;
+import org.chocosolver.solver.variables.events.IntEventType;
 import org.chocosolver.util.objects.IntMap;
 
+import java.util.Arrays;
 import java.util.stream.Stream;
 
 /**
  * Implementation of DowOverWDeg[1].
- *
+ * <p>
+ * The weighted degree of a variable is the sum of the weights of its propagators
+ * with at least two uninstantiated variables, where the weight of a propagator is the number of times it fails.
+ * It is updated incrementally: each time a propagator fails, the weight of each of its variables is increased.
+ * The number of uninstantiated variables of each propagator is maintained on instantiation events and restored
+ * on backtrack, so that the weight of a propagator is deducted from the weighted degree of its variables
+ * as soon as it has less than two uninstantiated variables.
+ * Variables which are not integer variables are considered as uninstantiated.
+ * <p>
+ * The variables are stored in an indexed binary heap, ordered by domain size over weighted degree.
+ * The heap is updated on domain modification and on failure,
+ * and lazily on backtrack: the domain of a variable can only increase on backtrack,
+ * and its weighted degree can only decrease as propagators become inactive,
+ * so its score is checked again when it reaches the top of the heap.
+ * Instantiated variables are removed from the heap, and put back on backtrack.
+ * Ties are broken randomly at each decision, among all the best variables:
+ * only the variables at the top of the heap with the best score are visited.
+ * <p>
+ * The monitor notified on failure is attached on construction, the ones notified on domain modification
+ * are attached on first use. They are detached on {@link #remove()}, that is when the strategy is replaced,
+ * and attached again on {@link #init()}.
+ * <p>
+ * Optionally, weights decay (like activities in SAT solvers [2]):
+ * the increment of weights is divided by a decay factor after each failure,
+ * so that recent failures matter more than old ones.
+ * <p>
  * [1]: F. Boussemart, F. Hemery, C. Lecoutre, and L. Sais, Boosting Systematic Search by Weighting
  * Constraints, ECAI-04. <br/>
+ * [2]: M. W. Moskewicz, C. F. Madigan, Y. Zhao, L. Zhang, and S. Malik, Chaff: Engineering an Efficient
+ * SAT Solver, DAC-01. <br/>
  *
  * @author Charles Prud'homme
  * @since 12/07/12
  */
-public class DomOverWDeg extends AbstractStrategy<IntVar> implements IMonitorContradiction {
+public class DomOverWDeg extends AbstractStrategy<IntVar> implements IMonitorContradiction, IVariableMonitor<IntVar> {
+
+    /**
+     * Above this increment, weights are rescaled
+     */
+    private static final double RESCALE = 1e100;
 
     /**
-     * Kind of duplicate of pid2ari to limit calls of backtrackable objects
+     * The way value is selected for a given variable
      */
-    private IntMap pid2arity;
+    private IntValueSelector valueSelector;
 
     /**
-     * Temporary. Stores index of variables with the same (best) score
+     * Map (propagator - weight), where weight is the number of times the propagator fails.
      */
-    private TIntArrayList bests;
+    protected IntMap p2w;
 
     /**
      * Randomness to break ties
@@ -51,18 +88,193 @@ public class DomOverWDeg extends AbstractStrategy<IntVar> implements IMonitorCon
     private java.util.Random random;
 
     /**
-     * The way value is selected for a given variable
+     * Environment of the model
      */
-    private IntValueSelector valueSelector;
+    private IEnvironment environment;
+
+    /**
+     * Maps propagator's id to its index in {@link #props}, -1 if not tracked
+     */
+    private IntMap pid2idx;
+
+    /**
+     * Propagators of the decision variables, and the ones which failed
+     */
+    private Propagator[] props;
+
+    /**
+     * Weight of each propagator in {@link #props}
+     */
+    private double[] pweights;
+
+    /**
+     * Number of uninstantiated variables of each propagator in {@link #props}
+     */
+    private int[] futVars;
+
+    /**
+     * Number of propagators in {@link #props}
+     */
+    private int nbProps;
+
+    /**
+     * Stack of the propagators whose number of uninstantiated variables has been decremented
+     */
+    private int[] trail;
+
+    /**
+     * Number of propagators in {@link #trail}
+     */
+    private int nbTrail;
+
+    /**
+     * Number of decrements done in the current world,
+     * when it decreases the previous ones are restored
+     */
+    private IStateInt trailInWorld;
+
+    /**
+     * Number of times the state of this has been computed from scratch
+     */
+    private int nbComputations;
+
+    /**
+     * Equal to {@link #nbComputations} until the world in which the state has been computed is popped
+     */
+    private IStateInt computed;
+
+    /**
+     * Variables to which this is attached
+     */
+    private IntVar[] monitored;
+
+    /**
+     * Number of variables in {@link #monitored}
+     */
+    private int nbMonitored;
+
+    /**
+     * Maps the id of the variables in {@link #monitored} to 1
+     */
+    private IntMap monitoredIds;
+
+    /**
+     * Maps variable's id to the index of its first occurrence in vars, -1 if not a decision variable
+     */
+    private IntMap id2idx;
+
+    /**
+     * Index of the next occurrence of the same variable in vars, -1 if none
+     */
+    private int[] twin;
+
+    /**
+     * Weight of each variable, plus one, including the weight of its inactive propagators
+     */
+    private double[] weights;
+
+    /**
+     * Weight of the inactive propagators of each variable
+     */
+    private double[] inactive;
+
+    /**
+     * Increment of weights on failure
+     */
+    private double increment;
+
+    /**
+     * Decay factor of weights, 1 when weights do not decay
+     */
+    private double decay;
+
+    /**
+     * Order in which ties are considered: the occurrences of uninstantiated variables come first,
+     * the ones of instantiated variables are swapped at the end
+     */
+    private int[] order;
+
+    /**
+     * Position of each occurrence in {@link #order}
+     */
+    private int[] where;
 
-    /***
-     * Pointer to the last uninstantiated variable
+    /**
+     * Last position of an occurrence of an uninstantiated variable in {@link #order}
      */
     private IStateInt last;
+
     /**
-     * Map (propagator - weight), where weight is the number of times the propagator fails.
+     * Value of {@link #last} on the previous decision
      */
-    protected IntMap p2w;
+    private int lastTo;
+
+    /**
+     * Occurrences of the variables instantiated since the previous decision
+     */
+    private int[] pending;
+
+    /**
+     * Number of occurrences in {@link #pending}
+     */
+    private int nbPending;
+
+    /**
+     * Set to <tt>true</tt> for the occurrences in {@link #pending}
+     */
+    private boolean[] isPending;
+
+    /**
+     * Positions of the best occurrences
+     */
+    private int[] ties;
+
+    /**
+     * Positions in the heap to visit when looking for ties
+     */
+    private int[] visit;
+
+    /**
+     * Binary heap of variables' index, the one with the smallest score first
+     */
+    private int[] heap;
+
+    /**
+     * Number of variables in the heap
+     */
+    private int size;
+
+    /**
+     * Position of each variable in the heap, -1 if not in the heap
+     */
+    private int[] pos;
+
+    /**
+     * Score of each variable when last updated in the heap.
+     * It is never greater than the current score (domain size over weight).
+     */
+    private double[] scores;
+
+    /**
+     * Stack of the variables removed from the heap, once instantiated
+     */
+    private int[] removed;
+
+    /**
+     * Number of variables in {@link #removed}
+     */
+    private int nbRemoved;
+
+    /**
+     * Number of variables removed from the heap in the current world,
+     * when it decreases the variables are put back in the heap
+     */
+    private IStateInt removedInWorld;
+
+    /**
+     * The solver to which this is attached, <tt>null</tt> when monitors are detached
+     */
+    private Solver solver;
 
     /**
      * Creates a DomOverWDeg variable selector
@@ -72,18 +284,83 @@ public class DomOverWDeg extends AbstractStrategy<IntVar> implements IMonitorCon
      * @param valueSelector a value selector
      */
     public DomOverWDeg(IntVar[] variables, long seed, IntValueSelector valueSelector) {
+        this(variables, seed, valueSelector, 1.);
+    }
+
+    /**
+     * Creates a DomOverWDeg variable selector whose weights decay
+     *
+     * @param variables     decision variables
+     * @param seed          seed for breaking ties randomly
+     * @param valueSelector a value selector
+     * @param decay         decay factor of weights, in ]0,1], 1 means no decay
+     */
+    public DomOverWDeg(IntVar[] variables, long seed, IntValueSelector valueSelector, double decay) {
         super(variables);
+        if (decay <= 0. || decay > 1.) {
+            throw new IllegalArgumentException("The decay factor of weights should be in ]0,1]");
+        }
         Model model = variables[0].getModel();
-        pid2arity = new IntMap(model.getCstrs().length * 3 / 2 + 1, -1);
-        bests = new TIntArrayList();
         this.valueSelector = valueSelector;
-        random = new java.util.Random(seed);
-        this.last = model.getEnvironment().makeInt(vars.length - 1);
+        this.decay = decay;
+        this.increment = 1.;
+        this.random = new java.util.Random(seed);
+        this.environment = model.getEnvironment();
+        int n = vars.length;
+        pid2idx = new IntMap(16, -1);
+        props = new Propagator[16];
+        pweights = new double[16];
+        futVars = new int[16];
+        trail = new int[16];
+        trailInWorld = environment.makeInt(0);
+        computed = environment.makeInt(-1);
+        monitored = new IntVar[16];
+        monitoredIds = new IntMap(16, -1);
+        id2idx = new IntMap(n * 3 / 2 + 1, -1);
+        twin = new int[n];
+        weights = new double[n];
+        inactive = new double[n];
+        order = new int[n];
+        where = new int[n];
+        last = environment.makeInt(n - 1);
+        lastTo = -1;
+        pending = new int[n];
+        isPending = new boolean[n];
+        ties = new int[n];
+        visit = new int[n + 1];
+        heap = new int[n];
+        pos = new int[n];
+        scores = new double[n];
+        removed = new int[n];
+        removedInWorld = environment.makeInt(0);
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            where[i] = i;
+            twin[i] = -1;
+            weights[i] = 1.;
+            pos[i] = -1;
+            int first = id2idx.get(vars[i].getId());
+            if (first == -1) {
+                id2idx.put(vars[i].getId(), i);
+                pos[i] = size;
+                heap[size++] = i;
+                scores[i] = score(i);
+            } else { // a variable may appear twice
+                while (twin[first] > -1) {
+                    first = twin[first];
+                }
+                twin[first] = i;
+            }
+        }
+        for (int k = size / 2 - 1; k >= 0; k--) {
+            siftDown(k);
+        }
         p2w = new IntMap(10, 0);
         init(Stream.of(model.getCstrs())
                 .flatMap(c -> Stream.of(c.getPropagators()))
                 .toArray(Propagator[]::new));
-        model.getSolver().plugMonitor(this);
+        solver = model.getSolver();
+        solver.plugMonitor(this);
     }
 
 
@@ -96,11 +373,244 @@ public class DomOverWDeg extends AbstractStrategy<IntVar> implements IMonitorCon
     @Override
     public void onContradiction(ContradictionException cex) {
         if (cex.c != null && cex.c instanceof Propagator) {
+            synchronize();
             Propagator p = (Propagator) cex.c;
             p2w.putOrAdjust(p.getId(), 1, 1);
+            int pidx = pid2idx.get(p.getId());
+            if (pidx == -1) {
+                // posted after the initialization, considered as active until the next one
+                pidx = track(p);
+                futVars[pidx] = Integer.MAX_VALUE / 2;
+            }
+            boolean active = futVars[pidx] > 1;
+            pweights[pidx] += increment;
+            Variable[] pvars = p.getVars();
+            for (int i = 0; i < pvars.length; i++) {
+                int idx = id2idx.get(pvars[i].getId());
+                if (idx > -1) {
+                    weights[idx] += increment;
+                    if (!active) {
+                        inactive[idx] += increment;
+                    } else if (pos[idx] > -1) {
+                        update(idx);
+                    }
+                }
+            }
+            if (decay < 1.) {
+                increment /= decay;
+                if (increment > RESCALE) {
+                    rescale();
+                }
+            }
+        }
+    }
+
+    /**
+     * Attaches the monitors needed to maintain weights, if not already done,
+     * then computes the state of this from scratch since domains may have changed meanwhile.
+     * @return <tt>true</tt>
+     */
+    @Override
+    public boolean init() {
+        if (solver == null) {
+            solver = vars[0].getModel().getSolver();
+            solver.plugMonitor(this);
+        }
+        compute();
+        return true;
+    }
+
+    /**
+     * Computes from scratch the number of uninstantiated variables of the propagators,
+     * the weight of the inactive ones and the heap of variables.
+     * It is valid until the current world is popped, since nothing is known about the previous ones.
+     */
+    private void compute() {
+        for (int i = 0; i < vars.length; i++) {
+            if (id2idx.get(vars[i].getId()) == i) {
+                monitor(vars[i]);
+                int nbp = vars[i].getNbProps();
+                for (int j = 0; j < nbp; j++) {
+                    Propagator p = vars[i].getPropagator(j);
+                    if (pid2idx.get(p.getId()) == -1) {
+                        track(p);
+                    }
+                }
+            }
+        }
+        Arrays.fill(inactive, 0.);
+        for (int pidx = 0; pidx < nbProps; pidx++) {
+            Variable[] pvars = props[pidx].getVars();
+            futVars[pidx] = 0;
+            for (int i = 0; i < pvars.length; i++) {
+                if ((pvars[i].getTypeAndKind() & Variable.KIND) != Variable.INT
+                        && (pvars[i].getTypeAndKind() & Variable.KIND) != Variable.BOOL) {
+                    futVars[pidx]++;
+                } else {
+                    monitor((IntVar) pvars[i]);
+                    if (!pvars[i].isInstantiated()) {
+                        futVars[pidx]++;
+                    }
+                }
+            }
+            if (futVars[pidx] < 2) {
+                shift(pidx, pweights[pidx]);
+            }
+        }
+        nbTrail = 0;
+        trailInWorld.set(0);
+        // rebuild the heap, the instantiated variables are removed on the next decision
+        nbRemoved = 0;
+        removedInWorld.set(0);
+        size = 0;
+        for (int i = 0; i < vars.length; i++) {
+            if (id2idx.get(vars[i].getId()) == i) {
+                pos[i] = size;
+                heap[size++] = i;
+                scores[i] = score(i);
+            }
+        }
+        for (int k = size / 2 - 1; k >= 0; k--) {
+            siftDown(k);
+        }
+        // all occurrences are checked on the next decision
+        for (int i = 0; i < nbPending; i++) {
+            isPending[pending[i]] = false;
+        }
+        nbPending = 0;
+        lastTo = -1;
+        computed.set(++nbComputations);
+    }
+
+    /**
+     * Brings the state of this up to date with the current world:
+     * computes it again if the world in which it has been computed is popped,
+     * otherwise restores the decrements done in worlds since popped.
+     * @return <tt>false</tt> if the state has been computed again
+     */
+    private boolean synchronize() {
+        if (computed.get() != nbComputations) {
+            compute();
+            return false;
+        }
+        restore();
+        return true;
+    }
+
+    /**
+     * Detaches the monitors needed to maintain weights.
+     * Weights are kept, and maintained again once {@link #init()} is called.
+     */
+    @Override
+    public void remove() {
+        if (solver != null) {
+            solver.unplugMonitor(this);
+            for (int i = 0; i < nbMonitored; i++) {
+                monitored[i].removeMonitor(this);
+            }
+            nbMonitored = 0;
+            monitoredIds.clear();
+            solver = null;
+        }
+    }
+
+    /**
+     * Attaches this to <i>var</i>, if not already done
+     * @param var a variable
+     */
+    private void monitor(IntVar var) {
+        if ((var.getTypeAndKind() & Variable.TYPE) != Variable.CSTE && monitoredIds.get(var.getId()) == -1) {
+            monitoredIds.put(var.getId(), 1);
+            if (nbMonitored == monitored.length) {
+                monitored = Arrays.copyOf(monitored, nbMonitored * 3 / 2 + 1);
+            }
+            monitored[nbMonitored++] = var;
+            var.addMonitor(this);
+        }
+    }
+
+    /**
+     * Adds <i>p</i> to the tracked propagators
+     * @param p a propagator
+     * @return the index of <i>p</i> in {@link #props}
+     */
+    private int track(Propagator p) {
+        if (nbProps == props.length) {
+            props = Arrays.copyOf(props, nbProps * 3 / 2 + 1);
+            pweights = Arrays.copyOf(pweights, props.length);
+            futVars = Arrays.copyOf(futVars, props.length);
+        }
+        props[nbProps] = p;
+        pid2idx.put(p.getId(), nbProps);
+        return nbProps++;
+    }
+
+    @Override
+    public void onUpdate(IntVar var, IEventType evt) {
+        if (!synchronize()) {
+            // the modification is already taken into account
+            return;
+        }
+        int idx = id2idx.get(var.getId());
+        if (idx > -1 && pos[idx] > -1) {
+            update(idx);
+        }
+        if (evt == IntEventType.INSTANTIATE) {
+            for (int e = idx; e > -1; e = twin[e]) {
+                if (!isPending[e]) {
+                    isPending[e] = true;
+                    pending[nbPending++] = e;
+                }
+            }
+            int nbp = var.getNbProps();
+            for (int i = 0; i < nbp; i++) {
+                int pidx = pid2idx.get(var.getPropagator(i).getId());
+                if (pidx > -1) {
+                    if (nbTrail == trail.length) {
+                        trail = Arrays.copyOf(trail, nbTrail * 3 / 2 + 1);
+                    }
+                    trail[nbTrail++] = pidx;
+                    if (--futVars[pidx] == 1 && pweights[pidx] > 0.) {
+                        // the propagator has become inactive
+                        shift(pidx, pweights[pidx]);
+                    }
+                }
+            }
+            trailInWorld.set(nbTrail);
+        }
+    }
+
+    /**
+     * Restores the number of uninstantiated variables decremented in worlds since popped
+     */
+    private void restore() {
+        int to = trailInWorld.get();
+        while (nbTrail > to) {
+            int pidx = trail[--nbTrail];
+            if (++futVars[pidx] == 2 && pweights[pidx] > 0.) {
+                // the propagator is active again
+                shift(pidx, -pweights[pidx]);
+            }
         }
     }
 
+    /**
+     * Adds <i>delta</i> to the inactive weight of the variables of a propagator
+     * @param pidx index of a propagator in {@link #props}
+     * @param delta weight to add
+     */
+    private void shift(int pidx, double delta) {
+        Variable[] pvars = props[pidx].getVars();
+        for (int i = 0; i < pvars.length; i++) {
+            int idx = id2idx.get(pvars[i].getId());
+            if (idx > -1) {
+                inactive[idx] += delta;
+                if (delta < 0. && pos[idx] > -1) {
+                    update(idx);
+                }
+            }
+        }
+    }
 
     @Override
     public Decision<IntVar> computeDecision(IntVar variable) {
@@ -113,62 +623,207 @@ public class DomOverWDeg extends AbstractStrategy<IntVar> implements IMonitorCon
 
     @Override
     public Decision<IntVar> getDecision() {
-        IntVar best = null;
-        bests.resetQuick();
-        pid2arity.clear();
-        long _d1 = Integer.MAX_VALUE;
-        long _d2 = 0;
-        int to = last.get();
-        for (int idx = 0; idx <= to; idx++) {
-            int dsize = vars[idx].getDomainSize();
-            if (dsize > 1) {
-                int weight = weight(vars[idx]);
-                long c1 = dsize * _d2;
-                long c2 = _d1 * weight;
-                if (c1 < c2) {
-                    bests.resetQuick();
-                    bests.add(idx);
-                    _d1 = dsize;
-                    _d2 = weight;
-                } else if (c1 == c2) {
-                    bests.add(idx);
-                }
-            } else {
-                // swap
-                IntVar tmp = vars[to];
-                vars[to] = vars[idx];
-                vars[idx] = tmp;
-                idx--;
-                to--;
-            }
-        }
-        last.set(to);
-        if (bests.size() > 0) {
-            int currentVar = bests.get(random.nextInt(bests.size()));
-            best = vars[currentVar];
-        }
-        return computeDecision(best);
-    }
-
-    private int weight(IntVar v) {
-        int w = 1;
-        int nbp = v.getNbProps();
-        for (int i = 0; i < nbp; i++) {
-            Propagator prop = v.getPropagator(i);
-            int pid = prop.getId();
-            // if the propagator has been already evaluated
-            if (pid2arity.get(pid) > -1) {
-                w += p2w.get(prop.getId());
+        if (solver == null) {
+            // the strategy is used without being initialized
+            init();
+        } else {
+            synchronize();
+        }
+        // put back variables removed in worlds since popped
+        int to = removedInWorld.get();
+        while (nbRemoved > to) {
+            insert(removed[--nbRemoved]);
+        }
+        swapInstantiated();
+        while (size > 0) {
+            int idx = heap[0];
+            if (vars[idx].isInstantiated()) {
+                extract(idx);
+                removed[nbRemoved++] = idx;
+                removedInWorld.set(nbRemoved);
+            } else if (score(idx) != scores[idx]) {
+                // the domain has been restored on backtrack, or propagators have become inactive
+                update(idx);
             } else {
-                // the arity of this propagator is not yet known
-                int futVars = prop.arity();
-                assert futVars > -1;
-                pid2arity.put(pid, futVars);
-                if (futVars > 1) {
-                    w += p2w.get(prop.getId());
+                break;
+            }
+        }
+        if (size == 0) {
+            return null;
+        }
+        // the variables with the best score are at the top of the heap
+        double best = scores[heap[0]];
+        int nbTies = 0;
+        int top = 0;
+        visit[top++] = 0;
+        while (top > 0) {
+            int k = visit[--top];
+            int idx = heap[k];
+            if (scores[idx] == best) {
+                if (!vars[idx].isInstantiated() && score(idx) == best) {
+                    for (int e = idx; e > -1; e = twin[e]) {
+                        ties[nbTies++] = where[e];
+                    }
+                }
+                if (2 * k + 1 < size) {
+                    visit[top++] = 2 * k + 1;
+                }
+                if (2 * k + 2 < size) {
+                    visit[top++] = 2 * k + 2;
                 }
             }
         }
-        return w;
+        Arrays.sort(ties, 0, nbTies);
+        return computeDecision(vars[order[ties[random.nextInt(nbTies)]]]);
+    }
+
+    /**
+     * Swaps the occurrences of the variables instantiated since the previous decision
+     * after the last position of an occurrence of an uninstantiated variable,
+     * in the order they would be met by scanning {@link #order} from the beginning.
+     */
+    private void swapInstantiated() {
+        int to = last.get();
+        // positions restored on backtrack
+        for (int p = lastTo + 1; p <= to; p++) {
+            int e = order[p];
+            if (!isPending[e] && vars[e].isInstantiated()) {
+                isPending[e] = true;
+                pending[nbPending++] = e;
+            }
+        }
+        int nb = 0;
+        for (int i = 0; i < nbPending; i++) {
+            int e = pending[i];
+            isPending[e] = false;
+            if (where[e] <= to && vars[e].isInstantiated()) {
+                ties[nb++] = where[e];
+            }
+        }
+        nbPending = 0;
+        Arrays.sort(ties, 0, nb);
+        int lo = 0, hi = nb - 1;
+        while (lo <= hi) {
+            int p = ties[lo];
+            // the occurrence at 'to' is instantiated iff it is the last one to swap
+            boolean instantiated = ties[hi] == to;
+            int e = order[to];
+            order[to] = order[p];
+            where[order[to]] = to;
+            order[p] = e;
+            where[e] = p;
+            to--;
+            if (instantiated) {
+                hi--;
+            } else {
+                lo++;
+            }
+        }
+        if (to != last.get()) {
+            last.set(to);
+        }
+        lastTo = to;
+    }
+
+    /**
+     * @param var a decision variable
+     * @return the weighted degree of <i>var</i>, plus one, or 0 if <i>var</i> is not a decision variable.
+     * When weights decay, only the ratio between two weights is meaningful.
+     */
+    public double getWeight(IntVar var) {
+        if (solver != null) {
+            synchronize();
+        }
+        int idx = id2idx.get(var.getId());
+        return idx > -1 ? weights[idx] - inactive[idx] : 0.;
+    }
+
+    private double score(int idx) {
+        return vars[idx].getDomainSize() / (weights[idx] - inactive[idx]);
+    }
+
+    private void rescale() {
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= RESCALE;
+            inactive[i] /= RESCALE;
+            scores[i] *= RESCALE;
+        }
+        for (int i = 0; i < nbProps; i++) {
+            pweights[i] /= RESCALE;
+        }
+        increment /= RESCALE;
+    }
+
+    //***********************************************************************************
+    // INDEXED BINARY HEAP
+    //***********************************************************************************
+
+    private boolean before(int i, int j) {
+        return scores[i] < scores[j];
+    }
+
+    private void update(int idx) {
+        double score = score(idx);
+        if (score < scores[idx]) {
+            scores[idx] = score;
+            siftUp(pos[idx]);
+        } else if (score > scores[idx]) {
+            scores[idx] = score;
+            siftDown(pos[idx]);
+        }
+    }
+
+    private void insert(int idx) {
+        scores[idx] = score(idx);
+        pos[idx] = size;
+        heap[size++] = idx;
+        siftUp(size - 1);
+    }
+
+    private void extract(int idx) {
+        int k = pos[idx];
+        int last = heap[--size];
+        pos[idx] = -1;
+        if (last != idx) {
+            heap[k] = last;
+            pos[last] = k;
+            siftUp(k);
+            siftDown(pos[last]);
+        }
+    }
+
+    private void siftUp(int k) {
+        int idx = heap[k];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (!before(idx, heap[parent])) {
+                break;
+            }
+            heap[k] = heap[parent];
+            pos[heap[k]] = k;
+            k = parent;
+        }
+        heap[k] = idx;
+        pos[idx] = k;
+    }
+
+    private void siftDown(int k) {
+        int idx = heap[k];
+        int half = size >>> 1;
+        while (k < half) {
+            int child = 2 * k + 1;
+            int right = child + 1;
+            if (right < size && before(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!before(heap[child], idx)) {
+                break;
+            }
+            heap[k] = heap[child];
+            pos[heap[k]] = k;
+            k = child;
+        }
+        heap[k] = idx;
+        pos[idx] = k;
     }
 }
@@ -35,6 +35,13 @@ public abstract class AbstractStrategy<V extends Variable>  {
      */
     public boolean init(){return true;}
 
+    /**
+     * Frees <code>this</code> once it is not used in a search loop anymore,
+     * typically detaches the monitors attached on {@link #init()}.
+     * It is called when the strategy is replaced.
+     */
+    public void remove(){}
+
     /**
      * Provides access to the current decision in the strategy.
      * If there are no more decision to provide, it returns <code>null</code>.
@@ -101,6 +101,11 @@ public class ConflictOrderingSearch<V extends Variable> extends AbstractStrategy
         return mainStrategy.init();
     }
 
+    @Override
+    public void remove() {
+        mainStrategy.remove();
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Decision<V> getDecision() {
@@ -55,6 +55,12 @@ public class FindAndProve<V extends Variable> extends AbstractStrategy<V>{
 		return find.init() & prove.init();
 	}
 
+	@Override
+	public void remove() {
+		find.remove();
+		prove.remove();
+	}
+
 	@Override
 	public Decision getDecision() {
 		if (model.getSolver().getSolutionCount() == 0) {
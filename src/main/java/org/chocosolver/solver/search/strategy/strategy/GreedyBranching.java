@@ -25,6 +25,11 @@ public class GreedyBranching extends AbstractStrategy {
         return mainSearch.init();
     }
 
+    @Override
+    public void remove() {
+        mainSearch.remove();
+    }
+
     @Override
     public Decision getDecision() {
         Decision d = mainSearch.getDecision();
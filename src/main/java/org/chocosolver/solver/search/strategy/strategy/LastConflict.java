@@ -92,6 +92,11 @@ public class LastConflict extends AbstractStrategy<Variable> implements IMonitor
         return mainStrategy.init();
     }
 
+    @Override
+    public void remove() {
+        mainStrategy.remove();
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Decision<Variable> getDecision() {
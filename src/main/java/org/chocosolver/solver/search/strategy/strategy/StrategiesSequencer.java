@@ -62,6 +62,13 @@ public class StrategiesSequencer extends AbstractStrategy<Variable> {
         return ok;
     }
 
+    @Override
+    public void remove() {
+        for (int i = 0; i < strategies.length; i++) {
+            strategies[i].remove();
+        }
+    }
+
     @Override
     public Decision<Variable> computeDecision(Variable variable) {
         if (variable == null || variable.isInstantiated()) {
@@ -0,0 +1,187 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.search.strategy.strategy;
+
+import gnu.trove.map.hash.TIntIntHashMap;
+import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.search.strategy.assignments.DecisionOperatorFactory;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.decision.IntDecision;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+
+/**
+ * Warm start heuristic.
+ * Composite heuristic which hacks a mainStrategy by replacing the value of assignment decisions
+ * by the one stored in a hint (typically, a solution of a previous resolution),
+ * as long as this value belongs to the domain of the variable.
+ * The variable selection of the main strategy is kept unchanged.
+ * <p>
+ * When phase saving is enabled, the last value assigned to a variable,
+ * either by a decision or in the last solution found, is preferred over the one stored in the hint.
+ * This is the SAT-style phase saving: once a solution is found, the search goes on in its neighborhood.
+ * <br/>
+ * To be notified of solutions, this heuristic must be plugged into the solver as a search monitor
+ * (this is done by the solver, see {@link org.chocosolver.solver.Solver#setHint(Solution, boolean)}).
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class WarmStart extends AbstractStrategy<Variable> implements IMonitorSolution {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    /**
+     * The main strategy declared in the solver
+     */
+    protected AbstractStrategy<Variable> mainStrategy;
+
+    /**
+     * The values to prefer
+     */
+    protected Solution hint;
+
+    /**
+     * Set to <tt>true</tt> to prefer the last values assigned over the ones of the hint
+     */
+    protected boolean phaseSaving;
+
+    /**
+     * The last values assigned, mapped by variable id
+     */
+    protected TIntIntHashMap phases;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * Creates a warm start heuristic, without phase saving
+     * @param mainStrategy the main strategy declared
+     * @param hint the values to prefer
+     */
+    public WarmStart(AbstractStrategy<Variable> mainStrategy, Solution hint) {
+        this(mainStrategy, hint, false);
+    }
+
+    /**
+     * Creates a warm start heuristic
+     * @param mainStrategy the main strategy declared
+     * @param hint the values to prefer
+     * @param phaseSaving set to <tt>true</tt> to prefer the last values assigned over the ones of the hint
+     */
+    public WarmStart(AbstractStrategy<Variable> mainStrategy, Solution hint, boolean phaseSaving) {
+        super(mainStrategy.vars);
+        this.mainStrategy = mainStrategy;
+        this.hint = hint;
+        this.phaseSaving = phaseSaving;
+        this.phases = new TIntIntHashMap();
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    @Override
+    public boolean init() {
+        phases.clear();
+        return mainStrategy.init();
+    }
+
+    @Override
+    public void remove() {
+        mainStrategy.remove();
+    }
+
+    @Override
+    public Decision<Variable> getDecision() {
+        return prefer(mainStrategy.getDecision());
+    }
+
+    @Override
+    protected Decision<Variable> computeDecision(Variable var) {
+        return prefer(mainStrategy.computeDecision(var));
+    }
+
+    /**
+     * @return the main strategy declared
+     */
+    public AbstractStrategy<Variable> getMainStrategy() {
+        return mainStrategy;
+    }
+
+    /**
+     * @return the values to prefer
+     */
+    public Solution getHint() {
+        return hint;
+    }
+
+    /**
+     * Replace the values to prefer, and forget the last values assigned
+     * @param hint the values to prefer
+     */
+    public void setHint(Solution hint) {
+        this.hint = hint;
+        this.phases.clear();
+    }
+
+    /**
+     * @return <tt>true</tt> if the last values assigned are preferred over the ones of the hint
+     */
+    public boolean isPhaseSaving() {
+        return phaseSaving;
+    }
+
+    /**
+     * Enable or disable phase saving
+     * @param phaseSaving set to <tt>true</tt> to prefer the last values assigned over the ones of the hint
+     */
+    public void setPhaseSaving(boolean phaseSaving) {
+        this.phaseSaving = phaseSaving;
+        this.phases.clear();
+    }
+
+    @Override
+    public void onSolution() {
+        if (phaseSaving) {
+            for (int i = 0; i < vars.length; i++) {
+                if (vars[i] instanceof IntVar && vars[i].isInstantiated()) {
+                    phases.put(vars[i].getId(), ((IntVar) vars[i]).getValue());
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Decision<Variable> prefer(Decision d) {
+        if (d instanceof IntDecision) {
+            IntDecision dec = (IntDecision) d;
+            if (dec.getDecOp() == DecisionOperatorFactory.makeIntEq()) {
+                IntVar var = dec.getDecisionVariable();
+                int value = dec.getDecisionValue();
+                if (phaseSaving && phases.containsKey(var.getId()) && var.contains(phases.get(var.getId()))) {
+                    value = phases.get(var.getId());
+                } else if (hint.exists() && hint.hasIntVal(var) && var.contains(hint.getIntVal(var))) {
+                    value = hint.getIntVal(var);
+                }
+                if (value != dec.getDecisionValue()) {
+                    dec.set(var, value, dec.getDecOp());
+                }
+                if (phaseSaving) {
+                    phases.put(var.getId(), value);
+                }
+            }
+        }
+        return d;
+    }
+}
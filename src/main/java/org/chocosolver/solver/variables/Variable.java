@@ -154,7 +154,6 @@ public interface Variable extends Identity, Comparable<Variable> {
      * Removes <code>monitor</code> form the list of this variable's monitors.
      * @param monitor the monitor to remove.
      */
-    @SuppressWarnings("unused")
     void removeMonitor(IVariableMonitor monitor);
 
     /**
@@ -385,7 +385,14 @@ public abstract class AbstractVariable implements Variable {
 
     @Override
     public void removeMonitor(IVariableMonitor monitor) {
-        throw new UnsupportedOperationException("not yet implemented");
+        for (int i = 0; i < mIdx; i++) {
+            if (monitors[i] == monitor) {
+                // keep the order of the other monitors
+                System.arraycopy(monitors, i + 1, monitors, i, mIdx - i - 1);
+                monitors[--mIdx] = null;
+                return;
+            }
+        }
     }
 
     @Override
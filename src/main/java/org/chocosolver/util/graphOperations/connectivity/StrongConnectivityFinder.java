@@ -8,11 +8,12 @@
  */
 package org.chocosolver.util.graphOperations.connectivity;
 
+import org.chocosolver.util.objects.graphs.CompactDirectedGraph;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
 
 import java.util.BitSet;
-import java.util.Iterator;
 
 public class StrongConnectivityFinder  {
 
@@ -22,6 +23,8 @@ public class StrongConnectivityFinder  {
 
 	// input
 	private DirectedGraph graph;
+	// input, in compressed sparse row format (a copy of graph, if any)
+	private CompactDirectedGraph cgraph;
 	private BitSet restriction;
 	private int n;
 	// output
@@ -30,7 +33,8 @@ public class StrongConnectivityFinder  {
 
 	// util
 	private int[] stack, p, inf, nodeOfDfsNum, dfsNumOfNode;
-	private Iterator<Integer>[] iterator;
+	// next successor to visit, per dfs number
+	private int[] cursor;
 	private BitSet inStack;
 
 	//***********************************************************************************
@@ -38,7 +42,19 @@ public class StrongConnectivityFinder  {
 	//***********************************************************************************
 
 	public StrongConnectivityFinder(DirectedGraph graph) {
+		this(new CompactDirectedGraph(graph.getNbMaxNodes(), graph.getNbMaxNodes()));
 		this.graph = graph;
+	}
+
+	/**
+	 * Finds strongly connected components of the given graph,
+	 * the arcs of the graph are read in place, without any copy.
+	 * All nodes in [0,n-1] belong to the graph.
+	 *
+	 * @param graph a directed graph
+	 */
+	public StrongConnectivityFinder(CompactDirectedGraph graph) {
+		this.cgraph = graph;
 		this.n = graph.getNbMaxNodes();
 		//
 		stack = new int[n];
@@ -52,7 +68,7 @@ public class StrongConnectivityFinder  {
 		nextNode = new int[n];
 		nodeSCC = new int[n];
 		nbSCC = 0;
-		iterator = new Iterator[n];
+		cursor = new int[n];
 	}
 
 	//***********************************************************************************
@@ -60,14 +76,21 @@ public class StrongConnectivityFinder  {
 	//***********************************************************************************
 
 	public void findAllSCC() {
-		ISet nodes = graph.getNodes();
-		for (int i = 0; i < n; i++) {
-			restriction.set(i, nodes.contains(i));
+		if (graph != null) {
+			ISet nodes = graph.getNodes();
+			for (int i = 0; i < n; i++) {
+				restriction.set(i, nodes.contains(i));
+			}
+		} else {
+			restriction.set(0, n);
 		}
 		findAllSCCOf(restriction);
 	}
 
 	public void findAllSCCOf(BitSet restriction) {
+		if (graph != null) {
+			copy();
+		}
 		inStack.clear();
 		for (int i = 0; i < n; i++) {
 			dfsNumOfNode[i] = 0;
@@ -85,10 +108,22 @@ public class StrongConnectivityFinder  {
 		}
 	}
 
+	private void copy() {
+		cgraph.clear();
+		ISetIterator nodes = graph.getNodes().iterator();
+		while (nodes.hasNext()) {
+			int i = nodes.nextInt();
+			ISetIterator succs = graph.getSuccOf(i).iterator();
+			while (succs.hasNext()) {
+				cgraph.addArc(i, succs.nextInt());
+			}
+		}
+	}
+
 	private void findSingletons(BitSet restriction) {
-		ISet nodes = graph.getNodes();
 		for (int i = restriction.nextSetBit(0); i >= 0; i = restriction.nextSetBit(i + 1)) {
-			if (nodes.contains(i) && graph.getPredOf(i).size() * graph.getSuccOf(i).size() == 0) {
+			if ((graph == null || graph.getNodes().contains(i))
+					&& cgraph.getNbPredOf(i) * cgraph.getNbSuccOf(i) == 0) {
 				nodeSCC[i] = nbSCC;
 				sccFirstNode[nbSCC++] = i;
 				restriction.clear(i);
@@ -114,12 +149,14 @@ public class StrongConnectivityFinder  {
 		stack[stackIdx++] = i;
 		inStack.set(i);
 		p[k] = k;
-		iterator[k] = graph.getSuccOf(start).iterator();
+		int[] succStart = cgraph.getSuccStarts();
+		int[] succs = cgraph.getSuccs();
+		cursor[k] = succStart[start];
 		int j;
 		// algo
 		while (true) {
-			if (iterator[i].hasNext()) {
-				j = iterator[i].next();
+			if (cursor[i] < succStart[nodeOfDfsNum[i] + 1]) {
+				j = succs[cursor[i]++];
 				if (restriction.get(j)) {
 					if (dfsNumOfNode[j] == 0 && j != start) {
 						k++;
@@ -127,7 +164,7 @@ public class StrongConnectivityFinder  {
 						dfsNumOfNode[j] = k;
 						p[k] = i;
 						i = k;
-						iterator[i] = graph.getSuccOf(j).iterator();
+						cursor[i] = succStart[j];
 						stack[stackIdx++] = i;
 						inStack.set(i);
 						inf[i] = i;
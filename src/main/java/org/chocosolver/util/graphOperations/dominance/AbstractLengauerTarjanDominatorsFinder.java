@@ -9,13 +9,11 @@
 package org.chocosolver.util.graphOperations.dominance;
 
 import gnu.trove.list.array.TIntArrayList;
+import org.chocosolver.util.objects.graphs.CompactDirectedGraph;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
-import org.chocosolver.util.objects.setDataStructures.ISet;
 import org.chocosolver.util.objects.setDataStructures.ISetIterator;
 import org.chocosolver.util.objects.setDataStructures.SetType;
 
-import java.util.Iterator;
-
 /**
  * Class that finds dominators of a given flow graph g(s)
  */
@@ -27,13 +25,18 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 
 	// flow graph
 	protected DirectedGraph g;
-	// dominator tree
+	// flow graph, in compressed sparse row format (a copy of g, if any)
+	protected CompactDirectedGraph cg;
+	// dominator tree, built on demand
 	protected DirectedGraph T;
+	// dominator tree, children of node i are children[childStart[i]] ... children[childStart[i+1]-1]
+	protected int[] childStart, children;
 	protected int root, n, k;
 	protected int[] parent, vertex, bucket, ancestor, label, semi, dom;
-	protected ISet[] succs;
-	protected ISet[] preds;
-	protected Iterator<Integer>[] iterator;
+	// successors of node i are succs[succStart[i]] ... succs[succStart[i+1]-1], same for predecessors
+	protected int[] succStart, succs, predStart, preds;
+	// next successor to visit in the DFS
+	protected int[] cursor;
 	protected TIntArrayList list;
 
 	//***********************************************************************************
@@ -44,9 +47,18 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 	 * Object that finds dominators of the given flow graph g(s)
 	 */
 	public AbstractLengauerTarjanDominatorsFinder(int s, DirectedGraph g) {
+		this(s, new CompactDirectedGraph(g.getNbMaxNodes(), g.getNbMaxNodes()));
+		this.g = g;
+	}
+
+	/**
+	 * Object that finds dominators of the given flow graph g(s),
+	 * the arcs of g are read in place, without any copy.
+	 */
+	public AbstractLengauerTarjanDominatorsFinder(int s, CompactDirectedGraph g) {
 		root = s;
 		n = g.getNbMaxNodes();
-		this.g = g;
+		this.cg = g;
 		parent = new int[n];
 		semi = new int[n];
 		dom = new int[n];
@@ -54,10 +66,9 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 		label = new int[n];
 		vertex = new int[n];
 		bucket = new int[n];
-		succs = new ISet[n];
-		preds = new ISet[n];
-		iterator = new Iterator[n];
-		T = new DirectedGraph(n, SetType.LINKED_LIST, false);
+		cursor = new int[n];
+		childStart = new int[n + 1];
+		children = new int[n];
 		list = new TIntArrayList();
 	}
 
@@ -101,16 +112,27 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 	}
 
 	protected void initParams(boolean inverseGraph) {
-		for (int i = 0; i < n; i++) {
-			T.getSuccOf(i).clear();
-			T.getPredOf(i).clear();
-			if (inverseGraph) {
-				succs[i] = g.getPredOf(i);
-				preds[i] = g.getSuccOf(i);
-			} else {
-				succs[i] = g.getSuccOf(i);
-				preds[i] = g.getPredOf(i);
+		if (g != null) {
+			cg.clear();
+			for (int i = 0; i < n; i++) {
+				ISetIterator it = g.getSuccOf(i).iterator();
+				while (it.hasNext()) {
+					cg.addArc(i, it.nextInt());
+				}
 			}
+		}
+		if (inverseGraph) {
+			succStart = cg.getPredStarts();
+			succs = cg.getPreds();
+			predStart = cg.getSuccStarts();
+			preds = cg.getSuccs();
+		} else {
+			succStart = cg.getSuccStarts();
+			succs = cg.getSuccs();
+			predStart = cg.getPredStarts();
+			preds = cg.getPreds();
+		}
+		for (int i = 0; i < n; i++) {
 			semi[i] = -1;
 			ancestor[i] = -1;
 			bucket[i] = -1;
@@ -124,12 +146,12 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 		semi[node] = k;
 		label[node] = node;
 		vertex[k] = node;
-		for(int i=0;i<n;i++){
-			iterator[i] = succs[i].iterator();
+		for (int i = 0; i < n; i++) {
+			cursor[i] = succStart[i];
 		}
 		while (true) {
-			if(iterator[node].hasNext()){
-				next = iterator[node].next();
+			if (cursor[node] < succStart[node + 1]) {
+				next = succs[cursor[node]++];
 				if (semi[next] == -1) {
 					k++;
 					semi[next] = k;
@@ -153,12 +175,10 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 
 	private void findAllIdom() {
 		int w, u;
-		ISetIterator prds;
 		for (int i = n - 1; i >= 1; i--) {
 			w = vertex[i];
-			prds = preds[w].iterator();
-			while (prds.hasNext()) {
-				int v = prds.nextInt();
+			for (int p = predStart[w]; p < predStart[w + 1]; p++) {
+				int v = preds[p];
 				u = eval(v);
 				if (semi[u] < semi[w]) {
 					semi[w] = semi[u];
@@ -189,7 +209,6 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 			if (dom[w] != vertex[semi[w]]) {
 				dom[w] = dom[dom[w]];
 			}
-			T.addArc(dom[w], w);
 		}
 		dom[root] = root;
 	}
@@ -241,6 +260,18 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 	 * @return the dominator of the flow graph
 	 */
 	public DirectedGraph getDominatorTree() {
+		if (T == null) {
+			T = new DirectedGraph(n, SetType.LINKED_LIST, false);
+		}
+		for (int i = 0; i < n; i++) {
+			T.getSuccOf(i).clear();
+			T.getPredOf(i).clear();
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = childStart[i]; j < childStart[i + 1]; j++) {
+				T.addArc(i, children[j]);
+			}
+		}
 		return T;
 	}
 
@@ -249,13 +280,33 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 	 * BEWARE : destroy the current data structure (recycling)
 	 */
 	private void preprocessDominanceRequests() {
+		// BUILD THE DOMINATOR TREE (counting sort of nodes wrt their immediate dominator)
+		for (int i = 0; i <= n; i++) {
+			childStart[i] = 0;
+		}
+		for (int i = 0; i < n; i++) {
+			if (i != root) {
+				childStart[dom[i] + 1]++;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			childStart[i + 1] += childStart[i];
+		}
 		// RECYCLE DATA STRUCTURES
 		// ancestor = in  = opening time = preorder
 		// semi     = out = closing time = postorder
+		// bucket   = next child to visit
+		for (int i = 0; i < n; i++) {
+			bucket[i] = childStart[i];
+		}
+		for (int i = 0; i < n; i++) {
+			if (i != root) {
+				children[bucket[dom[i]]++] = i;
+			}
+		}
 		for (int i = 0; i < n; i++) {
 			parent[i] = -1;
-			succs[i] = T.getSuccOf(i);
-			iterator[i] = succs[i].iterator();
+			bucket[i] = childStart[i];
 		}
 		//PREPROCESSING
 		int time = 0;
@@ -264,22 +315,19 @@ public abstract class AbstractLengauerTarjanDominatorsFinder {
 		ancestor[currentNode] = 0;
 		int nextNode;
 		while (true) {
-			if(iterator[currentNode].hasNext()){
-				nextNode = iterator[currentNode].next();
-				if (parent[nextNode] == -1) {
-					time++;
-					ancestor[nextNode] = time;
-					parent[nextNode] = currentNode;
-					currentNode = nextNode;
-				}
-			}else{
+			if (bucket[currentNode] < childStart[currentNode + 1]) {
+				nextNode = children[bucket[currentNode]++];
+				time++;
+				ancestor[nextNode] = time;
+				parent[nextNode] = currentNode;
+				currentNode = nextNode;
+			} else {
 				time++;
 				semi[currentNode] = time;
 				if (currentNode == root) {
 					break;
 				}
 				currentNode = parent[currentNode];
-
 			}
 		}
 	}
@@ -8,6 +8,7 @@
  */
 package org.chocosolver.util.graphOperations.dominance;
 
+import org.chocosolver.util.objects.graphs.CompactDirectedGraph;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
 
 /**
@@ -36,6 +37,17 @@ public class AlphaDominatorsFinder extends AbstractLengauerTarjanDominatorsFinde
         child = new int[n];
     }
 
+    /**
+     * Object that finds dominators of the given flow graph g(s),
+     * the arcs of g are read in place, without any copy.
+     * It uses the LT algorithm which runs in O(alpha.m)
+     */
+    public AlphaDominatorsFinder(int s, CompactDirectedGraph g) {
+        super(s, g);
+        size = new int[n];
+        child = new int[n];
+    }
+
     //***********************************************************************************
     // INITIALIZATION
     //***********************************************************************************
@@ -94,7 +106,7 @@ public class AlphaDominatorsFinder extends AbstractLengauerTarjanDominatorsFinde
 
     protected void compress(int v) {
         int k = v;
-        list.clear();
+        list.resetQuick();
         while (ancestor[ancestor[k]] != -1) {
             list.add(k);
             k = ancestor[k];
@@ -8,6 +8,7 @@
  */
 package org.chocosolver.util.graphOperations.dominance;
 
+import org.chocosolver.util.objects.graphs.CompactDirectedGraph;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
 
 /**
@@ -29,6 +30,15 @@ public class SimpleDominatorsFinder extends AbstractLengauerTarjanDominatorsFind
         super(s, g);
     }
 
+    /**
+     * Object that finds dominators of the given flow graph g(s),
+     * the arcs of g are read in place, without any copy.
+     * It uses the simple LT algorithm which runs in O(m.log(n))
+     */
+    public SimpleDominatorsFinder(int s, CompactDirectedGraph g) {
+        super(s, g);
+    }
+
     //***********************************************************************************
     // link-eval
     //***********************************************************************************
@@ -49,7 +59,7 @@ public class SimpleDominatorsFinder extends AbstractLengauerTarjanDominatorsFind
 
     protected void compress(int v) {
         int k = v;
-        list.clear();
+        list.resetQuick();
         while (ancestor[ancestor[k]] != -1) {
             list.add(k);
             k = ancestor[k];
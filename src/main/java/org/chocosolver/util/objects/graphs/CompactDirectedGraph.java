@@ -0,0 +1,218 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.util.objects.graphs;
+
+import java.util.Arrays;
+
+/**
+ * Directed graph over the nodes [0,n-1], stored in compressed sparse row format:
+ * successors (resp. predecessors) of a node are stored contiguously in a single <code>int</code> array.
+ * <p>
+ * Arcs are first added, in any order, then the graph is compacted in O(n+m) on the first access to the adjacency.
+ * There is no arc removal: the graph is meant to be cleared and filled again, without allocation
+ * once its capacity is reached.
+ * Adding an arc twice results in a multi-graph.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class CompactDirectedGraph {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    private final int n;
+    // number of arcs
+    private int m;
+    // arcs, in insertion order
+    private int[] tails, heads;
+    // successors of node i are succs[succStart[i]] ... succs[succStart[i+1]-1], same for predecessors
+    private final int[] succStart, predStart;
+    private int[] succs, preds;
+    private boolean compacted;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * Creates an empty graph of n nodes
+     *
+     * @param n        number of nodes
+     * @param capacity expected number of arcs
+     */
+    public CompactDirectedGraph(int n, int capacity) {
+        this.n = n;
+        capacity = Math.max(capacity, 1);
+        this.tails = new int[capacity];
+        this.heads = new int[capacity];
+        this.succs = new int[capacity];
+        this.preds = new int[capacity];
+        this.succStart = new int[n + 1];
+        this.predStart = new int[n + 1];
+        this.compacted = true;
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    /**
+     * @return the number of nodes of the graph
+     */
+    public int getNbMaxNodes() {
+        return n;
+    }
+
+    /**
+     * @return the number of arcs of the graph
+     */
+    public int getNbArcs() {
+        return m;
+    }
+
+    /**
+     * Removes all arcs
+     */
+    public void clear() {
+        m = 0;
+        compacted = false;
+    }
+
+    /**
+     * Adds arc (x,y) to the graph
+     *
+     * @param x a node index
+     * @param y a node index
+     */
+    public void addArc(int x, int y) {
+        if (m == tails.length) {
+            int c = m * 3 / 2 + 1;
+            tails = Arrays.copyOf(tails, c);
+            heads = Arrays.copyOf(heads, c);
+            succs = new int[c];
+            preds = new int[c];
+        }
+        tails[m] = x;
+        heads[m++] = y;
+        compacted = false;
+    }
+
+    /**
+     * Counting sort of arcs wrt their tail (resp. head)
+     */
+    private void compact() {
+        Arrays.fill(succStart, 0);
+        Arrays.fill(predStart, 0);
+        for (int a = 0; a < m; a++) {
+            succStart[tails[a] + 1]++;
+            predStart[heads[a] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            succStart[i + 1] += succStart[i];
+            predStart[i + 1] += predStart[i];
+        }
+        // starts are used as cursors: once filled, the start of node i is the one of node i+1
+        for (int a = 0; a < m; a++) {
+            succs[succStart[tails[a]]++] = heads[a];
+            preds[predStart[heads[a]]++] = tails[a];
+        }
+        for (int i = n; i > 0; i--) {
+            succStart[i] = succStart[i - 1];
+            predStart[i] = predStart[i - 1];
+        }
+        succStart[0] = 0;
+        predStart[0] = 0;
+        compacted = true;
+    }
+
+    private void ensureCompacted() {
+        if (!compacted) {
+            compact();
+        }
+    }
+
+    /**
+     * @param x a node index
+     * @return the number of successors of <i>x</i>
+     */
+    public int getNbSuccOf(int x) {
+        ensureCompacted();
+        return succStart[x + 1] - succStart[x];
+    }
+
+    /**
+     * @param x a node index
+     * @return the number of predecessors of <i>x</i>
+     */
+    public int getNbPredOf(int x) {
+        ensureCompacted();
+        return predStart[x + 1] - predStart[x];
+    }
+
+    /**
+     * Successors of node i are <code>getSuccs()[getSuccStarts()[i]]</code>
+     * ... <code>getSuccs()[getSuccStarts()[i+1]-1]</code>.
+     * BEWARE: the returned array must not be modified.
+     *
+     * @return offsets of the successors of each node, of size n+1
+     */
+    public int[] getSuccStarts() {
+        ensureCompacted();
+        return succStart;
+    }
+
+    /**
+     * BEWARE: the returned array must not be modified.
+     *
+     * @return successors of all nodes, see {@link #getSuccStarts()}
+     */
+    public int[] getSuccs() {
+        ensureCompacted();
+        return succs;
+    }
+
+    /**
+     * Predecessors of node i are <code>getPreds()[getPredStarts()[i]]</code>
+     * ... <code>getPreds()[getPredStarts()[i+1]-1]</code>.
+     * BEWARE: the returned array must not be modified.
+     *
+     * @return offsets of the predecessors of each node, of size n+1
+     */
+    public int[] getPredStarts() {
+        ensureCompacted();
+        return predStart;
+    }
+
+    /**
+     * BEWARE: the returned array must not be modified.
+     *
+     * @return predecessors of all nodes, see {@link #getPredStarts()}
+     */
+    public int[] getPreds() {
+        ensureCompacted();
+        return preds;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        int[] st = getSuccStarts();
+        for (int i = 0; i < n; i++) {
+            sb.append("nodes ").append(i).append(" : ");
+            for (int j = st[i]; j < st[i + 1]; j++) {
+                sb.append(succs[j]).append(' ');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
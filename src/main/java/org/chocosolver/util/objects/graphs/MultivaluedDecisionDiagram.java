@@ -12,6 +12,7 @@ import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntIntHashMap;
 import org.chocosolver.solver.constraints.extension.Tuples;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.sort.ArraySort;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,6 +20,11 @@ import java.util.Arrays;
 /**
  * A Multi-valued Decision Diagram (MDD for short) to store
  * <p>
+ * When built from tuples and compacted once, the MDD is reduced while being built:
+ * tuples are read in lexicographical order and, as soon as a node cannot be modified anymore,
+ * it is hash-consed in a unique table per layer, so that identical nodes are stored once
+ * and the uncompressed trie is never materialized.
+ * <p>
  * Created by cprudhom on 30/10/14.
  */
 public class MultivaluedDecisionDiagram  {
@@ -96,8 +102,9 @@ public class MultivaluedDecisionDiagram  {
      *
      * @param VARIABLES   array of flatten domains
      * @param TUPLES      set of (allowed) tuples
-     * @param compactOnce set to true to compact the MDD after having added all the TUPLES, set to false to try to compact the MDD after each tuple addition
-     * @param sortTuple   set to true to sort the TUPLES in increasing order before adding them
+     * @param compactOnce set to true to reduce the MDD while adding the TUPLES (by hash-consing), set to false to try to compact the MDD after each tuple addition
+     * @param sortTuple   set to true to sort the TUPLES in increasing order before adding them,
+     *                    ignored when <i>compactOnce</i> is set to true: tuples are then read in increasing order (and not modified)
      */
     public MultivaluedDecisionDiagram(IntVar[] VARIABLES, Tuples TUPLES, boolean compactOnce, boolean sortTuple) {
         this(flattenDomain(VARIABLES), TUPLES, compactOnce, sortTuple);
@@ -118,8 +125,9 @@ public class MultivaluedDecisionDiagram  {
      *
      * @param FLATDOM     array of flatten domains
      * @param TUPLES      set of (allowed) tuples
-     * @param compactOnce set to true to compact the MDD after having added all the TUPLES, set to false to try to compact the MDD after each tuple addition
-     * @param sortTuple   set to true to sort the TUPLES in increasing order before adding them
+     * @param compactOnce set to true to reduce the MDD while adding the TUPLES (by hash-consing), set to false to try to compact the MDD after each tuple addition
+     * @param sortTuple   set to true to sort the TUPLES in increasing order before adding them,
+     *                    ignored when <i>compactOnce</i> is set to true: tuples are then read in increasing order (and not modified)
      */
     public MultivaluedDecisionDiagram(int[][] FLATDOM, Tuples TUPLES, boolean compactOnce, boolean sortTuple) {
         this.nbLayers = FLATDOM.length;
@@ -135,8 +143,12 @@ public class MultivaluedDecisionDiagram  {
                 maxDom = sizes[i];
             }
         }
-        mdd = new int[nbLayers * maxDom];
-        init(TUPLES);
+        if (compactOnce && TUPLES.nbTuples() > 0) {
+            build(TUPLES);
+        } else {
+            mdd = new int[nbLayers * maxDom];
+            init(TUPLES);
+        }
     }
 
     /**
@@ -183,6 +195,183 @@ public class MultivaluedDecisionDiagram  {
         }
     }
 
+    /**
+     * Build a reduced MDD from the tuples, through hash-consing.
+     * Tuples are visited in lexicographical order (without modifying <i>TUPLES</i>),
+     * only the nodes of the current path are kept aside; once a tuple diverges from the previous one at a given layer,
+     * the nodes of the previous path below this layer are complete
+     * and are replaced by an identical node, if any, or stored in the diagram.
+     * Finally, nodes are renumbered in depth-first order, the root node being at index 0.
+     *
+     * @param TUPLES set of (allowed) tuples
+     */
+    private void build(Tuples TUPLES) {
+        int n = TUPLES.nbTuples();
+        // tuples out of declared domains are ignored
+        int[] order = new int[n];
+        int m = 0;
+        for (int t = 0; t < n; t++) {
+            int i = 0;
+            while (i < nbLayers && TUPLES.get(t, i) >= offsets[i] && TUPLES.get(t, i) < offsets[i] + sizes[i]) {
+                i++;
+            }
+            if (i == nbLayers) {
+                order[m++] = t;
+            }
+        }
+        new ArraySort<>(m, false, true).sort(order, m, (t1, t2) -> {
+            for (int i = 0; i < nbLayers; i++) {
+                int d = Integer.compare(TUPLES.get(t1, i), TUPLES.get(t2, i));
+                if (d != 0) {
+                    return d;
+                }
+            }
+            return 0;
+        });
+        // nodes of the current path, and position of the current tuple in each of them
+        int[][] path = new int[nbLayers][];
+        for (int i = 0; i < nbLayers; i++) {
+            path[i] = new int[sizes[i]];
+        }
+        _pos = new int[nbLayers];
+        // cells [0, sizes[0][ are kept for the root node, which is never shared
+        mdd = new int[Math.max(16, sizes[0] + 2 * m)];
+        nextFreeCell = sizes[0];
+        UniqueTable[] tables = new UniqueTable[nbLayers];
+        for (int i = 1; i < nbLayers; i++) {
+            tables[i] = new UniqueTable(sizes[i]);
+        }
+        int prev = -1;
+        for (int k = 0; k < m; k++) {
+            int t = order[k];
+            int d = 0;
+            if (prev > -1) {
+                while (d < nbLayers && TUPLES.get(prev, d) == TUPLES.get(t, d)) {
+                    d++;
+                }
+                if (d == nbLayers) { // duplicate
+                    continue;
+                }
+                for (int i = nbLayers - 1; i > d; i--) {
+                    path[i - 1][_pos[i - 1]] = tables[i].register(path[i]);
+                    Arrays.fill(path[i], EMPTY);
+                }
+            }
+            for (int i = d; i < nbLayers; i++) {
+                _pos[i] = TUPLES.get(t, i) - offsets[i];
+            }
+            path[nbLayers - 1][_pos[nbLayers - 1]] = TERMINAL;
+            prev = t;
+        }
+        if (prev > -1) {
+            for (int i = nbLayers - 1; i > 0; i--) {
+                path[i - 1][_pos[i - 1]] = tables[i].register(path[i]);
+            }
+        }
+        System.arraycopy(path[0], 0, mdd, 0, sizes[0]);
+        // renumber nodes in depth-first order
+        int[] built = mdd;
+        int[] map = new int[nextFreeCell];
+        mdd = new int[nextFreeCell];
+        nextFreeCell = sizes[0];
+        renumber(built, map, 0, 0, 0);
+    }
+
+    /**
+     * Copy the node <i>from</i> of <i>built</i> to the node <i>to</i> of the diagram,
+     * children not copied yet are copied first.
+     */
+    private void renumber(int[] built, int[] map, int from, int to, int layer) {
+        for (int i = 0; i < sizes[layer]; i++) {
+            int c = built[from + i];
+            if (c > EMPTY) {
+                if (map[c] == EMPTY) {
+                    map[c] = nextFreeCell;
+                    nextFreeCell += sizes[layer + 1];
+                    renumber(built, map, c, map[c], layer + 1);
+                }
+                c = map[c];
+            }
+            mdd[to + i] = c;
+        }
+    }
+
+    /**
+     * Unique table of the nodes of a layer: open addressing hash table of the indices of the nodes in the diagram.
+     */
+    private class UniqueTable {
+        /**
+         * Number of cells of a node
+         */
+        private final int size;
+        /**
+         * Index of a node in the diagram, or EMPTY
+         */
+        private int[] table;
+        private int nbNodes;
+
+        private UniqueTable(int size) {
+            this.size = size;
+            this.table = new int[16];
+        }
+
+        /**
+         * @param node a complete node
+         * @return the index of the node identical to <i>node</i> in the diagram, after having added it if needed
+         */
+        private int register(int[] node) {
+            int mask = table.length - 1;
+            int h = hash(node, 0) & mask;
+            while (table[h] != EMPTY) {
+                if (equal(node, table[h])) {
+                    return table[h];
+                }
+                h = (h + 1) & mask;
+            }
+            int start = nextFreeCell;
+            ensureCapacity(start + size);
+            System.arraycopy(node, 0, mdd, start, size);
+            nextFreeCell += size;
+            table[h] = start;
+            if (++nbNodes * 2 > table.length) {
+                rehash();
+            }
+            return start;
+        }
+
+        private int hash(int[] cells, int from) {
+            int h = 1;
+            for (int i = from; i < from + size; i++) {
+                h = 31 * h + cells[i];
+            }
+            return h ^ (h >>> 16);
+        }
+
+        private boolean equal(int[] node, int start) {
+            for (int i = 0; i < size; i++) {
+                if (node[i] != mdd[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            int[] old = table;
+            table = new int[old.length * 2];
+            int mask = table.length - 1;
+            for (int start : old) {
+                if (start != EMPTY) {
+                    int h = hash(mdd, start) & mask;
+                    while (table[h] != EMPTY) {
+                        h = (h + 1) & mask;
+                    }
+                    table[h] = start;
+                }
+            }
+        }
+    }
+
     /**
      * Add all tuples within the MDD
      *
@@ -191,8 +380,12 @@ public class MultivaluedDecisionDiagram  {
     public boolean addTuples(Tuples TUPLES) {
         if (sortTuples) TUPLES.sort();
         boolean atLeastOne = false;
+        int[] tuple = new int[nbLayers];
         for (int t = 0; t < TUPLES.nbTuples(); t++) {
-            atLeastOne |= addTuple(TUPLES.get(t));
+            for (int i = 0; i < nbLayers; i++) {
+                tuple[i] = TUPLES.get(t, i);
+            }
+            atLeastOne |= addTuple(tuple);
         }
         return atLeastOne;
     }
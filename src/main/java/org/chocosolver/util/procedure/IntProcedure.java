@@ -10,6 +10,8 @@ package org.chocosolver.util.procedure;
 
 import org.chocosolver.solver.exception.ContradictionException;
 
+import java.io.Serializable;
+
 
 
 /**
@@ -18,7 +20,7 @@ import org.chocosolver.solver.exception.ContradictionException;
  * @author Charles Prud'homme
  * @since 29 sept. 2010
  */
-public interface IntProcedure  {
+public interface IntProcedure extends Serializable {
 
     /**
      * Action to execute in a <code>Delta</code> object, within the <code>forEachRemVal</code> method.
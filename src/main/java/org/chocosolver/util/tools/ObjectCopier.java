@@ -0,0 +1,379 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.util.tools;
+
+import gnu.trove.impl.hash.TObjectHash;
+import org.chocosolver.solver.exception.SolverException;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Deep copy of an object graph, by reflection.
+ * <p>
+ * Each reachable object is copied once, so that the copy has the same structure as the original graph
+ * (shared references and cycles are preserved).
+ * Objects are allocated without calling any constructor, then their fields are copied.
+ * <br/>
+ * Some objects are not copied but shared between the original graph and its copy:
+ * <ul>
+ * <li>immutable objects (strings, boxed primitives, enumerations, classes),</li>
+ * <li>constants, that is, objects referenced by a <code>static final</code> field of the class of a copied object,
+ * of one of its super types or of its enclosing class (singletons or sentinels, for instance),</li>
+ * <li>lambdas which capture nothing,</li>
+ * <li>objects and field values declared as shared with {@link #share(Predicate)} and {@link #share(Class, String...)}.</li>
+ * </ul>
+ * Objects declared with {@link #exclude(Object)} are not copied either: references to them are set to
+ * <tt>null</tt> in the copy, unless a substitute is given afterwards with {@link #bind(Object, Object)}.
+ * <p>
+ * Collections and maps from the JDK are rebuilt through their public API, once all objects are copied,
+ * so that hash-based ones are consistent with the copied keys.
+ * Hash-based collections from trove with object keys are rehashed for the same reason.
+ * Other objects from the JDK are copied by serialization, if possible.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class ObjectCopier {
+
+    /**
+     * Original objects to their copy
+     */
+    private final IdentityHashMap<Object, Object> copies = new IdentityHashMap<>();
+
+    /**
+     * Original objects whose fields or elements remain to be copied
+     */
+    private final ArrayDeque<Object> toFill = new ArrayDeque<>();
+
+    /**
+     * Copied collections and maps, with their copied elements, to populate once all objects are copied
+     */
+    private final List<Object[]> toPopulate = new ArrayList<>();
+
+    /**
+     * Copied trove hash-based collections, to rehash once all objects are copied
+     */
+    private final List<TObjectHash<?>> toRehash = new ArrayList<>();
+
+    /**
+     * Constants declared by the classes of the objects copied so far
+     */
+    private final Set<Object> constants = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Classes whose constants are in {@link #constants}
+     */
+    private final Set<Class<?>> scanned = new HashSet<>();
+
+    /**
+     * Excluded objects, and where they are referenced in the copy
+     */
+    private final IdentityHashMap<Object, List<Object[]>> excluded = new IdentityHashMap<>();
+
+    /**
+     * Objects to share
+     */
+    private Predicate<Object> shared = o -> false;
+
+    /**
+     * Fields whose values are shared
+     */
+    private final Set<Field> sharedFields = new HashSet<>();
+
+    /**
+     * Declares objects to share between the original graph and its copy.
+     * Such objects, and all objects they reference, should not be modified afterwards.
+     *
+     * @param predicate returns <tt>true</tt> for objects to share
+     * @return this
+     */
+    public ObjectCopier share(Predicate<Object> predicate) {
+        shared = shared.or(predicate);
+        return this;
+    }
+
+    /**
+     * Declares fields whose values are shared between the original graph and its copy.
+     * Such values, and all objects they reference, should not be modified afterwards.
+     *
+     * @param clazz a class
+     * @param names names of fields declared in <i>clazz</i>
+     * @return this
+     */
+    public ObjectCopier share(Class<?> clazz, String... names) {
+        for (String name : names) {
+            try {
+                sharedFields.add(clazz.getDeclaredField(name));
+            } catch (NoSuchFieldException e) {
+                throw new SolverException("Unknown field " + clazz.getName() + "." + name);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Declares an object which is not copied.
+     *
+     * @param o an object
+     * @return this
+     * @see #bind(Object, Object)
+     */
+    public ObjectCopier exclude(Object o) {
+        excluded.put(o, new ArrayList<>());
+        return this;
+    }
+
+    /**
+     * Sets all references to <i>original</i>, an object declared with {@link #exclude(Object)}, to <i>substitute</i>
+     * in the copied graph.
+     * To be called once the graph is copied.
+     *
+     * @param original   an excluded object
+     * @param substitute its substitute in the copy
+     */
+    public void bind(Object original, Object substitute) {
+        for (Object[] ref : excluded.get(original)) {
+            if (ref[1] instanceof Field) {
+                ObjectGraphs.set((Field) ref[1], ref[0], substitute);
+            } else {
+                Array.set(ref[0], (Integer) ref[1], substitute);
+            }
+        }
+    }
+
+    /**
+     * Copies the graph of objects reachable from <i>root</i>.
+     * Can be called more than once: objects already copied are not copied again.
+     *
+     * @param root an object
+     * @param <T>  type of the object
+     * @return the copy of <i>root</i>
+     * @throws SolverException if an object cannot be copied
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T copy(T root) {
+        T copy = (T) copyOf(root);
+        while (!toFill.isEmpty()) {
+            fill(toFill.pollFirst());
+        }
+        populate();
+        return copy;
+    }
+
+    /**
+     * @param o an object of the original graph
+     * @return its copy, allocated but not necessarily filled yet
+     */
+    private Object copyOf(Object o) {
+        if (o == null) {
+            return null;
+        }
+        Object c = copies.get(o);
+        if (c != null) {
+            return c;
+        }
+        if (excluded.containsKey(o)) {
+            throw new SolverException("An excluded object is referenced by a collection or a lambda: " + o);
+        }
+        Class<?> clazz = o.getClass();
+        if (!ObjectGraphs.isJDK(clazz) && scanned.add(clazz)) {
+            // scanned before any object referenced by an instance of clazz is copied
+            constants.addAll(ObjectGraphs.constantsOf(clazz).keySet());
+        }
+        if (ObjectGraphs.isImmutable(clazz) || shared.test(o) || constants.contains(o)) {
+            c = o;
+        } else if (clazz.isArray()) {
+            if (clazz.getComponentType().isPrimitive()) {
+                c = cloneArray(o);
+            } else {
+                c = Array.newInstance(clazz.getComponentType(), Array.getLength(o));
+                toFill.add(o);
+            }
+        } else if (ObjectGraphs.isLambda(clazz)) {
+            c = copyLambda(o);
+        } else if (ObjectGraphs.isJDK(clazz)) {
+            c = copyJDK(o);
+        } else {
+            c = ObjectGraphs.allocate(clazz);
+            toFill.add(o);
+        }
+        copies.put(o, c);
+        return c;
+    }
+
+    /**
+     * Copies the fields, or the elements, of <i>o</i> into its copy
+     */
+    private void fill(Object o) {
+        Object c = copies.get(o);
+        Class<?> clazz = o.getClass();
+        if (clazz.isArray()) {
+            Object[] src = (Object[]) o;
+            Object[] dst = (Object[]) c;
+            for (int i = 0; i < src.length; i++) {
+                dst[i] = reference(src[i], dst, i);
+            }
+        } else if (ObjectGraphs.isJDK(clazz) && o instanceof Collection) {
+            Collection<?> col = (Collection<?>) o;
+            Object[] elts = new Object[col.size()];
+            int i = 0;
+            for (Object e : col) {
+                elts[i++] = copyOf(e);
+            }
+            toPopulate.add(new Object[]{c, elts});
+        } else if (ObjectGraphs.isJDK(clazz) && o instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) o;
+            Object[] elts = new Object[2 * map.size()];
+            int i = 0;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                elts[i++] = copyOf(e.getKey());
+                elts[i++] = copyOf(e.getValue());
+            }
+            toPopulate.add(new Object[]{c, elts});
+        } else {
+            for (Field f : ObjectGraphs.fieldsOf(clazz)) {
+                Object v = ObjectGraphs.get(f, o);
+                if (!f.getType().isPrimitive() && !sharedFields.contains(f)) {
+                    v = reference(v, c, f);
+                }
+                ObjectGraphs.set(f, c, v);
+            }
+            if (c instanceof TObjectHash) {
+                toRehash.add((TObjectHash<?>) c);
+            }
+        }
+    }
+
+    /**
+     * @param v   an object referenced by the original graph
+     * @param c   the copy holding the reference
+     * @param pos where the reference is held in <i>c</i>, a field or an index
+     * @return the copy of <i>v</i>
+     */
+    private Object reference(Object v, Object c, Object pos) {
+        if (v != null) {
+            List<Object[]> refs = excluded.get(v);
+            if (refs != null) {
+                refs.add(new Object[]{c, pos});
+                return null;
+            }
+        }
+        return copyOf(v);
+    }
+
+    /**
+     * Populates the copied collections and maps and rehashes trove collections,
+     * once all objects have been copied
+     */
+    @SuppressWarnings("unchecked")
+    private void populate() {
+        for (Object[] p : toPopulate) {
+            Object[] elts = (Object[]) p[1];
+            if (p[0] instanceof Collection) {
+                Collections.addAll((Collection<Object>) p[0], elts);
+            } else {
+                Map<Object, Object> map = (Map<Object, Object>) p[0];
+                for (int i = 0; i < elts.length; i += 2) {
+                    map.put(elts[i], elts[i + 1]);
+                }
+            }
+        }
+        toPopulate.clear();
+        for (TObjectHash<?> h : toRehash) {
+            ObjectGraphs.rehash(h);
+        }
+        toRehash.clear();
+    }
+
+    //***********************************************************************************
+    // SPECIFIC COPIES
+    //***********************************************************************************
+
+    private static Object cloneArray(Object o) {
+        int n = Array.getLength(o);
+        Object c = Array.newInstance(o.getClass().getComponentType(), n);
+        //noinspection SuspiciousSystemArraycopy
+        System.arraycopy(o, 0, c, 0, n);
+        return c;
+    }
+
+    /**
+     * A lambda stores its captured arguments in its fields, in the order of its unique constructor's parameters.
+     */
+    private Object copyLambda(Object o) {
+        Field[] fields = o.getClass().getDeclaredFields();
+        if (fields.length == 0) {
+            return o;
+        }
+        Constructor<?> cons = o.getClass().getDeclaredConstructors()[0];
+        Object[] args = new Object[fields.length];
+        try {
+            for (Field f : fields) {
+                // fields are named arg$1, arg$2, ...
+                int i = Integer.parseInt(f.getName().substring(f.getName().indexOf('$') + 1)) - 1;
+                f.setAccessible(true);
+                Object v = f.get(o);
+                if (excluded.containsKey(v)) {
+                    throw new SolverException("Cannot copy a lambda which refers to an excluded object: " + o);
+                }
+                args[i] = f.getType().isPrimitive() ? v : copyOf(v);
+            }
+            cons.setAccessible(true);
+            return cons.newInstance(args);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new SolverException("Cannot copy " + o.getClass().getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Collections and maps are rebuilt, other objects are serialized.
+     */
+    @SuppressWarnings("unchecked")
+    private Object copyJDK(Object o) {
+        Class<?> clazz = o.getClass();
+        if (clazz == Object.class) {
+            return new Object();
+        }
+        if (o instanceof BitSet) {
+            return ((BitSet) o).clone();
+        }
+        if (o instanceof Collection || o instanceof Map) {
+            Object c;
+            if (o instanceof SortedSet || o instanceof SortedMap || o instanceof PriorityQueue) {
+                Comparator<?> cmp = o instanceof SortedSet ? ((SortedSet<?>) o).comparator()
+                        : o instanceof SortedMap ? ((SortedMap<?, ?>) o).comparator() : ((PriorityQueue<?>) o).comparator();
+                c = o instanceof SortedSet ? new TreeSet<>((Comparator<Object>) copyOf(cmp))
+                        : o instanceof SortedMap ? new TreeMap<>((Comparator<Object>) copyOf(cmp))
+                        : new PriorityQueue<>((Comparator<Object>) copyOf(cmp));
+            } else {
+                c = ObjectGraphs.emptyCollection(clazz);
+            }
+            toFill.add(o);
+            return c;
+        }
+        if (o instanceof Serializable) {
+            try {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                    oos.writeObject(o);
+                }
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+                    return ois.readObject();
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new SolverException("Cannot copy " + clazz.getName() + ": " + e.getMessage());
+            }
+        }
+        throw new SolverException("Cannot copy " + clazz.getName());
+    }
+}
@@ -0,0 +1,534 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.util.tools;
+
+import gnu.trove.impl.hash.TObjectHash;
+import org.chocosolver.solver.exception.SolverException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.chocosolver.util.tools.ObjectGraphWriter.*;
+
+/**
+ * Reads a graph of objects written by {@link ObjectGraphWriter}.
+ * <p>
+ * Objects are allocated without calling any constructor, then their fields are read.
+ * A file is memory-mapped, so that large primitive arrays are copied in bulk from the file,
+ * without intermediate buffer.
+ * <br/>
+ * Collections and maps from the JDK are populated, and hash-based collections from trove are rehashed,
+ * once all objects of a root are read, since hash codes of objects may differ from the ones they had when written.
+ * <p>
+ * <b>Only read data from a trusted source.</b>
+ * The classes named in the data are loaded, and their instances are allocated and filled without any validation,
+ * lambdas are rebuilt by the deserialization method of their capturing class.
+ * The objects from the JDK written with Java serialization are restricted to classes of the JDK
+ * (<code>java.*</code> and <code>javax.*</code> packages) on reading.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ * @see ObjectGraphWriter
+ */
+public class ObjectGraphReader {
+
+    /**
+     * Deserialization method of lambdas, of each capturing class
+     */
+    private static final Map<Class<?>, Method> DESERIALIZERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Objects read so far, indexed by their identifier
+     */
+    private final ArrayList<Object> objects = new ArrayList<>();
+
+    /**
+     * Objects whose fields or elements remain to be read
+     */
+    private final ArrayDeque<Object> toRead = new ArrayDeque<>();
+
+    /**
+     * Classes read so far, indexed by their index
+     */
+    private final ArrayList<Class<?>> classes = new ArrayList<>();
+
+    /**
+     * Collections and maps, with their elements, to populate once all objects are read
+     */
+    private final List<Object[]> toPopulate = new ArrayList<>();
+
+    /**
+     * Trove hash-based collections, to rehash once all objects are read
+     */
+    private final List<TObjectHash<?>> toRehash = new ArrayList<>();
+
+    /**
+     * References to each excluded object
+     */
+    private final ArrayList<List<Object[]>> externals = new ArrayList<>();
+
+    /**
+     * Creates a reader of the data in <i>buffer</i>, from its current position.
+     * The content of <i>buffer</i> must not be modified while reading.
+     *
+     * @param buffer data written by a {@link ObjectGraphWriter}
+     * @throws SolverException if the data were not written by a {@link ObjectGraphWriter}
+     */
+    public ObjectGraphReader(ByteBuffer buffer) {
+        // primitive arrays are aligned wrt the beginning of the data
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (this.buffer.remaining() < 12 || this.buffer.getLong() != MAGIC) {
+            throw new SolverException("Unknown format");
+        }
+        int version = this.buffer.getInt();
+        if (version != VERSION) {
+            throw new SolverException("Unsupported version " + version);
+        }
+    }
+
+    /**
+     * Creates a reader of a file, which is memory-mapped
+     *
+     * @param path path of a file written by {@link ObjectGraphWriter#writeTo(Path)}
+     * @throws IOException     if an I/O error occurs
+     * @throws SolverException if the file was not written by a {@link ObjectGraphWriter}
+     */
+    public ObjectGraphReader(Path path) throws IOException {
+        this(map(path));
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping remains valid once the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Reads the next root written by {@link ObjectGraphWriter#write(Object)}, and the graph of objects reachable from it.
+     *
+     * @return the root read
+     * @throws SolverException if an object cannot be read
+     */
+    public Object read() {
+        Object root = readRef(null, null);
+        while (!toRead.isEmpty()) {
+            readBody(toRead.pollFirst());
+        }
+        populate();
+        return root;
+    }
+
+    /**
+     * Sets all references to the excluded object of index <i>index</i> (see {@link ObjectGraphWriter#exclude(Object)})
+     * to <i>substitute</i>, in the objects read so far.
+     *
+     * @param index      index of an excluded object
+     * @param substitute its substitute
+     */
+    public void bind(int index, Object substitute) {
+        if (index < externals.size()) {
+            for (Object[] ref : externals.get(index)) {
+                if (ref[1] instanceof Field) {
+                    ObjectGraphs.set((Field) ref[1], ref[0], substitute);
+                } else {
+                    Array.set(ref[0], (Integer) ref[1], substitute);
+                }
+            }
+        }
+    }
+
+    //***********************************************************************************
+    // REFERENCES
+    //***********************************************************************************
+
+    /**
+     * @param holder object holding the reference, null if it is not a field or an element of an array
+     * @param pos    where the reference is held in <i>holder</i>, a field or an index
+     * @return the object referenced, allocated but not necessarily filled yet
+     */
+    private Object readRef(Object holder, Object pos) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case REF:
+                return objects.get(buffer.getInt());
+            case EXTERNAL: {
+                int idx = buffer.getInt();
+                if (holder == null) {
+                    throw new SolverException("An excluded object is referenced by a collection or a lambda");
+                }
+                while (externals.size() <= idx) {
+                    externals.add(new ArrayList<>());
+                }
+                externals.get(idx).add(new Object[]{holder, pos});
+                return null;
+            }
+            case STRING:
+                return getString();
+            case BOXED:
+                return readBoxed();
+            case ENUM: {
+                Class<?> clazz = getClassRef();
+                return enumValue(clazz, getString());
+            }
+            case CLASS:
+                return getClassRef();
+            case CONSTANT: {
+                Class<?> clazz = getClassRef();
+                String name = getString();
+                try {
+                    Field f = clazz.getDeclaredField(name);
+                    f.setAccessible(true);
+                    return f.get(null);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    throw new SolverException("Cannot read constant " + clazz.getName() + "." + name);
+                }
+            }
+            case PRIMITIVE_ARRAY:
+                return newId(readPrimitiveArray());
+            case OBJECT_ARRAY: {
+                Class<?> clazz = getClassRef();
+                Object a = newId(Array.newInstance(clazz.getComponentType(), buffer.getInt()));
+                toRead.add(a);
+                return a;
+            }
+            case OBJECT: {
+                Class<?> clazz = getClassRef();
+                if (ObjectGraphs.isJDK(clazz)) {
+                    // never written as such, see ObjectGraphWriter
+                    throw new SolverException("Corrupted data, " + clazz.getName() + " cannot be allocated");
+                }
+                Object o = newId(ObjectGraphs.allocate(clazz));
+                toRead.add(o);
+                return o;
+            }
+            case PLAIN_OBJECT:
+                return newId(new Object());
+            case COLLECTION:
+            case MAP: {
+                Class<?> clazz = getClassRef();
+                if (!Collection.class.isAssignableFrom(clazz) && !Map.class.isAssignableFrom(clazz)) {
+                    throw new SolverException("Corrupted data, " + clazz.getName() + " is not a collection");
+                }
+                Object o = newId(ObjectGraphs.emptyCollection(clazz));
+                toRead.add(o);
+                return o;
+            }
+            case SERIALIZED: {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                try (ObjectInputStream ois = new JDKInputStream(bytes)) {
+                    return newId(ois.readObject());
+                } catch (IOException | ClassNotFoundException e) {
+                    throw new SolverException("Cannot read a serialized object: " + e.getMessage());
+                }
+            }
+            case LAMBDA:
+                return newId(readLambda());
+            default:
+                throw new SolverException("Corrupted data, unknown tag " + tag);
+        }
+    }
+
+    private Object newId(Object o) {
+        objects.add(o);
+        return o;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(Class<?> clazz, String name) {
+        return Enum.valueOf((Class<? extends Enum>) clazz, name);
+    }
+
+    private Object readBoxed() {
+        byte code = buffer.get();
+        switch (code) {
+            case 0:
+                return buffer.get() != 0;
+            case 1:
+                return buffer.get();
+            case 2:
+                return buffer.getChar();
+            case 3:
+                return buffer.getShort();
+            case 4:
+                return buffer.getInt();
+            case 5:
+                return buffer.getLong();
+            case 6:
+                return buffer.getFloat();
+            case 7:
+                return buffer.getDouble();
+            default:
+                throw new SolverException("Corrupted data, unknown primitive type " + code);
+        }
+    }
+
+    private Object readPrimitiveArray() {
+        byte code = buffer.get();
+        int n = buffer.getInt();
+        buffer.position((buffer.position() + 7) & ~7);
+        switch (code) {
+            case 0: {
+                boolean[] a = new boolean[n];
+                for (int i = 0; i < n; i++) {
+                    a[i] = buffer.get() != 0;
+                }
+                return a;
+            }
+            case 1: {
+                byte[] a = new byte[n];
+                buffer.get(a);
+                return a;
+            }
+            case 2: {
+                char[] a = new char[n];
+                buffer.asCharBuffer().get(a);
+                buffer.position(buffer.position() + 2 * n);
+                return a;
+            }
+            case 3: {
+                short[] a = new short[n];
+                buffer.asShortBuffer().get(a);
+                buffer.position(buffer.position() + 2 * n);
+                return a;
+            }
+            case 4: {
+                int[] a = new int[n];
+                buffer.asIntBuffer().get(a);
+                buffer.position(buffer.position() + 4 * n);
+                return a;
+            }
+            case 5: {
+                long[] a = new long[n];
+                buffer.asLongBuffer().get(a);
+                buffer.position(buffer.position() + 8 * n);
+                return a;
+            }
+            case 6: {
+                float[] a = new float[n];
+                buffer.asFloatBuffer().get(a);
+                buffer.position(buffer.position() + 4 * n);
+                return a;
+            }
+            case 7: {
+                double[] a = new double[n];
+                buffer.asDoubleBuffer().get(a);
+                buffer.position(buffer.position() + 8 * n);
+                return a;
+            }
+            default:
+                throw new SolverException("Corrupted data, unknown primitive type " + code);
+        }
+    }
+
+    /**
+     * A lambda is rebuilt by the deserialization method the compiler generates in its capturing class
+     */
+    private Object readLambda() {
+        String capturing = getString();
+        String fiClass = getString();
+        String fiName = getString();
+        String fiSignature = getString();
+        int implKind = buffer.getInt();
+        String implClass = getString();
+        String implName = getString();
+        String implSignature = getString();
+        String instantiatedType = getString();
+        Object[] args = new Object[buffer.getInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = readRef(null, null);
+        }
+        Class<?> clazz = forName(capturing.replace('/', '.'));
+        SerializedLambda sl = new SerializedLambda(clazz, fiClass, fiName, fiSignature, implKind,
+                implClass, implName, implSignature, instantiatedType, args);
+        try {
+            Method m = DESERIALIZERS.computeIfAbsent(clazz, c -> {
+                try {
+                    Method d = c.getDeclaredMethod("$deserializeLambda$", SerializedLambda.class);
+                    d.setAccessible(true);
+                    return d;
+                } catch (NoSuchMethodException e) {
+                    throw new SolverException("Cannot read lambdas of " + c.getName());
+                }
+            });
+            return m.invoke(null, sl);
+        } catch (ReflectiveOperationException e) {
+            throw new SolverException("Cannot read lambda " + implClass + "." + implName + ": " + e.getMessage());
+        }
+    }
+
+    //***********************************************************************************
+    // BODIES
+    //***********************************************************************************
+
+    private void readBody(Object o) {
+        Class<?> clazz = o.getClass();
+        if (clazz.isArray()) {
+            Object[] a = (Object[]) o;
+            for (int i = 0; i < a.length; i++) {
+                a[i] = readRef(a, i);
+            }
+        } else if (o instanceof Collection) {
+            Object[] elts = new Object[buffer.getInt()];
+            for (int i = 0; i < elts.length; i++) {
+                elts[i] = readRef(null, null);
+            }
+            toPopulate.add(new Object[]{o, elts});
+        } else if (o instanceof Map) {
+            Object[] elts = new Object[2 * buffer.getInt()];
+            for (int i = 0; i < elts.length; i++) {
+                elts[i] = readRef(null, null);
+            }
+            toPopulate.add(new Object[]{o, elts});
+        } else {
+            for (Field f : ObjectGraphs.fieldsOf(clazz)) {
+                Class<?> type = f.getType();
+                try {
+                    if (!type.isPrimitive()) {
+                        f.set(o, readRef(o, f));
+                    } else if (type == int.class) {
+                        f.setInt(o, buffer.getInt());
+                    } else if (type == long.class) {
+                        f.setLong(o, buffer.getLong());
+                    } else if (type == boolean.class) {
+                        f.setBoolean(o, buffer.get() != 0);
+                    } else if (type == double.class) {
+                        f.setDouble(o, buffer.getDouble());
+                    } else if (type == byte.class) {
+                        f.setByte(o, buffer.get());
+                    } else if (type == char.class) {
+                        f.setChar(o, buffer.getChar());
+                    } else if (type == short.class) {
+                        f.setShort(o, buffer.getShort());
+                    } else {
+                        f.setFloat(o, buffer.getFloat());
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new SolverException("Cannot read " + f + ": " + e.getMessage());
+                }
+            }
+            if (o instanceof TObjectHash) {
+                toRehash.add((TObjectHash<?>) o);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void populate() {
+        for (Object[] p : toPopulate) {
+            Object[] elts = (Object[]) p[1];
+            if (p[0] instanceof Collection) {
+                Collections.addAll((Collection<Object>) p[0], elts);
+            } else {
+                Map<Object, Object> map = (Map<Object, Object>) p[0];
+                for (int i = 0; i < elts.length; i += 2) {
+                    map.put(elts[i], elts[i + 1]);
+                }
+            }
+        }
+        toPopulate.clear();
+        for (TObjectHash<?> h : toRehash) {
+            ObjectGraphs.rehash(h);
+        }
+        toRehash.clear();
+    }
+
+    //***********************************************************************************
+    // LOW LEVEL
+    //***********************************************************************************
+
+    /**
+     * Reads the index of a class, followed by its name and the fingerprint of its fields the first time
+     */
+    private Class<?> getClassRef() {
+        int idx = buffer.getInt();
+        if (idx < classes.size()) {
+            return classes.get(idx);
+        }
+        String name = getString();
+        int fingerprint = buffer.getInt();
+        Class<?> clazz = forName(name);
+        if (fingerprint(clazz) != fingerprint) {
+            throw new SolverException("Fields of " + name + " differ from the ones written");
+        }
+        classes.add(clazz);
+        return clazz;
+    }
+
+    private static Class<?> forName(String name) {
+        for (Class<?> p : PRIMITIVES) {
+            if (p.getName().equals(name)) {
+                return p;
+            }
+        }
+        if (name.equals("void")) {
+            return void.class;
+        }
+        try {
+            return Class.forName(name, false, ObjectGraphReader.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new SolverException("Unknown class " + name);
+        }
+    }
+
+    private String getString() {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deserializes objects of the JDK only, since other objects are never serialized by {@link ObjectGraphWriter}
+     */
+    private static final class JDKInputStream extends ObjectInputStream {
+
+        private JDKInputStream(byte[] bytes) throws IOException {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            String name = desc.getName();
+            // element type of arrays, like [[Ljava.lang.Object; or [I
+            int i = name.lastIndexOf('[') + 1;
+            if (i > 0) {
+                name = name.charAt(i) == 'L' ? name.substring(i + 1, name.length() - 1) : "";
+            }
+            if (!name.isEmpty() && !name.startsWith("java.") && !name.startsWith("javax.")) {
+                throw new InvalidClassException(desc.getName(), "not a class of the JDK");
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws InvalidClassException {
+            throw new InvalidClassException("proxy classes cannot be read");
+        }
+    }
+}
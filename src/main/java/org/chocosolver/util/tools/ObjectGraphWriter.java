@@ -0,0 +1,552 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.util.tools;
+
+import org.chocosolver.solver.exception.SolverException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Writes a graph of objects in a compact binary format, by reflection, to be read by {@link ObjectGraphReader}.
+ * <p>
+ * Each reachable object is written once, so that the graph read has the same structure as the original one
+ * (shared references and cycles are preserved).
+ * Objects are written field by field, the fields of a class are identified by its name and
+ * a fingerprint of its fields: a graph can only be read with the same version of its classes.
+ * <br/>
+ * Primitive arrays are written as raw little-endian data, aligned on 8 bytes,
+ * so that they can be read in bulk from a memory-mapped file.
+ * <br/>
+ * Constants (objects referenced by a <code>static final</code> field) are written as a reference to their field.
+ * Lambdas are written as {@link SerializedLambda}, thus their functional interface must be {@link Serializable}.
+ * Collections and maps from the JDK are written as their elements, other objects from the JDK are serialized.
+ * Objects declared with {@link #exclude(Object)} are not written, see {@link ObjectGraphReader#bind(int, Object)}.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ * @see ObjectGraphReader
+ */
+public class ObjectGraphWriter {
+
+    static final long MAGIC = 0x4850524743434F43L; // "COCCGRPH"
+    static final int VERSION = 1;
+
+    // tags of references
+    static final byte NULL = 0, REF = 1, EXTERNAL = 2, STRING = 3, BOXED = 4, ENUM = 5, CLASS = 6, CONSTANT = 7,
+            PRIMITIVE_ARRAY = 8, OBJECT_ARRAY = 9, OBJECT = 10, PLAIN_OBJECT = 11, COLLECTION = 12, MAP = 13,
+            SERIALIZED = 14, LAMBDA = 15;
+
+    /**
+     * Primitive types, indexed by their code in the binary format
+     */
+    static final Class<?>[] PRIMITIVES = {boolean.class, byte.class, char.class, short.class,
+            int.class, long.class, float.class, double.class};
+
+    /**
+     * Boxed types, indexed by their code in the binary format
+     */
+    static final Class<?>[] BOXES = {Boolean.class, Byte.class, Character.class, Short.class,
+            Integer.class, Long.class, Float.class, Double.class};
+
+    private ByteBuffer buffer;
+
+    /**
+     * Objects written so far, with their identifier
+     */
+    private final IdentityHashMap<Object, Integer> ids = new IdentityHashMap<>();
+
+    /**
+     * Objects whose fields or elements remain to be written
+     */
+    private final ArrayDeque<Object> toWrite = new ArrayDeque<>();
+
+    /**
+     * Classes written so far, with their index
+     */
+    private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+    /**
+     * Constants declared by the classes of the objects written so far, with the field referencing them
+     */
+    private final IdentityHashMap<Object, Field> constants = new IdentityHashMap<>();
+
+    /**
+     * Classes whose constants are in {@link #constants}
+     */
+    private final Set<Class<?>> scanned = new HashSet<>();
+
+    /**
+     * Excluded objects, with their index
+     */
+    private final IdentityHashMap<Object, Integer> excluded = new IdentityHashMap<>();
+
+    /**
+     * Creates a writer, with an empty buffer
+     */
+    public ObjectGraphWriter() {
+        buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(MAGIC);
+        buffer.putInt(VERSION);
+    }
+
+    /**
+     * Declares an object which is not written.
+     * Excluded objects are indexed in the order they are declared, starting from 0.
+     *
+     * @param o an object
+     * @return this
+     * @see ObjectGraphReader#bind(int, Object)
+     */
+    public ObjectGraphWriter exclude(Object o) {
+        excluded.putIfAbsent(o, excluded.size());
+        return this;
+    }
+
+    /**
+     * Writes the graph of objects reachable from <i>root</i>.
+     * Can be called more than once: objects already written are referenced, not written again.
+     * Roots must be read in the same order.
+     *
+     * @param root an object
+     * @return this
+     * @throws SolverException if an object cannot be written
+     */
+    public ObjectGraphWriter write(Object root) {
+        writeRef(root);
+        while (!toWrite.isEmpty()) {
+            writeBody(toWrite.pollFirst());
+        }
+        return this;
+    }
+
+    /**
+     * Writes the data written so far to a file, which is created or truncated.
+     *
+     * @param path path of a file
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(Path path) throws IOException {
+        ByteBuffer data = buffer.duplicate();
+        data.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes written so far
+     */
+    public int size() {
+        return buffer.position();
+    }
+
+    //***********************************************************************************
+    // REFERENCES
+    //***********************************************************************************
+
+    private void writeRef(Object o) {
+        if (o == null) {
+            putByte(NULL);
+            return;
+        }
+        Integer id = ids.get(o);
+        if (id != null) {
+            putByte(REF);
+            putInt(id);
+            return;
+        }
+        id = excluded.get(o);
+        if (id != null) {
+            putByte(EXTERNAL);
+            putInt(id);
+            return;
+        }
+        Class<?> clazz = o.getClass();
+        if (!ObjectGraphs.isJDK(clazz) && scanned.add(clazz)) {
+            // scanned before any object referenced by an instance of clazz is written
+            for (Map.Entry<Object, Field> e : ObjectGraphs.constantsOf(clazz).entrySet()) {
+                constants.putIfAbsent(e.getKey(), e.getValue());
+            }
+        }
+        if (clazz == String.class) {
+            putByte(STRING);
+            putString((String) o);
+        } else if (o instanceof Enum) {
+            putByte(ENUM);
+            putClass(((Enum<?>) o).getDeclaringClass());
+            putString(((Enum<?>) o).name());
+        } else if (clazz == Class.class) {
+            putByte(CLASS);
+            putClass((Class<?>) o);
+        } else if (boxCode(clazz) >= 0) {
+            putByte(BOXED);
+            writeBoxed(o);
+        } else if (constants.containsKey(o)) {
+            Field f = constants.get(o);
+            putByte(CONSTANT);
+            putClass(f.getDeclaringClass());
+            putString(f.getName());
+        } else if (clazz.isArray()) {
+            if (clazz.getComponentType().isPrimitive()) {
+                newId(o);
+                putByte(PRIMITIVE_ARRAY);
+                writePrimitiveArray(o);
+            } else {
+                newId(o);
+                putByte(OBJECT_ARRAY);
+                putClass(clazz);
+                putInt(((Object[]) o).length);
+                toWrite.add(o);
+            }
+        } else if (ObjectGraphs.isLambda(clazz)) {
+            writeLambda(o);
+        } else if (ObjectGraphs.isJDK(clazz)) {
+            writeJDK(o);
+        } else {
+            newId(o);
+            putByte(OBJECT);
+            putClass(clazz);
+            toWrite.add(o);
+        }
+    }
+
+    private void newId(Object o) {
+        ids.put(o, ids.size());
+    }
+
+    private static int boxCode(Class<?> clazz) {
+        for (int i = 0; i < BOXES.length; i++) {
+            if (BOXES[i] == clazz) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void writeBoxed(Object o) {
+        int code = boxCode(o.getClass());
+        putByte((byte) code);
+        switch (code) {
+            case 0:
+                putByte((byte) ((Boolean) o ? 1 : 0));
+                break;
+            case 1:
+                putByte((Byte) o);
+                break;
+            case 2:
+                ensure(2);
+                buffer.putChar((Character) o);
+                break;
+            case 3:
+                ensure(2);
+                buffer.putShort((Short) o);
+                break;
+            case 4:
+                putInt((Integer) o);
+                break;
+            case 5:
+                putLong((Long) o);
+                break;
+            case 6:
+                ensure(4);
+                buffer.putFloat((Float) o);
+                break;
+            case 7:
+                ensure(8);
+                buffer.putDouble((Double) o);
+                break;
+            default:
+                throw new SolverException("Cannot write " + o.getClass().getName());
+        }
+    }
+
+    private void writePrimitiveArray(Object o) {
+        Class<?> type = o.getClass().getComponentType();
+        int code = Arrays.asList(PRIMITIVES).indexOf(type);
+        putByte((byte) code);
+        int n = java.lang.reflect.Array.getLength(o);
+        putInt(n);
+        align();
+        switch (code) {
+            case 0: {
+                boolean[] a = (boolean[]) o;
+                ensure(n);
+                for (boolean b : a) {
+                    buffer.put((byte) (b ? 1 : 0));
+                }
+            }
+            break;
+            case 1:
+                ensure(n);
+                buffer.put((byte[]) o);
+                break;
+            case 2:
+                ensure(2 * n);
+                buffer.asCharBuffer().put((char[]) o);
+                buffer.position(buffer.position() + 2 * n);
+                break;
+            case 3:
+                ensure(2 * n);
+                buffer.asShortBuffer().put((short[]) o);
+                buffer.position(buffer.position() + 2 * n);
+                break;
+            case 4:
+                ensure(4 * n);
+                buffer.asIntBuffer().put((int[]) o);
+                buffer.position(buffer.position() + 4 * n);
+                break;
+            case 5:
+                ensure(8 * n);
+                buffer.asLongBuffer().put((long[]) o);
+                buffer.position(buffer.position() + 8 * n);
+                break;
+            case 6:
+                ensure(4 * n);
+                buffer.asFloatBuffer().put((float[]) o);
+                buffer.position(buffer.position() + 4 * n);
+                break;
+            case 7:
+                ensure(8 * n);
+                buffer.asDoubleBuffer().put((double[]) o);
+                buffer.position(buffer.position() + 8 * n);
+                break;
+            default:
+                throw new SolverException("Cannot write " + o.getClass().getName());
+        }
+    }
+
+    /**
+     * A lambda is written as the {@link SerializedLambda} the compiler generates when its functional interface
+     * is serializable, its captured arguments are written before it.
+     */
+    private void writeLambda(Object o) {
+        SerializedLambda sl;
+        try {
+            Method m = o.getClass().getDeclaredMethod("writeReplace");
+            m.setAccessible(true);
+            sl = (SerializedLambda) m.invoke(o);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new SolverException("Cannot write " + o.getClass().getName() +
+                    ": the functional interface of a lambda must be Serializable");
+        }
+        putByte(LAMBDA);
+        putString(sl.getCapturingClass());
+        putString(sl.getFunctionalInterfaceClass());
+        putString(sl.getFunctionalInterfaceMethodName());
+        putString(sl.getFunctionalInterfaceMethodSignature());
+        putInt(sl.getImplMethodKind());
+        putString(sl.getImplClass());
+        putString(sl.getImplMethodName());
+        putString(sl.getImplMethodSignature());
+        putString(sl.getInstantiatedMethodType());
+        putInt(sl.getCapturedArgCount());
+        for (int i = 0; i < sl.getCapturedArgCount(); i++) {
+            writeRef(sl.getCapturedArg(i));
+        }
+        // identified once its arguments are known, as when it is read
+        newId(o);
+    }
+
+    /**
+     * Collections and maps are written as their elements, other objects are serialized.
+     */
+    private void writeJDK(Object o) {
+        Class<?> clazz = o.getClass();
+        if (clazz == Object.class) {
+            newId(o);
+            putByte(PLAIN_OBJECT);
+        } else if (o instanceof Collection || o instanceof Map) {
+            if ((o instanceof SortedSet && ((SortedSet<?>) o).comparator() != null)
+                    || (o instanceof SortedMap && ((SortedMap<?, ?>) o).comparator() != null)
+                    || (o instanceof PriorityQueue && ((PriorityQueue<?>) o).comparator() != null)) {
+                throw new SolverException("Cannot write " + clazz.getName() + " with a comparator");
+            }
+            newId(o);
+            putByte(o instanceof Map ? MAP : COLLECTION);
+            putClass(clazz);
+            toWrite.add(o);
+        } else if (o instanceof Serializable) {
+            byte[] bytes;
+            try {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                    oos.writeObject(o);
+                }
+                bytes = bos.toByteArray();
+            } catch (IOException e) {
+                throw new SolverException("Cannot write " + clazz.getName() + ": " + e.getMessage());
+            }
+            newId(o);
+            putByte(SERIALIZED);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        } else {
+            throw new SolverException("Cannot write " + clazz.getName());
+        }
+    }
+
+    //***********************************************************************************
+    // BODIES
+    //***********************************************************************************
+
+    private void writeBody(Object o) {
+        Class<?> clazz = o.getClass();
+        if (clazz.isArray()) {
+            for (Object e : (Object[]) o) {
+                writeRef(e);
+            }
+        } else if (o instanceof Collection) {
+            Collection<?> col = (Collection<?>) o;
+            putInt(col.size());
+            for (Object e : col) {
+                writeRef(e);
+            }
+        } else if (o instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) o;
+            putInt(map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                writeRef(e.getKey());
+                writeRef(e.getValue());
+            }
+        } else {
+            for (Field f : ObjectGraphs.fieldsOf(clazz)) {
+                Class<?> type = f.getType();
+                try {
+                    if (!type.isPrimitive()) {
+                        writeRef(f.get(o));
+                    } else if (type == int.class) {
+                        putInt(f.getInt(o));
+                    } else if (type == long.class) {
+                        putLong(f.getLong(o));
+                    } else if (type == boolean.class) {
+                        putByte((byte) (f.getBoolean(o) ? 1 : 0));
+                    } else if (type == double.class) {
+                        ensure(8);
+                        buffer.putDouble(f.getDouble(o));
+                    } else if (type == byte.class) {
+                        putByte(f.getByte(o));
+                    } else if (type == char.class) {
+                        ensure(2);
+                        buffer.putChar(f.getChar(o));
+                    } else if (type == short.class) {
+                        ensure(2);
+                        buffer.putShort(f.getShort(o));
+                    } else {
+                        ensure(4);
+                        buffer.putFloat(f.getFloat(o));
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new SolverException("Cannot read " + f + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    //***********************************************************************************
+    // LOW LEVEL
+    //***********************************************************************************
+
+    /**
+     * Writes the index of a class, followed by its name and the fingerprint of its fields the first time
+     */
+    private void putClass(Class<?> clazz) {
+        Integer idx = classes.get(clazz);
+        if (idx != null) {
+            putInt(idx);
+        } else {
+            idx = classes.size();
+            classes.put(clazz, idx);
+            putInt(idx);
+            putString(clazz.getName());
+            putInt(fingerprint(clazz));
+        }
+    }
+
+    /**
+     * @return a hash of the names and types of the fields written for instances of <i>clazz</i>
+     */
+    static int fingerprint(Class<?> clazz) {
+        if (clazz.isArray() || clazz.isEnum() || ObjectGraphs.isJDK(clazz)) {
+            return 0;
+        }
+        int h = 1;
+        for (Field f : ObjectGraphs.fieldsOf(clazz)) {
+            h = 31 * h + f.getName().hashCode();
+            h = 31 * h + f.getType().getName().hashCode();
+        }
+        return h;
+    }
+
+    private void putString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void putByte(byte b) {
+        ensure(1);
+        buffer.put(b);
+    }
+
+    private void putInt(int i) {
+        ensure(4);
+        buffer.putInt(i);
+    }
+
+    private void putLong(long l) {
+        ensure(8);
+        buffer.putLong(l);
+    }
+
+    /**
+     * Pads the buffer with zeros, up to the next multiple of 8 bytes
+     */
+    private void align() {
+        int pad = (8 - (buffer.position() & 7)) & 7;
+        ensure(pad);
+        for (int i = 0; i < pad; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private void ensure(int n) {
+        if (buffer.remaining() < n) {
+            long c = Math.max((long) buffer.capacity() * 2, (long) buffer.position() + n);
+            if (c > Integer.MAX_VALUE - 8) {
+                if ((long) buffer.position() + n > Integer.MAX_VALUE - 8) {
+                    throw new SolverException("The graph of objects is too large to be written");
+                }
+                c = Integer.MAX_VALUE - 8;
+            }
+            ByteBuffer b = ByteBuffer.allocate((int) c).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            b.put(buffer);
+            buffer = b;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.util.tools;
+
+import gnu.trove.impl.hash.TObjectHash;
+import org.chocosolver.solver.exception.SolverException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Reflection utilities shared by {@link ObjectCopier}, {@link ObjectGraphWriter} and {@link ObjectGraphReader}.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+final class ObjectGraphs {
+
+    /**
+     * Allocates instances without calling any constructor
+     */
+    private static final Allocator ALLOCATOR = new Allocator();
+
+    /**
+     * Non-static fields of each class, including inherited ones
+     */
+    private static final Map<Class<?>, Field[]> FIELDS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Constants declared by each class, with the field referencing them
+     */
+    private static final Map<Class<?>, Map<Object, Field>> CONSTANTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ObjectGraphs() {
+    }
+
+    static boolean isImmutable(Class<?> clazz) {
+        return clazz == String.class || clazz == Boolean.class || clazz == Character.class
+                || (Number.class.isAssignableFrom(clazz) && isJDK(clazz) && !clazz.getName().startsWith("java.util"))
+                || clazz.isEnum() || (clazz.getSuperclass() != null && clazz.getSuperclass().isEnum())
+                || clazz == Class.class;
+    }
+
+    static boolean isLambda(Class<?> clazz) {
+        return clazz.isSynthetic() && clazz.getName().contains("$$Lambda");
+    }
+
+    static boolean isJDK(Class<?> clazz) {
+        String name = clazz.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("jdk.");
+    }
+
+    /**
+     * @return objects referenced by a static final field of <i>clazz</i>, of one of its super types
+     * or of its enclosing class, with the field referencing them
+     */
+    static Map<Object, Field> constantsOf(Class<?> clazz) {
+        return CONSTANTS.computeIfAbsent(clazz, ObjectGraphs::scanConstants);
+    }
+
+    private static Map<Object, Field> scanConstants(Class<?> clazz) {
+        Map<Object, Field> constants = new IdentityHashMap<>();
+        Set<Class<?>> visited = new HashSet<>();
+        ArrayDeque<Class<?>> classes = new ArrayDeque<>();
+        classes.add(clazz);
+        while (!classes.isEmpty()) {
+            Class<?> c = classes.pollFirst();
+            if (isJDK(c) || !visited.add(c)) {
+                continue;
+            }
+            for (Field f : c.getDeclaredFields()) {
+                int m = f.getModifiers();
+                if (Modifier.isStatic(m) && Modifier.isFinal(m) && !f.getType().isPrimitive()) {
+                    try {
+                        f.setAccessible(true);
+                        Object v = f.get(null);
+                        if (v != null) {
+                            constants.putIfAbsent(v, f);
+                        }
+                    } catch (IllegalAccessException | RuntimeException | LinkageError ignored) {
+                        // not a constant we can read
+                    }
+                }
+            }
+            if (c.getSuperclass() != null) {
+                classes.add(c.getSuperclass());
+            }
+            if (c.getEnclosingClass() != null) {
+                classes.add(c.getEnclosingClass());
+            }
+            Collections.addAll(classes, c.getInterfaces());
+        }
+        return constants;
+    }
+
+    static Field[] fieldsOf(Class<?> clazz) {
+        return FIELDS.computeIfAbsent(clazz, k -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = k; c != null; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers())) {
+                        try {
+                            f.setAccessible(true);
+                        } catch (RuntimeException e) {
+                            // a field of a class of the JDK, a transient one can be ignored
+                            if (Modifier.isTransient(f.getModifiers())) {
+                                continue;
+                            }
+                            throw new SolverException("Cannot access fields of " + clazz.getName() + ": " + e.getMessage());
+                        }
+                        fields.add(f);
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        });
+    }
+
+    static Object get(Field f, Object o) {
+        try {
+            return f.get(o);
+        } catch (IllegalAccessException e) {
+            throw new SolverException("Cannot read " + f + ": " + e.getMessage());
+        }
+    }
+
+    static void set(Field f, Object o, Object v) {
+        try {
+            f.set(o, v);
+        } catch (IllegalAccessException e) {
+            throw new SolverException("Cannot write " + f + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param clazz a class
+     * @return a new instance of <i>clazz</i>, allocated without calling any constructor
+     */
+    static Object allocate(Class<?> clazz) {
+        return ALLOCATOR.allocate(clazz);
+    }
+
+    /**
+     * @param clazz a collection or a map class from the JDK
+     * @return an empty instance of <i>clazz</i>, or of a similar class if <i>clazz</i> has no public no-arg constructor
+     */
+    static Object emptyCollection(Class<?> clazz) {
+        try {
+            return clazz.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            // unmodifiable or fixed-size collections, for instance
+            return List.class.isAssignableFrom(clazz) ? new ArrayList<>()
+                    : Set.class.isAssignableFrom(clazz) ? new LinkedHashSet<>()
+                    : Map.class.isAssignableFrom(clazz) ? new LinkedHashMap<>() : new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Rehashes a trove hash-based collection, whose objects may have new hash codes
+     *
+     * @param h a trove hash-based collection
+     */
+    static void rehash(TObjectHash<?> h) {
+        Class<?> c = h.getClass();
+        while (c != null) {
+            try {
+                Method m = c.getDeclaredMethod("rehash", int.class);
+                m.setAccessible(true);
+                m.invoke(h, h.capacity());
+                return;
+            } catch (NoSuchMethodException e) {
+                c = c.getSuperclass();
+            } catch (ReflectiveOperationException e) {
+                throw new SolverException("Cannot rehash " + h.getClass().getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Allocates instances without calling their constructors, as deserialization does.
+     */
+    private static final class Allocator {
+
+        private final Object unsafe;
+        private final Method allocateInstance;
+
+        private Allocator() {
+            Object u = null;
+            Method m = null;
+            try {
+                Class<?> c = Class.forName("sun.misc.Unsafe");
+                Field f = c.getDeclaredField("theUnsafe");
+                f.setAccessible(true);
+                u = f.get(null);
+                m = c.getMethod("allocateInstance", Class.class);
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // not available on this JVM
+            }
+            this.unsafe = u;
+            this.allocateInstance = m;
+        }
+
+        Object allocate(Class<?> clazz) {
+            if (allocateInstance == null) {
+                throw new SolverException("Objects cannot be allocated on this JVM");
+            }
+            try {
+                return allocateInstance.invoke(unsafe, clazz);
+            } catch (ReflectiveOperationException e) {
+                throw new SolverException("Cannot allocate " + clazz.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
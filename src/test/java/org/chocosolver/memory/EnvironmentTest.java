@@ -24,7 +24,9 @@ public class EnvironmentTest {
     private Object[][] env() {
         return new IEnvironment[][]{
                 {new EnvironmentBuilder().fromFlat().build()},
-                {new EnvironmentBuilder().fromChunk().build()}
+                {new EnvironmentBuilder().fromChunk().build()},
+                {new EnvironmentBuilder().fromUnsafe().build()},
+                {new EnvironmentBuilder().buildCopying()}
         };
     }
 
@@ -91,6 +93,37 @@ public class EnvironmentTest {
         testBitset(environment, 356, 512, 218, 219, 220);
     }
 
+    @Test(groups = "1s", timeOut = 60000, dataProvider = "env")
+    public void testIntVector(IEnvironment environment) {
+        IStateIntVector prim = environment.makeIntVector(3, 1);
+        prim.quickSet(1, 2);
+        environment.worldPush();
+        prim.quickSet(0, 3);
+        prim.quickSet(1, 4);
+        environment.worldPush();
+        prim.quickSet(2, 5);
+        Assert.assertEquals(prim.quickGet(0), 3);
+        Assert.assertEquals(prim.quickGet(2), 5);
+        environment.worldPop();
+        Assert.assertEquals(prim.quickGet(1), 4);
+        Assert.assertEquals(prim.quickGet(2), 1);
+        environment.worldPop();
+        Assert.assertEquals(prim.quickGet(0), 1);
+        Assert.assertEquals(prim.quickGet(1), 2);
+        Assert.assertEquals(prim.quickGet(2), 1);
+    }
+
+    @Test(groups = "1s", timeOut = 60000, dataProvider = "env")
+    public void testDoubleVector(IEnvironment environment) {
+        IStateDoubleVector prim = environment.makeDoubleVector(2, .5);
+        environment.worldPush();
+        prim.quickSet(0, 1.5);
+        Assert.assertEquals(prim.quickGet(0), 1.5);
+        environment.worldPop();
+        Assert.assertEquals(prim.quickGet(0), .5);
+        Assert.assertEquals(prim.quickGet(1), .5);
+    }
+
     private void testBitset(IEnvironment environment, int size, int max, int i8, int i9, int i10) {
         IStateBitSet prim = environment.makeBitSet(size);
         prim.set(i8);
@@ -0,0 +1,220 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.chocosolver.solver.ModelTest.knapsack;
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class CubeAndConquerTest {
+
+    private static Model queens(int n) {
+        Model model = queensWithoutSearch(n);
+        model.getSolver().setSearch(inputOrderLBSearch(model.retrieveIntVars(false)));
+        return model;
+    }
+
+    private static Model queensWithoutSearch(int n) {
+        Model model = new Model("queens");
+        IntVar[] q = model.intVarArray("Q", n, 1, n, false);
+        model.allDifferent(q).post();
+        IntVar[] d1 = new IntVar[n];
+        IntVar[] d2 = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            d1[i] = model.intOffsetView(q[i], i);
+            d2[i] = model.intOffsetView(q[i], -i);
+        }
+        model.allDifferent(d1).post();
+        model.allDifferent(d2).post();
+        return model;
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testQueens() {
+        for (int depth = 0; depth < 6; depth++) {
+            ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(depth);
+            for (int i = 0; i < 4; i++) {
+                cnc.addModel(queens(8));
+            }
+            List<Solution> solutions = cnc.findAllSolutions();
+            Assert.assertEquals(solutions.size(), 92);
+            Assert.assertEquals(cnc.getSolutionCount(), 92);
+            Assert.assertTrue(cnc.getCubeCount() <= 1 << depth);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDeterminism() {
+        ParallelCubeAndConquer cnc1 = new ParallelCubeAndConquer(4);
+        cnc1.addModel(queens(7));
+        ParallelCubeAndConquer cnc4 = new ParallelCubeAndConquer(4);
+        for (int i = 0; i < 4; i++) {
+            cnc4.addModel(queens(7));
+        }
+        List<Solution> sols1 = cnc1.findAllSolutions();
+        List<Solution> sols4 = cnc4.findAllSolutions();
+        Assert.assertEquals(sols1.size(), 40);
+        Assert.assertEquals(sols4.size(), 40);
+        Model ref = cnc1.getModels().get(0);
+        for (int i = 0; i < sols1.size(); i++) {
+            for (IntVar v : ref.retrieveIntVars(true)) {
+                Assert.assertEquals(sols4.get(i).getIntVal(v), sols1.get(i).getIntVal(v));
+            }
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testStream() {
+        ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(6);
+        for (int i = 0; i < 4; i++) {
+            cnc.addModel(queens(8));
+        }
+        Stream<Solution> stream = cnc.streamSolutions();
+        Assert.assertTrue(stream.isParallel());
+        Assert.assertEquals(stream.count(), 92);
+        IntVar q0 = cnc.getModels().get(0).retrieveIntVars(true)[0];
+        List<Solution> ordered = cnc.streamSolutions().collect(Collectors.toList());
+        List<Solution> listed = cnc.findAllSolutions();
+        Assert.assertEquals(ordered.size(), listed.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            Assert.assertEquals(ordered.get(i).getIntVal(q0), listed.get(i).getIntVal(q0));
+        }
+        // short-circuiting operation, some models remain in the middle of a cube
+        Assert.assertTrue(cnc.streamSolutions().anyMatch(s -> s.getIntVal(q0) == 1));
+        Assert.assertEquals(cnc.findAllSolutions().size(), 92);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testStreamShortCircuit() {
+        ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(6);
+        for (int i = 0; i < 2; i++) {
+            cnc.addModel(queens(8));
+        }
+        IntVar q0 = cnc.getModels().get(0).retrieveIntVars(true)[0];
+        List<Solution> listed = cnc.findAllSolutions();
+        for (int k = 1; k < 10; k++) {
+            try (Stream<Solution> stream = cnc.streamSolutions()) {
+                List<Solution> first = stream.limit(k).collect(Collectors.toList());
+                Assert.assertEquals(first.size(), k);
+                for (int i = 0; i < k; i++) {
+                    Assert.assertEquals(first.get(i).getIntVal(q0), listed.get(i).getIntVal(q0));
+                }
+            }
+            Assert.assertEquals(cnc.streamSolutions().limit(k).count(), k);
+            Assert.assertTrue(cnc.streamSolutions().findFirst().isPresent());
+        }
+        Assert.assertEquals(cnc.findAllSolutions().size(), 92);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testSolverParallelStream() {
+        // the stream is split into cubes
+        Model model = queens(8);
+        try (Stream<Solution> stream = model.getSolver().streamSolutions().parallel()) {
+            Assert.assertNotNull(stream.spliterator().trySplit());
+        }
+        IntVar[] q = model.retrieveIntVars(true);
+        Set<String> solutions = model.getSolver().streamSolutions().parallel()
+                .map(s -> Arrays.stream(q).map(v -> Integer.toString(s.getIntVal(v))).collect(Collectors.joining(",")))
+                .collect(Collectors.toSet());
+        Assert.assertEquals(solutions.size(), 92);
+        for (int k = 1; k < 10; k++) {
+            try (Stream<Solution> stream = model.getSolver().streamSolutions().parallel()) {
+                Assert.assertEquals(stream.limit(k).count(), k);
+            }
+            try (Stream<Solution> stream = model.getSolver().streamSolutions().parallel()) {
+                Assert.assertTrue(stream.findFirst().isPresent());
+            }
+        }
+        Assert.assertEquals(model.getSolver().streamSolutions().count(), 92);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testSolverSequentialStream() {
+        // a stop criterion is given, the stream is not split
+        Model model = queensWithoutSearch(8);
+        Spliterator<Solution> it = model.getSolver().streamSolutions(() -> false).parallel().spliterator();
+        Assert.assertNull(it.trySplit());
+        Assert.assertEquals(model.getSolver().streamSolutions(() -> false).parallel().count(), 92);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testKnapsack() {
+        ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(4);
+        for (int i = 0; i < 4; i++) {
+            cnc.addModel(knapsack());
+        }
+        Solution best = cnc.findOptimalSolution();
+        Assert.assertNotNull(best);
+        IntVar power = (IntVar) cnc.getModels().get(0).getHook("obj");
+        Assert.assertEquals(best.getIntVal(power), 51);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testNoSolution() {
+        ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(4);
+        for (int i = 0; i < 2; i++) {
+            cnc.addModel(queens(3));
+        }
+        Assert.assertEquals(cnc.findAllSolutions().size(), 0);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testLimits() {
+        ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(4);
+        for (int i = 0; i < 4; i++) {
+            Model model = queens(8);
+            model.getSolver().limitSolution(1);
+            cnc.addModel(model);
+        }
+        // the limits are kept from a cube to another, the first one met stops the resolution
+        int size = cnc.findAllSolutions().size();
+        Assert.assertTrue(size > 0 && size < 92);
+        size = cnc.findAllSolutions().size();
+        Assert.assertTrue(size > 0 && size < 92);
+    }
+
+    @Test(groups="1s", timeOut=60000, expectedExceptions = SolverException.class)
+    public void testFailure() {
+        ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(4);
+        for (int i = 0; i < 4; i++) {
+            Model model = queens(8);
+            model.getSolver().plugMonitor((IMonitorSolution) () -> {
+                throw new IllegalStateException();
+            });
+            cnc.addModel(model);
+        }
+        cnc.findAllSolutions();
+    }
+
+    @Test(groups="1s", timeOut=60000, expectedExceptions = SolverException.class)
+    public void testNoObjective() {
+        ParallelCubeAndConquer cnc = new ParallelCubeAndConquer(4);
+        cnc.addModel(queens(4));
+        cnc.findOptimalSolution();
+    }
+}
@@ -15,9 +15,11 @@ package org.chocosolver.solver;
 
 
 import org.chocosolver.memory.EnvironmentBuilder;
+import org.chocosolver.memory.IEnvironment;
 import org.chocosolver.memory.trailing.EnvironmentTrailing;
 import org.chocosolver.memory.trailing.trail.chunck.ChunckedIntTrail;
 import org.chocosolver.memory.trailing.trail.flatten.StoredDoubleTrail;
+import org.chocosolver.solver.search.limits.FailCounter;
 import org.chocosolver.solver.search.strategy.Search;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
@@ -31,15 +33,17 @@ public class EnvironmentTest {
 
 	@DataProvider(name = "env")
 	public Object[][] getEnvs(){
-		return new EnvironmentTrailing[][]{
+		return new IEnvironment[][]{
 				{new EnvironmentBuilder().fromFlat().build()},
-				{new EnvironmentBuilder().fromChunk().build()}
+				{new EnvironmentBuilder().fromChunk().build()},
+				{new EnvironmentBuilder().fromUnsafe().build()},
+				{new EnvironmentBuilder().buildCopying()}
 		};
 	}
 
 
 	@Test(groups="10s", timeOut=60000, dataProvider = "env")
-	public void testSize(EnvironmentTrailing env) {
+	public void testSize(IEnvironment env) {
 		int n = 12;
 		IntVar[] vars, vectors;
 		Model model = new Model(env, "CostasArrays");
@@ -104,4 +108,22 @@ public class EnvironmentTest {
 		m.getEnvironment().makeDoubleVector(100, 0.0);
 		System.out.println(m.getSolver().solve());
 	}
-}
\ No newline at end of file
+
+	@Test(groups="1s", timeOut=60000)
+	public void testCopying() {
+		int n = 8;
+		Model model = new Model(new EnvironmentBuilder().buildCopying(), "queens", new DefaultSettings());
+		IntVar[] q = model.intVarArray("Q", n, 1, n, false);
+		for (int i = 0; i < n - 1; i++) {
+			for (int j = i + 1; j < n; j++) {
+				int k = j - i;
+				model.arithm(q[i], "!=", q[j]).post();
+				model.arithm(q[i], "!=", q[j], "+", -k).post();
+				model.arithm(q[i], "!=", q[j], "+", k).post();
+			}
+		}
+		model.getSolver().setNoGoodRecordingFromRestarts();
+		model.getSolver().setLubyRestart(2, new FailCounter(model, 2), 100);
+		Assert.assertEquals(model.getSolver().findAllSolutions().size(), 92);
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.SetVar;
+import org.chocosolver.solver.variables.Task;
+import org.chocosolver.util.ProblemMaker;
+import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class ModelSnapshotTest {
+
+    private static long count(Model model) {
+        while (model.getSolver().solve()) ;
+        return model.getSolver().getSolutionCount();
+    }
+
+    private static Model writeAndRead(Model model) throws IOException {
+        Path path = Files.createTempFile("model", ".snapshot");
+        try {
+            ModelSnapshot.write(model, path);
+            return ModelSnapshot.read(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testProblems() throws IOException {
+        Model[] models = {
+                ProblemMaker.makeNQueenWithBinaryConstraints(8),
+                ProblemMaker.makeNQueenWithOneAlldifferent(8),
+                ProblemMaker.makeCostasArrays(7)
+        };
+        for (Model model : models) {
+            Model read = writeAndRead(model);
+            Assert.assertEquals(read.getName(), model.getName());
+            Assert.assertEquals(read.getNbVars(), model.getNbVars());
+            Assert.assertEquals(read.getNbCstrs(), model.getNbCstrs());
+            Assert.assertNotSame(read.getSolver(), model.getSolver());
+            Assert.assertEquals(read.getSolver().getModel(), read);
+            Assert.assertEquals(count(read), count(model));
+            Assert.assertEquals(read.getSolver().getNodeCount(), model.getSolver().getNodeCount());
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testConstraints() throws IOException {
+        Model model = new Model("constraints");
+        IntVar[] x = model.intVarArray("x", 5, 0, 4);
+        Tuples tuples = new Tuples(true);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                if ((i + j) % 3 != 1) {
+                    tuples.add(i, j, (i * j) % 5);
+                }
+            }
+        }
+        model.table(new IntVar[]{x[0], x[1], x[2]}, tuples, "CT+").post();
+        model.table(new IntVar[]{x[1], x[2]}, new Tuples(new int[][]{{0, 0}, {1, 2}, {2, 4}, {3, 1}}, false), "AC3").post();
+        model.regular(x, new FiniteAutomaton("(0|1|2)*(3|4)*")).post();
+        model.mddc(new IntVar[]{x[3], x[4]}, new MultivaluedDecisionDiagram(new IntVar[]{x[3], x[4]},
+                new Tuples(new int[][]{{0, 3}, {1, 4}, {2, 3}, {3, 3}, {4, 4}}, true))).post();
+        model.circuit(model.intVarArray("y", 4, 0, 3)).post();
+        model.cumulative(new Task[]{model.taskVar(x[0], 2), model.taskVar(x[1], 3)},
+                new IntVar[]{model.intVar(1), model.intVar(2)}, model.intVar(3)).post();
+        SetVar s = model.setVar("s", new int[]{}, new int[]{0, 1, 2, 3});
+        model.member(x[0], s).post();
+        model.addClausesBoolOrArrayEqualTrue(new BoolVar[]{x[3].eq(2).boolVar(), x[4].eq(3).boolVar()});
+        Model read = writeAndRead(model);
+        long nb = count(model);
+        Assert.assertTrue(nb > 0);
+        Assert.assertEquals(count(read), nb);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testObjective() throws IOException {
+        Model model = ProblemMaker.makeGolombRuler(8);
+        model.setObjective(Model.MINIMIZE, (IntVar) model.getHook("objective"));
+        Model read = writeAndRead(model);
+        Assert.assertEquals(read.getResolutionPolicy(), ResolutionPolicy.MINIMIZE);
+        while (read.getSolver().solve()) ;
+        Assert.assertEquals(read.getSolver().getBestSolutionValue().intValue(), 34);
+        // hooks are restored too
+        Assert.assertSame(read.getObjective(), read.getHook("objective"));
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSettings() throws IOException {
+        Model model = new Model(new DefaultSettings().setMaxDomSizeForEnumerated(123));
+        IntVar x = model.intVar("x", 0, 10);
+        model.arithm(x, ">", 5).post();
+        Path path = Files.createTempFile("model", ".snapshot");
+        try {
+            ModelSnapshot.write(model, path);
+            Model read = ModelSnapshot.read(path);
+            Assert.assertEquals(read.getSettings().getMaxDomSizeForEnumerated(), 123);
+            Settings settings = new DefaultSettings().setMaxDomSizeForEnumerated(456);
+            read = ModelSnapshot.read(path, settings);
+            Assert.assertSame(read.getSettings(), settings);
+            Assert.assertEquals(count(read), 5);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000, expectedExceptions = SolverException.class)
+    public void testStarted() throws IOException {
+        Model model = ProblemMaker.makeNQueenWithOneAlldifferent(4);
+        model.getSolver().solve();
+        writeAndRead(model);
+    }
+
+    @Test(groups = "1s", timeOut = 60000, expectedExceptions = SolverException.class)
+    public void testNotASnapshot() throws IOException {
+        Path path = Files.createTempFile("model", ".snapshot");
+        try {
+            Files.write(path, "not a snapshot".getBytes());
+            ModelSnapshot.read(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -9,9 +9,12 @@
 package org.chocosolver.solver;
 
 import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.search.strategy.strategy.WarmStart;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.RealVar;
@@ -27,7 +30,10 @@ import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.List;
 
+import static org.chocosolver.solver.search.strategy.Search.activityBasedSearch;
+import static org.chocosolver.solver.search.strategy.Search.domOverWDegSearch;
 import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+import static org.chocosolver.solver.search.strategy.Search.inputOrderUBSearch;
 import static org.chocosolver.solver.search.strategy.Search.randomSearch;
 import static org.chocosolver.solver.variables.IntVar.MAX_INT_BOUND;
 import static org.chocosolver.solver.variables.IntVar.MIN_INT_BOUND;
@@ -35,6 +41,8 @@ import static org.chocosolver.util.ESat.FALSE;
 import static org.chocosolver.util.ESat.TRUE;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -603,4 +611,318 @@ public class ModelTest {
         System.out.printf("%s\n",settings.getWelcomeMessage());
         settings.store(System.out, "Test");
     }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testIncrementalReset() throws ContradictionException {
+        Model model = ProblemMaker.makeNQueenWithBinaryConstraints(8);
+        IntVar[] q = (IntVar[]) model.getHook("vars");
+        Solver solver = model.getSolver();
+        solver.setSearch(inputOrderLBSearch(q));
+        assertEquals(solver.findAllSolutions().size(), 92);
+        // add a constraint
+        solver.incrementalReset();
+        assertTrue(solver.getEngine().isInitialized());
+        Constraint c = model.arithm(q[0], "=", 1);
+        c.post();
+        assertEquals(solver.findAllSolutions().size(), 4);
+        // remove it
+        solver.incrementalReset();
+        model.unpost(c);
+        assertEquals(solver.findAllSolutions().size(), 92);
+        // tighten a domain at root
+        solver.incrementalReset();
+        q[0].updateUpperBound(2, Cause.Null);
+        assertEquals(solver.findAllSolutions().size(), 12);
+        solver.incrementalReset();
+        assertEquals(q[0].getUB(), 2);
+        assertEquals(solver.findAllSolutions().size(), 12);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testHint() {
+        Model model = ProblemMaker.makeGolombRuler(6);
+        IntVar[] ticks = (IntVar[]) model.getHook("ticks");
+        IntVar obj = (IntVar) model.getHook("objective");
+        Solver solver = model.getSolver();
+        solver.setSearch(inputOrderLBSearch(ticks));
+        model.setObjective(Model.MINIMIZE, obj);
+        Solution best = new Solution(model);
+        while (solver.solve()) {
+            best.record();
+        }
+        assertEquals(best.getIntVal(obj), 17);
+        // the hint is optimal, no better solution exists
+        solver.incrementalReset();
+        solver.setHint(best);
+        assertFalse(solver.solve());
+        // without objective, the hint is found again without failure
+        solver.incrementalReset();
+        model.clearObjective();
+        assertTrue(solver.solve());
+        for (IntVar t : ticks) {
+            assertEquals(t.getValue(), best.getIntVal(t));
+        }
+        assertEquals(solver.getFailCount(), 0);
+        solver.setHint(null);
+        assertTrue(solver.getHint() == null);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testHintNoLongerFeasible() {
+        Model model = ProblemMaker.makeGolombRuler(6);
+        IntVar[] ticks = (IntVar[]) model.getHook("ticks");
+        IntVar obj = (IntVar) model.getHook("objective");
+        Solver solver = model.getSolver();
+        solver.setSearch(inputOrderLBSearch(ticks));
+        model.setObjective(Model.MINIMIZE, obj);
+        Solution best = new Solution(model);
+        while (solver.solve()) {
+            best.record();
+        }
+        assertEquals(best.getIntVal(obj), 17);
+        // the hint is excluded, its cost cannot serve as cutoff, but another optimal ruler exists
+        solver.incrementalReset();
+        model.arithm(ticks[4], "!=", best.getIntVal(ticks[4])).post();
+        solver.setHint(best);
+        Solution next = new Solution(model);
+        while (solver.solve()) {
+            next.record();
+        }
+        assertEquals(next.getIntVal(obj), 17);
+        assertNotEquals(next.getIntVal(ticks[4]), best.getIntVal(ticks[4]));
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testHint2() {
+        Model model = ProblemMaker.makeGolombRuler(7);
+        IntVar[] ticks = (IntVar[]) model.getHook("ticks");
+        IntVar obj = (IntVar) model.getHook("objective");
+        model.setObjective(Model.MINIMIZE, obj);
+        Solver solver = model.getSolver();
+        Solution best = solver.findOptimalSolution(obj, Model.MINIMIZE);
+        assertEquals(best.getIntVal(obj), 25);
+        model.clearObjective();
+        for (int k = 0; k < 3; k++) {
+            solver.hardReset();
+            switch (k) {
+                case 0:
+                    solver.setSearch(domOverWDegSearch(ticks));
+                    break;
+                case 1:
+                    solver.setSearch(activityBasedSearch(ticks));
+                    break;
+                default:
+                    // default search
+                    break;
+            }
+            solver.setHint(best);
+            assertTrue(solver.solve());
+            for (IntVar t : ticks) {
+                assertEquals(t.getValue(), best.getIntVal(t));
+            }
+            assertEquals(solver.getFailCount(), 0);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testHint3() {
+        Model model = ProblemMaker.makeGolombRuler(8);
+        IntVar[] ticks = (IntVar[]) model.getHook("ticks");
+        IntVar obj = (IntVar) model.getHook("objective");
+        model.setObjective(Model.MINIMIZE, obj);
+        Solver solver = model.getSolver();
+        solver.setSearch(domOverWDegSearch(ticks));
+        assertEquals(solver.getTimeToFirstSolutionInNanoSeconds(), 0);
+        Solution first = new Solution(model);
+        assertTrue(solver.solve());
+        first.record();
+        assertTrue(solver.getTimeToFirstSolutionInNanoSeconds() > 0);
+        assertTrue(solver.getTimeToFirstSolutionInNanoSeconds() <= solver.getTimeCountInNanoSeconds());
+        while (solver.solve()) ;
+        int opt = solver.getBestSolutionValue().intValue();
+        assertEquals(opt, 34);
+        // with or without phase saving, the same optimum is found, starting from the first solution
+        for (boolean phaseSaving : new boolean[]{true, false}) {
+            solver.reset();
+            solver.setHint(first, phaseSaving);
+            Solution best = new Solution(model);
+            while (solver.solve()) {
+                best.record();
+            }
+            assertEquals(best.getIntVal(obj), opt);
+            assertTrue(solver.getSolutionCount() > 0);
+            assertTrue(solver.getTimeToFirstSolutionInNanoSeconds() > 0);
+        }
+        solver.reset();
+        assertEquals(solver.getTimeToFirstSolutionInNanoSeconds(), 0);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testHintPhaseSaving() {
+        for (boolean phaseSaving : new boolean[]{true, false}) {
+            Model model = new Model();
+            IntVar a = model.intVar("a", 0, 3);
+            IntVar b = model.intVar("b", 0, 3);
+            model.arithm(a, "+", b, ">", 0).post();
+            Solver solver = model.getSolver();
+            solver.setSearch(inputOrderLBSearch(a, b));
+            Solution hint = new Solution(model, a, b);
+            hint.setIntVal(a, 0);
+            hint.setIntVal(b, 0);
+            solver.setHint(hint, phaseSaving);
+            // (0,1), (0,2) then (0,3): b = 0 is not allowed while a = 0
+            for (int k = 1; k <= 3; k++) {
+                assertTrue(solver.solve());
+                assertEquals(a.getValue(), 0);
+                assertEquals(b.getValue(), k);
+            }
+            // a = 0 is refuted, then b is preferably assigned to its value in the last solution
+            assertTrue(solver.solve());
+            assertEquals(a.getValue(), 1);
+            assertEquals(b.getValue(), phaseSaving ? 3 : 0);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testHintNewSearch() {
+        Model model = ProblemMaker.makeGolombRuler(6);
+        IntVar[] ticks = (IntVar[]) model.getHook("ticks");
+        model.clearObjective();
+        Solver solver = model.getSolver();
+        solver.setSearch(inputOrderLBSearch(ticks));
+        assertTrue(solver.solve());
+        Solution first = new Solution(model).record();
+        solver.reset();
+        solver.setHint(first);
+        assertTrue(solver.solve());
+        WarmStart ws = (WarmStart) solver.getSearch();
+        assertTrue(solver.getSearchMonitors().contains(ws));
+        // replacing the strategy unplugs the warm start, the hint is applied to the new one
+        solver.reset();
+        solver.setSearch(inputOrderUBSearch(ticks));
+        assertFalse(solver.getSearchMonitors().contains(ws));
+        assertTrue(solver.solve());
+        assertNotSame(solver.getSearch(), ws);
+        assertTrue(solver.getSearchMonitors().contains((WarmStart) solver.getSearch()));
+        for (IntVar t : ticks) {
+            assertEquals(t.getValue(), first.getIntVal(t));
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testHintNewSearchNoLongerFeasible() {
+        Model model = ProblemMaker.makeGolombRuler(6);
+        IntVar[] ticks = (IntVar[]) model.getHook("ticks");
+        IntVar obj = (IntVar) model.getHook("objective");
+        Solver solver = model.getSolver();
+        solver.setSearch(inputOrderLBSearch(ticks));
+        model.setObjective(Model.MINIMIZE, obj);
+        Solution best = new Solution(model);
+        while (solver.solve()) {
+            best.record();
+        }
+        solver.reset();
+        solver.setHint(best);
+        assertFalse(solver.solve());
+        WarmStart ws = (WarmStart) solver.getSearch();
+        // the hint is excluded and the strategy replaced, the optimum is still found with the new one
+        solver.reset();
+        model.arithm(ticks[4], "!=", best.getIntVal(ticks[4])).post();
+        solver.setSearch(inputOrderUBSearch(ticks));
+        assertFalse(solver.getSearchMonitors().contains(ws));
+        Solution next = new Solution(model);
+        while (solver.solve()) {
+            next.record();
+        }
+        assertEquals(next.getIntVal(obj), 17);
+        assertNotEquals(next.getIntVal(ticks[4]), best.getIntVal(ticks[4]));
+        assertTrue(solver.getSearch() instanceof WarmStart);
+        assertNotSame(solver.getSearch(), ws);
+    }
+
+    private static long count(Model model) {
+        while (model.getSolver().solve()) ;
+        return model.getSolver().getSolutionCount();
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testCopy1() {
+        Model[] models = {
+                ProblemMaker.makeNQueenWithBinaryConstraints(8),
+                ProblemMaker.makeNQueenWithOneAlldifferent(8),
+                ProblemMaker.makeCostasArrays(7)
+        };
+        for (Model model : models) {
+            Model copy = model.copy();
+            Assert.assertNotSame(copy.getSolver(), model.getSolver());
+            Assert.assertNotSame(copy.getSettings().getEnvironmentHistorySimulationCondition(),
+                    model.getSettings().getEnvironmentHistorySimulationCondition());
+            Assert.assertEquals(copy.getNbVars(), model.getNbVars());
+            Assert.assertEquals(copy.getNbCstrs(), model.getNbCstrs());
+            long nbSol = count(copy);
+            Assert.assertEquals(count(model), nbSol);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testCopy2() {
+        Model model = ProblemMaker.makeGolombRuler(8);
+        IntVar obj = (IntVar) model.getHook("objective");
+        model.setObjective(Model.MINIMIZE, obj);
+        Model copy = model.copy(false);
+        Assert.assertEquals(copy.getResolutionPolicy(), ResolutionPolicy.MINIMIZE);
+        Solution sol = copy.getSolver().findOptimalSolution((IntVar) copy.getHook("objective"), Model.MINIMIZE);
+        Assert.assertNotNull(sol);
+        Assert.assertEquals(sol.getIntVal((IntVar) copy.getHook("objective")), 34);
+        // the original model is left untouched
+        Assert.assertEquals(model.getSolver().getNodeCount(), 0);
+        Assert.assertEquals(obj.getLB(), 0);
+        model.getSolver().findOptimalSolution(obj, Model.MINIMIZE);
+        Assert.assertEquals(model.getSolver().getBestSolutionValue().intValue(), 34);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testCopy3() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("x", 5, 0, 4);
+        Tuples tuples = new Tuples(true);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                if ((i + j) % 3 == 1) {
+                    tuples.add(i, j, (i * j) % 5);
+                }
+            }
+        }
+        model.table(new IntVar[]{x[0], x[1], x[2]}, tuples, "CT+").post();
+        model.regular(x, new FiniteAutomaton("(0|1|2)*(3|4)*")).post();
+        model.circuit(model.intVarArray("y", 4, 0, 3)).post();
+        model.addClausesBoolOrArrayEqualTrue(new BoolVar[]{x[3].eq(2).boolVar(), x[4].eq(3).boolVar()});
+        Model copy = model.copy();
+        Model copy2 = model.copy(false);
+        // the copy can be modified without affecting the original model
+        copy.arithm((IntVar) copy.getVars()[0], "=", 1).post();
+        Assert.assertEquals(copy.getNbCstrs(), model.getNbCstrs() + 1);
+        long nbSol = count(copy);
+        long nbSol2 = count(copy2);
+        Assert.assertEquals(count(model), nbSol2);
+        Assert.assertTrue(nbSol > 0 && nbSol < nbSol2);
+    }
+
+    @Test(groups = "1s", timeOut = 60000, expectedExceptions = SolverException.class)
+    public void testCopy4() {
+        Model model = ProblemMaker.makeNQueenWithOneAlldifferent(4);
+        model.getSolver().solve();
+        model.copy();
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testCopy5() {
+        Model model = ProblemMaker.makeNQueenWithOneAlldifferent(8);
+        ParallelPortfolio portfolio = new ParallelPortfolio();
+        portfolio.addModel(model);
+        for (int i = 1; i < 4; i++) {
+            portfolio.addModel(model.copy());
+        }
+        Assert.assertTrue(portfolio.solve());
+    }
 }
@@ -8,10 +8,18 @@
  */
 package org.chocosolver.solver;
 
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.limits.FailCounter;
+import org.chocosolver.solver.search.loop.lns.INeighborFactory;
+import org.chocosolver.solver.search.loop.lns.neighbors.BanditNeighborhood;
 import org.chocosolver.solver.search.restart.MonotonicRestartStrategy;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ProblemMaker;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.chocosolver.solver.ModelTest.knapsack;
 import static org.chocosolver.solver.search.strategy.Search.*;
 
@@ -197,4 +205,126 @@ public class PortFolioTest {
             System.gc();
         }
     }
+
+    @Test(groups="10s", timeOut=300000)
+    public void testShareNogoods1() {
+        // long enough for the models to restart concurrently, even on a single core
+        for (int iter = 0; iter < 5; iter++) {
+            ParallelPortfolio pares = new ParallelPortfolio(false);
+            pares.shareNogoods(8);
+            for (int i = 0; i < 4; i++) {
+                Model m = ProblemMaker.makeGolombRuler(7);
+                m.getSolver().setSearch(randomSearch((IntVar[]) m.getHook("ticks"), iter * 4 + i));
+                m.getSolver().setNoGoodRecordingFromRestarts();
+                m.getSolver().setLubyRestart(2, new FailCounter(m, 2), 1000);
+                pares.addModel(m);
+            }
+            while(pares.solve());
+            Model finder = pares.getBestModel();
+            Assert.assertEquals(finder.getSolver().getObjectiveManager().getBestUB().intValue(), 25);
+            long imported = 0;
+            for (int i = 0; i < 4; i++) {
+                imported += pares.getNbImportedNogoods(i);
+            }
+            Assert.assertTrue(imported > 0);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testShareNogoods2() {
+        ParallelPortfolio pares = new ParallelPortfolio(false);
+        pares.shareNogoods(Integer.MAX_VALUE);
+        for (int i = 0; i < 4; i++) {
+            pares.addModel(pigeons(i));
+        }
+        Assert.assertFalse(pares.solve());
+        long imported = 0;
+        for (int i = 0; i < 4; i++) {
+            Solver s = pares.getModels().get(i).getSolver();
+            // imported nogoods are stored like the learnt ones
+            Assert.assertTrue(s.getLearntNogoodCount() >= pares.getNbImportedNogoods(i));
+            imported += pares.getNbImportedNogoods(i);
+        }
+        Assert.assertTrue(imported > 0);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testShareNogoods4() {
+        ParallelPortfolio pares = new ParallelPortfolio(false);
+        for (int i = 0; i < 4; i++) {
+            pares.addModel(pigeons(i));
+        }
+        Assert.assertFalse(pares.solve());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(pares.getNbImportedNogoods(i), 0);
+        }
+    }
+
+    /**
+     * @return an unsatisfiable model: 7 pigeons in 6 holes, which restarts often
+     */
+    private static Model pigeons(long seed) {
+        Model m = new Model();
+        IntVar[] p = m.intVarArray("p", 7, 1, 6);
+        for (int i = 0; i < p.length; i++) {
+            for (int j = i + 1; j < p.length; j++) {
+                m.arithm(p[i], "!=", p[j]).post();
+            }
+        }
+        m.getSolver().setSearch(randomSearch(p, seed));
+        m.getSolver().setNoGoodRecordingFromRestarts();
+        m.getSolver().setLubyRestart(2, new FailCounter(m, 2), 1000);
+        return m;
+    }
+
+    @Test(groups="1s", timeOut=60000, expectedExceptions = SolverException.class)
+    public void testShareNogoods3() {
+        ParallelPortfolio pares = new ParallelPortfolio();
+        pares.shareNogoods(8);
+        pares.addModel(knapsack());
+        Model m = knapsack();
+        m.intVar("extra", 0, 3);
+        pares.addModel(m);
+        pares.solve();
+    }
+
+    @Test(groups="10s", timeOut=300000)
+    public void testShareBestSolution1() {
+        ParallelPortfolio pares = new ParallelPortfolio(false);
+        pares.shareBestSolution();
+        Model model = ProblemMaker.makeGolombRuler(8);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            Model m = model.copy();
+            IntVar[] vars = (IntVar[]) m.getHook("ticks");
+            m.getSolver().setSearch(randomSearch(vars, i));
+            // counts the solutions of other models loaded into this one
+            BanditNeighborhood bandit = new BanditNeighborhood(m, i, BanditNeighborhood.DEFAULT_EXPLORATION, true,
+                    INeighborFactory.propagationGuided(vars), INeighborFactory.random(vars)) {
+                @Override
+                public void loadFromSolution(Solution solution) {
+                    loads.incrementAndGet();
+                    super.loadFromSolution(solution);
+                }
+            };
+            m.getSolver().setLNS(bandit, new FailCounter(m, 100));
+            m.getSolver().limitSearch(() -> m.getSolver().getRestartCount() >= 200);
+            pares.addModel(m);
+        }
+        while(pares.solve());
+        Model finder = pares.getBestModel();
+        Assert.assertTrue(finder.getSolver().getSolutionCount() > 0);
+        Assert.assertTrue(loads.get() > 0);
+    }
+
+    @Test(groups="1s", timeOut=60000, expectedExceptions = SolverException.class)
+    public void testShareBestSolution2() {
+        ParallelPortfolio pares = new ParallelPortfolio();
+        pares.shareBestSolution();
+        pares.addModel(knapsack());
+        Model m = knapsack();
+        m.intVar("extra", 0, 3);
+        pares.addModel(m);
+        pares.solve();
+    }
 }
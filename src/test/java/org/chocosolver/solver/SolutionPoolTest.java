@@ -0,0 +1,164 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class SolutionPoolTest {
+
+    private static Model model() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("x", 4, -3, 40, false);
+        BoolVar[] b = model.boolVarArray("b", 3);
+        IntVar w = model.intVar("w", Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2, true);
+        model.allDifferent(x).post();
+        model.arithm(x[0], "+", x[1], "=", 7).post();
+        model.sum(b, "=", 2).post();
+        model.arithm(w, "=", x[3], "*", 100000).post();
+        model.arithm(x[2], "<", 1).post();
+        return model;
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testRecord() {
+        Model ref = model();
+        List<Solution> expected = ref.getSolver().findAllSolutions();
+        Model model = model();
+        SolutionPool pool = model.getSolver().findAllSolutions(new SolutionPool(model));
+        Assert.assertEquals(pool.size(), expected.size());
+        Assert.assertTrue(pool.size() > 1000);
+        IntVar[] rvars = ref.retrieveIntVars(true);
+        IntVar[] vars = model.retrieveIntVars(true);
+        for (int i = 0; i < pool.size(); i++) {
+            Solution s = pool.get(i);
+            for (int j = 0; j < vars.length; j++) {
+                Assert.assertEquals(s.getIntVal(vars[j]), expected.get(i).getIntVal(rvars[j]));
+                Assert.assertEquals(pool.getIntVal(i, vars[j]), expected.get(i).getIntVal(rvars[j]));
+            }
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testView() throws ContradictionException {
+        Model model = model();
+        SolutionPool pool = new SolutionPool(model);
+        IntVar[] vars = model.retrieveIntVars(true);
+        while (model.getSolver().solve() && pool.size() < 10) {
+            pool.record();
+        }
+        Solution s = pool.get(3);
+        int v0 = s.getIntVal(vars[0]);
+        Solution c = s.copySolution();
+        // modifying a view does not modify the pool
+        s.setIntVal(vars[0], v0 + 1);
+        Assert.assertEquals(s.getIntVal(vars[0]), v0 + 1);
+        Assert.assertEquals(s.getIntVal(vars[1]), pool.getIntVal(3, vars[1]));
+        Assert.assertEquals(pool.getIntVal(3, vars[0]), v0);
+        Assert.assertEquals(c.getIntVal(vars[0]), v0);
+        // restore a view
+        model.getSolver().reset();
+        model.getEnvironment().worldPush();
+        pool.get(5).restore();
+        for (IntVar v : vars) {
+            Assert.assertEquals(v.getValue(), pool.getIntVal(5, v));
+        }
+        model.getEnvironment().worldPop();
+        // add a solution
+        pool.add(c);
+        Assert.assertEquals(pool.size(), 11);
+        for (IntVar v : vars) {
+            Assert.assertEquals(pool.getIntVal(10, v), pool.getIntVal(3, v));
+        }
+        Assert.assertEquals(pool.get(10).toString(), pool.get(3).toString());
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSubset() {
+        Model model = model();
+        IntVar[] vars = model.retrieveIntVars(true);
+        SolutionPool pool = new SolutionPool(model, vars[0], vars[1]);
+        model.getSolver().findAllSolutions(pool);
+        Assert.assertEquals(pool.getIntVal(0, vars[0]) + pool.getIntVal(0, vars[1]), 7);
+        try {
+            pool.get(0).getIntVal(vars[2]);
+            Assert.fail();
+        } catch (SolverException ignored) {
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testMissing() {
+        Model model = new Model();
+        IntVar x = model.intVar("x", 0, 3);
+        IntVar y = model.intVar("y", 0, 3);
+        model.getSolver().setSearch(inputOrderLBSearch(x));
+        SolutionPool pool = model.getSolver().findAllSolutions(new SolutionPool(model));
+        Assert.assertEquals(pool.size(), 4);
+        Assert.assertEquals(pool.getIntVal(2, x), 2);
+        try {
+            pool.getIntVal(2, y);
+            Assert.fail();
+        } catch (SolverException ignored) {
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000, expectedExceptions = SolverException.class)
+    public void testOutOfDomain() throws ContradictionException {
+        Model model = new Model();
+        IntVar x = model.intVar("x", 0, 10);
+        model.getEnvironment().worldPush();
+        x.updateUpperBound(3, Cause.Null);
+        SolutionPool pool = new SolutionPool(model);
+        model.getEnvironment().worldPop();
+        x.instantiateTo(7, Cause.Null);
+        pool.record();
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testMapped() throws IOException {
+        Path file = Files.createTempFile("pool", ".bin");
+        try {
+            Model ref = model();
+            SolutionPool expected = ref.getSolver().findAllSolutions(new SolutionPool(ref));
+            Model model = model();
+            IntVar[] rvars = ref.retrieveIntVars(true);
+            IntVar[] vars = model.retrieveIntVars(true);
+            try (SolutionPool pool = new SolutionPool(model, file)) {
+                model.getSolver().findAllSolutions(pool);
+                Assert.assertEquals(pool.size(), expected.size());
+                for (int i = 0; i < pool.size(); i++) {
+                    for (int j = 0; j < vars.length; j++) {
+                        Assert.assertEquals(pool.getIntVal(i, vars[j]), expected.getIntVal(i, rvars[j]));
+                    }
+                }
+            }
+            Assert.assertTrue(Files.size(file) > 0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
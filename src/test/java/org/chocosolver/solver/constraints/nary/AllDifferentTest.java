@@ -19,6 +19,7 @@ import java.util.Random;
 
 import static org.chocosolver.solver.constraints.checker.DomainBuilder.buildFullDomains;
 import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+import static org.chocosolver.solver.search.strategy.Search.randomSearch;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -317,4 +318,75 @@ public class AllDifferentTest {
         assertEquals(X[14].getLB(), -16);
         assertEquals(X[14].getDomainSize(), 2);
     }
-}
\ No newline at end of file
+
+    @Test(groups="1s", timeOut=60000)
+    public void testACvsNEQS() {
+        Random rnd = new Random(0);
+        for (int k = 0; k < 200; k++) {
+            long seed = rnd.nextLong();
+            long[] counts = new long[2];
+            String[] consistencies = {"AC", "NEQS"};
+            for (int c = 0; c < 2; c++) {
+                Random r = new Random(seed);
+                Model model = new Model();
+                int n = 3 + r.nextInt(5);
+                IntVar[] vars = new IntVar[n];
+                for (int i = 0; i < n; i++) {
+                    int lb = r.nextInt(4);
+                    if (r.nextInt(4) == 0) {
+                        vars[i] = model.intVar("v_" + i, lb, lb + r.nextInt(n), true);
+                    } else {
+                        vars[i] = model.intVar("v_" + i, r.ints(1 + r.nextInt(n), 0, n + 2).distinct().toArray());
+                    }
+                }
+                model.allDifferent(vars, consistencies[c]).post();
+                Solver solver = model.getSolver();
+                solver.setSearch(randomSearch(vars, seed));
+                while (solver.solve()) ;
+                counts[c] = solver.getSolutionCount();
+            }
+            assertEquals(counts[0], counts[1], "seed " + seed);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testACHallSets() throws ContradictionException {
+        Model model = new Model();
+        IntVar[] X = new IntVar[6];
+        X[0] = model.intVar("X0", new int[]{1, 2});
+        X[1] = model.intVar("X1", new int[]{1, 2, 3});
+        X[2] = model.intVar("X2", new int[]{2, 3, 4});
+        X[3] = model.intVar("X3", new int[]{3, 4, 5, 6});
+        X[4] = model.intVar("X4", new int[]{1, 5, 6, 7});
+        X[5] = model.intVar("X5", new int[]{5, 6, 7, 8});
+        model.allDifferent(X, "AC").post();
+        Solver solver = model.getSolver();
+        solver.propagate();
+        assertEquals(X[3].getDomainSize(), 4);
+        assertEquals(X[4].getDomainSize(), 4);
+        model.getEnvironment().worldPush();
+        // {X0, X1, X2} is a Hall set on {1, 2, 3}
+        X[2].removeValue(4, Cause.Null);
+        solver.propagate();
+        assertEquals(X[3].getLB(), 4);
+        assertEquals(X[4].getLB(), 5);
+        model.getEnvironment().worldPush();
+        // {X3, X4} is a Hall set on {5, 6}
+        X[3].removeValue(4, Cause.Null);
+        X[4].removeValue(7, Cause.Null);
+        solver.propagate();
+        assertEquals(X[5].getLB(), 7);
+        model.getEnvironment().worldPop();
+        assertEquals(X[5].getDomainSize(), 4);
+        X[5].instantiateTo(5, Cause.Null);
+        solver.propagate();
+        assertEquals(X[3].getDomainSize(), 2);
+        assertEquals(X[4].getDomainSize(), 2);
+        model.getEnvironment().worldPop();
+        X[0].instantiateTo(2, Cause.Null);
+        solver.propagate();
+        assertEquals(X[1].getDomainSize(), 2);
+        assertEquals(X[2].getDomainSize(), 2);
+        assertEquals(X[4].getDomainSize(), 4);
+    }
+}
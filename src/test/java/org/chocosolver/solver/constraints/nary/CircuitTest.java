@@ -16,11 +16,18 @@
 package org.chocosolver.solver.constraints.nary;
 
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
 import org.testng.annotations.Test;
 
+import java.util.Random;
+
+import static org.chocosolver.solver.search.strategy.Search.minDomLBSearch;
+import static org.chocosolver.solver.search.strategy.Search.randomSearch;
 import static org.chocosolver.util.tools.ArrayUtils.append;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class CircuitTest {
 
@@ -71,4 +78,128 @@ public class CircuitTest {
             return n * factorial(n - 1);
         }
     }
+
+    private static int[][] randomCosts(int n, Random rnd) {
+        int[][] c = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                c[i][j] = i == j ? 0 : 1 + rnd.nextInt(50);
+            }
+        }
+        return c;
+    }
+
+    private static int solveTSP(int[][] c, boolean heldKarp, long seed) {
+        int n = c.length;
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("x", n, 0, n - 1, false);
+        IntVar cost = model.intVar("cost", 0, 50 * n, true);
+        if (heldKarp) {
+            model.circuit(x, 0, c, cost).post();
+        } else {
+            IntVar[] costs = model.intVarArray("c", n, 0, 50, true);
+            for (int i = 0; i < n; i++) {
+                model.element(costs[i], c[i], x[i]).post();
+            }
+            model.sum(costs, "=", cost).post();
+            model.circuit(x).post();
+        }
+        model.setObjective(Model.MINIMIZE, cost);
+        Solver solver = model.getSolver();
+        solver.setSearch(randomSearch(x, seed));
+        int best = -1;
+        while (solver.solve()) {
+            best = cost.getValue();
+        }
+        return best;
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testCircuitCost() {
+        Random rnd = new Random(0);
+        for (int k = 0; k < 30; k++) {
+            int n = 3 + rnd.nextInt(6);
+            int[][] c = randomCosts(n, rnd);
+            assertEquals(solveTSP(c, true, k), solveTSP(c, false, k), "instance " + k);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testHeldKarpBound() throws ContradictionException {
+        // two clusters of 3 nodes, far away from each other: the tour costs at least 2 * 100 + 4
+        int n = 6;
+        int[][] c = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                c[i][j] = i == j ? 0 : (i < 3) == (j < 3) ? 1 : 100;
+            }
+        }
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("x", n, 0, n - 1, false);
+        IntVar cost = model.intVar("cost", 0, 1000, true);
+        model.circuit(x, 0, c, cost).post();
+        model.getSolver().propagate();
+        // the decomposition alone only gives 6, the 1-tree without Lagrangian multipliers 105
+        assertTrue(cost.getLB() >= 200, cost.toString());
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testHeldKarpLargeCosts() {
+        // costs around 1e6: rounding errors on the bound should neither remove the optimal tour nor fail
+        int n = 7;
+        for (int seed = 0; seed < 10; seed++) {
+            Random rnd = new Random(seed);
+            int[][] c = new int[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    c[i][j] = i == j ? 0 : 1_000_000 + rnd.nextInt(1000);
+                }
+            }
+            Model model = new Model();
+            IntVar[] x = model.intVarArray("x", n, 0, n - 1, false);
+            IntVar cost = model.intVar("cost", 0, 10_000_000, true);
+            model.circuit(x, 0, c, cost).post();
+            Solver solver = model.getSolver();
+            solver.findOptimalSolution(cost, false);
+            assertEquals(solver.getBestSolutionValue().intValue(), bestTour(c, new boolean[n], 0, 1, 0), "seed " + seed);
+        }
+    }
+
+    /**
+     * @return the cost of the cheapest circuit extending the path visiting the <i>visited</i> nodes
+     * from node 0 to <i>last</i>, of cost <i>sum</i>
+     */
+    private static int bestTour(int[][] c, boolean[] visited, int last, int nb, int sum) {
+        if (nb == c.length) {
+            return sum + c[last][0];
+        }
+        visited[last] = true;
+        int best = Integer.MAX_VALUE;
+        for (int j = 1; j < c.length; j++) {
+            if (!visited[j]) {
+                best = Math.min(best, bestTour(c, visited, j, nb + 1, sum + c[last][j]));
+            }
+        }
+        visited[last] = false;
+        return best;
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testLargeSparseCircuit() {
+        // each node can only go to one of its 5 successors on a ring
+        int n = 800;
+        Model model = new Model();
+        IntVar[] x = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            int[] values = new int[5];
+            for (int k = 0; k < 5; k++) {
+                values[k] = (i + 1 + k) % n;
+            }
+            x[i] = model.intVar("x" + i, values);
+        }
+        model.circuit(x).post();
+        Solver solver = model.getSolver();
+        solver.setSearch(minDomLBSearch(x));
+        assertTrue(solver.solve());
+    }
 }
@@ -14,6 +14,7 @@ import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.nary.cumulative.CumulFilter;
 import org.chocosolver.solver.constraints.nary.cumulative.Cumulative;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.strategy.Search;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Task;
 import org.chocosolver.util.objects.setDataStructures.ISet;
@@ -22,6 +23,7 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import static org.chocosolver.solver.search.strategy.Search.lastConflict;
 import static org.chocosolver.solver.search.strategy.Search.randomSearch;
@@ -129,6 +131,86 @@ public class CumulativeTest {
 			}
 	}
 
+	@Test(groups="1s", timeOut=60000)
+	public void testTTEF(){
+		Random rnd = new Random(0);
+		for(int k=0;k<40;k++){
+			long seed = rnd.nextLong();
+			int n = 2 + rnd.nextInt(3);
+			for(boolean g : new boolean[]{true,false}) {
+				long ref = countAll(n, seed, g, Cumulative.Filter.TIME);
+				long val = countAll(n, seed, g, Cumulative.Filter.TTEF);
+				Assert.assertEquals(val, ref, "seed " + seed);
+			}
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testTTEFEdgeFinding() throws ContradictionException {
+		Model m = new Model();
+		IntVar sa = m.intVar("a", 0, 9);
+		IntVar sb = m.intVar("b", 0, 3);
+		IntVar sc = m.intVar("c", 0, 3);
+		Task[] t = new Task[]{
+				new Task(sa, m.intVar(1), m.intOffsetView(sa, 1)),
+				new Task(sb, m.intVar(3), m.intOffsetView(sb, 3)),
+				new Task(sc, m.intVar(3), m.intOffsetView(sc, 3))};
+		m.cumulative(t, new IntVar[]{m.intVar(1), m.intVar(2), m.intVar(2)}, m.intVar(2), false, Cumulative.Filter.TTEF.make(3)).post();
+		m.getSolver().propagate();
+		// b and c fill [0,6), no compulsory part
+		Assert.assertEquals(sa.getLB(), 6);
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testTTEFLarge() throws ContradictionException {
+		// time-table reasoning of TTEF is at least as strong as TIME
+		Model[] models = new Model[2];
+		Cumulative.Filter[] filters = {Cumulative.Filter.TIME, Cumulative.Filter.TTEF};
+		int n = 5000;
+		for (int k = 0; k < 2; k++) {
+			Random rnd = new Random(0);
+			models[k] = new Model();
+			Task[] t = new Task[n];
+			IntVar[] h = new IntVar[n];
+			for (int i = 0; i < n; i++) {
+				int d = 1 + rnd.nextInt(10);
+				int r = rnd.nextInt(3 * n);
+				IntVar s = models[k].intVar("s" + i, r, r + 2 + rnd.nextInt(30), true);
+				t[i] = new Task(s, models[k].intVar(d), models[k].intOffsetView(s, d));
+				h[i] = models[k].intVar(1 + rnd.nextInt(5));
+			}
+			models[k].cumulative(t, h, models[k].intVar(12), false, filters[k].make(n)).post();
+			models[k].getSolver().propagate();
+		}
+		IntVar[] ref = models[0].retrieveIntVars(true);
+		IntVar[] vars = models[1].retrieveIntVars(true);
+		for (int i = 0; i < ref.length; i++) {
+			Assert.assertTrue(vars[i].getLB() >= ref[i].getLB() && vars[i].getUB() <= ref[i].getUB(), vars[i].toString());
+		}
+	}
+
+	private static long countAll(int n, long seed, boolean graph, Cumulative.Filter filter) {
+		Random rnd = new Random(seed);
+		Model model = new Model();
+		Task[] t = new Task[n];
+		IntVar[] h = new IntVar[n];
+		for (int i = 0; i < n; i++) {
+			int dmin = rnd.nextInt(3);
+			int hmin = rnd.nextInt(3);
+			IntVar s = model.intVar("s" + i, 0, 1 + rnd.nextInt(4), false);
+			IntVar d = model.intVar("d" + i, dmin, dmin + rnd.nextInt(3), false);
+			IntVar e = model.intVar("e" + i, 0, 8, false);
+			t[i] = new Task(s, d, e);
+			h[i] = model.intVar("h" + i, hmin, hmin + rnd.nextInt(2), false);
+		}
+		IntVar capa = model.intVar("capa", 1 + rnd.nextInt(2), 2 + rnd.nextInt(3), false);
+		model.cumulative(t, h, capa, graph, filter.make(n)).post();
+		Solver r = model.getSolver();
+		r.setSearch(randomSearch(model.retrieveIntVars(false), seed));
+		while (r.solve()) ;
+		return r.getMeasures().getSolutionCount();
+	}
+
 	public void test(int n, int capamax, int dmin, int hmax, long seed, int mode){
 		if(VERBOSE)System.out.println(n+" - "+capamax+" - "+dmin+" - "+hmax+" - "+seed+" - "+mode);
 		Cumulative.Filter[][] filters = new Cumulative.Filter[][]{
@@ -0,0 +1,106 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+import static org.chocosolver.solver.search.strategy.Search.randomSearch;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class DiffNTest {
+
+    private static long countAll(int n, long seed, boolean sweep) {
+        Random rnd = new Random(seed);
+        Model model = new Model();
+        model.getSettings().setEnableSweepOnDiffN(i -> sweep);
+        IntVar[] x = new IntVar[n];
+        IntVar[] y = new IntVar[n];
+        IntVar[] w = new IntVar[n];
+        IntVar[] h = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = model.intVar("x" + i, 0, 1 + rnd.nextInt(3));
+            y[i] = model.intVar("y" + i, 0, 1 + rnd.nextInt(3));
+            int wm = rnd.nextInt(3);
+            int hm = rnd.nextInt(3);
+            w[i] = model.intVar("w" + i, wm, wm + rnd.nextInt(2));
+            h[i] = model.intVar("h" + i, hm, hm + rnd.nextInt(2));
+        }
+        model.diffN(x, y, w, h, false).post();
+        Solver solver = model.getSolver();
+        solver.setSearch(randomSearch(model.retrieveIntVars(false), seed));
+        while (solver.solve()) ;
+        return solver.getMeasures().getSolutionCount();
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSweepVsPairwise() {
+        Random rnd = new Random(0);
+        for (int k = 0; k < 50; k++) {
+            long seed = rnd.nextLong();
+            int n = 2 + rnd.nextInt(3);
+            Assert.assertEquals(countAll(n, seed, true), countAll(n, seed, false), "seed " + seed);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSweepFiltering() throws ContradictionException {
+        Model model = new Model();
+        model.getSettings().setEnableSweepOnDiffN(i -> true);
+        // two fixed rectangles force the third one in the bottom right corner
+        IntVar[] x = {model.intVar(0), model.intVar(0), model.intVar("x", 0, 3)};
+        IntVar[] y = {model.intVar(0), model.intVar(2), model.intVar("y", 0, 3)};
+        IntVar[] w = {model.intVar(2), model.intVar(4), model.intVar(2)};
+        IntVar[] h = {model.intVar(2), model.intVar(2), model.intVar(2)};
+        model.diffN(x, y, w, h, false).post();
+        model.getSolver().propagate();
+        Assert.assertEquals(x[2].getLB(), 2);
+        Assert.assertEquals(y[2].getUB(), 0);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testManyRectangles() {
+        // pallet of 120 * 120 with 3000 rectangles of 1 * 2 or 2 * 1
+        Model model = new Model();
+        int n = 3000;
+        Random rnd = new Random(0);
+        IntVar[] x = new IntVar[n];
+        IntVar[] y = new IntVar[n];
+        IntVar[] w = new IntVar[n];
+        IntVar[] h = new IntVar[n];
+        IntVar[] vars = new IntVar[2 * n];
+        for (int i = 0; i < n; i++) {
+            int wi = 1 + rnd.nextInt(2);
+            w[i] = model.intVar(wi);
+            h[i] = model.intVar(3 - wi);
+            x[i] = model.intVar("x" + i, 0, 120 - wi);
+            y[i] = model.intVar("y" + i, 0, 120 - 3 + wi);
+            vars[2 * i] = y[i];
+            vars[2 * i + 1] = x[i];
+        }
+        Assert.assertFalse(model.getSettings().enableSweepOnDiffN(n));
+        model.getSettings().setEnableSweepOnDiffN(i -> i > 1000);
+        model.diffN(x, y, w, h, false).post();
+        Solver solver = model.getSolver();
+        solver.setSearch(inputOrderLBSearch(vars));
+        Assert.assertTrue(solver.solve());
+    }
+}
@@ -9,12 +9,15 @@
 package org.chocosolver.solver.constraints.nary;
 
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
 import org.chocosolver.solver.constraints.nary.automata.FA.ICostAutomaton;
+import org.chocosolver.solver.search.limits.FailCounter;
 import org.chocosolver.solver.variables.IntVar;
 import org.testng.annotations.Test;
 
 import static org.chocosolver.solver.constraints.nary.automata.FA.CostAutomaton.makeMultiResources;
+import static org.chocosolver.solver.constraints.nary.automata.FA.CostAutomaton.makeSingleResource;
 import static org.chocosolver.solver.search.strategy.Search.randomSearch;
 import static org.chocosolver.util.tools.ArrayUtils.append;
 import static org.testng.Assert.assertEquals;
@@ -132,4 +135,71 @@ public class MultiCostRegularTest {
             assertEquals(model.getSolver().getSolutionCount(), 85, "seed:" + (seed + i));
         }
     }
+
+    private static int[][][][] costs(int period) {
+        int[][][][] costMatrix = new int[period][3][4][];
+        for (int i = 0; i < period; i++) {
+            costMatrix[i][0] = new int[][]{{3 + i % 2, 5, 0}, {1, 1, 0}, {0, 0, 0}, {1, 1, 0}};
+            costMatrix[i][1] = new int[][]{{8, 9, 0}, {0, 0, 0}, {1, 1, 0}, {1, 1, 0}};
+            costMatrix[i][2] = new int[][]{{0, 0, 2}, {0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
+        }
+        return costMatrix;
+    }
+
+    private static FiniteAutomaton automaton() {
+        FiniteAutomaton auto = new FiniteAutomaton();
+        int first = auto.addState();
+        auto.setInitialState(first);
+        auto.setFinal(first);
+        int idx = auto.addState();
+        auto.addTransition(first, idx, 0);
+        int next = auto.addState();
+        auto.addTransition(idx, next, 0, 1);
+        auto.addTransition(next, first, 2);
+        auto.addTransition(first, next, 1);
+        return auto;
+    }
+
+    private static int solve(int period, long seed, boolean decomposition) {
+        Model model = new Model();
+        IntVar[] sequence = model.intVarArray("x", period, 0, 2, false);
+        IntVar[] bounds = new IntVar[]{
+                model.intVar("z_0", 0, 120, true),
+                model.intVar("day", 3, 7, true),
+                model.intVar("night", 2, 5, true),
+                model.intVar("work", 6, 10, true)};
+        int[][][][] costMatrix = costs(period);
+        if (decomposition) {
+            int[][][] c0 = new int[period][3][];
+            for (int i = 0; i < period; i++) {
+                for (int j = 0; j < 3; j++) {
+                    c0[i][j] = costMatrix[i][j][0];
+                }
+            }
+            model.costRegular(sequence, bounds[0], makeSingleResource(automaton(), c0, 0, 120)).post();
+            model.count(0, sequence, bounds[1]).post();
+            model.count(1, sequence, bounds[2]).post();
+            model.arithm(bounds[1], "+", bounds[2], "=", bounds[3]).post();
+        } else {
+            model.multiCostRegular(sequence, bounds, makeMultiResources(automaton(), costMatrix, bounds)).post();
+        }
+        Solver solver = model.getSolver();
+        solver.setSearch(randomSearch(sequence, seed));
+        solver.setLubyRestart(2, new FailCounter(model, 2), 1000);
+        model.setObjective(Model.MINIMIZE, bounds[0]);
+        int best = -1;
+        while (solver.solve()) {
+            best = bounds[0].getValue();
+        }
+        return best;
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testBacktrackAndRestart() {
+        // labels of the multi-cost graph are restored on backtrack and restart, not computed again
+        for (int i = 0; i < 20; i++) {
+            int period = 10 + i % 5;
+            assertEquals(solve(period, i, false), solve(period, i, true), "seed:" + i);
+        }
+    }
 }
@@ -113,4 +113,78 @@ public class NogoodTest {
         Assert.assertEquals(chocoModel.getSolver().getSolutionCount(), 4);
     }
 
+    private static Model queens(int n) {
+        Model model = new Model();
+        IntVar[] q = model.intVarArray("q", n, 1, n, false);
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                model.arithm(q[i], "!=", q[j]).post();
+                model.arithm(q[i], "!=", q[j], "+", j - i).post();
+                model.arithm(q[i], "!=", q[j], "-", j - i).post();
+            }
+        }
+        return model;
+    }
+
+    private static int minimize(int n, int nbLearnts, int nbLits, boolean reduced) {
+        Model model = queens(n);
+        model.getSettings().setNbLearntNogoodsBeforeReduction(nbLearnts);
+        model.getSettings().setMaxLiteralsInLearntNogoods(nbLits);
+        IntVar[] q = model.retrieveIntVars(true);
+        int[] c = new int[n];
+        for (int i = 0; i < n; i++) {
+            c[i] = (i * 7) % n + 1;
+        }
+        IntVar obj = model.intVar("obj", 0, n * n * n);
+        model.scalar(q, c, "=", obj).post();
+        model.setObjective(Model.MINIMIZE, obj);
+        Solver solver = model.getSolver();
+        solver.setNoGoodRecordingFromRestarts();
+        solver.setSearch(randomSearch(q, 0));
+        solver.setRestarts(new BacktrackCounter(model, 0), new MonotonicRestartStrategy(5), 100000);
+        int best = -1;
+        while (solver.solve()) {
+            best = obj.getValue();
+        }
+        Assert.assertEquals(solver.getNogoodReductionCount() > 0, reduced);
+        Assert.assertTrue(solver.getDeletedNogoodCount() > 0 || !reduced);
+        return best;
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testReduction() {
+        Assert.assertEquals(minimize(9, 20, Integer.MAX_VALUE, true), minimize(9, Integer.MAX_VALUE, Integer.MAX_VALUE, false));
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testMemoryCap() {
+        Assert.assertEquals(minimize(9, Integer.MAX_VALUE, 500, true), minimize(9, Integer.MAX_VALUE, Integer.MAX_VALUE, false));
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testRestartNogoodsAreKept() {
+        // once a solution is found, nogoods from restarts must be kept to enumerate each solution once
+        Model model = queens(8);
+        model.getSettings().setNbLearntNogoodsBeforeReduction(5);
+        Solver solver = model.getSolver();
+        solver.setNoGoodRecordingFromRestarts();
+        solver.setSearch(randomSearch(model.retrieveIntVars(true), 0));
+        solver.setRestarts(new BacktrackCounter(model, 0), new MonotonicRestartStrategy(5), 100000);
+        while (solver.solve()) ;
+        assertEquals(solver.getSolutionCount(), 92);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testSolutionNogoodsAreKept() {
+        Model model = queens(8);
+        model.getSettings().setNbLearntNogoodsBeforeReduction(5);
+        Solver solver = model.getSolver();
+        solver.setNoGoodRecordingFromSolutions(model.retrieveIntVars(true));
+        solver.setRestartOnSolutions();
+        solver.setSearch(randomSearch(model.retrieveIntVars(true), 0));
+        while (solver.solve()) ;
+        assertEquals(solver.getSolutionCount(), 92);
+        assertEquals(solver.getDeletedNogoodCount(), 0);
+    }
+
 }
@@ -9,6 +9,7 @@
 package org.chocosolver.solver.constraints.nary;
 
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.nary.alldifferent.conditions.Condition;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
@@ -18,6 +19,9 @@ import org.testng.annotations.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
+
+import static org.chocosolver.solver.search.strategy.Search.randomSearch;
 
 import static org.testng.Assert.*;
 
@@ -237,6 +241,30 @@ public class PropCondAllDiffTest {
         assertTrue(solutionFound);
     }
 
+    @Test(groups = "1s", timeOut=60000)
+    public void testExceptZeroACvsInst() {
+        Random rnd = new Random(0);
+        for (int k = 0; k < 200; k++) {
+            long seed = rnd.nextLong();
+            long[] counts = new long[2];
+            for (int c = 0; c < 2; c++) {
+                Random r = new Random(seed);
+                Model model = new Model();
+                int n = 3 + r.nextInt(5);
+                IntVar[] vars = new IntVar[n];
+                for (int i = 0; i < n; i++) {
+                    vars[i] = model.intVar("v_" + i, r.ints(1 + r.nextInt(n), 0, n).distinct().toArray());
+                }
+                model.allDifferentUnderCondition(vars, Condition.EXCEPT_0, c == 0).post();
+                Solver solver = model.getSolver();
+                solver.setSearch(randomSearch(vars, seed));
+                while (solver.solve()) ;
+                counts[c] = solver.getSolutionCount();
+            }
+            assertEquals(counts[0], counts[1], "seed " + seed);
+        }
+    }
+
 
     private Map<IntVar, Boolean> mustBeDiff(IntVar[] vars, int nDiff) {
         Map<IntVar, Boolean> mustBeDiff = new HashMap<>();
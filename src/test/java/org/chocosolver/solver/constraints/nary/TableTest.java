@@ -24,6 +24,7 @@ import org.chocosolver.solver.constraints.extension.nary.TuplesLargeTable;
 import org.chocosolver.solver.constraints.extension.nary.TuplesTable;
 import org.chocosolver.solver.constraints.extension.nary.TuplesVeryLargeTable;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.ESat;
@@ -31,7 +32,10 @@ import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 import static java.lang.System.out;
 import static org.chocosolver.solver.constraints.extension.TuplesFactory.generateTuples;
@@ -585,4 +589,70 @@ public class TableTest {
 			Assert.assertEquals(model.getSolver().findAllSolutions().size(), 18);
 		}
 	}
-}
\ No newline at end of file
+
+	@Test(groups="1s", timeOut=60000)
+	public void testCTLargeTable(){
+		// many words to save and restore upon backtrack
+		Random rnd = new Random(0);
+		Tuples tuples = new Tuples(true);
+		for (int t = 0; t < 20000; t++) {
+			tuples.add(rnd.nextInt(10), rnd.nextInt(10), rnd.nextInt(10), rnd.nextInt(10), rnd.nextInt(10));
+		}
+		long[] counts = new long[2];
+		String[] algos = {"CT+", "STR2+"};
+		for (int a = 0; a < algos.length; a++) {
+			Model model = new Model();
+			IntVar[] vars = model.intVarArray("X", 5, 0, 9, false);
+			model.table(vars, tuples, algos[a]).post();
+			model.sum(vars, "=", 22).post();
+			model.allDifferent(vars).post();
+			Solver solver = model.getSolver();
+			solver.setSearch(randomSearch(vars, 0));
+			while (solver.solve()) ;
+			counts[a] = solver.getSolutionCount();
+		}
+		Assert.assertTrue(counts[0] > 0);
+		Assert.assertEquals(counts[0], counts[1]);
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testTuplesStream(){
+		Tuples tuples = new Tuples(true);
+		tuples.add(IntStream.range(0, 30).map(i -> i % 7 - 3), 3);
+		Assert.assertEquals(tuples.nbTuples(), 10);
+		Assert.assertEquals(tuples.arity(), 3);
+		Assert.assertEquals(tuples.get(2), new int[]{3, -3, -2});
+		Assert.assertEquals(tuples.get(9, 2), 29 % 7 - 3);
+		Assert.assertEquals(tuples.min(0), -3);
+		Assert.assertEquals(tuples.max(0), 3);
+		tuples.sort();
+		for (int t = 1; t < tuples.nbTuples(); t++) {
+			Assert.assertTrue(tuples.get(t - 1, 0) <= tuples.get(t, 0));
+		}
+		try {
+			tuples.add(IntStream.range(0, 4), 3);
+			Assert.fail();
+		} catch (SolverException ignored) {
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testTuplesLoad() throws IOException {
+		String table = "# x y z\n0 0 0\r\n1, 1, 1\n\n-2;2;-2\n3\t3 3";
+		Tuples tuples = TuplesFactory.load(new StringReader(table), true);
+		Assert.assertEquals(tuples.nbTuples(), 4);
+		Assert.assertEquals(tuples.get(2), new int[]{-2, 2, -2});
+		Assert.assertEquals(tuples.get(3), new int[]{3, 3, 3});
+		for (String a : ALGOS) {
+			Model model = new Model();
+			IntVar[] vars = model.intVarArray("X", 3, -2, 2, false);
+			model.table(vars, tuples, a).post();
+			Assert.assertEquals(model.getSolver().findAllSolutions().size(), 3, a);
+		}
+		try {
+			TuplesFactory.load(new StringReader("0 0\n1 1 1"), true);
+			Assert.fail();
+		} catch (SolverException ignored) {
+		}
+	}
+}
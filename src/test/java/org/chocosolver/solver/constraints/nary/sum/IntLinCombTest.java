@@ -1076,4 +1076,64 @@ public class IntLinCombTest {
         model.getSolver().findAllSolutions();
         Assert.assertEquals(model.getSolver().getSolutionCount(), 772);
     }
+
+    private static Solver scalar(long seed, boolean incr) {
+        Random rnd = new Random(seed);
+        Model model = new Model(new DefaultSettings().setEnableIncrementalityOnSum(i -> incr));
+        int n = 3 + rnd.nextInt(3);
+        IntVar[] vars = model.intVarArray("x", n, -2, 2, rnd.nextBoolean());
+        int[] coeffs = new int[n];
+        for (int i = 0; i < n; i++) {
+            coeffs[i] = -4 + rnd.nextInt(9);
+        }
+        String[] ops = {"=", "!=", "<=", ">=", "<", ">"};
+        IntVar res = model.intVar("r", -5, 5);
+        model.scalar(vars, coeffs, ops[rnd.nextInt(ops.length)], res).post();
+        // a reified one, to test the opposite propagator
+        model.scalar(vars, coeffs, ops[rnd.nextInt(ops.length)], rnd.nextInt(10) - 5).reify();
+        model.sum(vars, ops[rnd.nextInt(ops.length)], res).post();
+        Solver solver = model.getSolver();
+        solver.setSearch(Search.randomSearch(vars, seed));
+        while (solver.solve()) ;
+        return solver;
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testIncrementalScalar() {
+        Random rnd = new Random(0);
+        for (int k = 0; k < 200; k++) {
+            long seed = rnd.nextLong();
+            Solver s1 = scalar(seed, true);
+            Solver s2 = scalar(seed, false);
+            Assert.assertEquals(s1.getSolutionCount(), s2.getSolutionCount(), "seed " + seed);
+            Assert.assertEquals(s1.getNodeCount(), s2.getNodeCount(), "seed " + seed);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testIncrementalLongScalar() {
+        int n = 20000;
+        Assert.assertFalse(new DefaultSettings().enableIncrementalityOnSum(n + 1));
+        Model model = new Model(new DefaultSettings().setEnableIncrementalityOnSum(i -> i > 100));
+        IntVar[] vars = model.intVarArray("x", n, 0, 10);
+        int[] coeffs = new int[n];
+        for (int i = 0; i < n; i++) {
+            coeffs[i] = 1 + i % 7;
+        }
+        IntVar res = model.intVar("r", 0, 20 * n);
+        Constraint c = model.scalar(vars, coeffs, "=", res);
+        Assert.assertTrue(c.getPropagator(0) instanceof PropScalarIncr);
+        c.post();
+        Solver solver = model.getSolver();
+        // bounds consistency guarantees that no failure occurs
+        solver.setSearch(Search.inputOrderUBSearch(vars));
+        Assert.assertTrue(solver.solve());
+        Assert.assertEquals(solver.getFailCount(), 0);
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += coeffs[i] * vars[i].getValue();
+        }
+        Assert.assertEquals(res.getValue(), 20 * n);
+        Assert.assertEquals(sum, 20 * n);
+    }
 }
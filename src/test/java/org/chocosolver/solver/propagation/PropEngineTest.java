@@ -15,12 +15,15 @@ import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.measure.PropagationProfiler;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.ESat;
 import org.chocosolver.util.ProblemMaker;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.StringWriter;
+
 import static java.util.Arrays.sort;
 import static org.chocosolver.solver.Cause.Null;
 import static org.chocosolver.solver.constraints.PropagatorPriority.UNARY;
@@ -209,4 +212,106 @@ public class PropEngineTest {
         solver.getEngine().clear();
         solver.reset(); // error (null)
     }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testProfiling() {
+        Model model = makeNQueenWithBinaryConstraints(8);
+        Solver solver = model.getSolver();
+        Assert.assertNull(solver.getMeasures().getPropagationProfiler());
+        solver.setPropagationProfiling(true);
+        while (solver.solve()) ;
+        PropagationProfiler profiler = solver.getMeasures().getPropagationProfiler();
+        Assert.assertNotNull(profiler);
+        long failures = 0, events = 0;
+        for (Constraint c : model.getCstrs()) {
+            for (Propagator p : c.getPropagators()) {
+                Assert.assertTrue(profiler.getCalls(p) > 0);
+                Assert.assertTrue(profiler.getFineCalls(p) + profiler.getCoarseCalls(p) >= profiler.getCalls(p));
+                assertEquals(profiler.getFilteredValues(p), 0);
+                failures += profiler.getFailures(p);
+                events += profiler.getEvents(p);
+            }
+        }
+        assertEquals(failures, solver.getFailCount());
+        Assert.assertTrue(events > 0);
+        assertEquals(profiler.getPropagators().size(), model.getNbCstrs());
+        StringWriter csv = new StringWriter();
+        profiler.toCSV(csv);
+        Assert.assertTrue(csv.toString().startsWith("id,propagator,constraint,calls,fine,coarse,time,failures,events,filtered"));
+        assertEquals(csv.toString().split("\n").length, model.getNbCstrs() + 1);
+        StringWriter json = new StringWriter();
+        profiler.toJSON(json);
+        Assert.assertTrue(json.toString().startsWith("["));
+        Assert.assertTrue(json.toString().contains("\"calls\":"));
+        solver.setPropagationProfiling(false);
+        Assert.assertNull(solver.getMeasures().getPropagationProfiler());
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testProfilingFilteredValues() {
+        Model model = makeNQueenWithBinaryConstraints(8);
+        Solver solver = model.getSolver();
+        solver.setPropagationProfiling(true, true);
+        while (solver.solve()) ;
+        PropagationProfiler profiler = solver.getMeasures().getPropagationProfiler();
+        long filtered = 0;
+        for (Constraint c : model.getCstrs()) {
+            for (Propagator p : c.getPropagators()) {
+                Assert.assertTrue(profiler.getFilteredValues(p) >= 0);
+                filtered += profiler.getFilteredValues(p);
+            }
+        }
+        Assert.assertTrue(filtered > 0);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testBucketEngine() {
+        for (int e = 0; e < 3; e++) {
+            Model[] models = {
+                    makeNQueenWithBinaryConstraints(8),
+                    ProblemMaker.makeNQueenWithOneAlldifferent(8),
+                    ProblemMaker.makeCostasArrays(7),
+                    ProblemMaker.makeGolombRuler(6)
+            };
+            long[] expected = {92, 92, 100, 1};
+            for (int m = 0; m < models.length; m++) {
+                Model model = models[m];
+                Solver solver = model.getSolver();
+                switch (e) {
+                    case 1:
+                        solver.setEngine(new BucketPropagationEngine(model));
+                        break;
+                    case 2:
+                        solver.setEngine(new BucketPropagationEngine(model, true));
+                        break;
+                }
+                if (model.getHook("objective") != null) {
+                    IntVar obj = (IntVar) model.getHook("objective");
+                    solver.findOptimalSolution(obj, false);
+                    assertEquals(solver.getBestSolutionValue().intValue(), 17);
+                } else {
+                    assertEquals(solver.findAllSolutions().size(), expected[m]);
+                }
+            }
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testBucketEngineReset() {
+        Model model = ProblemMaker.makeNQueenWithOneAlldifferent(8);
+        Solver solver = model.getSolver();
+        solver.setEngine(new BucketPropagationEngine(model, true));
+        solver.setPropagationProfiling(true);
+        IntVar[] q = (IntVar[]) model.getHook("vars");
+        solver.limitSolution(10);
+        assertEquals(solver.findAllSolutions().size(), 10);
+        solver.reset();
+        Constraint c = model.arithm(q[0], "=", 1);
+        c.post();
+        assertEquals(solver.findAllSolutions().size(), 4);
+        solver.incrementalReset();
+        model.unpost(c);
+        assertEquals(solver.findAllSolutions().size(), 92);
+        Assert.assertTrue(solver.getMeasures().getPropagationProfiler().getPropagators().size() > 0);
+    }
 }
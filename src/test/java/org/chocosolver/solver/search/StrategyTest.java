@@ -10,12 +10,15 @@ package org.chocosolver.solver.search;
 
 import org.chocosolver.memory.IEnvironment;
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.search.strategy.Search;
 import org.chocosolver.solver.search.strategy.assignments.DecisionOperatorFactory;
 import org.chocosolver.solver.search.strategy.decision.Decision;
 import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMiddle;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMin;
 import org.chocosolver.solver.search.strategy.selectors.variables.*;
 import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
 import org.chocosolver.solver.search.strategy.strategy.LastConflict;
@@ -373,4 +376,92 @@ public class StrategyTest {
 			assertEquals(modelBound.getSolver().getBestSolutionValue().intValue(),model.getSolver().getBestSolutionValue().intValue());
 		}
     }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDomOverWDeg1() {
+        for (double decay : new double[]{1., .95, .5}) {
+            Model model = ProblemMaker.makeNQueenWithOneAlldifferent(8);
+            IntVar[] vars = model.retrieveIntVars(true);
+            model.getSolver().setSearch(Search.domOverWDegSearch(decay, vars));
+            while (model.getSolver().solve()) ;
+            assertEquals(model.getSolver().getSolutionCount(), 92);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDomOverWDeg2() {
+        Model model = ProblemMaker.makeGolombRuler(7);
+        IntVar[] ticks = (IntVar[]) model.getHook("ticks");
+        IntVar[] vars = model.retrieveIntVars(true);
+        DomOverWDeg dwd = new DomOverWDeg(vars, 0, new IntDomainMin());
+        model.getSolver().setSearch(dwd);
+        for (IntVar v : vars) {
+            assertEquals(dwd.getWeight(v), 1.);
+        }
+        assertEquals(dwd.getWeight(model.intVar(3)), 0.);
+        Assert.assertNotNull(model.getSolver().findOptimalSolution((IntVar) model.getHook("objective"), Model.MINIMIZE));
+        double sum = 0.;
+        for (IntVar t : ticks) {
+            assertTrue(dwd.getWeight(t) >= 1.);
+            sum += dwd.getWeight(t);
+        }
+        assertTrue(sum > ticks.length);
+    }
+
+    @Test(groups="1s", timeOut=60000, expectedExceptions = IllegalArgumentException.class)
+    public void testDomOverWDeg3() {
+        Model model = new Model();
+        new DomOverWDeg(model.intVarArray("X", 2, 0, 2), 0, new IntDomainMin(), 1.5);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDomOverWDeg4() throws ContradictionException {
+        Model model = new Model();
+        IntVar[] vars = model.intVarArray("X", 3, 0, 3);
+        model.arithm(vars[0], "!=", vars[1]).post();
+        Propagator prop = model.getCstrs()[0].getPropagator(0);
+        DomOverWDeg dwd = new DomOverWDeg(vars, 0, new IntDomainMin());
+        dwd.init();
+        dwd.onContradiction(new ContradictionException().set(prop, vars[0], ""));
+        assertEquals(dwd.getWeight(vars[0]), 2.);
+        assertEquals(dwd.getWeight(vars[1]), 2.);
+        assertEquals(dwd.getWeight(vars[2]), 1.);
+        // a propagator with less than two uninstantiated variables does not count
+        model.getEnvironment().worldPush();
+        vars[1].instantiateTo(0, Cause.Null);
+        assertEquals(dwd.getWeight(vars[0]), 1.);
+        model.getEnvironment().worldPop();
+        assertEquals(dwd.getWeight(vars[0]), 2.);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDomOverWDeg5() {
+        Model model = ProblemMaker.makeNQueenWithBinaryConstraints(8);
+        IntVar[] vars = model.retrieveIntVars(true);
+        DomOverWDeg dwd = new DomOverWDeg(vars, 0, new IntDomainMin());
+        Solver solver = model.getSolver();
+        solver.setSearch(dwd);
+        while (solver.solve()) ;
+        double[] weights = new double[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            weights[i] = dwd.getWeight(vars[i]);
+        }
+        // once replaced, the strategy is not notified anymore
+        solver.reset();
+        solver.setSearch(inputOrderLBSearch(vars));
+        while (solver.solve()) ;
+        assertTrue(solver.getFailCount() > 0);
+        for (int i = 0; i < vars.length; i++) {
+            assertEquals(dwd.getWeight(vars[i]), weights[i]);
+        }
+        // unless it is reused in the new one
+        solver.reset();
+        solver.setSearch(Search.lastConflict(dwd));
+        while (solver.solve()) ;
+        double sum = 0.;
+        for (int i = 0; i < vars.length; i++) {
+            sum += dwd.getWeight(vars[i]) - weights[i];
+        }
+        assertTrue(sum > 0.);
+    }
 }
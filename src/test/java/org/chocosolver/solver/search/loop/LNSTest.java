@@ -11,10 +11,12 @@ package org.chocosolver.solver.search.loop;
 import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.ModelTest;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.search.limits.BacktrackCounter;
 import org.chocosolver.solver.search.loop.lns.INeighborFactory;
+import org.chocosolver.solver.search.loop.lns.neighbors.BanditNeighborhood;
 import org.chocosolver.solver.search.loop.lns.neighbors.ExplainingCut;
 import org.chocosolver.solver.search.loop.lns.neighbors.INeighbor;
 import org.chocosolver.solver.search.loop.lns.neighbors.PropagationGuidedNeighborhood;
@@ -95,6 +97,13 @@ public class LNSTest {
                 r.setNoGoodRecordingFromRestarts();
                 r.setLNS(new RandomNeighborhood(objects, 200, 123456L));
                 break;
+            case 7:
+                r.setLNS(new BanditNeighborhood(model, 123456L,
+                        new PropagationGuidedNeighborhood(objects, 100, 10, 123456L),
+                        new ReversePropagationGuidedNeighborhood(objects, 100, 10, 123456L),
+                        new RandomNeighborhood(objects, 200, 123456L)
+                ));
+                break;
         }
         model.setObjective(Model.MAXIMIZE, power);
         int bw = 0, bp = 0;
@@ -108,7 +117,7 @@ public class LNSTest {
 
     @DataProvider(name = "lns")
     public Object[][] createData() {
-        return new Object[][]{{0}, {1}, {2}, {3}, {4}, {5}, {6}};
+        return new Object[][]{{0}, {1}, {2}, {3}, {4}, {5}, {6}, {7}};
     }
 
 
@@ -118,6 +127,58 @@ public class LNSTest {
         knapsack20(lns);
     }
 
+    @Test(groups = "1s", timeOut = 60000)
+    public void testBandit() {
+        Model model = ModelTest.knapsack();
+        IntVar[] vars = model.retrieveIntVars(true);
+        Solver solver = model.getSolver();
+        BanditNeighborhood bandit = new BanditNeighborhood(model, 0L,
+                new RandomNeighborhood(vars, 3, 0L),
+                new RandomNeighborhood(vars, 3, 1L),
+                new PropagationGuidedNeighborhood(vars, 30, 10, 0L));
+        solver.setSearch(lastConflict(domOverWDegSearch(vars)));
+        solver.setLNS(bandit, new BacktrackCounter(model, 50));
+        solver.limitSearch(() -> solver.getRestartCount() >= 200);
+        int best = 0;
+        while (solver.solve()) {
+            best = solver.getBestSolutionValue().intValue();
+        }
+        Assert.assertEquals(best, 51);
+        int runs = 0;
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(bandit.getRuns(i) > 0);
+            Assert.assertTrue(bandit.getMeanReward(i) >= 0.);
+            runs += bandit.getRuns(i);
+        }
+        Assert.assertTrue(runs > 3);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testBanditPerNode() {
+        // runs measured in nodes do not depend on running times: the search is reproducible
+        long[] nodes = new long[2];
+        int[][] runs = new int[2][3];
+        for (int k = 0; k < 2; k++) {
+            Model model = ModelTest.knapsack();
+            IntVar[] vars = model.retrieveIntVars(true);
+            Solver solver = model.getSolver();
+            BanditNeighborhood bandit = new BanditNeighborhood(model, 0L, BanditNeighborhood.DEFAULT_EXPLORATION, true,
+                    new RandomNeighborhood(vars, 3, 0L),
+                    new RandomNeighborhood(vars, 3, 1L),
+                    new PropagationGuidedNeighborhood(vars, 30, 10, 0L));
+            solver.setSearch(lastConflict(domOverWDegSearch(vars)));
+            solver.setLNS(bandit, new BacktrackCounter(model, 50));
+            solver.limitSearch(() -> solver.getRestartCount() >= 200);
+            while (solver.solve()) ;
+            nodes[k] = solver.getNodeCount();
+            for (int i = 0; i < 3; i++) {
+                runs[k][i] = bandit.getRuns(i);
+            }
+        }
+        Assert.assertEquals(nodes[1], nodes[0]);
+        Assert.assertEquals(runs[1], runs[0]);
+    }
+
     @Test
     public void testTOTO() {
         // First, the model: here a simple knapsack pb ...
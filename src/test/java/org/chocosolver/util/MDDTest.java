@@ -8,6 +8,7 @@
  */
 package org.chocosolver.util;
 
+import gnu.trove.set.hash.TLongHashSet;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.extension.Tuples;
@@ -17,6 +18,8 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 /**
  * Created by cprudhom on 04/11/14.
@@ -84,7 +87,7 @@ public class MDDTest {
         tuples.add(0, -1);
         tuples.add(-1, 2);
         MultivaluedDecisionDiagram mdd = new MultivaluedDecisionDiagram(vars, tuples);
-        Assert.assertEquals(mdd.getDiagram(), new int[]{6, 2, -1, 0, 0, 0, 0, 0, 0, -1});
+        Assert.assertEquals(mdd.getDiagram(), new int[]{2, 6, 0, 0, 0, -1, -1, 0, 0, 0});
         for (int t = 0; t < tuples.nbTuples(); t++) {
             Assert.assertTrue(mdd.exists(tuples.get(t)));
         }
@@ -125,7 +128,8 @@ public class MDDTest {
 
         MultivaluedDecisionDiagram mdd = new MultivaluedDecisionDiagram(vars, tuples, true, false);
         System.out.printf("%s\n", Arrays.toString(mdd.getDiagram()));
-        Assert.assertEquals(mdd.getDiagram(), new int[]{6, 3, 12, 9, 15, 18, 0, 9, 15, -1, 0, 0, 15, 18, 0, 0, -1, 0, 0, 0, -1});
+        // reduced while being built: the diagram does not depend on the order of the tuples
+        Assert.assertEquals(mdd.getDiagram(), new int[]{3, 12, 18, 0, 6, 9, -1, 0, 0, 0, -1, 0, 6, 9, 15, 0, 0, -1, 9, 15, 0});
         for (int t = 0; t < tuples.nbTuples(); t++) {
             Assert.assertTrue(mdd.exists(tuples.get(t)));
         }
@@ -201,4 +205,51 @@ public class MDDTest {
         Assert.assertEquals(mdd.getDiagram(), new int[]{3, 3, 11, 0, 0, 6, 0, 0, -1, 0, 0, 6, 0, 0});
     }
 
+
+    @Test(groups="1s", timeOut=60000)
+    public void testLarge() {
+        Model model = new Model();
+        IntVar[] vars = model.intVarArray("X", 8, 0, 9, false);
+        Random rnd = new Random(0);
+        Tuples tuples = new Tuples();
+        TLongHashSet set = new TLongHashSet();
+        for (int t = 0; t < 200_000; t++) {
+            int[] tuple = new int[8];
+            long key = 0;
+            for (int i = 0; i < 8; i++) {
+                tuple[i] = rnd.nextInt(10);
+                key = key * 10 + tuple[i];
+            }
+            tuples.add(tuple);
+            set.add(key);
+        }
+        MultivaluedDecisionDiagram mdd = new MultivaluedDecisionDiagram(vars, tuples);
+        for (int k = 0; k < 400_000; k++) {
+            int[] path = new int[8];
+            long key = 0;
+            for (int i = 0; i < 8; i++) {
+                path[i] = rnd.nextInt(10);
+                key = key * 10 + path[i];
+            }
+            Assert.assertEquals(mdd.exists(path), set.contains(key));
+        }
+        for (int t = 0; t < tuples.nbTuples(); t++) {
+            Assert.assertTrue(mdd.exists(tuples.get(t)));
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testReduced() {
+        // all tuples over 6 variables: one node per layer
+        Model model = new Model();
+        IntVar[] vars = model.intVarArray("X", 6, 0, 9, false);
+        Tuples tuples = new Tuples();
+        int[] pow = {100_000, 10_000, 1_000, 100, 10, 1};
+        tuples.add(IntStream.range(0, 6_000_000).map(i -> (i / 6) / pow[i % 6] % 10), 6);
+        MultivaluedDecisionDiagram mdd = new MultivaluedDecisionDiagram(vars, tuples);
+        Assert.assertEquals(mdd.getDiagram().length, 60);
+        Assert.assertTrue(mdd.exists(9, 0, 9, 0, 9, 0));
+        model.mddc(vars, mdd).post();
+        Assert.assertTrue(model.getSolver().solve());
+    }
 }
@@ -0,0 +1,104 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.util.objects.graphs;
+
+import org.chocosolver.util.graphOperations.connectivity.StrongConnectivityFinder;
+import org.chocosolver.util.graphOperations.dominance.AbstractLengauerTarjanDominatorsFinder;
+import org.chocosolver.util.graphOperations.dominance.AlphaDominatorsFinder;
+import org.chocosolver.util.graphOperations.dominance.SimpleDominatorsFinder;
+import org.chocosolver.util.objects.setDataStructures.SetType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class CompactDirectedGraphTest {
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testAdjacency() {
+        CompactDirectedGraph g = new CompactDirectedGraph(4, 1);
+        g.addArc(2, 0);
+        g.addArc(0, 1);
+        g.addArc(2, 3);
+        g.addArc(0, 3);
+        Assert.assertEquals(g.getNbArcs(), 4);
+        Assert.assertEquals(g.getNbSuccOf(0), 2);
+        Assert.assertEquals(g.getNbSuccOf(1), 0);
+        Assert.assertEquals(g.getNbPredOf(3), 2);
+        int[] st = g.getSuccStarts();
+        int[] s = g.getSuccs();
+        Assert.assertEquals(new int[]{s[st[0]], s[st[0] + 1]}, new int[]{1, 3});
+        Assert.assertEquals(new int[]{s[st[2]], s[st[2] + 1]}, new int[]{0, 3});
+        int[] pt = g.getPredStarts();
+        int[] p = g.getPreds();
+        Assert.assertEquals(new int[]{p[pt[3]], p[pt[3] + 1]}, new int[]{2, 0});
+        g.clear();
+        g.addArc(1, 2);
+        Assert.assertEquals(g.getNbSuccOf(0), 0);
+        Assert.assertEquals(g.getNbSuccOf(1), 1);
+        Assert.assertEquals(g.getNbPredOf(2), 1);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSameAsDirectedGraph() {
+        Random rnd = new Random(0);
+        for (int k = 0; k < 200; k++) {
+            int n = 2 + rnd.nextInt(30);
+            double d = rnd.nextDouble() * 0.3;
+            DirectedGraph dg = new DirectedGraph(n, SetType.BITSET, true);
+            CompactDirectedGraph cg = new CompactDirectedGraph(n, n);
+            // a root reaching all nodes
+            for (int i = 1; i < n; i++) {
+                int j = rnd.nextInt(i);
+                dg.addArc(j, i);
+                cg.addArc(j, i);
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (i != j && rnd.nextDouble() < d && dg.addArc(i, j)) {
+                        cg.addArc(i, j);
+                    }
+                }
+            }
+            StrongConnectivityFinder s1 = new StrongConnectivityFinder(dg);
+            StrongConnectivityFinder s2 = new StrongConnectivityFinder(cg);
+            s1.findAllSCC();
+            s2.findAllSCC();
+            Assert.assertEquals(s2.getNbSCC(), s1.getNbSCC());
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    Assert.assertEquals(s2.getNodesSCC()[i] == s2.getNodesSCC()[j],
+                            s1.getNodesSCC()[i] == s1.getNodesSCC()[j]);
+                }
+            }
+            AbstractLengauerTarjanDominatorsFinder d1 = new SimpleDominatorsFinder(0, dg);
+            AbstractLengauerTarjanDominatorsFinder d2 = rnd.nextBoolean() ?
+                    new SimpleDominatorsFinder(0, cg) : new AlphaDominatorsFinder(0, cg);
+            Assert.assertTrue(d1.findDominators());
+            Assert.assertTrue(d2.findDominators());
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals(d2.getImmediateDominatorsOf(i), d1.getImmediateDominatorsOf(i));
+                for (int j = 0; j < n; j++) {
+                    Assert.assertEquals(d2.isDomminatedBy(i, j), d1.isDomminatedBy(i, j));
+                }
+            }
+            DirectedGraph tree = d2.getDominatorTree();
+            for (int i = 1; i < n; i++) {
+                Assert.assertEquals(tree.getPredOf(i).size(), 1);
+                Assert.assertTrue(tree.getPredOf(i).contains(d1.getImmediateDominatorsOf(i)));
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * This file is part of choco-solver, http://choco-solver.org/
+ *
+ * Copyright (c) 2018, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.util.tools;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.util.sort.IntComparator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.9
+ */
+public class ObjectGraphWriterTest {
+
+    private static final Node SENTINEL = new Node("sentinel");
+
+    private static class Node {
+        String name;
+        Node next;
+        int[] ints;
+        long[] longs;
+        double d;
+        boolean b;
+        char c;
+        Object[] refs;
+        List<Node> list = new ArrayList<>();
+        Map<Node, Integer> map = new HashMap<>();
+        TObjectIntHashMap<Node> trove = new TObjectIntHashMap<>();
+        IntComparator cmp;
+        Node other = SENTINEL;
+        Object external;
+        Thread.State state;
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+
+    private static Object writeAndRead(ObjectGraphWriter writer, Object o) throws IOException {
+        Path path = Files.createTempFile("graph", ".bin");
+        try {
+            writer.write(o).writeTo(path);
+            return new ObjectGraphReader(path).read();
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testGraph() throws IOException {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        a.next = b;
+        b.next = a;
+        a.ints = new int[]{1, 2, 3};
+        b.ints = a.ints;
+        a.longs = new long[]{Long.MIN_VALUE, 7L};
+        a.d = 1.5;
+        a.b = true;
+        a.c = 'z';
+        a.refs = new Object[]{b, "s", 3, 4L, 'c', null, a.ints, Node.class, int.class};
+        a.list.add(b);
+        a.list.add(a);
+        a.map.put(b, 2);
+        a.trove.put(a, 1);
+        a.trove.put(b, 2);
+        int k = 3;
+        a.cmp = (i, j) -> Integer.compare(i % k, j % k);
+        a.state = Thread.State.BLOCKED;
+        Node r = (Node) writeAndRead(new ObjectGraphWriter(), a);
+        Node rb = r.next;
+        Assert.assertNotSame(r, a);
+        Assert.assertEquals(r.name, "a");
+        Assert.assertEquals(rb.name, "b");
+        Assert.assertSame(rb.next, r);
+        Assert.assertEquals(r.ints, new int[]{1, 2, 3});
+        Assert.assertSame(rb.ints, r.ints);
+        Assert.assertEquals(r.longs, new long[]{Long.MIN_VALUE, 7L});
+        Assert.assertEquals(r.d, 1.5);
+        Assert.assertTrue(r.b);
+        Assert.assertEquals(r.c, 'z');
+        Assert.assertEquals(r.refs, new Object[]{rb, "s", 3, 4L, 'c', null, r.ints, Node.class, int.class});
+        Assert.assertSame(r.refs[6], r.ints);
+        Assert.assertEquals(r.list, Arrays.asList(rb, r));
+        Assert.assertEquals(r.map.get(rb).intValue(), 2);
+        Assert.assertEquals(r.trove.get(r), 1);
+        Assert.assertEquals(r.trove.get(rb), 2);
+        Assert.assertEquals(r.cmp.compare(4, 2), -1);
+        Assert.assertSame(r.other, SENTINEL);
+        Assert.assertSame(r.state, Thread.State.BLOCKED);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testLargeArrays() throws IOException {
+        Random rnd = new Random(0);
+        Object[] arrays = new Object[6];
+        for (int i = 0; i < arrays.length; i++) {
+            int[] a = new int[100_000 + i];
+            for (int j = 0; j < a.length; j++) {
+                a[j] = rnd.nextInt();
+            }
+            // byte arrays of odd length break alignment
+            arrays[i] = i % 2 == 0 ? a : new byte[]{1, 2, 3};
+        }
+        Object[] r = (Object[]) writeAndRead(new ObjectGraphWriter(), arrays);
+        for (int i = 0; i < arrays.length; i++) {
+            if (i % 2 == 0) {
+                Assert.assertEquals((int[]) r[i], (int[]) arrays[i]);
+            } else {
+                Assert.assertEquals((byte[]) r[i], (byte[]) arrays[i]);
+            }
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testExclude() throws IOException {
+        Node a = new Node("a");
+        Object ext = new Object();
+        a.external = ext;
+        Path path = Files.createTempFile("graph", ".bin");
+        try {
+            new ObjectGraphWriter().exclude(ext).write(a).writeTo(path);
+            ObjectGraphReader reader = new ObjectGraphReader(path);
+            Node r = (Node) reader.read();
+            Assert.assertNull(r.external);
+            reader.bind(0, "bound");
+            Assert.assertEquals(r.external, "bound");
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static class Token implements java.io.Serializable {
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSerializedJDK() throws IOException {
+        BitSet bits = new BitSet();
+        bits.set(3);
+        bits.set(70);
+        Object[] r = (Object[]) writeAndRead(new ObjectGraphWriter(), new Object[]{bits, new Random(0)});
+        Assert.assertEquals(r[0], bits);
+        Assert.assertEquals(((Random) r[1]).nextInt(), new Random(0).nextInt());
+    }
+
+    @Test(groups = "1s", timeOut = 60000, expectedExceptions = SolverException.class)
+    public void testSerializedNonJDK() throws IOException {
+        // serialized objects can only reference classes of the JDK on reading
+        writeAndRead(new ObjectGraphWriter(), new java.util.concurrent.atomic.AtomicReference<>(new Token()));
+    }
+
+    @Test(groups = "1s", timeOut = 60000, expectedExceptions = SolverException.class)
+    public void testNonSerializableLambda() {
+        int k = 2;
+        IntUnaryOperator op = i -> i * k;
+        new ObjectGraphWriter().write(new Object[]{op});
+    }
+}